@@ -0,0 +1,103 @@
+package br.com.infnet.banco.benchmark;
+
+import br.com.infnet.banco.dto.SaldoDeConta;
+import br.com.infnet.banco.entity.Titular;
+import br.com.infnet.banco.memoria.ContaServiceEmMemoria;
+import br.com.infnet.banco.service.ContaService;
+import br.com.infnet.banco.service.OperacoesConta;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência da primeira página (20 contas) da busca por titular com 1M contas:
+ * <ul>
+ *   <li>{@code indice}: {@link ContaService}, pelo índice de
+ *       {@code titular_minusculo};</li>
+ *   <li>{@code varredura}: as mesmas buscas com {@code lower(titular)} na
+ *       consulta, que o índice não cobre: varre a tabela inteira;</li>
+ *   <li>{@code memoria}: {@link ContaServiceEmMemoria}, pela skip list de
+ *       titulares.</li>
+ * </ul>
+ * O prefixo {@code "titular 9999"} casa com 111 contas; o titular exato, com uma.
+ * O motor em memória sobe num segundo contexto sobre o mesmo H2 já populado.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BuscaPorTitularBenchmark {
+
+    private static final int PAGINA = 20;
+    private static final String PREFIXO = "titular 9999";
+    private static final String EXATO = "Titular 777777";
+    // sem reaproveitar o resultado da mesma consulta com a tabela parada (ver RelatorioBenchmark)
+    private static final String URL = "jdbc:h2:mem:busca;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE";
+
+    @Param({"indice", "varredura", "memoria"})
+    public String variante;
+
+    @Param({"1000000"})
+    public int linhas;
+
+    private ConfigurableApplicationContext contexto;
+    private ConfigurableApplicationContext contextoMemoria;
+    private OperacoesConta operacoes;
+    private EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = ContextoBenchmark.iniciar("h2", "banco.metricas.habilitadas=false",
+                "spring.datasource.url=" + URL);
+        ContextoBenchmark.popular(contexto, linhas);
+        operacoes = contexto.getBean(ContaService.class);
+        if (variante.equals("memoria")) {
+            // carrega as contas já gravadas; o data.sql não roda de novo
+            contextoMemoria = ContextoBenchmark.iniciar("h2,memoria", "banco.metricas.habilitadas=false",
+                    "spring.datasource.url=" + URL, "spring.sql.init.mode=never",
+                    "banco.memoria.intervalo-flush-ms=0");
+            operacoes = contextoMemoria.getBean(ContaServiceEmMemoria.class);
+        }
+        entityManager = contexto.getBean(EntityManagerFactory.class).createEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        entityManager.close();
+        if (contextoMemoria != null) {
+            contextoMemoria.close();
+        }
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<SaldoDeConta> prefixo() {
+        if (variante.equals("varredura")) {
+            return varredura("lower(c.titular) like :valor order by lower(c.titular), c.id",
+                    Titular.padraoDePrefixo(PREFIXO));
+        }
+        return operacoes.buscarPorPrefixoDoTitular(PREFIXO, null, PAGINA);
+    }
+
+    @Benchmark
+    public List<SaldoDeConta> exato() {
+        if (variante.equals("varredura")) {
+            return varredura("lower(c.titular) = :valor order by c.id", Titular.normalizar(EXATO));
+        }
+        return operacoes.buscarPorTitular(EXATO, 0, PAGINA);
+    }
+
+    private List<SaldoDeConta> varredura(String condicao, String valor) {
+        return entityManager.createQuery("select new br.com.infnet.banco.dto.SaldoDeConta(c.id, c.titular, c.saldo)"
+                        + " from Conta c where " + condicao, SaldoDeConta.class)
+                .setParameter("valor", valor)
+                .setMaxResults(PAGINA)
+                .getResultList();
+    }
+}
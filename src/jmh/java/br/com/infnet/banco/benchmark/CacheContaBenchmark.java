@@ -0,0 +1,59 @@
+package br.com.infnet.banco.benchmark;
+
+import br.com.infnet.banco.cache.ContaCache;
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.service.ContaService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência de {@link ContaService#buscarPorId} com ids sorteados por Zipf,
+ * com o cache desligado ({@code tamanhoCache=0}) e ligado. O cache de
+ * segundo nível do Hibernate fica desligado (ver {@link SegundoNivelBenchmark}).
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheContaBenchmark {
+
+    @Param({"0", "1000"})
+    public int tamanhoCache;
+
+    @Param({"100000"})
+    public int linhas;
+
+    @Param({"1.1"})
+    public double expoenteZipf;
+
+    private ConfigurableApplicationContext contexto;
+    private ContaService contaService;
+    private GeradorZipf zipf;
+    private long menorId;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar("h2", "banco.cache.tamanho-maximo=" + tamanhoCache,
+                "banco.cache.segundo-nivel=false");
+        contaService = contexto.getBean(ContaService.class);
+        ContextoBenchmark.popular(contexto, linhas);
+        menorId = ContextoBenchmark.faixaDeIds(contexto)[0];
+        zipf = new GeradorZipf(linhas, expoenteZipf);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        ContaCache.Estatisticas estatisticas = contexto.getBean(ContaCache.class).estatisticas();
+        System.out.printf("%ncache: %s, taxa de acerto %.3f%n", estatisticas, estatisticas.taxaDeAcerto());
+        contexto.close();
+    }
+
+    @Benchmark
+    public Conta buscarPorIdZipf() {
+        return contaService.buscarPorId(menorId + zipf.proximo());
+    }
+}
@@ -0,0 +1,105 @@
+package br.com.infnet.banco.benchmark;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.service.ContaService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Linha de base do custo por operação do {@link ContaService}.
+ *
+ * <p>Mede vazão e latência (p50/p99 pelo modo SampleTime) de criar, buscarPorId,
+ * alterarSaldo, excluir e buscarTodas (e da listagem por cursor, percorrerTodas)
+ * com 1, 10 e 1M linhas pré-carregadas.
+ * O perfil padrão é o H2; com um MySQL local disponível, rode também com
+ * {@code -p perfil=h2,mysql}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContaServiceBenchmark {
+
+    @Param({"h2"})
+    public String perfil;
+
+    @Param({"1", "10", "1000000"})
+    public int linhas;
+
+    private ConfigurableApplicationContext contexto;
+    private ContaService contaService;
+    private long menorId;
+    private long maiorId;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar(perfil);
+        contaService = contexto.getBean(ContaService.class);
+        ContextoBenchmark.popular(contexto, linhas);
+        long[] faixa = ContextoBenchmark.faixaDeIds(contexto);
+        menorId = faixa[0];
+        maiorId = faixa[1];
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    /**
+     * Cria, fora da medição, a conta que será excluída em cada invocação.
+     */
+    @State(Scope.Thread)
+    public static class ContaParaExcluir {
+        long id;
+
+        @Setup(Level.Invocation)
+        public void preparar(ContaServiceBenchmark benchmark) {
+            id = benchmark.contaService.criar("Excluir", BigDecimal.TEN).getId();
+        }
+    }
+
+    @Benchmark
+    public Conta criar() {
+        return contaService.criar("Benchmark", new BigDecimal("150.00"));
+    }
+
+    @Benchmark
+    public Conta buscarPorId() {
+        return contaService.buscarPorId(idAleatorio());
+    }
+
+    @Benchmark
+    public Conta alterarSaldo() {
+        long centavos = ThreadLocalRandom.current().nextLong(1, 1_000_000);
+        return contaService.alterarSaldo(idAleatorio(), BigDecimal.valueOf(centavos, 2));
+    }
+
+    @Benchmark
+    public void excluir(ContaParaExcluir conta) {
+        contaService.excluir(conta.id);
+    }
+
+    @Benchmark
+    public List<Conta> buscarTodas() {
+        return contaService.buscarTodas();
+    }
+
+    // mesma listagem por cursor somente leitura, sem materializar a lista
+    @Benchmark
+    public void percorrerTodas(Blackhole blackhole) {
+        contaService.percorrerTodas(blackhole::consume);
+    }
+
+    private long idAleatorio() {
+        return ThreadLocalRandom.current().nextLong(menorId, maiorId + 1);
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.infnet.banco.benchmark;
+
+import br.com.infnet.banco.dto.NovaConta;
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.exception.OperacaoInvalidaException;
+import br.com.infnet.banco.service.ContaService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão de {@link ContaService#creditar} com várias threads disputando poucas
+ * contas "quentes" (lock otimista + retentativa). Operações que esgotam as
+ * tentativas são consumidas pelo Blackhole em vez de abortar a medição.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ContencaoBenchmark {
+
+    private static final BigDecimal CENTAVO = new BigDecimal("0.01");
+
+    @Param({"1", "4", "16"})
+    public int contasQuentes;
+
+    private ConfigurableApplicationContext contexto;
+    private ContaService contaService;
+    private long menorId;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar("h2");
+        contaService = contexto.getBean(ContaService.class);
+        ContextoBenchmark.popular(contexto, 0);
+        List<NovaConta> contas = new ArrayList<>();
+        for (int i = 0; i < contasQuentes; i++) {
+            contas.add(new NovaConta("Quente " + i, new BigDecimal("1000.00")));
+        }
+        contaService.criarEmLote(contas);
+        menorId = ContextoBenchmark.faixaDeIds(contexto)[0];
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public void creditarContaQuente(Blackhole blackhole) {
+        long id = menorId + ThreadLocalRandom.current().nextInt(contasQuentes);
+        try {
+            Conta conta = contaService.creditar(id, CENTAVO);
+            blackhole.consume(conta);
+        } catch (OperacaoInvalidaException e) {
+            blackhole.consume(e);
+        }
+    }
+}
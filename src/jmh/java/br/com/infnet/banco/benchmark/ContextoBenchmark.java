@@ -0,0 +1,72 @@
+package br.com.infnet.banco.benchmark;
+
+import br.com.infnet.banco.CrudTp1Application;
+import br.com.infnet.banco.dto.NovaConta;
+import br.com.infnet.banco.service.ContaService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilitários compartilhados pelos benchmarks: sobe o contexto Spring
+ * uma única vez por trial e popula a tabela conta em lotes
+ * ({@link ContaService#criarEmLote}), fora do trecho medido.
+ */
+final class ContextoBenchmark {
+
+    private static final int TAMANHO_LOTE_CARGA = 50_000;
+
+    private ContextoBenchmark() {
+    }
+
+    /**
+     * Sobe a aplicação sem o CLI; {@code perfil} aceita vários separados por
+     * vírgula (ex.: {@code h2,memoria}). As propriedades ({@code chave=valor}) vão como
+     * argumentos de linha de comando para prevalecerem sobre os arquivos do perfil.
+     */
+    static ConfigurableApplicationContext iniciar(String perfil, String... propriedades) {
+        List<String> args = new ArrayList<>(List.of(
+                "skip-cli",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"
+        ));
+        for (String propriedade : propriedades) {
+            args.add("--" + propriedade);
+        }
+        return new SpringApplicationBuilder(CrudTp1Application.class)
+                .profiles(perfil.split(","))
+                .run(args.toArray(String[]::new));
+    }
+
+    /**
+     * Remove todas as contas e insere exatamente {@code linhas} contas novas.
+     */
+    static void popular(ConfigurableApplicationContext contexto, int linhas) {
+        contexto.getBean(JdbcTemplate.class).update("DELETE FROM conta");
+        ContaService contaService = contexto.getBean(ContaService.class);
+
+        List<NovaConta> lote = new ArrayList<>(TAMANHO_LOTE_CARGA);
+        for (int i = 1; i <= linhas; i++) {
+            lote.add(new NovaConta("Titular " + i, BigDecimal.valueOf(100_00L + i, 2)));
+            if (lote.size() == TAMANHO_LOTE_CARGA || i == linhas) {
+                contaService.criarEmLote(lote);
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Retorna {@code [menorId, maiorId]} das contas existentes.
+     */
+    static long[] faixaDeIds(ConfigurableApplicationContext contexto) {
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        return jdbc.queryForObject(
+                "SELECT MIN(id), MAX(id) FROM conta",
+                (rs, n) -> new long[]{rs.getLong(1), rs.getLong(2)}
+        );
+    }
+}
@@ -0,0 +1,59 @@
+package br.com.infnet.banco.benchmark;
+
+import br.com.infnet.banco.dto.NovaConta;
+import br.com.infnet.banco.service.ContaService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Criação de N contas no H2: laço de {@link ContaService#criar} (um INSERT
+ * por chamada) contra {@link ContaService#criarEmLote} (batch JDBC).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CriacaoEmLoteBenchmark {
+
+    @Param({"1000", "10000"})
+    public int quantidade;
+
+    private ConfigurableApplicationContext contexto;
+    private ContaService contaService;
+    private List<NovaConta> novasContas;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar("h2");
+        contaService = contexto.getBean(ContaService.class);
+        novasContas = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            novasContas.add(new NovaConta("Lote " + i, new BigDecimal("10.00")));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public int criarUmaAUma() {
+        for (NovaConta nova : novasContas) {
+            contaService.criar(nova.titular(), nova.saldoInicial());
+        }
+        return novasContas.size();
+    }
+
+    @Benchmark
+    public int criarEmLote() {
+        return contaService.criarEmLote(novasContas);
+    }
+}
@@ -0,0 +1,71 @@
+package br.com.infnet.banco.benchmark;
+
+import br.com.infnet.banco.diario.DiarioEmArquivo;
+import br.com.infnet.banco.diario.TipoEvento;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registros por segundo: diário em arquivo mapeado (com e sem espera pelo
+ * fsync em grupo) contra um INSERT de {@link RegistroAuditoria} pelo
+ * repositório Spring Data no H2. Rode com {@code -t 1,4} para ver o efeito
+ * do group commit com várias threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DiarioBenchmark {
+
+    @Param({"diario", "diario-sincrono", "jpa"})
+    public String destino;
+
+    private Path diretorio;
+    private DiarioEmArquivo diario;
+    private ConfigurableApplicationContext contexto;
+    private RegistroAuditoriaRepository repositorio;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws IOException {
+        if ("jpa".equals(destino)) {
+            contexto = ContextoBenchmark.iniciar("h2");
+            repositorio = contexto.getBean(RegistroAuditoriaRepository.class);
+        } else {
+            diretorio = Files.createTempDirectory("diario-benchmark");
+            diario = new DiarioEmArquivo(diretorio, 64 << 20, "diario-sincrono".equals(destino), 10);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws IOException {
+        if (contexto != null) {
+            contexto.close();
+        }
+        if (diario != null) {
+            diario.close();
+            FileSystemUtils.deleteRecursively(diretorio);
+        }
+    }
+
+    @Benchmark
+    public long registrar() {
+        long contaId = ThreadLocalRandom.current().nextLong(1, 1_000_000);
+        if (repositorio != null) {
+            return repositorio.save(new RegistroAuditoria("CREDITO", contaId, 100, 10_000)).getId();
+        }
+        long sequencia = diario.registrar(TipoEvento.CREDITO, contaId, 0, 100, 10_000, null);
+        if (diario.sincrono()) {
+            diario.aguardarDurabilidade(sequencia);
+        }
+        return sequencia;
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.infnet.banco.benchmark;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.exception.SaldoInsuficienteException;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o caminho antigo em {@link BigDecimal} com a aritmética em centavos
+ * de {@link Conta}. Rode com {@code -prof gc} e compare {@code gc.alloc.rate.norm}
+ * (bytes alocados por operação).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DinheiroBenchmark {
+
+    private static final BigDecimal VALOR = new BigDecimal("12.34");
+    private static final long VALOR_CENTAVOS = 1234;
+
+    private BigDecimal saldoBigDecimal;
+    private Conta conta;
+
+    @Setup(Level.Iteration)
+    public void preparar() {
+        saldoBigDecimal = new BigDecimal("1000.00").setScale(2);
+        conta = new Conta("Benchmark", new BigDecimal("1000.00"));
+    }
+
+    // replica o que Conta fazia antes: add/compareTo/subtract em BigDecimal
+    @Benchmark
+    public BigDecimal bigDecimalCreditarEDebitar() {
+        saldoBigDecimal = saldoBigDecimal.add(VALOR);
+        if (VALOR.compareTo(saldoBigDecimal) > 0) {
+            throw new SaldoInsuficienteException();
+        }
+        saldoBigDecimal = saldoBigDecimal.subtract(VALOR);
+        return saldoBigDecimal;
+    }
+
+    @Benchmark
+    public long centavosCreditarEDebitar() {
+        conta.creditarCentavos(VALOR_CENTAVOS);
+        conta.debitarCentavos(VALOR_CENTAVOS);
+        return conta.getSaldoEmCentavos();
+    }
+
+    // API pública em BigDecimal: converte uma vez na borda e opera em centavos
+    @Benchmark
+    public long contaCreditarEDebitarBigDecimal() {
+        conta.creditar(VALOR);
+        conta.debitar(VALOR);
+        return conta.getSaldoEmCentavos();
+    }
+}
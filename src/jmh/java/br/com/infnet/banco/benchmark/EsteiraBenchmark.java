@@ -0,0 +1,73 @@
+package br.com.infnet.banco.benchmark;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.esteira.EsteiraDeSaldos;
+import br.com.infnet.banco.exception.OperacaoInvalidaException;
+import br.com.infnet.banco.service.ContaService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Crédito pelo caminho síncrono ({@link ContaService#creditar}, uma
+ * transação por operação com lock otimista) contra a {@link EsteiraDeSaldos}
+ * (escritor único, uma transação por lote), com 8 threads enviando. Mede
+ * vazão e latência (p50/p99 pelo modo SampleTime) até o commit: na esteira
+ * cada thread espera o futuro do seu comando. Com poucas contas o caminho
+ * síncrono gasta tentativas em conflitos que a esteira não tem.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class EsteiraBenchmark {
+
+    private static final BigDecimal CENTAVO = new BigDecimal("0.01");
+
+    @Param({"sincrono", "esteira"})
+    public String caminho;
+
+    @Param({"16", "10000"})
+    public int contas;
+
+    private ConfigurableApplicationContext contexto;
+    private ContaService contaService;
+    private EsteiraDeSaldos esteira;
+    private long menorId;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar("h2", "banco.esteira.habilitada=true");
+        contaService = contexto.getBean(ContaService.class);
+        esteira = contexto.getBean(EsteiraDeSaldos.class);
+        ContextoBenchmark.popular(contexto, contas);
+        menorId = ContextoBenchmark.faixaDeIds(contexto)[0];
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public void creditar(Blackhole blackhole) {
+        long id = menorId + ThreadLocalRandom.current().nextInt(contas);
+        if ("esteira".equals(caminho)) {
+            blackhole.consume(esteira.creditar(id, CENTAVO).join());
+            return;
+        }
+        try {
+            Conta conta = contaService.creditar(id, CENTAVO);
+            blackhole.consume(conta);
+        } catch (OperacaoInvalidaException e) {
+            blackhole.consume(e);
+        }
+    }
+}
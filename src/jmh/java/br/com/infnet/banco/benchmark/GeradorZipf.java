@@ -0,0 +1,30 @@
+package br.com.infnet.banco.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorteia posições em [0, n) com distribuição de Zipf: poucas contas
+ * concentram a maior parte dos acessos, como acontece com contas "quentes".
+ */
+final class GeradorZipf {
+
+    private final double[] acumulada;
+
+    GeradorZipf(int n, double expoente) {
+        acumulada = new double[n];
+        double soma = 0;
+        for (int i = 0; i < n; i++) {
+            soma += 1.0 / Math.pow(i + 1, expoente);
+            acumulada[i] = soma;
+        }
+        for (int i = 0; i < n; i++) {
+            acumulada[i] /= soma;
+        }
+    }
+
+    int proximo() {
+        int posicao = Arrays.binarySearch(acumulada, ThreadLocalRandom.current().nextDouble());
+        return posicao >= 0 ? posicao : Math.min(-posicao - 1, acumulada.length - 1);
+    }
+}
@@ -0,0 +1,93 @@
+package br.com.infnet.banco.benchmark;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.saida.RenderizadorDeContas;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Linhas por segundo da listagem de 1M contas: o {@code printf} antigo de
+ * {@code imprimirContasFormatadas} contra o {@link RenderizadorDeContas} nos
+ * três formatos. As contas ficam numa lista (só a renderização é medida) e a
+ * saída vai para {@code /dev/null} por uma {@link PrintStream} com autoflush,
+ * como o {@code System.out}: o custo de cada flush (chamada ao sistema) conta.
+ *
+ * <p>Com {@code @OperationsPerInvocation}, ops/s = linhas/s.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+@OperationsPerInvocation(ListagemBenchmark.LINHAS)
+public class ListagemBenchmark {
+
+    static final int LINHAS = 1_000_000;
+
+    @Param({"printf", "tabela", "csv", "jsonl"})
+    public String formato;
+
+    private final List<Conta> contas = new ArrayList<>(LINHAS);
+    private PrintStream saida;
+
+    @Setup(Level.Trial)
+    public void preparar() throws FileNotFoundException {
+        for (long id = 1; id <= LINHAS; id++) {
+            Conta conta = new Conta();
+            conta.setId(id);
+            conta.setTitular("Titular " + id);
+            conta.setSaldoEmCentavos(id * 137 % 10_000_000);
+            contas.add(conta);
+        }
+        File nulo = new File("/dev/null");
+        OutputStream destino = nulo.exists() ? new FileOutputStream(nulo) : OutputStream.nullOutputStream();
+        saida = new PrintStream(new BufferedOutputStream(destino, 8192), true, StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        saida.close();
+    }
+
+    @Benchmark
+    public long listar() {
+        if ("printf".equals(formato)) {
+            return printf();
+        }
+        RenderizadorDeContas renderizador =
+                RenderizadorDeContas.para(RenderizadorDeContas.Formato.de(formato), saida);
+        contas.forEach(renderizador);
+        return renderizador.terminar();
+    }
+
+    // o que imprimirContasFormatadas fazia antes do RenderizadorDeContas
+    private long printf() {
+        long total = 0;
+        for (Conta conta : contas) {
+            if (total++ == 0) {
+                saida.println("╭──────┬──────────────────────┬─────────────────╮");
+                saida.println("│ ID   │ Titular              │ Saldo           │");
+                saida.println("├──────┼──────────────────────┼─────────────────┤");
+            }
+            saida.printf(
+                    "│ %-4d │ %-20s │ R$ %-12s │%n",
+                    conta.getId(),
+                    conta.getTitular(),
+                    String.format("%.2f", conta.getSaldo())
+            );
+        }
+        saida.println("╰──────┴──────────────────────┴─────────────────╯");
+        return total;
+    }
+}
@@ -0,0 +1,69 @@
+package br.com.infnet.banco.benchmark;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.service.ContaService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo das métricas no {@link ContaService}: as mesmas operações com
+ * {@code banco.metricas.habilitadas} desligado e ligado (cronômetro por
+ * método e estatísticas do Hibernate). {@code buscarPorId} com todas as
+ * contas no cache é o caso em que a instrumentação mais pesa; {@code creditar}
+ * passa pelo banco.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricasBenchmark {
+
+    private static final BigDecimal CENTAVO = new BigDecimal("0.01");
+
+    @Param({"false", "true"})
+    public boolean metricas;
+
+    @Param({"1000"})
+    public int linhas;
+
+    private ConfigurableApplicationContext contexto;
+    private ContaService contaService;
+    private long menorId;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar("h2", "banco.metricas.habilitadas=" + metricas);
+        contaService = contexto.getBean(ContaService.class);
+        ContextoBenchmark.popular(contexto, linhas);
+        menorId = ContextoBenchmark.faixaDeIds(contexto)[0];
+        // cache com todas as contas antes da medição
+        for (int i = 0; i < linhas; i++) {
+            contaService.buscarPorId(menorId + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Conta buscarPorIdEmCache() {
+        return contaService.buscarPorId(idAleatorio());
+    }
+
+    @Benchmark
+    public Conta creditar() {
+        return contaService.creditar(idAleatorio(), CENTAVO);
+    }
+
+    private long idAleatorio() {
+        return menorId + ThreadLocalRandom.current().nextInt(linhas);
+    }
+}
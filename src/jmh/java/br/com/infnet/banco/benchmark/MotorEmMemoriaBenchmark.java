@@ -0,0 +1,99 @@
+package br.com.infnet.banco.benchmark;
+
+import br.com.infnet.banco.exception.SaldoInsuficienteException;
+import br.com.infnet.banco.service.OperacoesConta;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão de crédito, consulta e transferência no {@code ContaService} (JPA)
+ * e no motor em memória, sobre contas uniformemente sorteadas.
+ *
+ * <p>Para comparar de 1 a N threads rode o {@link #main} (1, 2, 4 e 8
+ * threads) ou passe {@code -t} ao JMH:
+ * {@code -Djmh.args="MotorEmMemoriaBenchmark -t 4"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MotorEmMemoriaBenchmark {
+
+    private static final BigDecimal CENTAVO = new BigDecimal("0.01");
+
+    @Param({"jpa", "memoria"})
+    public String motor;
+
+    @Param({"10000"})
+    public int contas;
+
+    private ConfigurableApplicationContext contexto;
+    private OperacoesConta operacoes;
+    private long menorId;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        // popula antes de subir o motor, que carrega as contas na inicialização
+        try (ConfigurableApplicationContext carga = ContextoBenchmark.iniciar("h2")) {
+            ContextoBenchmark.popular(carga, contas);
+        }
+        String perfis = "memoria".equals(motor) ? "h2,memoria" : "h2";
+        contexto = ContextoBenchmark.iniciar(perfis, "spring.sql.init.mode=never");
+        operacoes = contexto.getBean(OperacoesConta.class);
+        menorId = ContextoBenchmark.faixaDeIds(contexto)[0];
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    private long sortearId() {
+        return menorId + ThreadLocalRandom.current().nextInt(contas);
+    }
+
+    @Benchmark
+    public void creditar(Blackhole blackhole) {
+        blackhole.consume(operacoes.creditar(sortearId(), CENTAVO));
+    }
+
+    @Benchmark
+    public void buscarPorId(Blackhole blackhole) {
+        blackhole.consume(operacoes.buscarPorId(sortearId()));
+    }
+
+    @Benchmark
+    public void transferir(Blackhole blackhole) {
+        long origem = sortearId();
+        long destino = sortearId();
+        if (origem == destino) {
+            return;
+        }
+        try {
+            operacoes.transferir(origem, destino, CENTAVO);
+        } catch (SaldoInsuficienteException e) {
+            blackhole.consume(e);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 2, 4, 8}) {
+            Options opcoes = new OptionsBuilder()
+                    .include(MotorEmMemoriaBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(opcoes).run();
+        }
+    }
+}
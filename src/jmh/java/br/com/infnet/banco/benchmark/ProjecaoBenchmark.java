@@ -0,0 +1,81 @@
+package br.com.infnet.banco.benchmark;
+
+import br.com.infnet.banco.dto.SaldoDeConta;
+import br.com.infnet.banco.service.ContaService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por leitura das entidades contra as projeções {@link SaldoDeConta}:
+ * <ul>
+ *   <li>{@code porId}: {@link ContaService#buscarPorId} (caches desligados) vs.
+ *       {@link ContaService#buscarSaldoDeConta}, id sorteado;</li>
+ *   <li>{@code pagina}: {@link ContaService#buscarPagina} vs.
+ *       {@link ContaService#buscarPaginaDeSaldos}, 1.000 contas a partir de um
+ *       id sorteado;</li>
+ *   <li>{@code todas}: {@link ContaService#buscarTodas} vs.
+ *       {@link ContaService#buscarTodosOsSaldos}.</li>
+ * </ul>
+ * Rode com {@code -prof gc} para ver os bytes alocados por operação
+ * ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjecaoBenchmark {
+
+    private static final int PAGINA = 1_000;
+
+    @Param({"entidade", "projecao"})
+    public String variante;
+
+    @Param({"100000"})
+    public int linhas;
+
+    private ConfigurableApplicationContext contexto;
+    private ContaService contaService;
+    private boolean projecao;
+    private long menorId;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        // sem cache (nem o de segundo nível): buscarPorId vai ao banco como a projeção
+        contexto = ContextoBenchmark.iniciar("h2", "banco.cache.tamanho-maximo=0",
+                "banco.cache.segundo-nivel=false", "banco.metricas.habilitadas=false");
+        contaService = contexto.getBean(ContaService.class);
+        ContextoBenchmark.popular(contexto, linhas);
+        menorId = ContextoBenchmark.faixaDeIds(contexto)[0];
+        projecao = variante.equals("projecao");
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Object porId() {
+        long id = menorId + ThreadLocalRandom.current().nextInt(linhas);
+        return projecao ? contaService.buscarSaldoDeConta(id) : contaService.buscarPorId(id);
+    }
+
+    @Benchmark
+    public List<?> pagina() {
+        long ultimoId = menorId - 1 + ThreadLocalRandom.current().nextInt(linhas - PAGINA);
+        return projecao
+                ? contaService.buscarPaginaDeSaldos(ultimoId, PAGINA)
+                : contaService.buscarPagina(ultimoId, PAGINA);
+    }
+
+    @Benchmark
+    public List<?> todas() {
+        return projecao ? contaService.buscarTodosOsSaldos() : contaService.buscarTodas();
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.infnet.banco.benchmark;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Linha de auditoria "à moda JPA", só para comparação no {@link DiarioBenchmark}:
+ * é a alternativa ao diário que gravaria uma entidade por operação.
+ */
+@Entity
+@Table(name = "auditoria_benchmark")
+@Data
+@NoArgsConstructor
+public class RegistroAuditoria {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "auditoria_seq")
+    @SequenceGenerator(name = "auditoria_seq", sequenceName = "auditoria_seq", allocationSize = 50)
+    private Long id;
+
+    private long instante;
+    private String tipo;
+    private long contaId;
+    private long referencia;
+    private long valorCentavos;
+    private long saldoCentavos;
+
+    public RegistroAuditoria(String tipo, long contaId, long valorCentavos, long saldoCentavos) {
+        this.instante = System.currentTimeMillis();
+        this.tipo = tipo;
+        this.contaId = contaId;
+        this.valorCentavos = valorCentavos;
+        this.saldoCentavos = saldoCentavos;
+    }
+}
@@ -0,0 +1,6 @@
+package br.com.infnet.banco.benchmark;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface RegistroAuditoriaRepository extends JpaRepository<RegistroAuditoria, Long> {
+}
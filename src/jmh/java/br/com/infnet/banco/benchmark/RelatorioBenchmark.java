@@ -0,0 +1,92 @@
+package br.com.infnet.banco.benchmark;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.relatorio.FaixasDeSaldo;
+import br.com.infnet.banco.relatorio.InstantaneoDeSaldos;
+import br.com.infnet.banco.relatorio.RelatorioDeSaldos;
+import br.com.infnet.banco.service.ContaService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo do relatório de saldos (resumo, faixas padrão e 10 maiores):
+ * <ul>
+ *   <li>{@code entidades}: o jeito anterior, {@code buscarTodas()} e uma
+ *       passada pelas {@link Conta} carregadas;</li>
+ *   <li>{@code banco}: {@link ContaService#relatorioDeSaldos}, agregados e
+ *       maiores calculados pelo H2;</li>
+ *   <li>{@code sequencial} e {@code paralelo}: o {@link InstantaneoDeSaldos}
+ *       já montado (caso do motor em memória), numa thread ou no pool comum.</li>
+ * </ul>
+ * As variantes com banco populam a tabela (1M linhas leva ~1 min; 10M pede
+ * {@code -jvmArgs -Xmx4g} e bem mais tempo); as do instantâneo geram os
+ * mesmos saldos direto nos arrays, sem subir o Spring.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RelatorioBenchmark {
+
+    private static final int MAIORES = 10;
+
+    @Param({"entidades", "banco", "sequencial", "paralelo"})
+    public String variante;
+
+    @Param({"1000000", "10000000"})
+    public int linhas;
+
+    private ConfigurableApplicationContext contexto;
+    private ContaService contaService;
+    private InstantaneoDeSaldos instantaneo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        if (variante.equals("entidades") || variante.equals("banco")) {
+            // com OPTIMIZE_REUSE_RESULTS (padrão) o H2 devolve o resultado guardado da mesma consulta
+            // enquanto a tabela não muda, e o banco "calcula" em microssegundos
+            contexto = ContextoBenchmark.iniciar("h2", "banco.metricas.habilitadas=false",
+                    "spring.datasource.url=jdbc:h2:mem:relatorio;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+            contaService = contexto.getBean(ContaService.class);
+            ContextoBenchmark.popular(contexto, linhas);
+        } else {
+            // mesmos titulares e saldos do ContextoBenchmark.popular
+            instantaneo = new InstantaneoDeSaldos(linhas);
+            for (int i = 1; i <= linhas; i++) {
+                instantaneo.adicionar(i, "Titular " + i, 100_00L + i);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        if (contexto != null) {
+            contexto.close();
+        }
+    }
+
+    @Benchmark
+    public RelatorioDeSaldos relatorio() {
+        return switch (variante) {
+            case "entidades" -> porEntidades();
+            case "banco" -> contaService.relatorioDeSaldos(MAIORES);
+            case "sequencial" -> instantaneo.relatorio(MAIORES, FaixasDeSaldo.LIMITES_PADRAO, false);
+            case "paralelo" -> instantaneo.relatorio(MAIORES, FaixasDeSaldo.LIMITES_PADRAO, true);
+            default -> throw new IllegalArgumentException(variante);
+        };
+    }
+
+    private RelatorioDeSaldos porEntidades() {
+        List<Conta> contas = contaService.buscarTodas();
+        InstantaneoDeSaldos copia = new InstantaneoDeSaldos(contas.size());
+        for (Conta conta : contas) {
+            copia.adicionar(conta.getId(), conta.getTitular(), conta.getSaldoEmCentavos());
+        }
+        return copia.relatorio(MAIORES, FaixasDeSaldo.LIMITES_PADRAO, false);
+    }
+}
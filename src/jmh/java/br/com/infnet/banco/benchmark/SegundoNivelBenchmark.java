@@ -0,0 +1,79 @@
+package br.com.infnet.banco.benchmark;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.service.ContaService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência de {@link ContaService#buscarPorId} repetido, com ids sorteados por
+ * Zipf (como em {@link CacheContaBenchmark}), em três variantes:
+ * <ul>
+ *   <li>{@code banco}: sem cache nenhum, um SELECT por chamada;</li>
+ *   <li>{@code segundo-nivel}: {@link br.com.infnet.banco.cache.ContaCache}
+ *       desligado, o Hibernate acha a conta na região {@code conta};</li>
+ *   <li>{@code conta-cache}: os dois ligados (configuração dos perfis).</li>
+ * </ul>
+ * No fim de cada trial imprime a taxa de acertos da região {@code conta}.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SegundoNivelBenchmark {
+
+    @Param({"banco", "segundo-nivel", "conta-cache"})
+    public String variante;
+
+    @Param({"100000"})
+    public int linhas;
+
+    @Param({"1.1"})
+    public double expoenteZipf;
+
+    private ConfigurableApplicationContext contexto;
+    private ContaService contaService;
+    private GeradorZipf zipf;
+    private long menorId;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = ContextoBenchmark.iniciar("h2",
+                "banco.cache.tamanho-maximo=" + (variante.equals("conta-cache") ? 10_000 : 0),
+                "banco.cache.segundo-nivel=" + !variante.equals("banco"));
+        contaService = contexto.getBean(ContaService.class);
+        ContextoBenchmark.popular(contexto, linhas);
+        menorId = ContextoBenchmark.faixaDeIds(contexto)[0];
+        zipf = new GeradorZipf(linhas, expoenteZipf);
+        estatisticas().clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        if (!variante.equals("banco")) {
+            CacheRegionStatistics regiao = estatisticas().getDomainDataRegionStatistics("conta");
+            long buscas = regiao.getHitCount() + regiao.getMissCount();
+            System.out.printf("%nregião conta: %d acertos, %d falhas, taxa de acerto %.3f%n",
+                    regiao.getHitCount(), regiao.getMissCount(),
+                    buscas == 0 ? Double.NaN : (double) regiao.getHitCount() / buscas);
+        }
+        contexto.close();
+    }
+
+    private Statistics estatisticas() {
+        return contexto.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Benchmark
+    public Conta buscarPorIdZipf() {
+        return contaService.buscarPorId(menorId + zipf.proximo());
+    }
+}
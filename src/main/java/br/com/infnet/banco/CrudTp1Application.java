@@ -1,35 +1,104 @@
 package br.com.infnet.banco;
 
+import br.com.infnet.banco.carga.GeradorDeCarga;
+import br.com.infnet.banco.dto.SaldoDeConta;
 import br.com.infnet.banco.entity.Conta;
 import br.com.infnet.banco.exception.ContaNaoEncontradaException;
-import br.com.infnet.banco.service.ContaService;
+import br.com.infnet.banco.exception.SaldoInsuficienteException;
+import br.com.infnet.banco.lote.ExecutorDeLote;
+import br.com.infnet.banco.migracao.MigracaoDeContas;
+import br.com.infnet.banco.saida.RenderizadorDeContas;
+import br.com.infnet.banco.service.OperacoesConta;
+import br.com.infnet.banco.servidor.ServidorDeContas;
+import org.springframework.aot.AotDetector;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.context.annotation.Lazy;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 
 @SpringBootApplication
+@ImportRuntimeHints(DicasDoExecutavelNativo.class)
 public class CrudTp1Application implements CommandLineRunner {
 
-    private final ContaService contaService;
+    private static final int TAMANHO_PAGINA_BUSCA = 20;
 
-    public CrudTp1Application(@org.springframework.context.annotation.Lazy ContaService contaService) {
+    private final OperacoesConta contaService;
+    private final ServidorDeContas servidor;
+    private final ExecutorDeLote executorDeLote;
+    private final MigracaoDeContas migracao;
+    private final GeradorDeCarga geradorDeCarga;
+
+    public CrudTp1Application(@Lazy OperacoesConta contaService,
+                              @Lazy ServidorDeContas servidor,
+                              @Lazy ExecutorDeLote executorDeLote,
+                              @Lazy MigracaoDeContas migracao,
+                              @Lazy GeradorDeCarga geradorDeCarga) {
         this.contaService = contaService;
+        this.servidor = servidor;
+        this.executorDeLote = executorDeLote;
+        this.migracao = migracao;
+        this.geradorDeCarga = geradorDeCarga;
     }
 
     public static void main(String[] args) {
-        System.setProperty("spring.profiles.active", "h2");
-        SpringApplication.run(CrudTp1Application.class, args);
+        // h2 por padrão; -Dspring.profiles.active=h2,memoria liga o motor em memória
+        // e h2,recuperacao restaura as contas do último instantâneo + diário na subida
+        // com spring.aot.enabled=true (build -Pinicio-rapido) ou no executável nativo (-Pnativo),
+        // os perfis do processamento AOT
+        if (System.getProperty("spring.profiles.active") == null) {
+            System.setProperty("spring.profiles.active",
+                    AotDetector.useGeneratedArtifacts() ? "h2,inicio-rapido" : "h2");
+        }
+        ConfigurableApplicationContext contexto = SpringApplication.run(CrudTp1Application.class, args);
+        // fim do CLI: threads de pools (ex.: a do bootstrap adiado do JPA) não seguram o processo
+        System.exit(SpringApplication.exit(contexto));
     }
 
     @Override
-    public void run(String... args) {
+    public void run(String... args) throws IOException, InterruptedException {
         // Verifica se o CLI deve ser executado (usado para desabilitar durante testes)
         if (args.length > 0 && "skip-cli".equals(args[0])) {
             return;
         }
+        // servidor HTTP local no lugar do menu; Ctrl+C encerra
+        if (args.length > 0 && "servidor".equals(args[0])) {
+            int porta = servidor.iniciar();
+            System.out.println("Servidor de contas em http://127.0.0.1:" + porta + "/contas");
+            System.out.println("Métricas em http://127.0.0.1:" + porta + "/metricas");
+            servidor.aguardarEncerramento();
+            return;
+        }
+        // comandos de um arquivo (ou da entrada padrão, com "-" ou sem arquivo), sem menu
+        if (args.length > 0 && "lote".equals(args[0])) {
+            executarLote(args.length > 1 ? args[1] : "-");
+            return;
+        }
+        // todas as contas na saída padrão (tabela, csv ou jsonl), sem menu
+        if (args.length > 0 && "listar".equals(args[0])) {
+            contaService.listar(RenderizadorDeContas.Formato.de(args.length > 1 ? args[1] : "tabela"), System.out);
+            return;
+        }
+        // tabela conta para/de arquivo colunar (migração entre perfis), sem menu
+        if (args.length > 1 && ("exportar".equals(args[0]) || "importar".equals(args[0]))) {
+            migrar(args[0], Path.of(args[1]));
+            return;
+        }
+        // vazão e latência por tamanho do pool JDBC (ex.: "carga 1,2,4,8"), sem menu
+        if (args.length > 0 && "carga".equals(args[0])) {
+            gerarCarga(args.length > 1 ? args[1] : null);
+            return;
+        }
 
         System.out.println("╭───────────────────────────────────────────────╮");
         System.out.println("│     Bem-vindo ao Sistema Bancário Becker!     │");
@@ -46,6 +115,43 @@ public class CrudTp1Application implements CommandLineRunner {
         }
     }
 
+    // resultados das consultas na saída padrão; erros e resumo na saída de erro
+    private void executarLote(String origem) throws IOException {
+        ExecutorDeLote.Resumo resumo;
+        if ("-".equals(origem)) {
+            resumo = executorDeLote.executar(System.in, System.out, System.err);
+        } else {
+            try (InputStream entrada = Files.newInputStream(Path.of(origem))) {
+                resumo = executorDeLote.executar(entrada, System.out, System.err);
+            }
+        }
+        System.err.printf("Lote: %,d comandos (%,d com erro) em %,d ms = %,.0f comandos/s%n",
+                resumo.comandos(), resumo.falhas(), resumo.duracao().toMillis(), resumo.comandosPorSegundo());
+    }
+
+    private void migrar(String operacao, Path arquivo) throws IOException {
+        MigracaoDeContas.Resumo resumo = "exportar".equals(operacao)
+                ? migracao.exportar(arquivo)
+                : migracao.importar(arquivo);
+        System.err.printf("%s: %,d contas, %,d bytes em %,d ms = %,.0f contas/s%n",
+                "exportar".equals(operacao) ? "Exportação" : "Importação",
+                resumo.contas(), resumo.bytes(), resumo.duracao().toMillis(), resumo.contasPorSegundo());
+    }
+
+    private void gerarCarga(String tamanhos) throws InterruptedException {
+        int[] sequencia = tamanhos == null ? null
+                : Arrays.stream(tamanhos.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+        List<GeradorDeCarga.Ponto> pontos = geradorDeCarga.executar(sequencia);
+        double maiorVazao = pontos.stream().mapToDouble(GeradorDeCarga.Ponto::operacoesPorSegundo).max().orElse(1);
+        System.out.println(" pool    operações/s    p50 ms    p99 ms    máx ms   falhas");
+        for (GeradorDeCarga.Ponto ponto : pontos) {
+            System.out.printf("%5d %14.0f %9.2f %9.2f %9.1f %8d  %s%n",
+                    ponto.tamanhoPool(), ponto.operacoesPorSegundo(), ponto.p50Ms(), ponto.p99Ms(),
+                    ponto.maximoMs(), ponto.falhas(),
+                    "#".repeat((int) Math.round(30 * ponto.operacoesPorSegundo() / maiorVazao)));
+        }
+    }
+
     private void exibirMenu() {
         System.out.println("╭───────────────────────────────────────────────╮");
         System.out.println("│ 1 - Listar contas                             │");
@@ -53,6 +159,10 @@ public class CrudTp1Application implements CommandLineRunner {
         System.out.println("│ 3 - Criar nova conta                          │");
         System.out.println("│ 4 - Alterar saldo da conta                    │");
         System.out.println("│ 5 - Excluir conta                             │");
+        System.out.println("│ 6 - Depositar (crédito)                       │");
+        System.out.println("│ 7 - Sacar (débito)                            │");
+        System.out.println("│ 8 - Transferir entre contas                   │");
+        System.out.println("│ 9 - Buscar contas por titular                 │");
         System.out.println("│ 0 - Sair                                      │");
         System.out.println("╰───────────────────────────────────────────────╯");
     }
@@ -65,10 +175,14 @@ public class CrudTp1Application implements CommandLineRunner {
                 case 3 -> criarConta(scanner);
                 case 4 -> alterarSaldo(scanner);
                 case 5 -> excluirConta(scanner);
+                case 6 -> depositar(scanner);
+                case 7 -> sacar(scanner);
+                case 8 -> transferir(scanner);
+                case 9 -> buscarPorTitular(scanner);
                 case 0 -> System.out.println("Encerrando o sistema. Até logo!");
                 default -> System.out.println("Opção inválida.");
             }
-        } catch (ContaNaoEncontradaException e) {
+        } catch (ContaNaoEncontradaException | SaldoInsuficienteException e) {
             // tratamento para não deixar a aplicacao cair
             System.out.println("⚠ " + e.getMessage());
         } catch (RuntimeException e) {
@@ -106,6 +220,55 @@ public class CrudTp1Application implements CommandLineRunner {
         System.out.println("Conta excluída com sucesso.");
     }
 
+    private void depositar(Scanner scanner) {
+        long id = lerLong(scanner, "ID da conta: ");
+        BigDecimal valor = lerBigDecimal(scanner, "Valor do depósito: ");
+        Conta contaAtualizada = contaService.creditar(id, valor);
+        System.out.println("Depósito realizado:");
+        System.out.println(contaAtualizada);
+    }
+
+    private void sacar(Scanner scanner) {
+        long id = lerLong(scanner, "ID da conta: ");
+        BigDecimal valor = lerBigDecimal(scanner, "Valor do saque: ");
+        Conta contaAtualizada = contaService.debitar(id, valor);
+        System.out.println("Saque realizado:");
+        System.out.println(contaAtualizada);
+    }
+
+    private void transferir(Scanner scanner) {
+        long origemId = lerLong(scanner, "ID da conta de origem: ");
+        long destinoId = lerLong(scanner, "ID da conta de destino: ");
+        BigDecimal valor = lerBigDecimal(scanner, "Valor da transferência: ");
+        contaService.transferir(origemId, destinoId, valor);
+        System.out.println("Transferência realizada com sucesso.");
+    }
+
+    // início do nome, sem diferenciar maiúsculas; páginas de TAMANHO_PAGINA_BUSCA pelo índice do titular
+    private void buscarPorTitular(Scanner scanner) {
+        System.out.print("Início do nome do titular: ");
+        String prefixo = scanner.nextLine();
+        SaldoDeConta anterior = null;
+        while (true) {
+            List<SaldoDeConta> pagina = contaService.buscarPorPrefixoDoTitular(prefixo, anterior, TAMANHO_PAGINA_BUSCA);
+            if (pagina.isEmpty() && anterior == null) {
+                System.out.println("Nenhuma conta encontrada.");
+                return;
+            }
+            for (SaldoDeConta conta : pagina) {
+                System.out.println(conta.id() + " │ " + conta.titular() + " │ R$ " + conta.saldo());
+            }
+            if (pagina.size() < TAMANHO_PAGINA_BUSCA) {
+                return;
+            }
+            System.out.print("Mais resultados? (s/n): ");
+            if (!"s".equalsIgnoreCase(scanner.nextLine().trim())) {
+                return;
+            }
+            anterior = pagina.get(pagina.size() - 1);
+        }
+    }
+
     private int lerInteiro(Scanner scanner, String mensagem) {
         System.out.print(mensagem);
         while (!scanner.hasNextInt()) {
@@ -0,0 +1,34 @@
+package br.com.infnet.banco;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.entity.DinheiroConverter;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Metadados de alcance das classes do projeto para o executável nativo
+ * ({@code mvn -Pnativo}). O processamento AOT do JPA registra a entidade
+ * {@link Conta} (campos, construtores e os getters/setters do Lombok) e o
+ * construtor do conversor; aqui a entidade fica registrada independente da
+ * varredura do JPA, e o conversor ganha os métodos, cujos tipos genéricos o
+ * Hibernate resolve por reflexão na subida. O {@code ehcache.xml} do cache de
+ * segundo nível é lido do classpath e precisa ir para dentro do executável.
+ * H2, Hikari, Hibernate e Ehcache trazem os seus (no jar ou no repositório de
+ * metadados do GraalVM).
+ */
+class DicasDoExecutavelNativo implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection()
+                .registerType(Conta.class,
+                        MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS)
+                .registerType(DinheiroConverter.class,
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.resources().registerPattern("ehcache.xml");
+    }
+}
@@ -0,0 +1,47 @@
+package br.com.infnet.banco.cache;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.net.URL;
+import java.util.UUID;
+
+/**
+ * Cache de segundo nível do Hibernate com {@code banco.cache.segundo-nivel=true}:
+ * um {@link CacheManager} do Ehcache 3 com as regiões do {@code ehcache.xml},
+ * entregue pronto ao Hibernate. O JCache devolve o mesmo gerenciador para a
+ * mesma URI, e o Hibernate fecha o gerenciador quando a sua SessionFactory
+ * fecha; com uma URI própria por contexto, fechar um contexto (nos testes, por
+ * exemplo) não fecha os caches de outro.
+ */
+@Configuration
+@ConditionalOnProperty(name = "banco.cache.segundo-nivel", havingValue = "true")
+public class CacheDeSegundoNivelConfig {
+
+    private static final String CONFIGURACAO = "ehcache.xml";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerDoHibernate() {
+        URL configuracao = getClass().getClassLoader().getResource(CONFIGURACAO);
+        if (configuracao == null) {
+            throw new IllegalStateException("Configuração do cache de segundo nível não encontrada: " + CONFIGURACAO);
+        }
+        EhcacheCachingProvider provedor = (EhcacheCachingProvider) Caching.getCachingProvider(
+                EhcacheCachingProvider.class.getName(), getClass().getClassLoader());
+        return provedor.getCacheManager(URI.create("urn:banco:segundo-nivel:" + UUID.randomUUID()),
+                new XmlConfiguration(configuracao, getClass().getClassLoader()));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheManagerNoHibernate(CacheManager cacheManagerDoHibernate) {
+        return propriedades -> propriedades.put(ConfigSettings.CACHE_MANAGER, cacheManagerDoHibernate);
+    }
+}
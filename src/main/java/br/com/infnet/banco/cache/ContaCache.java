@@ -0,0 +1,177 @@
+package br.com.infnet.banco.cache;
+
+import br.com.infnet.banco.entity.Conta;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache em processo de contas por id, com limite de tamanho (LRU) e tempo de vida.
+ *
+ * <p>Guarda e devolve cópias desanexadas de {@link Conta}, para que alterações
+ * feitas por quem chamou não mudem o que está em cache. Com tamanho máximo 0
+ * o cache fica desligado.
+ *
+ * <p>Quem lê o banco depois de uma falha pega uma {@link #marca()} antes da
+ * leitura e guarda o resultado com {@link #guardarLida}. Cada {@link #remover}
+ * deixa uma lápide com uma marca nova; se a conta foi removida depois da
+ * marca de quem leu (escrita confirmada ou exclusão no meio da leitura), a
+ * linha lida pode ser a antiga e não entra no cache. Quando a lápide já saiu
+ * do mapa (LRU, TTL ou {@link #limpar}), vale a maior marca descartada, o que
+ * só pode recusar leituras a mais, nunca aceitar uma antiga.
+ */
+@Component
+public class ContaCache {
+
+    private final int tamanhoMaximo;
+    private final long ttlNanos;
+    private final LongSupplier relogio;
+    private final Map<Long, Entrada> entradas;
+
+    // as duas protegidas pelo lock de entradas
+    private long ultimaMarca;
+    private long maiorMarcaDescartada;
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder falhas = new LongAdder();
+    private final LongAdder remocoes = new LongAdder();
+
+    @Autowired
+    public ContaCache(@Value("${banco.cache.tamanho-maximo:10000}") int tamanhoMaximo,
+                      @Value("${banco.cache.ttl:PT5M}") Duration ttl) {
+        this(tamanhoMaximo, ttl, System::nanoTime);
+    }
+
+    ContaCache(int tamanhoMaximo, Duration ttl, LongSupplier relogio) {
+        if (tamanhoMaximo < 0) {
+            throw new IllegalArgumentException("Tamanho máximo do cache não pode ser negativo");
+        }
+        this.tamanhoMaximo = tamanhoMaximo;
+        this.ttlNanos = ttl.toNanos();
+        this.relogio = relogio;
+        // accessOrder = true: a entrada menos usada recentemente é a primeira a sair
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entrada> maisAntiga) {
+                if (size() > ContaCache.this.tamanhoMaximo) {
+                    descartar(maisAntiga.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Optional<Conta> buscar(long id) {
+        synchronized (entradas) {
+            Entrada entrada = entradas.get(id);
+            if (entrada == null || entrada.conta == null) {
+                falhas.increment();
+                return Optional.empty();
+            }
+            if (relogio.getAsLong() - entrada.criadaEm >= ttlNanos) {
+                entradas.remove(id);
+                descartar(entrada);
+                falhas.increment();
+                return Optional.empty();
+            }
+            acertos.increment();
+            return Optional.of(entrada.conta.copiar());
+        }
+    }
+
+    // para contas que ninguém mais pode ter removido (recém-criadas)
+    public void guardar(Conta conta) {
+        if (tamanhoMaximo == 0) {
+            return;
+        }
+        Conta copia = conta.copiar();
+        synchronized (entradas) {
+            entradas.put(conta.getId(), new Entrada(copia, relogio.getAsLong(), ultimaMarca));
+        }
+    }
+
+    // tomada antes de ler a conta do banco, para guardarLida
+    public long marca() {
+        synchronized (entradas) {
+            return ultimaMarca;
+        }
+    }
+
+    /**
+     * Guarda a conta lida do banco, a menos que ela tenha sido removida do
+     * cache depois de {@code marca}.
+     *
+     * @return se a conta entrou no cache
+     */
+    public boolean guardarLida(Conta conta, long marca) {
+        if (tamanhoMaximo == 0) {
+            return false;
+        }
+        Conta copia = conta.copiar();
+        synchronized (entradas) {
+            Entrada atual = entradas.get(conta.getId());
+            long removidaEm = atual != null ? atual.marca : maiorMarcaDescartada;
+            if (removidaEm > marca) {
+                return false;
+            }
+            entradas.put(conta.getId(), new Entrada(copia, relogio.getAsLong(), marca));
+            return true;
+        }
+    }
+
+    public void remover(long id) {
+        if (tamanhoMaximo == 0) {
+            return;
+        }
+        synchronized (entradas) {
+            entradas.put(id, new Entrada(null, relogio.getAsLong(), ++ultimaMarca));
+        }
+    }
+
+    public void limpar() {
+        synchronized (entradas) {
+            entradas.clear();
+            maiorMarcaDescartada = ++ultimaMarca;
+        }
+    }
+
+    // chamado com o lock de entradas
+    private void descartar(Entrada entrada) {
+        maiorMarcaDescartada = Math.max(maiorMarcaDescartada, entrada.marca);
+        if (entrada.conta != null) {
+            remocoes.increment();
+        }
+    }
+
+    public Estatisticas estatisticas() {
+        int tamanho = 0;
+        synchronized (entradas) {
+            for (Entrada entrada : entradas.values()) {
+                if (entrada.conta != null) {
+                    tamanho++;
+                }
+            }
+        }
+        return new Estatisticas(acertos.sum(), falhas.sum(), remocoes.sum(), tamanho);
+    }
+
+    public record Estatisticas(long acertos, long falhas, long remocoes, int tamanho) {
+
+        public double taxaDeAcerto() {
+            long total = acertos + falhas;
+            return total == 0 ? 0.0 : (double) acertos / total;
+        }
+    }
+
+    // conta null é lápide; marca é a da leitura que guardou ou a da remoção
+    private record Entrada(Conta conta, long criadaEm, long marca) {
+    }
+}
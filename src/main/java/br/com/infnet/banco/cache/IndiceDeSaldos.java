@@ -0,0 +1,147 @@
+package br.com.infnet.banco.cache;
+
+import br.com.infnet.banco.colecao.MapaLongLong;
+import br.com.infnet.banco.dto.ResumoDeSaldos;
+import br.com.infnet.banco.entity.Conta;
+import org.springframework.stereotype.Component;
+
+import java.util.OptionalLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Índice em memória id -> saldo em centavos, para consultas de saldo e
+ * agregações sem carregar entidades {@link Conta}.
+ *
+ * <p>Guarda tudo em um {@link MapaLongLong} (dois {@code long[]}, sem
+ * objeto por conta). É carregado na primeira consulta e depois mantido pelo
+ * {@code ContaService}, que atualiza o índice dentro da transação, com a
+ * linha já travada: atualizações da mesma conta chegam aqui na ordem dos
+ * commits. Se a transação não confirmar, ou se o índice for carregado ou
+ * descartado enquanto ela estava aberta (a carga não enxerga escritas ainda
+ * não confirmadas), o índice é descartado e remontado na próxima consulta.
+ */
+@Component
+public class IndiceDeSaldos {
+
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+    private final MapaLongLong saldos = new MapaLongLong();
+    private boolean carregado;
+    // muda a cada carga e a cada descarte
+    private long geracao;
+
+    /**
+     * Na primeira chamada percorre {@code fonte} e monta o índice; nas
+     * seguintes não faz nada. Escritas concorrentes esperam a carga terminar.
+     */
+    public void carregarSeNecessario(Consumer<Consumer<Conta>> fonte) {
+        trava.readLock().lock();
+        try {
+            if (carregado) {
+                return;
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+        trava.writeLock().lock();
+        try {
+            if (!carregado) {
+                fonte.accept(conta -> saldos.colocar(conta.getId(), conta.getSaldoEmCentavos()));
+                carregado = true;
+                geracao++;
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    public long geracao() {
+        trava.readLock().lock();
+        try {
+            return geracao;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    public boolean carregado() {
+        trava.readLock().lock();
+        try {
+            return carregado;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Registra o saldo da conta. Antes da carga não faz nada (a carga vai ler
+     * o valor do banco).
+     */
+    public void atualizar(long id, long saldoEmCentavos) {
+        trava.writeLock().lock();
+        try {
+            if (carregado) {
+                saldos.colocar(id, saldoEmCentavos);
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    public void remover(long id) {
+        trava.writeLock().lock();
+        try {
+            saldos.remover(id);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    // descarta o conteúdo; a próxima consulta remonta a partir do banco
+    public void invalidar() {
+        trava.writeLock().lock();
+        try {
+            saldos.limpar();
+            carregado = false;
+            geracao++;
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    public OptionalLong saldoEmCentavos(long id) {
+        trava.readLock().lock();
+        try {
+            return saldos.contem(id) ? OptionalLong.of(saldos.obter(id, 0)) : OptionalLong.empty();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    public ResumoDeSaldos resumo() {
+        trava.readLock().lock();
+        try {
+            long[] acumulado = {0, Long.MAX_VALUE, Long.MIN_VALUE};
+            saldos.paraCada((id, saldo) -> {
+                acumulado[0] = Math.addExact(acumulado[0], saldo);
+                acumulado[1] = Math.min(acumulado[1], saldo);
+                acumulado[2] = Math.max(acumulado[2], saldo);
+            });
+            int quantidade = saldos.tamanho();
+            return quantidade == 0
+                    ? new ResumoDeSaldos(0, 0, 0, 0)
+                    : new ResumoDeSaldos(quantidade, acumulado[0], acumulado[1], acumulado[2]);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        trava.readLock().lock();
+        try {
+            return saldos.tamanho();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+}
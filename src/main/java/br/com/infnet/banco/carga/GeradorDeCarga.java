@@ -0,0 +1,273 @@
+package br.com.infnet.banco.carga;
+
+import br.com.infnet.banco.dto.NovaConta;
+import br.com.infnet.banco.service.ContaService;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Gerador de carga do CLI (argumento {@code carga}): {@code banco.gerador-carga.clientes}
+ * threads chamam o {@link ContaService} sem pausa, enquanto o pool do Hikari
+ * passa por cada tamanho de {@code banco.gerador-carga.tamanhos-pool}. Cada
+ * tamanho vira um {@link Ponto} da curva: vazão e latência (p50/p99/máx) das
+ * operações, medida do lado de quem chama, incluindo a espera por conexão.
+ *
+ * <p>A mistura: {@code percentual-escritas}% das operações alteram saldo
+ * (metade {@code creditar} de R$ 0,01, metade {@code transferir} de R$ 0,01
+ * entre duas contas sorteadas) e o resto lê o saldo por projeção
+ * ({@code buscarSaldoDeConta}, que sempre vai ao banco).
+ *
+ * <p>As contas usadas ({@code contas}, titular {@code "Carga N"}) são criadas
+ * no início e excluídas no fim. Antes do primeiro tamanho há uma rodada de
+ * aquecimento de {@code duracao}, e antes de cada medição uma de
+ * {@code aquecimento}. O pool é redimensionado em funcionamento
+ * (mínimo e máximo iguais, conexões antigas descartadas) e volta ao tamanho
+ * configurado no fim.
+ *
+ * <p>Não roda com o perfil {@code memoria}: as operações iriam direto ao
+ * banco, por trás do motor em memória, que gravaria por cima delas.
+ */
+@Component
+public class GeradorDeCarga {
+
+    private static final BigDecimal SALDO_INICIAL = new BigDecimal("1000.00");
+    private static final BigDecimal VALOR = new BigDecimal("0.01");
+
+    private final ContaService contaService;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final Environment ambiente;
+    private final int[] tamanhosPool;
+    private final int clientes;
+    private final int contas;
+    private final int percentualEscritas;
+    private final Duration aquecimento;
+    private final Duration duracao;
+
+    public GeradorDeCarga(ContaService contaService,
+                          DataSource dataSource,
+                          JdbcTemplate jdbcTemplate,
+                          Environment ambiente,
+                          @Value("${banco.gerador-carga.tamanhos-pool:1,2,4,8,16,32}") int[] tamanhosPool,
+                          @Value("${banco.gerador-carga.clientes:32}") int clientes,
+                          @Value("${banco.gerador-carga.contas:1000}") int contas,
+                          @Value("${banco.gerador-carga.percentual-escritas:20}") int percentualEscritas,
+                          @Value("${banco.gerador-carga.aquecimento:PT2S}") Duration aquecimento,
+                          @Value("${banco.gerador-carga.duracao:PT10S}") Duration duracao) {
+        if (tamanhosPool.length == 0 || Arrays.stream(tamanhosPool).anyMatch(t -> t <= 0)) {
+            throw new IllegalArgumentException("Tamanhos de pool devem ser positivos: " + Arrays.toString(tamanhosPool));
+        }
+        if (clientes <= 0 || contas < 2) {
+            throw new IllegalArgumentException("São precisos ao menos 1 cliente e 2 contas");
+        }
+        if (percentualEscritas < 0 || percentualEscritas > 100) {
+            throw new IllegalArgumentException("Percentual de escritas fora de 0..100: " + percentualEscritas);
+        }
+        this.contaService = contaService;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ambiente = ambiente;
+        this.tamanhosPool = tamanhosPool.clone();
+        this.clientes = clientes;
+        this.contas = contas;
+        this.percentualEscritas = percentualEscritas;
+        this.aquecimento = aquecimento;
+        this.duracao = duracao;
+    }
+
+    /**
+     * Um tamanho de pool medido. {@code creditos} conta os créditos
+     * concluídos (as transferências não mudam o total dos saldos).
+     */
+    public record Ponto(int tamanhoPool, long operacoes, long falhas, long creditos, Duration duracao,
+                        double p50Ms, double p99Ms, double maximoMs) {
+
+        public double operacoesPorSegundo() {
+            return operacoes * 1e9 / Math.max(1, duracao.toNanos());
+        }
+    }
+
+    /** Mede cada tamanho de pool, na ordem configurada; {@code tamanhos} nulo usa a configuração. */
+    public List<Ponto> executar(int[] tamanhos) throws InterruptedException {
+        if (ambiente.matchesProfiles("memoria")) {
+            throw new IllegalStateException("O gerador de carga não roda com o perfil memoria");
+        }
+        int[] sequencia = tamanhos == null ? tamanhosPool : tamanhos;
+        HikariConfigMXBean pool = pool();
+        int maximoOriginal = pool.getMaximumPoolSize();
+        int minimoOriginal = pool.getMinimumIdle();
+
+        long[] ids = criarContas();
+        List<Ponto> pontos = new ArrayList<>(sequencia.length);
+        try (ExecutorService executor = Executors.newFixedThreadPool(clientes)) {
+            // JIT: sem esta rodada o primeiro tamanho da sequência sai bem mais lento
+            rodada(executor, ids, duracao);
+            for (int tamanho : sequencia) {
+                redimensionar(pool, tamanho, tamanho);
+                // conexões novas e statements preparados de novo não contam
+                rodada(executor, ids, aquecimento);
+                pontos.add(medir(tamanho, rodada(executor, ids, duracao)));
+            }
+        } finally {
+            redimensionar(pool, maximoOriginal, minimoOriginal);
+            for (long id : ids) {
+                contaService.excluir(id);
+            }
+        }
+        return pontos;
+    }
+
+    private HikariConfigMXBean pool() {
+        try {
+            return dataSource.unwrap(HikariDataSource.class).getHikariConfigMXBean();
+        } catch (SQLException e) {
+            throw new IllegalStateException("O gerador de carga precisa do pool do Hikari", e);
+        }
+    }
+
+    private void redimensionar(HikariConfigMXBean pool, int maximo, int minimo) {
+        // em ordem, para o mínimo nunca passar do máximo
+        if (maximo >= pool.getMaximumPoolSize()) {
+            pool.setMaximumPoolSize(maximo);
+            pool.setMinimumIdle(minimo);
+        } else {
+            pool.setMinimumIdle(minimo);
+            pool.setMaximumPoolSize(maximo);
+        }
+        try {
+            // as conexões atuais fecham ao serem devolvidas; as novas já respeitam o novo tamanho
+            dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().softEvictConnections();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ids vêm da sequence: as contas novas são as de id acima do maior anterior
+    private long[] criarContas() {
+        long maiorAntes = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from conta", Long.class);
+        List<NovaConta> novas = new ArrayList<>(contas);
+        for (int i = 0; i < contas; i++) {
+            novas.add(new NovaConta("Carga " + i, SALDO_INICIAL));
+        }
+        contaService.criarEmLote(novas);
+        return jdbcTemplate.queryForList("select id from conta where id > ? and titular like 'Carga %' order by id",
+                Long.class, maiorAntes).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // resultados de uma rodada, somados de todos os clientes
+    private record Rodada(long[] latencias, long falhas, long creditos, long nanos) {
+    }
+
+    private Rodada rodada(ExecutorService executor, long[] ids, Duration tempo) throws InterruptedException {
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Cliente>> futuros = new ArrayList<>(clientes);
+        long[] fim = new long[1];
+        for (int c = 0; c < clientes; c++) {
+            futuros.add(executor.submit(() -> {
+                largada.await();
+                Cliente cliente = new Cliente();
+                while (System.nanoTime() < fim[0]) {
+                    cliente.operar(ids);
+                }
+                return cliente;
+            }));
+        }
+        long inicio = System.nanoTime();
+        fim[0] = inicio + tempo.toNanos();
+        largada.countDown();
+
+        List<Cliente> resultados = new ArrayList<>(clientes);
+        for (Future<Cliente> futuro : futuros) {
+            try {
+                resultados.add(futuro.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Cliente da carga falhou", e.getCause());
+            }
+        }
+        long nanos = System.nanoTime() - inicio;
+
+        int total = resultados.stream().mapToInt(c -> c.quantidade).sum();
+        long[] latencias = new long[total];
+        int posicao = 0;
+        long falhas = 0;
+        long creditos = 0;
+        for (Cliente cliente : resultados) {
+            System.arraycopy(cliente.latencias, 0, latencias, posicao, cliente.quantidade);
+            posicao += cliente.quantidade;
+            falhas += cliente.falhas;
+            creditos += cliente.creditos;
+        }
+        return new Rodada(latencias, falhas, creditos, nanos);
+    }
+
+    private Ponto medir(int tamanhoPool, Rodada rodada) {
+        long[] latencias = rodada.latencias();
+        Arrays.sort(latencias);
+        return new Ponto(tamanhoPool, latencias.length, rodada.falhas(), rodada.creditos(),
+                Duration.ofNanos(rodada.nanos()),
+                percentilMs(latencias, 0.50), percentilMs(latencias, 0.99),
+                latencias.length == 0 ? 0 : latencias[latencias.length - 1] / 1e6);
+    }
+
+    private static double percentilMs(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(percentil * ordenadas.length) - 1;
+        return ordenadas[Math.max(0, indice)] / 1e6;
+    }
+
+    // estado de uma thread cliente durante uma rodada; lido só depois do Future.get
+    private final class Cliente {
+
+        long[] latencias = new long[4096];
+        int quantidade;
+        long falhas;
+        long creditos;
+
+        void operar(long[] ids) {
+            ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+            int origem = aleatorio.nextInt(ids.length);
+            long id = ids[origem];
+            int sorteio = aleatorio.nextInt(200);
+            long antes = System.nanoTime();
+            try {
+                if (sorteio < percentualEscritas) {
+                    contaService.creditar(id, VALOR);
+                    creditos++;
+                } else if (sorteio < 2 * percentualEscritas) {
+                    // qualquer outra conta
+                    int destino = (origem + 1 + aleatorio.nextInt(ids.length - 1)) % ids.length;
+                    contaService.transferir(id, ids[destino], VALOR);
+                } else {
+                    contaService.buscarSaldoDeConta(id);
+                }
+            } catch (RuntimeException e) {
+                // ex.: retentativas esgotadas ou espera por conexão além do connection-timeout
+                falhas++;
+            }
+            if (quantidade == latencias.length) {
+                latencias = Arrays.copyOf(latencias, quantidade * 2);
+            }
+            latencias[quantidade++] = System.nanoTime() - antes;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package br.com.infnet.banco.colecao;
+
+/**
+ * Funções auxiliares compartilhadas pelas coleções primitivas.
+ */
+final class Hashes {
+
+    private static final int CAPACIDADE_MAXIMA = 1 << 30;
+
+    private Hashes() {
+    }
+
+    // mistura os bits do id (sequenciais) para espalhar bem na tabela
+    static int espalhar(long chave) {
+        long h = chave * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static int potenciaDeDoisParaCapacidade(int elementos, float fatorCarga) {
+        long necessaria = (long) Math.ceil(Math.max(elementos, 2) / (double) fatorCarga);
+        if (necessaria > CAPACIDADE_MAXIMA) {
+            throw new IllegalArgumentException("Capacidade muito grande: " + elementos);
+        }
+        return Integer.highestOneBit((int) Math.max(necessaria - 1, 1)) << 1;
+    }
+}
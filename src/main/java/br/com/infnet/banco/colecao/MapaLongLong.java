@@ -0,0 +1,174 @@
+package br.com.infnet.banco.colecao;
+
+import java.util.Arrays;
+
+/**
+ * Mapa {@code long -> long} com endereçamento aberto (sondagem linear), em
+ * dois arrays primitivos: sem boxing e sem um objeto por entrada. Não é
+ * thread-safe: quem usa deve sincronizar.
+ *
+ * <p>A chave 0 é usada internamente como "slot vazio" e por isso é
+ * guardada à parte.
+ */
+public class MapaLongLong {
+
+    private static final float FATOR_CARGA = 0.75f;
+
+    private long[] chaves;
+    private long[] valores;
+    private int mascara;
+    private int tamanho;
+    private int limiteRedimensionamento;
+
+    private boolean temChaveZero;
+    private long valorChaveZero;
+
+    public MapaLongLong() {
+        this(16);
+    }
+
+    public MapaLongLong(int capacidadeInicial) {
+        alocar(Hashes.potenciaDeDoisParaCapacidade(capacidadeInicial, FATOR_CARGA));
+    }
+
+    public int tamanho() {
+        return tamanho + (temChaveZero ? 1 : 0);
+    }
+
+    public boolean vazio() {
+        return tamanho() == 0;
+    }
+
+    public boolean contem(long chave) {
+        if (chave == 0) {
+            return temChaveZero;
+        }
+        return indiceDe(chave) >= 0;
+    }
+
+    /**
+     * Valor associado à chave, ou {@code padrao} se a chave não existir.
+     */
+    public long obter(long chave, long padrao) {
+        if (chave == 0) {
+            return temChaveZero ? valorChaveZero : padrao;
+        }
+        int indice = indiceDe(chave);
+        return indice >= 0 ? valores[indice] : padrao;
+    }
+
+    public void colocar(long chave, long valor) {
+        if (chave == 0) {
+            temChaveZero = true;
+            valorChaveZero = valor;
+            return;
+        }
+        int indice = Hashes.espalhar(chave) & mascara;
+        while (chaves[indice] != 0) {
+            if (chaves[indice] == chave) {
+                valores[indice] = valor;
+                return;
+            }
+            indice = (indice + 1) & mascara;
+        }
+        chaves[indice] = chave;
+        valores[indice] = valor;
+        if (++tamanho > limiteRedimensionamento) {
+            redimensionar();
+        }
+    }
+
+    /**
+     * Remove a chave; devolve {@code true} se ela existia.
+     */
+    public boolean remover(long chave) {
+        if (chave == 0) {
+            boolean existia = temChaveZero;
+            temChaveZero = false;
+            valorChaveZero = 0;
+            return existia;
+        }
+        int indice = indiceDe(chave);
+        if (indice < 0) {
+            return false;
+        }
+        removerNoIndice(indice);
+        return true;
+    }
+
+    public void paraCada(ConsumidorLongLong consumidor) {
+        if (temChaveZero) {
+            consumidor.aceitar(0, valorChaveZero);
+        }
+        for (int i = 0; i < chaves.length; i++) {
+            if (chaves[i] != 0) {
+                consumidor.aceitar(chaves[i], valores[i]);
+            }
+        }
+    }
+
+    public void limpar() {
+        Arrays.fill(chaves, 0);
+        Arrays.fill(valores, 0);
+        tamanho = 0;
+        temChaveZero = false;
+        valorChaveZero = 0;
+    }
+
+    private int indiceDe(long chave) {
+        int indice = Hashes.espalhar(chave) & mascara;
+        while (chaves[indice] != 0) {
+            if (chaves[indice] == chave) {
+                return indice;
+            }
+            indice = (indice + 1) & mascara;
+        }
+        return -1;
+    }
+
+    // remoção com deslocamento para trás: mantém as cadeias de sondagem sem "lápides"
+    private void removerNoIndice(int indice) {
+        int vazio = indice;
+        int atual = (indice + 1) & mascara;
+        while (chaves[atual] != 0) {
+            int ideal = Hashes.espalhar(chaves[atual]) & mascara;
+            if (((atual - ideal) & mascara) >= ((atual - vazio) & mascara)) {
+                chaves[vazio] = chaves[atual];
+                valores[vazio] = valores[atual];
+                vazio = atual;
+            }
+            atual = (atual + 1) & mascara;
+        }
+        chaves[vazio] = 0;
+        valores[vazio] = 0;
+        tamanho--;
+    }
+
+    private void redimensionar() {
+        long[] chavesAntigas = chaves;
+        long[] valoresAntigos = valores;
+        alocar(chavesAntigas.length * 2);
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            if (chavesAntigas[i] != 0) {
+                int indice = Hashes.espalhar(chavesAntigas[i]) & mascara;
+                while (chaves[indice] != 0) {
+                    indice = (indice + 1) & mascara;
+                }
+                chaves[indice] = chavesAntigas[i];
+                valores[indice] = valoresAntigos[i];
+            }
+        }
+    }
+
+    private void alocar(int capacidade) {
+        chaves = new long[capacidade];
+        valores = new long[capacidade];
+        mascara = capacidade - 1;
+        limiteRedimensionamento = (int) (capacidade * FATOR_CARGA);
+    }
+
+    @FunctionalInterface
+    public interface ConsumidorLongLong {
+        void aceitar(long chave, long valor);
+    }
+}
@@ -0,0 +1,179 @@
+package br.com.infnet.banco.colecao;
+
+import java.util.Arrays;
+
+/**
+ * Mapa {@code long -> V} com endereçamento aberto (sondagem linear), sem
+ * boxing das chaves. Não é thread-safe: quem usa deve sincronizar.
+ *
+ * <p>A chave 0 é usada internamente como "slot vazio" e por isso é
+ * guardada à parte.
+ */
+public class MapaLongObjeto<V> {
+
+    private static final float FATOR_CARGA = 0.6f;
+
+    private long[] chaves;
+    private Object[] valores;
+    private int mascara;
+    private int tamanho;
+    private int limiteRedimensionamento;
+
+    private boolean temChaveZero;
+    private Object valorChaveZero;
+
+    public MapaLongObjeto() {
+        this(16);
+    }
+
+    public MapaLongObjeto(int capacidadeInicial) {
+        alocar(Hashes.potenciaDeDoisParaCapacidade(capacidadeInicial, FATOR_CARGA));
+    }
+
+    public int tamanho() {
+        return tamanho + (temChaveZero ? 1 : 0);
+    }
+
+    public boolean vazio() {
+        return tamanho() == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V obter(long chave) {
+        if (chave == 0) {
+            return temChaveZero ? (V) valorChaveZero : null;
+        }
+        int indice = Hashes.espalhar(chave) & mascara;
+        while (chaves[indice] != 0) {
+            if (chaves[indice] == chave) {
+                return (V) valores[indice];
+            }
+            indice = (indice + 1) & mascara;
+        }
+        return null;
+    }
+
+    public boolean contem(long chave) {
+        return obter(chave) != null;
+    }
+
+    /**
+     * Associa o valor à chave e devolve o valor anterior (ou {@code null}).
+     */
+    @SuppressWarnings("unchecked")
+    public V colocar(long chave, V valor) {
+        if (valor == null) {
+            throw new IllegalArgumentException("Valor não pode ser nulo");
+        }
+        if (chave == 0) {
+            V anterior = temChaveZero ? (V) valorChaveZero : null;
+            temChaveZero = true;
+            valorChaveZero = valor;
+            return anterior;
+        }
+        int indice = Hashes.espalhar(chave) & mascara;
+        while (chaves[indice] != 0) {
+            if (chaves[indice] == chave) {
+                V anterior = (V) valores[indice];
+                valores[indice] = valor;
+                return anterior;
+            }
+            indice = (indice + 1) & mascara;
+        }
+        chaves[indice] = chave;
+        valores[indice] = valor;
+        if (++tamanho > limiteRedimensionamento) {
+            redimensionar();
+        }
+        return null;
+    }
+
+    /**
+     * Remove a chave e devolve o valor que estava associado (ou {@code null}).
+     */
+    @SuppressWarnings("unchecked")
+    public V remover(long chave) {
+        if (chave == 0) {
+            V anterior = temChaveZero ? (V) valorChaveZero : null;
+            temChaveZero = false;
+            valorChaveZero = null;
+            return anterior;
+        }
+        int indice = Hashes.espalhar(chave) & mascara;
+        while (chaves[indice] != 0) {
+            if (chaves[indice] == chave) {
+                V anterior = (V) valores[indice];
+                removerNoIndice(indice);
+                return anterior;
+            }
+            indice = (indice + 1) & mascara;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void paraCada(ConsumidorLongObjeto<? super V> consumidor) {
+        if (temChaveZero) {
+            consumidor.aceitar(0, (V) valorChaveZero);
+        }
+        for (int i = 0; i < chaves.length; i++) {
+            if (chaves[i] != 0) {
+                consumidor.aceitar(chaves[i], (V) valores[i]);
+            }
+        }
+    }
+
+    public void limpar() {
+        Arrays.fill(chaves, 0);
+        Arrays.fill(valores, null);
+        tamanho = 0;
+        temChaveZero = false;
+        valorChaveZero = null;
+    }
+
+    // remoção com deslocamento para trás: mantém as cadeias de sondagem sem "lápides"
+    private void removerNoIndice(int indice) {
+        int vazio = indice;
+        int atual = (indice + 1) & mascara;
+        while (chaves[atual] != 0) {
+            int ideal = Hashes.espalhar(chaves[atual]) & mascara;
+            if (((atual - ideal) & mascara) >= ((atual - vazio) & mascara)) {
+                chaves[vazio] = chaves[atual];
+                valores[vazio] = valores[atual];
+                vazio = atual;
+            }
+            atual = (atual + 1) & mascara;
+        }
+        chaves[vazio] = 0;
+        valores[vazio] = null;
+        tamanho--;
+    }
+
+    private void redimensionar() {
+        long[] chavesAntigas = chaves;
+        Object[] valoresAntigos = valores;
+        alocar(chavesAntigas.length * 2);
+        for (int i = 0; i < chavesAntigas.length; i++) {
+            if (chavesAntigas[i] != 0) {
+                int indice = Hashes.espalhar(chavesAntigas[i]) & mascara;
+                while (chaves[indice] != 0) {
+                    indice = (indice + 1) & mascara;
+                }
+                chaves[indice] = chavesAntigas[i];
+                valores[indice] = valoresAntigos[i];
+            }
+        }
+    }
+
+    private void alocar(int capacidade) {
+        chaves = new long[capacidade];
+        valores = new Object[capacidade];
+        mascara = capacidade - 1;
+        limiteRedimensionamento = (int) (capacidade * FATOR_CARGA);
+    }
+
+    @FunctionalInterface
+    public interface ConsumidorLongObjeto<V> {
+        void aceitar(long chave, V valor);
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.infnet.banco.diario;
+
+import java.util.List;
+
+/**
+ * Diário append-only de eventos de conta. Cada evento recebe uma sequência
+ * crescente; {@link #aguardarDurabilidade} bloqueia até ela estar em disco.
+ */
+public interface Diario {
+
+    boolean habilitado();
+
+    // se true, quem registra deve aguardar a durabilidade antes de responder
+    boolean sincrono();
+
+    /**
+     * Acrescenta um evento e devolve a sua sequência. Não espera o fsync.
+     */
+    long registrar(TipoEvento tipo, long contaId, long referencia,
+                   long valorCentavos, long saldoCentavos, String titular);
+
+    /**
+     * Acrescenta os eventos com sequências consecutivas, como um grupo: na
+     * leitura, ou o grupo aparece inteiro ou não aparece. Devolve a sequência
+     * do último. Não espera o fsync.
+     */
+    long registrarGrupo(List<NovoEvento> eventos);
+
+    // última sequência atribuída (0 se nenhuma)
+    long ultimaSequencia();
+
+    void aguardarDurabilidade(long sequencia);
+}
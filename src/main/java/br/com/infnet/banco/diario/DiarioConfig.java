@@ -0,0 +1,33 @@
+package br.com.infnet.banco.diario;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Liga o diário em arquivo com {@code banco.diario.habilitado=true};
+ * caso contrário usa o {@link DiarioDesligado}.
+ */
+@Configuration
+public class DiarioConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "banco.diario.habilitado", havingValue = "true")
+    public DiarioEmArquivo diarioEmArquivo(
+            @Value("${banco.diario.diretorio:diario}") Path diretorio,
+            @Value("${banco.diario.tamanho-segmento:64MB}") DataSize tamanhoSegmento,
+            @Value("${banco.diario.sincrono:true}") boolean sincrono,
+            @Value("${banco.diario.intervalo-fsync-ms:10}") long intervaloFsyncMs) {
+        return new DiarioEmArquivo(diretorio, Math.toIntExact(tamanhoSegmento.toBytes()), sincrono, intervaloFsyncMs);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "banco.diario.habilitado", havingValue = "false", matchIfMissing = true)
+    public DiarioDesligado diarioDesligado() {
+        return new DiarioDesligado();
+    }
+}
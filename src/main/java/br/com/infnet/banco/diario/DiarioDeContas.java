@@ -0,0 +1,159 @@
+package br.com.infnet.banco.diario;
+
+import br.com.infnet.banco.entity.Conta;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro dos eventos de conta no {@link Diario}, usado pelos serviços.
+ *
+ * <p>Dentro de uma transação os eventos ficam guardados e são gravados
+ * juntos, como um grupo, no {@code beforeCommit}: com as linhas ainda
+ * travadas (eventos da mesma conta ficam na ordem dos commits) e sem nada no
+ * diário se a transação for desfeita antes disso. Se o commit falhar depois
+ * da gravação, cada evento recebe um {@link TipoEvento#ANULACAO}. A espera
+ * pelo fsync (modo síncrono) acontece depois do fim da transação, sem
+ * segurar travas do banco.
+ */
+@Component
+public class DiarioDeContas {
+
+    private final Diario diario;
+
+    // transações com eventos gravados e commit ainda não concluído
+    private final Set<EventosDaTransacao> emAberto = ConcurrentHashMap.newKeySet();
+
+    public DiarioDeContas(Diario diario) {
+        this.diario = diario;
+    }
+
+    public boolean habilitado() {
+        return diario.habilitado();
+    }
+
+    public long criacao(Conta conta) {
+        return registrar(new NovoEvento(TipoEvento.CRIACAO, conta.getId(), 0,
+                conta.getSaldoEmCentavos(), conta.getSaldoEmCentavos(), conta.getTitular()));
+    }
+
+    public long alteracaoDeSaldo(long contaId, long saldoCentavos) {
+        return registrar(new NovoEvento(TipoEvento.ALTERACAO_SALDO, contaId, 0, saldoCentavos, saldoCentavos, null));
+    }
+
+    public long exclusao(long contaId) {
+        return registrar(new NovoEvento(TipoEvento.EXCLUSAO, contaId, 0, 0, 0, null));
+    }
+
+    public long credito(long contaId, long valorCentavos, long saldoCentavos) {
+        return registrar(new NovoEvento(TipoEvento.CREDITO, contaId, 0, valorCentavos, saldoCentavos, null));
+    }
+
+    public long debito(long contaId, long valorCentavos, long saldoCentavos) {
+        return registrar(new NovoEvento(TipoEvento.DEBITO, contaId, 0, valorCentavos, saldoCentavos, null));
+    }
+
+    // débito e crédito no mesmo grupo; a referência de cada um é a outra conta
+    public long transferencia(long origemId, long saldoOrigem, long destinoId, long saldoDestino,
+                              long valorCentavos) {
+        return registrar(List.of(
+                new NovoEvento(TipoEvento.DEBITO, origemId, destinoId, valorCentavos, saldoOrigem, null),
+                new NovoEvento(TipoEvento.CREDITO, destinoId, origemId, valorCentavos, saldoDestino, null)));
+    }
+
+    /**
+     * Fora de transação, aguarda o fsync da sequência se o diário for
+     * síncrono. Dentro de uma, não faz nada: a espera já fica para o fim dela.
+     */
+    public void confirmar(long sequencia) {
+        if (sequencia > 0 && diario.sincrono() && !TransactionSynchronizationManager.isSynchronizationActive()) {
+            diario.aguardarDurabilidade(sequencia);
+        }
+    }
+
+    /**
+     * Menor sequência que ainda pode pertencer a uma transação sem commit
+     * concluído no banco. Um retrato do banco lido depois desta chamada já
+     * reflete todos os eventos anteriores a ela.
+     */
+    public long inicioDoTrechoEmAberto() {
+        long inicio = diario.ultimaSequencia() + 1;
+        for (EventosDaTransacao eventos : emAberto) {
+            inicio = Math.min(inicio, eventos.limite);
+        }
+        return inicio;
+    }
+
+    private long registrar(NovoEvento evento) {
+        if (!diario.habilitado()) {
+            return 0;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventosDaTransacao().eventos.add(evento);
+            return 0;
+        }
+        return diario.registrar(evento.tipo(), evento.contaId(), evento.referencia(),
+                evento.valorCentavos(), evento.saldoCentavos(), evento.titular());
+    }
+
+    private long registrar(List<NovoEvento> eventos) {
+        if (!diario.habilitado()) {
+            return 0;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventosDaTransacao().eventos.addAll(eventos);
+            return 0;
+        }
+        return diario.registrarGrupo(eventos);
+    }
+
+    private EventosDaTransacao eventosDaTransacao() {
+        EventosDaTransacao eventos = (EventosDaTransacao) TransactionSynchronizationManager.getResource(this);
+        if (eventos == null) {
+            eventos = new EventosDaTransacao();
+            TransactionSynchronizationManager.bindResource(this, eventos);
+            TransactionSynchronizationManager.registerSynchronization(eventos);
+        }
+        return eventos;
+    }
+
+    // eventos da transação corrente, gravados como um grupo no commit
+    private final class EventosDaTransacao implements TransactionSynchronization {
+
+        private final List<NovoEvento> eventos = new ArrayList<>();
+        // limite inferior das sequências do grupo, calculado antes de entrar em emAberto
+        private long limite;
+        private long ultima;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            limite = diario.ultimaSequencia() + 1;
+            emAberto.add(this);
+            ultima = diario.registrarGrupo(eventos);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(DiarioDeContas.this);
+            emAberto.remove(this);
+            if (ultima == 0) {
+                return;
+            }
+            if (status != STATUS_COMMITTED) {
+                List<NovoEvento> anulacoes = new ArrayList<>(eventos.size());
+                for (long sequencia = ultima - eventos.size() + 1; sequencia <= ultima; sequencia++) {
+                    anulacoes.add(new NovoEvento(TipoEvento.ANULACAO, 0, sequencia, 0, 0, null));
+                }
+                ultima = diario.registrarGrupo(anulacoes);
+            }
+            if (diario.sincrono()) {
+                diario.aguardarDurabilidade(ultima);
+            }
+        }
+    }
+}
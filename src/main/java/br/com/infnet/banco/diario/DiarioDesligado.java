@@ -0,0 +1,39 @@
+package br.com.infnet.banco.diario;
+
+import java.util.List;
+
+/**
+ * Diário que não grava nada (padrão, com {@code banco.diario.habilitado=false}).
+ */
+public class DiarioDesligado implements Diario {
+
+    @Override
+    public boolean habilitado() {
+        return false;
+    }
+
+    @Override
+    public boolean sincrono() {
+        return false;
+    }
+
+    @Override
+    public long registrar(TipoEvento tipo, long contaId, long referencia,
+                          long valorCentavos, long saldoCentavos, String titular) {
+        return 0;
+    }
+
+    @Override
+    public long registrarGrupo(List<NovoEvento> eventos) {
+        return 0;
+    }
+
+    @Override
+    public long ultimaSequencia() {
+        return 0;
+    }
+
+    @Override
+    public void aguardarDurabilidade(long sequencia) {
+    }
+}
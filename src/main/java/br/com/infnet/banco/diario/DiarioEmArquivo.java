@@ -0,0 +1,331 @@
+package br.com.infnet.banco.diario;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Diário em arquivos de segmento de tamanho fixo mapeados em memória.
+ *
+ * <p>Os registros (ver {@link Registro}) são copiados para o
+ * {@link MappedByteBuffer} do segmento corrente sob uma trava curta. O fsync
+ * fica com uma thread própria, que a cada ciclo força de uma vez tudo o que
+ * foi escrito desde o anterior (group commit): quem espera durabilidade
+ * acorda a thread e aguarda, e várias esperas compartilham o mesmo
+ * {@code force}. Sem ninguém esperando, a thread força a cada
+ * {@code intervaloFsync}.
+ *
+ * <p>Quando um registro não cabe no segmento corrente, ele é forçado por
+ * inteiro e um novo arquivo é criado (um grupo pode começar em um segmento e
+ * terminar no seguinte). Na abertura, o último segmento é percorrido até o
+ * último registro íntegro e o restante é zerado; um grupo que ficou pela
+ * metade continua no arquivo e é descartado pelo {@link LeitorDeDiario}.
+ */
+public class DiarioEmArquivo implements Diario, AutoCloseable {
+
+    private final Path diretorio;
+    private final int tamanhoSegmento;
+    private final boolean sincrono;
+    private final long intervaloFsyncNanos;
+
+    // estado de escrita, protegido por travaEscrita
+    private final ReentrantLock travaEscrita = new ReentrantLock();
+    private final CRC32C crc = new CRC32C();
+    private FileChannel canal;
+    private MappedByteBuffer segmento;
+    private int posicao;
+    private int posicaoForcada;
+    private long proximaSequencia;
+
+    // durabilidade, protegida por travaDurabilidade
+    private final ReentrantLock travaDurabilidade = new ReentrantLock();
+    private final Condition duravel = travaDurabilidade.newCondition();
+    private long sequenciaDuravel;
+
+    private final Thread threadFsync;
+    private volatile boolean aberto = true;
+
+    public DiarioEmArquivo(Path diretorio, int tamanhoSegmento, boolean sincrono, long intervaloFsyncMs) {
+        if (tamanhoSegmento < Registro.TAMANHO_BLOCO * Registro.MAXIMO_BLOCOS
+                || tamanhoSegmento % Registro.TAMANHO_BLOCO != 0) {
+            throw new IllegalArgumentException("Tamanho de segmento inválido: " + tamanhoSegmento);
+        }
+        this.diretorio = diretorio;
+        this.tamanhoSegmento = tamanhoSegmento;
+        this.sincrono = sincrono;
+        this.intervaloFsyncNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, intervaloFsyncMs));
+        abrir();
+        this.threadFsync = Thread.ofPlatform().name("diario-fsync").daemon(true).start(this::cicloDeFsync);
+    }
+
+    @Override
+    public boolean habilitado() {
+        return true;
+    }
+
+    @Override
+    public boolean sincrono() {
+        return sincrono;
+    }
+
+    @Override
+    public long registrar(TipoEvento tipo, long contaId, long referencia,
+                          long valorCentavos, long saldoCentavos, String titular) {
+        byte[] texto = Registro.texto(titular);
+        long instante = System.currentTimeMillis();
+        travaEscrita.lock();
+        try {
+            exigirAberto();
+            return acrescentar(instante, tipo, contaId, referencia, valorCentavos, saldoCentavos, texto, 0);
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    @Override
+    public long registrarGrupo(List<NovoEvento> eventos) {
+        if (eventos.isEmpty()) {
+            throw new IllegalArgumentException("Grupo de eventos vazio");
+        }
+        byte[][] textos = new byte[eventos.size()][];
+        for (int i = 0; i < textos.length; i++) {
+            textos[i] = Registro.texto(eventos.get(i).titular());
+        }
+        long instante = System.currentTimeMillis();
+        int ultimo = textos.length - 1;
+        travaEscrita.lock();
+        try {
+            exigirAberto();
+            long sequencia = 0;
+            for (int i = 0; i <= ultimo; i++) {
+                NovoEvento evento = eventos.get(i);
+                sequencia = acrescentar(instante, evento.tipo(), evento.contaId(), evento.referencia(),
+                        evento.valorCentavos(), evento.saldoCentavos(), textos[i],
+                        i < ultimo ? Registro.CONTINUA | i : i);
+            }
+            return sequencia;
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    @Override
+    public void aguardarDurabilidade(long sequencia) {
+        travaDurabilidade.lock();
+        try {
+            if (sequenciaDuravel >= sequencia) {
+                return;
+            }
+            LockSupport.unpark(threadFsync);
+            while (sequenciaDuravel < sequencia) {
+                if (!aberto) {
+                    throw new IllegalStateException("Diário fechado antes de gravar a sequência " + sequencia);
+                }
+                duravel.await(intervaloFsyncNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando o diário", e);
+        } finally {
+            travaDurabilidade.unlock();
+        }
+    }
+
+    @Override
+    public long ultimaSequencia() {
+        travaEscrita.lock();
+        try {
+            return proximaSequencia - 1;
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    public Path diretorio() {
+        return diretorio;
+    }
+
+    /**
+     * Apaga os segmentos em que todos os registros têm sequência menor que
+     * {@code sequencia}. O segmento corrente nunca é apagado. Devolve quantos
+     * arquivos foram removidos.
+     */
+    public int descartarSegmentosAnteriores(long sequencia) {
+        travaEscrita.lock();
+        try {
+            List<Path> segmentos = Segmentos.listar(diretorio);
+            int apagados = 0;
+            for (int i = 0; i + 1 < segmentos.size()
+                    && Segmentos.primeiraSequencia(segmentos.get(i + 1)) <= sequencia; i++) {
+                Files.delete(segmentos.get(i));
+                apagados++;
+            }
+            return apagados;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            travaEscrita.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        travaEscrita.lock();
+        try {
+            if (!aberto) {
+                return;
+            }
+            aberto = false;
+        } finally {
+            travaEscrita.unlock();
+        }
+        LockSupport.unpark(threadFsync);
+        try {
+            threadFsync.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        travaEscrita.lock();
+        try {
+            segmento.force();
+            marcarDuravel(proximaSequencia - 1);
+            canal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            travaEscrita.unlock();
+        }
+        travaDurabilidade.lock();
+        try {
+            duravel.signalAll();
+        } finally {
+            travaDurabilidade.unlock();
+        }
+    }
+
+    private void cicloDeFsync() {
+        while (aberto) {
+            LockSupport.parkNanos(this, intervaloFsyncNanos);
+            forcar();
+        }
+    }
+
+    // captura sob a trava o trecho a forçar; o force em si roda fora dela
+    private void forcar() {
+        MappedByteBuffer alvo;
+        int de;
+        int ate;
+        long sequencia;
+        travaEscrita.lock();
+        try {
+            if (!aberto) {
+                return;
+            }
+            alvo = segmento;
+            de = posicaoForcada;
+            ate = posicao;
+            sequencia = proximaSequencia - 1;
+            posicaoForcada = ate;
+        } finally {
+            travaEscrita.unlock();
+        }
+        if (ate > de) {
+            alvo.force(de, ate - de);
+        }
+        marcarDuravel(sequencia);
+    }
+
+    private void marcarDuravel(long sequencia) {
+        travaDurabilidade.lock();
+        try {
+            if (sequencia > sequenciaDuravel) {
+                sequenciaDuravel = sequencia;
+                duravel.signalAll();
+            }
+        } finally {
+            travaDurabilidade.unlock();
+        }
+    }
+
+    // chamado com travaEscrita
+    private long acrescentar(long instante, TipoEvento tipo, long contaId, long referencia,
+                             long valorCentavos, long saldoCentavos, byte[] texto, int grupo) {
+        int tamanho = Registro.blocosPara(texto.length) * Registro.TAMANHO_BLOCO;
+        if (posicao + tamanho > tamanhoSegmento) {
+            trocarSegmento();
+        }
+        long sequencia = proximaSequencia++;
+        posicao += Registro.escrever(segmento, posicao, crc, sequencia, instante, tipo,
+                contaId, referencia, valorCentavos, saldoCentavos, texto, grupo);
+        return sequencia;
+    }
+
+    private void exigirAberto() {
+        if (!aberto) {
+            throw new IllegalStateException("Diário fechado");
+        }
+    }
+
+    // chamado com travaEscrita: tudo antes de proximaSequencia fica durável
+    private void trocarSegmento() {
+        try {
+            segmento.force();
+            canal.close();
+            marcarDuravel(proximaSequencia - 1);
+            mapear(Segmentos.arquivo(diretorio, proximaSequencia));
+            posicao = 0;
+            posicaoForcada = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void abrir() {
+        try {
+            Files.createDirectories(diretorio);
+            List<Path> existentes = Segmentos.listar(diretorio);
+            if (existentes.isEmpty()) {
+                mapear(Segmentos.arquivo(diretorio, 1));
+                proximaSequencia = 1;
+                return;
+            }
+            Path ultimo = existentes.get(existentes.size() - 1);
+            mapear(ultimo);
+            long sequencia = Segmentos.primeiraSequencia(ultimo);
+            int tamanho;
+            while ((tamanho = Registro.validar(segmento, posicao, sequencia, crc)) > 0) {
+                posicao += tamanho;
+                sequencia++;
+            }
+            // apaga o que sobrou de uma escrita interrompida
+            // (só escreve onde há lixo, para não sujar páginas que já estão zeradas)
+            for (int i = posicao; i < tamanhoSegmento; i += 8) {
+                if (segmento.getLong(i) != 0L) {
+                    segmento.putLong(i, 0L);
+                }
+            }
+            segmento.force();
+            posicaoForcada = posicao;
+            proximaSequencia = sequencia;
+            sequenciaDuravel = sequencia - 1;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void mapear(Path arquivo) throws IOException {
+        canal = FileChannel.open(arquivo,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamanhoSegmento);
+    }
+}
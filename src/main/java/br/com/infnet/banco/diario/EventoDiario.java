@@ -0,0 +1,20 @@
+package br.com.infnet.banco.diario;
+
+/**
+ * Um registro lido do diário.
+ *
+ * @param referencia conta da outra ponta em créditos/débitos de transferência,
+ *                   ou a sequência anulada em {@link TipoEvento#ANULACAO}
+ * @param titular    preenchido só em {@link TipoEvento#CRIACAO}
+ */
+public record EventoDiario(
+        long sequencia,
+        long instante,
+        TipoEvento tipo,
+        long contaId,
+        long referencia,
+        long valorCentavos,
+        long saldoCentavos,
+        String titular
+) {
+}
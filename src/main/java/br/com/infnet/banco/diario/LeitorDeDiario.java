@@ -0,0 +1,121 @@
+package br.com.infnet.banco.diario;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Lê os segmentos do diário em ordem. Em cada segmento a leitura para no
+ * primeiro registro que não for íntegro (fim dos dados ou escrita
+ * interrompida por uma queda). Grupos só são entregues inteiros: um grupo
+ * interrompido (queda no meio da gravação) é descartado.
+ */
+public final class LeitorDeDiario {
+
+    private LeitorDeDiario() {
+    }
+
+    /**
+     * Entrega ao consumidor, em ordem, os eventos com sequência maior ou
+     * igual a {@code aPartirDe}. Devolve a sequência do último evento de
+     * grupo completo lido (0 se nenhum).
+     */
+    public static long percorrer(Path diretorio, long aPartirDe, Consumer<EventoDiario> consumidor) {
+        List<Path> segmentos = Segmentos.listar(diretorio);
+        Leitura leitura = new Leitura(aPartirDe, consumidor);
+        for (int i = 0; i < segmentos.size(); i++) {
+            // pula segmentos inteiros anteriores ao ponto pedido
+            if (i + 1 < segmentos.size() && Segmentos.primeiraSequencia(segmentos.get(i + 1)) <= aPartirDe) {
+                continue;
+            }
+            leitura.percorrerSegmento(segmentos.get(i));
+        }
+        return leitura.ultima;
+    }
+
+    // sequência do primeiro registro ainda em disco (0 se não houver segmentos)
+    public static long primeiraSequenciaDisponivel(Path diretorio) {
+        List<Path> segmentos = Segmentos.listar(diretorio);
+        return segmentos.isEmpty() ? 0 : Segmentos.primeiraSequencia(segmentos.get(0));
+    }
+
+    private static final class Leitura {
+
+        private final long aPartirDe;
+        private final Consumer<EventoDiario> consumidor;
+        private final CRC32C crc = new CRC32C();
+        // eventos do grupo em andamento, entregues quando o último chegar
+        private final List<EventoDiario> grupo = new ArrayList<>();
+        private boolean emGrupo;
+        private int proximoIndice;
+        private long anterior = -1;
+        private long ultima;
+
+        Leitura(long aPartirDe, Consumer<EventoDiario> consumidor) {
+            this.aPartirDe = aPartirDe;
+            this.consumidor = consumidor;
+        }
+
+        void percorrerSegmento(Path segmento) {
+            try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.READ)) {
+                MappedByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+                long sequencia = Segmentos.primeiraSequencia(segmento);
+                int posicao = 0;
+                int tamanho;
+                while ((tamanho = Registro.validar(dados, posicao, sequencia, crc)) > 0) {
+                    registro(dados, posicao, sequencia);
+                    posicao += tamanho;
+                    sequencia++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void registro(MappedByteBuffer dados, int posicao, long sequencia) {
+            int campo = Registro.grupo(dados, posicao);
+            int indice = campo & ~Registro.CONTINUA;
+            boolean continuacao = emGrupo && indice == proximoIndice && sequencia == anterior + 1;
+            anterior = sequencia;
+            if (indice != 0 && !continuacao) {
+                // resto de um grupo cujo início não foi lido (ou ficou pela metade)
+                descartarGrupo();
+                return;
+            }
+            if (indice == 0) {
+                descartarGrupo();
+            }
+            if (campo == 0) {
+                // evento avulso, o caso comum
+                if (sequencia >= aPartirDe) {
+                    consumidor.accept(Registro.ler(dados, posicao));
+                }
+                ultima = sequencia;
+                return;
+            }
+            if (sequencia >= aPartirDe) {
+                grupo.add(Registro.ler(dados, posicao));
+            }
+            if ((campo & Registro.CONTINUA) != 0) {
+                emGrupo = true;
+                proximoIndice = indice + 1;
+                return;
+            }
+            grupo.forEach(consumidor);
+            descartarGrupo();
+            ultima = sequencia;
+        }
+
+        private void descartarGrupo() {
+            grupo.clear();
+            emGrupo = false;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.infnet.banco.diario;
+
+/**
+ * Evento ainda não gravado, para {@link Diario#registrarGrupo}.
+ */
+public record NovoEvento(
+        TipoEvento tipo,
+        long contaId,
+        long referencia,
+        long valorCentavos,
+        long saldoCentavos,
+        String titular
+) {
+}
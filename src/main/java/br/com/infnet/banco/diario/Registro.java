@@ -0,0 +1,149 @@
+package br.com.infnet.banco.diario;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Formato binário de um registro do diário: blocos de 64 bytes, o primeiro
+ * com o cabeçalho e os seguintes (só na criação) com o titular em UTF-8.
+ *
+ * <pre>
+ *  0 int   mágico        8 long sequência    32 long referência   56 int grupo
+ *  4 byte  tipo         16 long instante     40 long valor        60 int CRC32C
+ *  5 byte  blocos       24 long conta        48 long saldo
+ *  6 short bytes do titular
+ * </pre>
+ *
+ * O CRC cobre o registro inteiro exceto o próprio campo.
+ *
+ * <p>Eventos que precisam valer juntos (uma transação, as duas pontas de uma
+ * transferência) são gravados em sequência como um grupo: o campo
+ * {@code grupo} traz a posição do registro no grupo e o bit
+ * {@link #CONTINUA} em todos menos o último. Um evento avulso é um grupo de
+ * um registro ({@code grupo == 0}).
+ */
+final class Registro {
+
+    static final int TAMANHO_BLOCO = 64;
+    static final int MAGICO = 0x44494152; // "DIAR"
+    static final int MAXIMO_BLOCOS = 127;
+    // bit do campo grupo: há mais registros do mesmo grupo depois deste
+    static final int CONTINUA = 0x8000_0000;
+
+    private static final int POS_TIPO = 4;
+    private static final int POS_BLOCOS = 5;
+    private static final int POS_TAMANHO_TEXTO = 6;
+    private static final int POS_SEQUENCIA = 8;
+    private static final int POS_INSTANTE = 16;
+    private static final int POS_CONTA = 24;
+    private static final int POS_REFERENCIA = 32;
+    private static final int POS_VALOR = 40;
+    private static final int POS_SALDO = 48;
+    private static final int POS_GRUPO = 56;
+    private static final int POS_CRC = 60;
+
+    private Registro() {
+    }
+
+    static int blocosPara(int bytesDeTexto) {
+        return 1 + (bytesDeTexto + TAMANHO_BLOCO - 1) / TAMANHO_BLOCO;
+    }
+
+    static byte[] texto(String titular) {
+        if (titular == null) {
+            return new byte[0];
+        }
+        byte[] bytes = titular.getBytes(StandardCharsets.UTF_8);
+        if (blocosPara(bytes.length) > MAXIMO_BLOCOS) {
+            throw new IllegalArgumentException("Titular muito longo para o diário: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    /**
+     * Escreve o registro em {@code destino} a partir de {@code posicao} (escrita
+     * absoluta, sem mexer na posição do buffer) e devolve quantos bytes ocupou.
+     */
+    static int escrever(ByteBuffer destino, int posicao, CRC32C crc,
+                        long sequencia, long instante, TipoEvento tipo,
+                        long contaId, long referencia, long valor, long saldo, byte[] texto, int grupo) {
+        int blocos = blocosPara(texto.length);
+        destino.putInt(posicao, MAGICO);
+        destino.put(posicao + POS_TIPO, tipo.codigo());
+        destino.put(posicao + POS_BLOCOS, (byte) blocos);
+        destino.putShort(posicao + POS_TAMANHO_TEXTO, (short) texto.length);
+        destino.putLong(posicao + POS_SEQUENCIA, sequencia);
+        destino.putLong(posicao + POS_INSTANTE, instante);
+        destino.putLong(posicao + POS_CONTA, contaId);
+        destino.putLong(posicao + POS_REFERENCIA, referencia);
+        destino.putLong(posicao + POS_VALOR, valor);
+        destino.putLong(posicao + POS_SALDO, saldo);
+        destino.putInt(posicao + POS_GRUPO, grupo);
+        if (texto.length > 0) {
+            destino.put(posicao + TAMANHO_BLOCO, texto);
+            // completa o último bloco com zeros
+            int fim = posicao + blocos * TAMANHO_BLOCO;
+            for (int i = posicao + TAMANHO_BLOCO + texto.length; i < fim; i++) {
+                destino.put(i, (byte) 0);
+            }
+        }
+        destino.putInt(posicao + POS_CRC, calcularCrc(destino, posicao, blocos, crc));
+        return blocos * TAMANHO_BLOCO;
+    }
+
+    /**
+     * Tamanho em bytes do registro válido em {@code posicao}, ou -1 se ali não
+     * houver um registro íntegro com a sequência esperada (fim do diário,
+     * escrita interrompida ou lixo).
+     */
+    static int validar(ByteBuffer origem, int posicao, long sequenciaEsperada, CRC32C crc) {
+        if (posicao + TAMANHO_BLOCO > origem.limit() || origem.getInt(posicao) != MAGICO) {
+            return -1;
+        }
+        int blocos = origem.get(posicao + POS_BLOCOS);
+        if (blocos < 1 || blocos > MAXIMO_BLOCOS
+                || posicao + blocos * TAMANHO_BLOCO > origem.limit()
+                || TipoEvento.doCodigo(origem.get(posicao + POS_TIPO)) == null
+                || origem.getLong(posicao + POS_SEQUENCIA) != sequenciaEsperada
+                || origem.getInt(posicao + POS_CRC) != calcularCrc(origem, posicao, blocos, crc)) {
+            return -1;
+        }
+        return blocos * TAMANHO_BLOCO;
+    }
+
+    // supõe um registro já validado
+    static EventoDiario ler(ByteBuffer origem, int posicao) {
+        int tamanhoTexto = origem.getShort(posicao + POS_TAMANHO_TEXTO);
+        String titular = null;
+        if (tamanhoTexto > 0) {
+            byte[] texto = new byte[tamanhoTexto];
+            origem.get(posicao + TAMANHO_BLOCO, texto);
+            titular = new String(texto, StandardCharsets.UTF_8);
+        }
+        return new EventoDiario(
+                origem.getLong(posicao + POS_SEQUENCIA),
+                origem.getLong(posicao + POS_INSTANTE),
+                TipoEvento.doCodigo(origem.get(posicao + POS_TIPO)),
+                origem.getLong(posicao + POS_CONTA),
+                origem.getLong(posicao + POS_REFERENCIA),
+                origem.getLong(posicao + POS_VALOR),
+                origem.getLong(posicao + POS_SALDO),
+                titular
+        );
+    }
+
+    // campo grupo de um registro já validado
+    static int grupo(ByteBuffer origem, int posicao) {
+        return origem.getInt(posicao + POS_GRUPO);
+    }
+
+    private static int calcularCrc(ByteBuffer buffer, int posicao, int blocos, CRC32C crc) {
+        crc.reset();
+        crc.update(buffer.slice(posicao, POS_CRC));
+        if (blocos > 1) {
+            crc.update(buffer.slice(posicao + TAMANHO_BLOCO, (blocos - 1) * TAMANHO_BLOCO));
+        }
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,47 @@
+package br.com.infnet.banco.diario;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Nomes dos arquivos de segmento: {@code diario-<primeira sequência>.seg},
+ * com a sequência em 20 dígitos para que a ordem alfabética seja a cronológica.
+ */
+final class Segmentos {
+
+    private static final String PREFIXO = "diario-";
+    private static final String EXTENSAO = ".seg";
+
+    private Segmentos() {
+    }
+
+    static Path arquivo(Path diretorio, long primeiraSequencia) {
+        return diretorio.resolve(String.format("%s%020d%s", PREFIXO, primeiraSequencia, EXTENSAO));
+    }
+
+    static long primeiraSequencia(Path segmento) {
+        String nome = segmento.getFileName().toString();
+        return Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - EXTENSAO.length()));
+    }
+
+    static List<Path> listar(Path diretorio) {
+        if (!Files.isDirectory(diretorio)) {
+            return List.of();
+        }
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos
+                    .filter(p -> {
+                        String nome = p.getFileName().toString();
+                        return nome.startsWith(PREFIXO) && nome.endsWith(EXTENSAO);
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.infnet.banco.diario;
+
+/**
+ * Tipos de evento gravados no diário. O código é o byte gravado em disco
+ * e não pode mudar.
+ */
+public enum TipoEvento {
+
+    CRIACAO(1),
+    ALTERACAO_SALDO(2),
+    EXCLUSAO(3),
+    CREDITO(4),
+    DEBITO(5),
+    // evento registrado dentro de uma transação que não foi confirmada
+    ANULACAO(6);
+
+    private static final TipoEvento[] POR_CODIGO = new TipoEvento[7];
+
+    static {
+        for (TipoEvento tipo : values()) {
+            POR_CODIGO[tipo.codigo] = tipo;
+        }
+    }
+
+    private final byte codigo;
+
+    TipoEvento(int codigo) {
+        this.codigo = (byte) codigo;
+    }
+
+    public byte codigo() {
+        return codigo;
+    }
+
+    // null para códigos desconhecidos (registro corrompido)
+    static TipoEvento doCodigo(byte codigo) {
+        return codigo > 0 && codigo < POR_CODIGO.length ? POR_CODIGO[codigo] : null;
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.infnet.banco.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Dados de entrada para criação de conta (usado na criação em lote).
+ */
+public record NovaConta(String titular, BigDecimal saldoInicial) {
+}
@@ -0,0 +1,29 @@
+package br.com.infnet.banco.dto;
+
+import br.com.infnet.banco.entity.Dinheiro;
+
+import java.math.BigDecimal;
+
+/**
+ * Agregado dos saldos, em centavos: quantidade, total, menor e maior.
+ */
+public record ResumoDeSaldos(int quantidade, long totalEmCentavos, long menorEmCentavos, long maiorEmCentavos) {
+
+    public BigDecimal total() {
+        return Dinheiro.paraBigDecimal(totalEmCentavos);
+    }
+
+    public BigDecimal menor() {
+        return Dinheiro.paraBigDecimal(menorEmCentavos);
+    }
+
+    public BigDecimal maior() {
+        return Dinheiro.paraBigDecimal(maiorEmCentavos);
+    }
+
+    public BigDecimal media() {
+        return quantidade == 0
+                ? Dinheiro.paraBigDecimal(0)
+                : Dinheiro.paraBigDecimal(Math.round((double) totalEmCentavos / quantidade));
+    }
+}
@@ -0,0 +1,16 @@
+package br.com.infnet.banco.dto;
+
+import br.com.infnet.banco.entity.Dinheiro;
+
+import java.math.BigDecimal;
+
+/**
+ * Id, titular e saldo de uma conta, montados direto pela consulta (sem
+ * entidade gerenciada nem versão).
+ */
+public record SaldoDeConta(long id, String titular, long saldoEmCentavos) {
+
+    public BigDecimal saldo() {
+        return Dinheiro.paraBigDecimal(saldoEmCentavos);
+    }
+}
@@ -1,46 +1,116 @@
 package br.com.infnet.banco.entity;
 
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
 
 @Entity
-@Table(name = "conta")
+// cache de segundo nível (região "conta" do ehcache.xml); READ_WRITE trava a entrada durante a escrita
+// e só grava o valor novo depois do commit. UPDATE/DELETE em massa limpam a região inteira
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "conta")
+// um só índice serve às duas buscas por titular: cada índice a mais pesa na carga em lote da restauração
+@Table(name = "conta", indexes = @Index(name = "idx_conta_titular_minusculo", columnList = "titular_minusculo"))
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class Conta {
 
+    // sequence com pooled-lo: permite batch de INSERT (IDENTITY desabilita o batching do Hibernate)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "conta_seq")
+    @SequenceGenerator(name = "conta_seq", sequenceName = "conta_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String titular;
 
+    // calculada pelo banco (lower(titular)) só para o índice das buscas por titular; nunca escrita pela aplicação
+    @Column(name = "titular_minusculo", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(titular))")
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private String titularMinusculo;
+
+    // saldo em centavos; a coluna continua DECIMAL via DinheiroConverter
+    @Convert(converter = DinheiroConverter.class)
     @Column(nullable = false)
-    private BigDecimal saldo;
+    private long saldo;
+
+    // lock otimista: UPDATE ... WHERE versao = ? detecta escritas concorrentes
+    @Version
+    private Long versao;
+
+    public Conta(Long id, String titular, BigDecimal saldo) {
+        this.id = id;
+        this.titular = titular;
+        this.saldo = Dinheiro.deBigDecimal(saldo);
+    }
 
     public Conta(String titular, BigDecimal saldo) {
         validarSaldoInicial(saldo);
         this.titular = titular;
-        this.saldo = saldo.setScale(2);
+        this.saldo = Dinheiro.deBigDecimal(saldo);
+    }
+
+    // cópia desanexada (usada pelo cache para não expor a instância armazenada)
+    public Conta copiar() {
+        Conta copia = new Conta();
+        copia.id = id;
+        copia.titular = titular;
+        copia.saldo = saldo;
+        copia.versao = versao;
+        return copia;
+    }
+
+    public BigDecimal getSaldo() {
+        return Dinheiro.paraBigDecimal(saldo);
+    }
+
+    public void setSaldo(BigDecimal saldo) {
+        this.saldo = Dinheiro.deBigDecimal(saldo);
+    }
+
+    public long getSaldoEmCentavos() {
+        return saldo;
+    }
+
+    public void setSaldoEmCentavos(long centavos) {
+        this.saldo = centavos;
     }
 
     public void creditar(BigDecimal valor) {
         validarValorPositivo(valor);
-        this.saldo = this.saldo.add(valor);
+        creditarCentavos(Dinheiro.deBigDecimal(valor));
     }
 
     public void debitar(BigDecimal valor) {
         validarValorPositivo(valor);
-        if (valor.compareTo(this.saldo) > 0) {
+        debitarCentavos(Dinheiro.deBigDecimal(valor));
+    }
+
+    // caminho sem alocação: operações direto em centavos
+    public void creditarCentavos(long centavos) {
+        validarValorPositivo(centavos);
+        this.saldo = Dinheiro.somar(this.saldo, centavos);
+    }
+
+    public void debitarCentavos(long centavos) {
+        validarValorPositivo(centavos);
+        if (centavos > this.saldo) {
             throw new br.com.infnet.banco.exception.SaldoInsuficienteException();
         }
-        this.saldo = this.saldo.subtract(valor);
+        this.saldo = Dinheiro.subtrair(this.saldo, centavos);
     }
 
     private void validarSaldoInicial(BigDecimal saldoInicial) {
@@ -55,19 +125,39 @@ public class Conta {
         }
     }
 
+    private void validarValorPositivo(long centavos) {
+        if (centavos <= 0) {
+            throw new IllegalArgumentException("Valor deve ser positivo");
+        }
+    }
+
+    // mesma caixa do antigo String.format, montada sem formatador
     @Override
     public String toString() {
-        return String.format(
-                """
-                ╭─────┬──────────────────────┬───────────────╮
-                │ ID  │ Titular              │ Saldo         │
-                ├─────┼──────────────────────┼───────────────┤
-                │ %-3d │ %-20s │ R$ %-10s │
-                ╰─────┴──────────────────────┴───────────────╯
-                """,
-                id,
-                titular,
-                String.format("%.2f", saldo)
-        );
+        StringBuilder caixa = new StringBuilder(256)
+                .append("╭─────┬──────────────────────┬───────────────╮\n")
+                .append("│ ID  │ Titular              │ Saldo         │\n")
+                .append("├─────┼──────────────────────┼───────────────┤\n")
+                .append("│ ");
+        int inicio = caixa.length();
+        completar(caixa.append(id), inicio, 3).append(" │ ");
+        inicio = caixa.length();
+        completar(caixa.append(titular), inicio, 20).append(" │ R$ ");
+        inicio = caixa.length();
+        completar(Dinheiro.escrever(caixa, saldo, separadorDecimal()), inicio, 10).append(" │\n");
+        return caixa.append("╰─────┴──────────────────────┴───────────────╯\n").toString();
+    }
+
+    // alinha à esquerda (como %-Ns): completa com espaços o campo iniciado em inicio
+    private static StringBuilder completar(StringBuilder texto, int inicio, int largura) {
+        for (int i = texto.length() - inicio; i < largura; i++) {
+            texto.append(' ');
+        }
+        return texto;
+    }
+
+    // o %.2f usava o separador do locale padrão de formatação
+    private static char separadorDecimal() {
+        return DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getDecimalSeparator();
     }
 }
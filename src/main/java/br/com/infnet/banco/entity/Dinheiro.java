@@ -0,0 +1,79 @@
+package br.com.infnet.banco.entity;
+
+import br.com.infnet.banco.exception.OperacaoInvalidaException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Aritmética monetária em ponto fixo: valores são {@code long} em centavos
+ * (escala fixa de 2 casas). As operações não alocam objetos; a conversão
+ * para/de {@link BigDecimal} acontece somente nas bordas (CLI, JPA).
+ */
+public final class Dinheiro {
+
+    public static final int ESCALA = 2;
+
+    private Dinheiro() {
+    }
+
+    // soma com verificação de overflow
+    public static long somar(long centavos, long parcela) {
+        try {
+            return Math.addExact(centavos, parcela);
+        } catch (ArithmeticException e) {
+            throw new OperacaoInvalidaException("Operação excede o limite de valor suportado.");
+        }
+    }
+
+    // subtração com verificação de overflow
+    public static long subtrair(long centavos, long parcela) {
+        try {
+            return Math.subtractExact(centavos, parcela);
+        } catch (ArithmeticException e) {
+            throw new OperacaoInvalidaException("Operação excede o limite de valor suportado.");
+        }
+    }
+
+    /**
+     * Converte um valor com no máximo 2 casas decimais para centavos.
+     */
+    public static long deBigDecimal(BigDecimal valor) {
+        if (valor.scale() > ESCALA && valor.stripTrailingZeros().scale() > ESCALA) {
+            throw new IllegalArgumentException("Valor deve ter no máximo 2 casas decimais: " + valor);
+        }
+        try {
+            return valor.movePointRight(ESCALA).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new OperacaoInvalidaException("Valor excede o limite suportado: " + valor);
+        }
+    }
+
+    /**
+     * Converte para centavos arredondando para 2 casas (HALF_UP).
+     */
+    public static long deBigDecimalArredondado(BigDecimal valor) {
+        return deBigDecimal(valor.setScale(ESCALA, RoundingMode.HALF_UP));
+    }
+
+    public static BigDecimal paraBigDecimal(long centavos) {
+        return BigDecimal.valueOf(centavos, ESCALA);
+    }
+
+    /**
+     * Escreve o valor com 2 casas, como {@code String.format("%.2f")}, sem
+     * passar por {@link BigDecimal} nem alocar texto intermediário.
+     */
+    public static StringBuilder escrever(StringBuilder destino, long centavos, char separadorDecimal) {
+        long inteiro = centavos / 100;
+        int resto = (int) Math.abs(centavos % 100);
+        if (centavos < 0) {
+            destino.append('-');
+        }
+        destino.append(Math.abs(inteiro)).append(separadorDecimal);
+        if (resto < 10) {
+            destino.append('0');
+        }
+        return destino.append(resto);
+    }
+}
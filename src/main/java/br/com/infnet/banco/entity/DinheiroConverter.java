@@ -0,0 +1,24 @@
+package br.com.infnet.banco.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Mantém a coluna {@code saldo} como DECIMAL no banco enquanto a entidade
+ * trabalha com centavos em {@code long}.
+ */
+@Converter
+public class DinheiroConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long centavos) {
+        return centavos == null ? null : Dinheiro.paraBigDecimal(centavos);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal valor) {
+        return valor == null ? null : Dinheiro.deBigDecimal(valor);
+    }
+}
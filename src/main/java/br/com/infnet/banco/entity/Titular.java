@@ -0,0 +1,35 @@
+package br.com.infnet.banco.entity;
+
+import java.util.Locale;
+
+/**
+ * Forma do titular usada nas buscas sem diferenciar maiúsculas: a mesma
+ * conversão da coluna {@code titular_minusculo} ({@code lower(titular)}),
+ * feita em Java com {@link Locale#ROOT}.
+ */
+public final class Titular {
+
+    // escapa % e _ no LIKE
+    public static final char ESCAPE = '!';
+
+    private Titular() {
+    }
+
+    public static String normalizar(String titular) {
+        return titular.toLowerCase(Locale.ROOT);
+    }
+
+    // padrão LIKE "prefixo%" em minúsculas, com os curingas do próprio prefixo escapados
+    public static String padraoDePrefixo(String prefixo) {
+        String normalizado = normalizar(prefixo);
+        StringBuilder padrao = new StringBuilder(normalizado.length() + 4);
+        for (int i = 0; i < normalizado.length(); i++) {
+            char c = normalizado.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                padrao.append(ESCAPE);
+            }
+            padrao.append(c);
+        }
+        return padrao.append('%').toString();
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.infnet.banco.esteira;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Buffer circular de {@link Comando} com vários produtores e um único
+ * consumidor. As posições são alocadas uma vez e reaproveitadas; cada
+ * produtor reserva uma sequência com um incremento atômico, preenche a
+ * posição e a publica. O consumidor lê as sequências em ordem e libera as
+ * posições depois de processá-las. Com o anel cheio o produtor espera.
+ */
+final class AnelDeComandos {
+
+    // espera do produtor com o anel cheio, entre verificações
+    private static final long ESPERA_PRODUTOR_NANOS = 50_000;
+
+    private final Comando[] posicoes;
+    private final int mascara;
+    private final AtomicLong proximaReserva = new AtomicLong();
+    // última sequência processada pelo consumidor; posições até ela podem ser reutilizadas
+    private volatile long liberadoAte = -1;
+
+    private volatile Thread consumidor;
+    private volatile boolean consumidorAguardando;
+
+    AnelDeComandos(int capacidade) {
+        if (capacidade <= 0 || Integer.bitCount(capacidade) != 1) {
+            throw new IllegalArgumentException("Capacidade da esteira deve ser potência de dois: " + capacidade);
+        }
+        posicoes = new Comando[capacidade];
+        for (int i = 0; i < capacidade; i++) {
+            posicoes[i] = new Comando();
+        }
+        mascara = capacidade - 1;
+    }
+
+    int capacidade() {
+        return posicoes.length;
+    }
+
+    // produtor
+
+    long reservar() {
+        long sequencia = proximaReserva.getAndIncrement();
+        while (sequencia - posicoes.length > liberadoAte) {
+            LockSupport.parkNanos(this, ESPERA_PRODUTOR_NANOS);
+        }
+        return sequencia;
+    }
+
+    Comando posicao(long sequencia) {
+        return posicoes[(int) sequencia & mascara];
+    }
+
+    void publicar(long sequencia) {
+        posicao(sequencia).publicado = sequencia;
+        // lido depois da escrita volátil acima: ou o consumidor vê o comando, ou nós vemos que ele dorme
+        if (consumidorAguardando) {
+            LockSupport.unpark(consumidor);
+        }
+    }
+
+    // consumidor (sempre a mesma thread)
+
+    void registrarConsumidor(Thread thread) {
+        consumidor = thread;
+    }
+
+    /** Quantos comandos seguidos, a partir de {@code sequencia}, já foram publicados (até {@code maximo}). */
+    int publicados(long sequencia, int maximo) {
+        int quantidade = 0;
+        while (quantidade < maximo && posicao(sequencia + quantidade).publicado == sequencia + quantidade) {
+            quantidade++;
+        }
+        return quantidade;
+    }
+
+    /** Dorme até {@code sequencia} ser publicada, até {@code nanos} passarem ou até {@link #acordar()}. */
+    void aguardar(long sequencia, long nanos) {
+        consumidorAguardando = true;
+        if (posicao(sequencia).publicado != sequencia) {
+            LockSupport.parkNanos(this, nanos);
+        }
+        consumidorAguardando = false;
+    }
+
+    void acordar() {
+        LockSupport.unpark(consumidor);
+    }
+
+    void liberar(long ateSequencia) {
+        liberadoAte = ateSequencia;
+    }
+
+    /** Todas as sequências reservadas até agora já foram liberadas. */
+    boolean vazio() {
+        return proximaReserva.get() == liberadoAte + 1;
+    }
+}
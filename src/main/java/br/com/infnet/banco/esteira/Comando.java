@@ -0,0 +1,82 @@
+package br.com.infnet.banco.esteira;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.service.MovimentoDeSaldo;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Posição do {@link AnelDeComandos}, reaproveitada a cada volta. O produtor
+ * preenche os campos e só então grava {@link #publicado} (volátil); o
+ * escritor lê {@code publicado} antes dos campos.
+ */
+final class Comando implements MovimentoDeSaldo {
+
+    // sequência do comando que ocupa a posição; -1 enquanto nenhum foi publicado
+    volatile long publicado = -1;
+
+    private Tipo tipo;
+    private long contaId;
+    private long centavos;
+    private CompletableFuture<Conta> futuro;
+
+    // preenchidos pelo escritor
+    private Conta resultado;
+    private RuntimeException erro;
+
+    void preparar(Tipo tipo, long contaId, long centavos, CompletableFuture<Conta> futuro) {
+        this.tipo = tipo;
+        this.contaId = contaId;
+        this.centavos = centavos;
+        this.futuro = futuro;
+        limparResultado();
+    }
+
+    void limparResultado() {
+        resultado = null;
+        erro = null;
+    }
+
+    CompletableFuture<Conta> futuro() {
+        return futuro;
+    }
+
+    Conta resultado() {
+        return resultado;
+    }
+
+    RuntimeException erro() {
+        return erro;
+    }
+
+    // solta as referências para a posição não segurar objetos até a próxima volta
+    void esvaziar() {
+        futuro = null;
+        limparResultado();
+    }
+
+    @Override
+    public Tipo tipo() {
+        return tipo;
+    }
+
+    @Override
+    public long contaId() {
+        return contaId;
+    }
+
+    @Override
+    public long centavos() {
+        return centavos;
+    }
+
+    @Override
+    public void concluido(Conta conta) {
+        resultado = conta;
+    }
+
+    @Override
+    public void falhou(RuntimeException erro) {
+        this.erro = erro;
+    }
+}
@@ -0,0 +1,222 @@
+package br.com.infnet.banco.esteira;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.entity.Dinheiro;
+import br.com.infnet.banco.service.ContaService;
+import br.com.infnet.banco.service.MovimentoDeSaldo.Tipo;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Esteira de alterações de saldo com escritor único
+ * ({@code banco.esteira.habilitada=true}).
+ *
+ * <p>Os comandos entram em um {@link AnelDeComandos} e uma só thread
+ * ({@code esteira-saldos}) os aplica na ordem de chegada, em lotes: cada
+ * transação leva até {@code banco.esteira.tamanho-lote} comandos ou o que
+ * chegar em {@code banco.esteira.intervalo-lote-ms}, o que vier primeiro.
+ * O futuro de cada comando é completado depois do commit do seu lote, com
+ * a conta como ficou depois dele, ou com a exceção que o impediu (conta
+ * inexistente, saldo insuficiente). Se o lote inteiro falhar no banco, os
+ * comandos são refeitos um a um, para que só o culpado receba o erro.
+ *
+ * <p>A esteira grava pelo {@link ContaService}; no perfil {@code memoria} o
+ * motor em memória é quem manda nos saldos, e ela não é criada.
+ */
+@Component
+@Profile("!memoria")
+@ConditionalOnProperty(name = "banco.esteira.habilitada", havingValue = "true")
+public class EsteiraDeSaldos implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(EsteiraDeSaldos.class);
+
+    // sono do escritor ocioso entre verificações de encerramento
+    private static final long ESPERA_OCIOSA_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final ContaService contaService;
+    private final AnelDeComandos anel;
+    private final int tamanhoLote;
+    private final long intervaloLoteNanos;
+
+    private volatile boolean aberta = true;
+    // produtores entre a verificação de "aberta" e a publicação do comando
+    private final AtomicInteger produtoresAtivos = new AtomicInteger();
+    private final AtomicLong lotes = new AtomicLong();
+    private final AtomicLong comandos = new AtomicLong();
+    private Thread escritor;
+
+    public EsteiraDeSaldos(ContaService contaService,
+                           @Value("${banco.esteira.capacidade:1024}") int capacidade,
+                           @Value("${banco.esteira.tamanho-lote:256}") int tamanhoLote,
+                           @Value("${banco.esteira.intervalo-lote-ms:1}") long intervaloLoteMs) {
+        if (tamanhoLote <= 0) {
+            throw new IllegalArgumentException("Tamanho do lote da esteira deve ser positivo: " + tamanhoLote);
+        }
+        this.contaService = contaService;
+        this.anel = new AnelDeComandos(capacidade);
+        this.tamanhoLote = Math.min(tamanhoLote, capacidade);
+        this.intervaloLoteNanos = TimeUnit.MILLISECONDS.toNanos(intervaloLoteMs);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        escritor = Thread.ofPlatform().name("esteira-saldos").daemon(true).unstarted(this::executar);
+        anel.registrarConsumidor(escritor);
+        escritor.start();
+    }
+
+    /** Para de aceitar comandos e espera o escritor aplicar os que já entraram. */
+    @PreDestroy
+    public void encerrar() {
+        aberta = false;
+        if (escritor == null) {
+            return;
+        }
+        anel.acordar();
+        try {
+            escritor.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // comandos
+
+    public CompletableFuture<Conta> alterarSaldo(Long id, BigDecimal novoSaldo) {
+        if (novoSaldo == null || novoSaldo.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Saldo deve ser maior que zero");
+        }
+        return enviar(Tipo.ALTERACAO, id, Dinheiro.deBigDecimalArredondado(novoSaldo));
+    }
+
+    public CompletableFuture<Conta> creditar(Long id, BigDecimal valor) {
+        return enviar(Tipo.CREDITO, id, paraCentavosPositivos(valor));
+    }
+
+    public CompletableFuture<Conta> debitar(Long id, BigDecimal valor) {
+        return enviar(Tipo.DEBITO, id, paraCentavosPositivos(valor));
+    }
+
+    public long lotesProcessados() {
+        return lotes.get();
+    }
+
+    public long comandosProcessados() {
+        return comandos.get();
+    }
+
+    private CompletableFuture<Conta> enviar(Tipo tipo, long contaId, long centavos) {
+        CompletableFuture<Conta> futuro = new CompletableFuture<>();
+        produtoresAtivos.incrementAndGet();
+        try {
+            if (!aberta) {
+                throw new IllegalStateException("Esteira de saldos encerrada");
+            }
+            long sequencia = anel.reservar();
+            anel.posicao(sequencia).preparar(tipo, contaId, centavos, futuro);
+            anel.publicar(sequencia);
+        } finally {
+            produtoresAtivos.decrementAndGet();
+        }
+        return futuro;
+    }
+
+    private static long paraCentavosPositivos(BigDecimal valor) {
+        if (valor == null || valor.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Valor deve ser positivo");
+        }
+        return Dinheiro.deBigDecimal(valor);
+    }
+
+    // escritor
+
+    private void executar() {
+        long proximo = 0;
+        while (true) {
+            int quantidade = anel.publicados(proximo, tamanhoLote);
+            if (quantidade == 0) {
+                // encerrada, sem produtor no meio de uma publicação e tudo processado
+                if (!aberta && produtoresAtivos.get() == 0 && anel.vazio()) {
+                    return;
+                }
+                anel.aguardar(proximo, ESPERA_OCIOSA_NANOS);
+                continue;
+            }
+            // lote incompleto: espera mais um pouco por comandos que estão chegando
+            long limite = System.nanoTime() + intervaloLoteNanos;
+            long restante;
+            while (quantidade < tamanhoLote && aberta && (restante = limite - System.nanoTime()) > 0) {
+                anel.aguardar(proximo + quantidade, restante);
+                quantidade = anel.publicados(proximo, tamanhoLote);
+            }
+            processar(proximo, quantidade);
+            proximo += quantidade;
+        }
+    }
+
+    private void processar(long inicio, int quantidade) {
+        List<Comando> lote = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            lote.add(anel.posicao(inicio + i));
+        }
+        try {
+            contaService.aplicarMovimentos(lote);
+        } catch (RuntimeException e) {
+            if (quantidade == 1) {
+                lote.get(0).limparResultado();
+                lote.get(0).falhou(e);
+            } else {
+                log.warn("Lote de {} comandos da esteira falhou; reaplicando um a um", quantidade, e);
+                for (Comando comando : lote) {
+                    aplicarSozinho(comando);
+                }
+            }
+        }
+
+        // copia os resultados e libera as posições antes de acordar quem espera
+        @SuppressWarnings("unchecked")
+        CompletableFuture<Conta>[] futuros = new CompletableFuture[quantidade];
+        Object[] resultados = new Object[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            Comando comando = lote.get(i);
+            futuros[i] = comando.futuro();
+            resultados[i] = comando.erro() != null ? comando.erro() : comando.resultado();
+            comando.esvaziar();
+        }
+        anel.liberar(inicio + quantidade - 1);
+        lotes.incrementAndGet();
+        comandos.addAndGet(quantidade);
+
+        for (int i = 0; i < quantidade; i++) {
+            if (resultados[i] instanceof RuntimeException erro) {
+                futuros[i].completeExceptionally(erro);
+            } else {
+                futuros[i].complete((Conta) resultados[i]);
+            }
+        }
+    }
+
+    private void aplicarSozinho(Comando comando) {
+        comando.limparResultado();
+        try {
+            contaService.aplicarMovimentos(List.of(comando));
+        } catch (RuntimeException e) {
+            comando.limparResultado();
+            comando.falhou(e);
+        }
+    }
+}
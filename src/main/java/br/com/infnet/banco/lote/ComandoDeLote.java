@@ -0,0 +1,77 @@
+package br.com.infnet.banco.lote;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.service.MovimentoDeSaldo;
+
+/**
+ * Uma linha do arquivo de lote já interpretada. As instâncias de um bloco
+ * são reaproveitadas de um bloco para o outro.
+ */
+final class ComandoDeLote implements MovimentoDeSaldo {
+
+    enum Operacao {
+        CRIAR, CONSULTAR, ALTERAR, CREDITAR, DEBITAR, EXCLUIR, INVALIDO;
+
+        // alterações de saldo: vão juntas para ContaService.aplicarMovimentos
+        boolean movimento() {
+            return this == ALTERAR || this == CREDITAR || this == DEBITAR;
+        }
+    }
+
+    Operacao operacao;
+    long linha;
+    long contaId;
+    long centavos;
+    String titular;
+
+    // resultado
+    Conta conta;
+    String erro;
+
+    void limpar(long linha) {
+        this.linha = linha;
+        operacao = Operacao.INVALIDO;
+        contaId = 0;
+        centavos = 0;
+        titular = null;
+        conta = null;
+        erro = null;
+    }
+
+    void invalido(String mensagem) {
+        operacao = Operacao.INVALIDO;
+        erro = mensagem;
+    }
+
+    @Override
+    public Tipo tipo() {
+        return switch (operacao) {
+            case ALTERAR -> Tipo.ALTERACAO;
+            case CREDITAR -> Tipo.CREDITO;
+            case DEBITAR -> Tipo.DEBITO;
+            default -> throw new IllegalStateException("Não é um movimento de saldo: " + operacao);
+        };
+    }
+
+    @Override
+    public long contaId() {
+        return contaId;
+    }
+
+    @Override
+    public long centavos() {
+        return centavos;
+    }
+
+    @Override
+    public void concluido(Conta conta) {
+        this.conta = conta;
+        this.erro = null;
+    }
+
+    @Override
+    public void falhou(RuntimeException erro) {
+        this.conta = null;
+        this.erro = erro.getMessage() == null ? erro.getClass().getSimpleName() : erro.getMessage();
+    }
+}
@@ -0,0 +1,187 @@
+package br.com.infnet.banco.lote;
+
+import br.com.infnet.banco.dto.NovaConta;
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.entity.Dinheiro;
+import br.com.infnet.banco.lote.ComandoDeLote.Operacao;
+import br.com.infnet.banco.service.ContaService;
+import br.com.infnet.banco.service.OperacoesConta;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Modo lote do CLI (argumento {@code lote}): executa os comandos lidos pelo
+ * {@link LeitorDeComandos} em blocos de {@code banco.lote.tamanho-bloco}.
+ *
+ * <p>Dentro de um bloco, alterações de saldo seguidas vão juntas para
+ * {@link ContaService#aplicarMovimentos} (uma transação) e criações seguidas
+ * para {@link ContaService#criarEmLote}; consultas e exclusões são
+ * executadas uma a uma. A ordem das linhas é respeitada. Um comando com erro
+ * não impede os demais: se uma transação em grupo falhar, seus comandos são
+ * refeitos um a um. No perfil {@code memoria} tudo vai, um a um, para o
+ * motor em memória.
+ *
+ * <p>Consultas são escritas na saída como {@code id saldo titular}; erros
+ * como {@code linha N: mensagem}.
+ */
+@Component
+public class ExecutorDeLote {
+
+    private static final int TAMANHO_BUFFER_SAIDA = 64 * 1024;
+
+    private final OperacoesConta operacoes;
+    private final ContaService contaService;
+    private final int tamanhoBloco;
+
+    public ExecutorDeLote(OperacoesConta operacoes,
+                          ContaService contaService,
+                          @Value("${banco.lote.tamanho-bloco:1000}") int tamanhoBloco) {
+        if (tamanhoBloco <= 0) {
+            throw new IllegalArgumentException("Tamanho do bloco deve ser positivo: " + tamanhoBloco);
+        }
+        this.operacoes = operacoes;
+        this.contaService = contaService;
+        this.tamanhoBloco = tamanhoBloco;
+    }
+
+    public record Resumo(long comandos, long falhas, Duration duracao) {
+
+        public long sucessos() {
+            return comandos - falhas;
+        }
+
+        public double comandosPorSegundo() {
+            long nanos = Math.max(1, duracao.toNanos());
+            return comandos * 1e9 / nanos;
+        }
+    }
+
+    public Resumo executar(InputStream entrada, OutputStream saida, OutputStream erros) throws IOException {
+        long inicio = System.nanoTime();
+        LeitorDeComandos leitor = new LeitorDeComandos(entrada);
+        Writer resultados = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), TAMANHO_BUFFER_SAIDA);
+        Writer problemas = new BufferedWriter(new OutputStreamWriter(erros, StandardCharsets.UTF_8));
+        ComandoDeLote[] bloco = new ComandoDeLote[tamanhoBloco];
+        Arrays.setAll(bloco, i -> new ComandoDeLote());
+        // com o motor em memória não há transação para agrupar
+        boolean agrupar = operacoes == contaService;
+
+        long comandos = 0;
+        long falhas = 0;
+        int quantidade;
+        do {
+            quantidade = 0;
+            while (quantidade < bloco.length && leitor.proximo(bloco[quantidade])) {
+                quantidade++;
+            }
+            if (agrupar) {
+                executarAgrupado(bloco, quantidade);
+            } else {
+                for (int i = 0; i < quantidade; i++) {
+                    executarSozinho(bloco[i]);
+                }
+            }
+            for (int i = 0; i < quantidade; i++) {
+                ComandoDeLote comando = bloco[i];
+                if (comando.erro != null) {
+                    falhas++;
+                    problemas.append("linha ").append(Long.toString(comando.linha)).append(": ")
+                            .append(comando.erro).append('\n');
+                } else if (comando.operacao == Operacao.CONSULTAR) {
+                    escrever(resultados, comando.conta);
+                }
+                comando.conta = null;
+            }
+            comandos += quantidade;
+        } while (quantidade == bloco.length);
+
+        resultados.flush();
+        problemas.flush();
+        return new Resumo(comandos, falhas, Duration.ofNanos(System.nanoTime() - inicio));
+    }
+
+    // trechos seguidos de mesma natureza, na ordem das linhas
+    private void executarAgrupado(ComandoDeLote[] bloco, int quantidade) {
+        int inicio = 0;
+        while (inicio < quantidade) {
+            Operacao operacao = bloco[inicio].operacao;
+            int fim = inicio + 1;
+            if (operacao.movimento()) {
+                while (fim < quantidade && bloco[fim].operacao.movimento()) {
+                    fim++;
+                }
+                aplicarMovimentos(Arrays.asList(bloco).subList(inicio, fim));
+            } else if (operacao == Operacao.CRIAR) {
+                while (fim < quantidade && bloco[fim].operacao == Operacao.CRIAR) {
+                    fim++;
+                }
+                criar(Arrays.asList(bloco).subList(inicio, fim));
+            } else {
+                executarSozinho(bloco[inicio]);
+            }
+            inicio = fim;
+        }
+    }
+
+    private void aplicarMovimentos(List<ComandoDeLote> trecho) {
+        try {
+            contaService.aplicarMovimentos(trecho);
+        } catch (RuntimeException e) {
+            trecho.forEach(this::executarSozinho);
+        }
+    }
+
+    private void criar(List<ComandoDeLote> trecho) {
+        List<NovaConta> novas = new ArrayList<>(trecho.size());
+        for (ComandoDeLote comando : trecho) {
+            novas.add(new NovaConta(comando.titular, Dinheiro.paraBigDecimal(comando.centavos)));
+        }
+        try {
+            contaService.criarEmLote(novas);
+        } catch (RuntimeException e) {
+            // tudo ou nada no criarEmLote: refaz um a um para achar quem falhou
+            trecho.forEach(this::executarSozinho);
+        }
+    }
+
+    private void executarSozinho(ComandoDeLote comando) {
+        if (comando.operacao == Operacao.INVALIDO) {
+            return;
+        }
+        try {
+            Long id = comando.contaId;
+            BigDecimal valor = Dinheiro.paraBigDecimal(comando.centavos);
+            switch (comando.operacao) {
+                case CRIAR -> operacoes.criar(comando.titular, valor);
+                case CONSULTAR -> comando.conta = operacoes.buscarPorId(id);
+                case ALTERAR -> operacoes.alterarSaldo(id, valor);
+                case CREDITAR -> operacoes.creditar(id, valor);
+                case DEBITAR -> operacoes.debitar(id, valor);
+                case EXCLUIR -> operacoes.excluir(id);
+                default -> throw new IllegalStateException("Operação inesperada: " + comando.operacao);
+            }
+            comando.erro = null;
+        } catch (RuntimeException e) {
+            comando.falhou(e);
+        }
+    }
+
+    private static void escrever(Writer saida, Conta conta) throws IOException {
+        saida.append(Long.toString(conta.getId())).append(' ')
+                .append(conta.getSaldo().toPlainString()).append(' ')
+                .append(conta.getTitular()).append('\n');
+    }
+}
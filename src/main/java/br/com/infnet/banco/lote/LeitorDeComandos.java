@@ -0,0 +1,231 @@
+package br.com.infnet.banco.lote;
+
+import br.com.infnet.banco.lote.ComandoDeLote.Operacao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Lê comandos de lote direto dos bytes da entrada, sem {@code Scanner} nem
+ * {@code BigDecimal}: ids e valores viram {@code long} (valores em centavos)
+ * na própria varredura da linha. Uma linha por comando:
+ *
+ * <pre>
+ * # comentário (linhas vazias também são ignoradas)
+ * c 100.00 Ana Maria    criar: saldo inicial e titular (até o fim da linha)
+ * g 42                  consultar
+ * s 42 250.00           alterar saldo
+ * + 42 10.50            crédito
+ * - 42 3                débito
+ * d 42                  excluir
+ * </pre>
+ *
+ * Valores têm no máximo 2 casas decimais, com ponto. Uma linha malformada
+ * vira um comando {@link Operacao#INVALIDO} com a mensagem do problema; a
+ * leitura continua na linha seguinte.
+ */
+final class LeitorDeComandos {
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+    private static final long LIMITE_CENTAVOS = Long.MAX_VALUE / 100;
+
+    private final InputStream entrada;
+    private byte[] buffer = new byte[TAMANHO_BUFFER];
+    private int inicio;
+    private int fim;
+    private boolean esgotada;
+    private long linhas;
+
+    // posição de leitura dentro da linha corrente
+    private int posicao;
+    private int fimDaLinha;
+
+    LeitorDeComandos(InputStream entrada) {
+        this.entrada = entrada;
+    }
+
+    /** Preenche {@code comando} com a próxima linha útil; {@code false} no fim da entrada. */
+    boolean proximo(ComandoDeLote comando) throws IOException {
+        while (proximaLinha()) {
+            pularEspacos();
+            if (posicao == fimDaLinha || buffer[posicao] == '#') {
+                continue;
+            }
+            comando.limpar(linhas);
+            interpretar(comando);
+            return true;
+        }
+        return false;
+    }
+
+    private void interpretar(ComandoDeLote comando) {
+        byte letra = buffer[posicao++];
+        if (posicao < fimDaLinha && buffer[posicao] != ' ' && buffer[posicao] != '\t') {
+            comando.invalido("Comando desconhecido: " + texto(posicao - 1, fimDaLinha));
+            return;
+        }
+        try {
+            switch (letra) {
+                case 'c' -> {
+                    long centavos = valor();
+                    pularEspacos();
+                    String titular = texto(posicao, fimDaLinha).strip();
+                    if (titular.isEmpty()) {
+                        throw new IllegalArgumentException("Titular não informado");
+                    }
+                    comando.operacao = Operacao.CRIAR;
+                    comando.centavos = centavos;
+                    comando.titular = titular;
+                    return;
+                }
+                case 'g' -> comando.contaId = id();
+                case 'd' -> comando.contaId = id();
+                case 's', '+', '-' -> {
+                    comando.contaId = id();
+                    comando.centavos = valor();
+                }
+                default -> throw new IllegalArgumentException("Comando desconhecido: " + (char) letra);
+            }
+            exigirFimDaLinha();
+            comando.operacao = switch (letra) {
+                case 'g' -> Operacao.CONSULTAR;
+                case 'd' -> Operacao.EXCLUIR;
+                case 's' -> Operacao.ALTERAR;
+                case '+' -> Operacao.CREDITAR;
+                default -> Operacao.DEBITAR;
+            };
+        } catch (IllegalArgumentException e) {
+            comando.invalido(e.getMessage());
+        }
+    }
+
+    private long id() {
+        pularEspacos();
+        int comeco = posicao;
+        long id = 0;
+        while (posicao < fimDaLinha && buffer[posicao] >= '0' && buffer[posicao] <= '9') {
+            if (id > (Long.MAX_VALUE - 9) / 10) {
+                throw new IllegalArgumentException("ID grande demais");
+            }
+            id = id * 10 + (buffer[posicao++] - '0');
+        }
+        if (posicao == comeco || !separador()) {
+            throw new IllegalArgumentException("ID inválido: " + palavra(comeco));
+        }
+        return id;
+    }
+
+    // positivo, até 2 casas: "10", "10.5", "10.50", ".5"
+    private long valor() {
+        pularEspacos();
+        int comeco = posicao;
+        long inteiros = 0;
+        boolean algumDigito = false;
+        while (posicao < fimDaLinha && buffer[posicao] >= '0' && buffer[posicao] <= '9') {
+            inteiros = inteiros * 10 + (buffer[posicao++] - '0');
+            algumDigito = true;
+            if (inteiros >= LIMITE_CENTAVOS) {
+                throw new IllegalArgumentException("Valor excede o limite suportado: " + palavra(comeco));
+            }
+        }
+        long centavos = inteiros * 100;
+        if (posicao < fimDaLinha && buffer[posicao] == '.') {
+            posicao++;
+            int casas = 0;
+            while (posicao < fimDaLinha && buffer[posicao] >= '0' && buffer[posicao] <= '9') {
+                if (++casas > 2) {
+                    throw new IllegalArgumentException("Valor deve ter no máximo 2 casas decimais: " + palavra(comeco));
+                }
+                centavos += (buffer[posicao++] - '0') * (casas == 1 ? 10 : 1);
+                algumDigito = true;
+            }
+        }
+        if (!algumDigito || !separador()) {
+            throw new IllegalArgumentException("Valor inválido: " + palavra(comeco));
+        }
+        if (centavos <= 0) {
+            throw new IllegalArgumentException("Valor deve ser positivo");
+        }
+        return centavos;
+    }
+
+    private boolean separador() {
+        return posicao == fimDaLinha || buffer[posicao] == ' ' || buffer[posicao] == '\t';
+    }
+
+    private void exigirFimDaLinha() {
+        pularEspacos();
+        if (posicao != fimDaLinha) {
+            throw new IllegalArgumentException("Conteúdo a mais na linha: " + texto(posicao, fimDaLinha));
+        }
+    }
+
+    private void pularEspacos() {
+        while (posicao < fimDaLinha && (buffer[posicao] == ' ' || buffer[posicao] == '\t')) {
+            posicao++;
+        }
+    }
+
+    private String palavra(int comeco) {
+        int fimDaPalavra = comeco;
+        while (fimDaPalavra < fimDaLinha && buffer[fimDaPalavra] != ' ' && buffer[fimDaPalavra] != '\t') {
+            fimDaPalavra++;
+        }
+        return texto(comeco, fimDaPalavra);
+    }
+
+    private String texto(int de, int ate) {
+        return new String(buffer, de, ate - de, StandardCharsets.UTF_8);
+    }
+
+    // delimita a próxima linha em [posicao, fimDaLinha), sem o \r\n
+    private boolean proximaLinha() throws IOException {
+        int varrido = inicio;
+        while (true) {
+            for (int i = varrido; i < fim; i++) {
+                if (buffer[i] == '\n') {
+                    delimitar(i);
+                    inicio = i + 1;
+                    return true;
+                }
+            }
+            varrido = fim;
+            if (esgotada) {
+                if (inicio == fim) {
+                    return false;
+                }
+                delimitar(fim);
+                inicio = fim;
+                return true;
+            }
+            varrido -= inicio;
+            encher();
+        }
+    }
+
+    private void delimitar(int quebra) {
+        linhas++;
+        posicao = inicio;
+        fimDaLinha = quebra > inicio && buffer[quebra - 1] == '\r' ? quebra - 1 : quebra;
+    }
+
+    // traz a linha incompleta para o começo do buffer (dobrando-o se ela já o ocupa todo) e lê mais
+    private void encher() throws IOException {
+        int pendente = fim - inicio;
+        if (pendente == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        } else if (inicio > 0) {
+            System.arraycopy(buffer, inicio, buffer, 0, pendente);
+        }
+        inicio = 0;
+        fim = pendente;
+        int lidos = entrada.read(buffer, fim, buffer.length - fim);
+        if (lidos < 0) {
+            esgotada = true;
+        } else {
+            fim += lidos;
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package br.com.infnet.banco.memoria;
+
+import br.com.infnet.banco.colecao.MapaLongObjeto;
+import br.com.infnet.banco.diario.DiarioDeContas;
+import br.com.infnet.banco.dto.SaldoDeConta;
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.entity.Dinheiro;
+import br.com.infnet.banco.entity.Titular;
+import br.com.infnet.banco.exception.ContaNaoEncontradaException;
+import br.com.infnet.banco.exception.OperacaoInvalidaException;
+import br.com.infnet.banco.relatorio.InstantaneoDeSaldos;
+import br.com.infnet.banco.relatorio.RelatorioDeSaldos;
+import br.com.infnet.banco.repository.ContaRepository;
+import br.com.infnet.banco.service.OperacoesConta;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Motor de contas em memória (perfil {@code memoria}).
+ *
+ * <p>Todas as contas ficam em mapas {@code long -> Conta} divididos em
+ * segmentos, cada um com sua trava: operações em contas de segmentos
+ * diferentes nunca disputam a mesma trava. As alterações de saldo e as
+ * exclusões são marcadas como pendentes e gravadas no banco em lote a cada
+ * {@code banco.memoria.intervalo-flush-ms}; a criação grava na hora, porque
+ * o id vem da sequence do banco.
+ *
+ * <p>Este modo assume que a aplicação é a única escritora da tabela
+ * {@code conta} enquanto estiver ligado. A versão das contas em memória não é
+ * atualizada (o controle de concorrência aqui é a trava do segmento).
+ * As buscas por titular usam o {@link IndiceDeTitulares}, mantido junto com
+ * os segmentos.
+ * Com o diário ligado os eventos são registrados sob a trava do segmento e a
+ * espera pelo fsync acontece depois de soltá-la.
+ */
+@Service
+@Primary
+@Profile("memoria")
+public class ContaServiceEmMemoria implements OperacoesConta, SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ContaServiceEmMemoria.class);
+
+    private final ContaRepository contaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DiarioDeContas diarioDeContas;
+    private final Segmento[] segmentos;
+    private final IndiceDeTitulares titulares = new IndiceDeTitulares();
+    private final int mascara;
+    private final long intervaloFlushMs;
+
+    // serializa os flushes: um snapshot antigo nunca é gravado depois de um mais novo
+    private final ReentrantLock travaFlush = new ReentrantLock();
+    private ScheduledExecutorService agendador;
+
+    public ContaServiceEmMemoria(ContaRepository contaRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 DiarioDeContas diarioDeContas,
+                                 @Value("${banco.memoria.segmentos:64}") int segmentos,
+                                 @Value("${banco.memoria.intervalo-flush-ms:1000}") long intervaloFlushMs) {
+        if (segmentos <= 0 || Integer.bitCount(segmentos) != 1) {
+            throw new IllegalArgumentException("Quantidade de segmentos deve ser potência de dois: " + segmentos);
+        }
+        this.contaRepository = contaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.diarioDeContas = diarioDeContas;
+        this.segmentos = new Segmento[segmentos];
+        for (int i = 0; i < segmentos; i++) {
+            this.segmentos[i] = new Segmento();
+        }
+        this.mascara = segmentos - 1;
+        this.intervaloFlushMs = intervaloFlushMs;
+    }
+
+    // carrega depois que o data.sql rodou (ele é adiado até o JPA subir)
+    @Override
+    public void afterSingletonsInstantiated() {
+        contaRepository.percorrerTodas(conta -> {
+            Segmento segmento = segmentoDe(conta.getId());
+            segmento.contas.colocar(conta.getId(), conta);
+            titulares.adicionar(conta.getId(), conta.getTitular());
+        });
+        if (intervaloFlushMs > 0) {
+            agendador = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                    .name("flush-contas")
+                    .daemon(true)
+                    .factory());
+            agendador.scheduleWithFixedDelay(this::descarregarComLog,
+                    intervaloFlushMs, intervaloFlushMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (agendador != null) {
+            agendador.shutdown();
+            try {
+                agendador.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        descarregar();
+    }
+
+    // comandos (C de CQS)
+    @Override
+    public Conta criar(String titular, BigDecimal saldoInicial) {
+        Conta salva = contaRepository.save(new Conta(titular, saldoInicial));
+        Segmento segmento = segmentoDe(salva.getId());
+        long sequencia;
+        segmento.trava.lock();
+        try {
+            segmento.contas.colocar(salva.getId(), salva);
+            titulares.adicionar(salva.getId(), salva.getTitular());
+            sequencia = diarioDeContas.criacao(salva);
+        } finally {
+            segmento.trava.unlock();
+        }
+        diarioDeContas.confirmar(sequencia);
+        return salva.copiar();
+    }
+
+    @Override
+    public void excluir(Long id) {
+        Segmento segmento = segmentoDe(id);
+        long sequencia;
+        segmento.trava.lock();
+        try {
+            Conta removida = segmento.contas.remover(id);
+            if (removida == null) {
+                throw new ContaNaoEncontradaException("Conta não encontrada para exclusão: " + id);
+            }
+            titulares.remover(id, removida.getTitular());
+            segmento.alteradas.remover(id);
+            segmento.excluidas.colocar(id, Boolean.TRUE);
+            sequencia = diarioDeContas.exclusao(id);
+        } finally {
+            segmento.trava.unlock();
+        }
+        diarioDeContas.confirmar(sequencia);
+    }
+
+    @Override
+    public Conta alterarSaldo(Long id, BigDecimal novoSaldo) {
+        if (novoSaldo == null || novoSaldo.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Saldo deve ser maior que zero");
+        }
+        long centavos = Dinheiro.deBigDecimalArredondado(novoSaldo);
+        return movimentar(id, conta -> conta.setSaldoEmCentavos(centavos),
+                conta -> diarioDeContas.alteracaoDeSaldo(id, centavos));
+    }
+
+    @Override
+    public Conta creditar(Long id, BigDecimal valor) {
+        long centavos = paraCentavosPositivos(valor);
+        return movimentar(id, conta -> conta.creditarCentavos(centavos),
+                conta -> diarioDeContas.credito(id, centavos, conta.getSaldoEmCentavos()));
+    }
+
+    @Override
+    public Conta debitar(Long id, BigDecimal valor) {
+        long centavos = paraCentavosPositivos(valor);
+        return movimentar(id, conta -> conta.debitarCentavos(centavos),
+                conta -> diarioDeContas.debito(id, centavos, conta.getSaldoEmCentavos()));
+    }
+
+    /**
+     * Trava os dois segmentos sempre em ordem crescente de índice (ou um só,
+     * se as contas caírem no mesmo), então transferências em sentidos opostos
+     * não entram em deadlock.
+     */
+    @Override
+    public void transferir(Long origemId, Long destinoId, BigDecimal valor) {
+        long centavos = paraCentavosPositivos(valor);
+        if (origemId.equals(destinoId)) {
+            throw new OperacaoInvalidaException("Origem e destino da transferência devem ser contas diferentes.");
+        }
+
+        int indiceOrigem = indiceDe(origemId);
+        int indiceDestino = indiceDe(destinoId);
+        Segmento primeiro = segmentos[Math.min(indiceOrigem, indiceDestino)];
+        Segmento segundo = segmentos[Math.max(indiceOrigem, indiceDestino)];
+
+        long sequencia;
+        primeiro.trava.lock();
+        try {
+            if (segundo != primeiro) {
+                segundo.trava.lock();
+            }
+            try {
+                Segmento segmentoOrigem = segmentos[indiceOrigem];
+                Segmento segmentoDestino = segmentos[indiceDestino];
+                Conta origem = exigir(segmentoOrigem, origemId);
+                Conta destino = exigir(segmentoDestino, destinoId);
+
+                // debita primeiro: se faltar saldo nada foi alterado
+                origem.debitarCentavos(centavos);
+                try {
+                    destino.creditarCentavos(centavos);
+                } catch (RuntimeException e) {
+                    origem.creditarCentavos(centavos);
+                    throw e;
+                }
+                segmentoOrigem.alteradas.colocar(origemId, origem);
+                segmentoDestino.alteradas.colocar(destinoId, destino);
+                sequencia = diarioDeContas.transferencia(origemId, origem.getSaldoEmCentavos(),
+                        destinoId, destino.getSaldoEmCentavos(), centavos);
+            } finally {
+                if (segundo != primeiro) {
+                    segundo.trava.unlock();
+                }
+            }
+        } finally {
+            primeiro.trava.unlock();
+        }
+        diarioDeContas.confirmar(sequencia);
+    }
+
+    private Conta movimentar(Long id, Consumer<Conta> movimento, ToLongFunction<Conta> registroNoDiario) {
+        Segmento segmento = segmentoDe(id);
+        Conta copia;
+        long sequencia;
+        segmento.trava.lock();
+        try {
+            Conta conta = exigir(segmento, id);
+            movimento.accept(conta);
+            segmento.alteradas.colocar(id, conta);
+            sequencia = registroNoDiario.applyAsLong(conta);
+            copia = conta.copiar();
+        } finally {
+            segmento.trava.unlock();
+        }
+        diarioDeContas.confirmar(sequencia);
+        return copia;
+    }
+
+    private long paraCentavosPositivos(BigDecimal valor) {
+        if (valor == null || valor.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Valor deve ser positivo");
+        }
+        return Dinheiro.deBigDecimal(valor);
+    }
+
+    // queries (Q de CQS)
+    @Override
+    public Conta buscarPorId(Long id) {
+        Segmento segmento = segmentoDe(id);
+        segmento.trava.lock();
+        try {
+            return exigir(segmento, id).copiar();
+        } finally {
+            segmento.trava.unlock();
+        }
+    }
+
+    // cópias em ordem de id; cada segmento é lido sob a sua trava
+    @Override
+    public void percorrerTodas(Consumer<Conta> consumidor) {
+        List<Conta> copias = new ArrayList<>(quantidade());
+        for (Segmento segmento : segmentos) {
+            segmento.trava.lock();
+            try {
+                segmento.contas.paraCada((id, conta) -> copias.add(conta.copiar()));
+            } finally {
+                segmento.trava.unlock();
+            }
+        }
+        copias.sort(Comparator.comparing(Conta::getId));
+        copias.forEach(consumidor);
+    }
+
+    @Override
+    public List<SaldoDeConta> buscarPorTitular(String titular, long ultimoId, int tamanho) {
+        validarBusca(titular, tamanho);
+        List<SaldoDeConta> pagina = new ArrayList<>(Math.min(tamanho, 64));
+        // o índice agrupa sem diferenciar maiúsculas; a igualdade exata é conferida na conta
+        titulares.percorrerIguais(Titular.normalizar(titular), ultimoId, id -> {
+            SaldoDeConta conta = saldoDe(id);
+            if (conta != null && conta.titular().equals(titular)) {
+                pagina.add(conta);
+            }
+            return pagina.size() < tamanho;
+        });
+        return pagina;
+    }
+
+    @Override
+    public List<SaldoDeConta> buscarPorPrefixoDoTitular(String prefixo, SaldoDeConta anterior, int tamanho) {
+        validarBusca(prefixo, tamanho);
+        List<SaldoDeConta> pagina = new ArrayList<>(Math.min(tamanho, 64));
+        titulares.percorrer(Titular.normalizar(prefixo),
+                anterior == null ? "" : Titular.normalizar(anterior.titular()),
+                anterior == null ? 0 : anterior.id(),
+                id -> {
+                    SaldoDeConta conta = saldoDe(id);
+                    if (conta != null) {
+                        pagina.add(conta);
+                    }
+                    return pagina.size() < tamanho;
+                });
+        return pagina;
+    }
+
+    // null se a conta foi excluída depois de encontrada no índice
+    private SaldoDeConta saldoDe(long id) {
+        Segmento segmento = segmentoDe(id);
+        segmento.trava.lock();
+        try {
+            Conta conta = segmento.contas.obter(id);
+            return conta == null ? null : new SaldoDeConta(id, conta.getTitular(), conta.getSaldoEmCentavos());
+        } finally {
+            segmento.trava.unlock();
+        }
+    }
+
+    private static void validarBusca(String titular, int tamanho) {
+        if (titular == null) {
+            throw new IllegalArgumentException("Titular da busca não informado");
+        }
+        if (tamanho <= 0) {
+            throw new IllegalArgumentException("Tamanho da página deve ser maior que zero");
+        }
+    }
+
+    /**
+     * Id, titular e saldo de todas as contas em arrays primitivos; cada
+     * segmento é copiado sob a sua trava, sem ordem definida.
+     */
+    public InstantaneoDeSaldos instantaneoDeSaldos() {
+        InstantaneoDeSaldos instantaneo = new InstantaneoDeSaldos(quantidade());
+        for (Segmento segmento : segmentos) {
+            segmento.trava.lock();
+            try {
+                segmento.contas.paraCada((id, conta) ->
+                        instantaneo.adicionar(id, conta.getTitular(), conta.getSaldoEmCentavos()));
+            } finally {
+                segmento.trava.unlock();
+            }
+        }
+        return instantaneo;
+    }
+
+    // calculado sobre o instantâneo, já fora das travas, em paralelo no pool comum
+    @Override
+    public RelatorioDeSaldos relatorioDeSaldos(int maiores, long[] limitesEmCentavos) {
+        return instantaneoDeSaldos().relatorio(maiores, limitesEmCentavos, true);
+    }
+
+    public int quantidade() {
+        int total = 0;
+        for (Segmento segmento : segmentos) {
+            segmento.trava.lock();
+            try {
+                total += segmento.contas.tamanho();
+            } finally {
+                segmento.trava.unlock();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Grava no banco, em uma única transação, os saldos alterados e as
+     * exclusões pendentes desde o último flush. As pendências de todos os
+     * segmentos são separadas com todas as travas tomadas (em ordem crescente,
+     * como em {@link #transferir}), então o banco recebe um corte em que
+     * nenhuma transferência está pela metade. Se a gravação falhar nada é
+     * gravado, as pendências voltam a ser marcadas e entram no próximo flush.
+     */
+    public void descarregar() {
+        travaFlush.lock();
+        try {
+            Pendencias pendencias = separarPendencias();
+            if (pendencias == null) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    contaRepository.atualizarSaldosEmLote(pendencias.ids(), pendencias.saldos(), pendencias.ids().length);
+                    for (long id : pendencias.excluidas()) {
+                        contaRepository.excluirPorId(id);
+                    }
+                });
+            } catch (RuntimeException e) {
+                remarcar(pendencias);
+                throw e;
+            }
+        } finally {
+            travaFlush.unlock();
+        }
+    }
+
+    // null se não há nada a gravar
+    private Pendencias separarPendencias() {
+        travarTodos();
+        try {
+            int alteradas = 0;
+            int excluidas = 0;
+            for (Segmento segmento : segmentos) {
+                alteradas += segmento.alteradas.tamanho();
+                excluidas += segmento.excluidas.tamanho();
+            }
+            if (alteradas == 0 && excluidas == 0) {
+                return null;
+            }
+            long[] ids = new long[alteradas];
+            long[] saldos = new long[alteradas];
+            long[] idsExcluidos = new long[excluidas];
+            int[] i = {0};
+            int[] j = {0};
+            for (Segmento segmento : segmentos) {
+                segmento.alteradas.paraCada((id, conta) -> {
+                    ids[i[0]] = id;
+                    saldos[i[0]++] = conta.getSaldoEmCentavos();
+                });
+                segmento.excluidas.paraCada((id, marcada) -> idsExcluidos[j[0]++] = id);
+                segmento.alteradas.limpar();
+                segmento.excluidas.limpar();
+            }
+            return new Pendencias(ids, saldos, idsExcluidos);
+        } finally {
+            destravarTodos();
+        }
+    }
+
+    // só remarca o que não foi alterado de novo (ou excluído) enquanto o flush rodava
+    private void remarcar(Pendencias pendencias) {
+        travarTodos();
+        try {
+            for (long id : pendencias.ids()) {
+                Segmento segmento = segmentoDe(id);
+                Conta conta = segmento.contas.obter(id);
+                if (conta != null && !segmento.alteradas.contem(id)) {
+                    segmento.alteradas.colocar(id, conta);
+                }
+            }
+            for (long id : pendencias.excluidas()) {
+                segmentoDe(id).excluidas.colocar(id, Boolean.TRUE);
+            }
+        } finally {
+            destravarTodos();
+        }
+    }
+
+    private void travarTodos() {
+        for (Segmento segmento : segmentos) {
+            segmento.trava.lock();
+        }
+    }
+
+    private void destravarTodos() {
+        for (int i = segmentos.length - 1; i >= 0; i--) {
+            segmentos[i].trava.unlock();
+        }
+    }
+
+    private void descarregarComLog() {
+        try {
+            descarregar();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar contas em memória no banco; nova tentativa no próximo ciclo", e);
+        }
+    }
+
+    private Conta exigir(Segmento segmento, long id) {
+        Conta conta = segmento.contas.obter(id);
+        if (conta == null) {
+            throw new ContaNaoEncontradaException("Conta não encontrada: " + id);
+        }
+        return conta;
+    }
+
+    private Segmento segmentoDe(long id) {
+        return segmentos[indiceDe(id)];
+    }
+
+    // ids sequenciais já se distribuem bem pelos bits baixos
+    private int indiceDe(long id) {
+        return Long.hashCode(id) & mascara;
+    }
+
+    // saldos a gravar (ids[i] recebe saldos[i]) e ids a excluir, de todos os segmentos
+    private record Pendencias(long[] ids, long[] saldos, long[] excluidas) {
+    }
+
+    private static final class Segmento {
+        private final ReentrantLock trava = new ReentrantLock();
+        private final MapaLongObjeto<Conta> contas = new MapaLongObjeto<>();
+        // contas com saldo a gravar (a própria instância viva) e ids excluídos
+        private final MapaLongObjeto<Conta> alteradas = new MapaLongObjeto<>();
+        private final MapaLongObjeto<Boolean> excluidas = new MapaLongObjeto<>();
+    }
+}
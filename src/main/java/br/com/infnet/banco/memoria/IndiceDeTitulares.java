@@ -0,0 +1,70 @@
+package br.com.infnet.banco.memoria;
+
+import br.com.infnet.banco.entity.Titular;
+
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.LongPredicate;
+
+/**
+ * Índice ordenado (titular em minúsculas, id) do motor em memória, para as
+ * buscas por titular sem percorrer os segmentos.
+ *
+ * <p>É uma skip list concorrente: os segmentos atualizam o índice sob as
+ * próprias travas, sem uma trava global, e as buscas percorrem uma faixa
+ * ordenada sem travar nada. Um array ordenado custaria uma cópia de metade
+ * do array a cada conta criada. A leitura é fracamente consistente: uma
+ * busca concorrente pode ou não ver uma conta criada ou excluída durante
+ * ela, e quem busca confere a conta no segmento.
+ */
+final class IndiceDeTitulares {
+
+    private record Entrada(String chave, long id) {
+    }
+
+    private static final Comparator<Entrada> ORDEM =
+            Comparator.comparing(Entrada::chave).thenComparingLong(Entrada::id);
+
+    private final ConcurrentSkipListSet<Entrada> entradas = new ConcurrentSkipListSet<>(ORDEM);
+
+    void adicionar(long id, String titular) {
+        entradas.add(new Entrada(Titular.normalizar(titular), id));
+    }
+
+    void remover(long id, String titular) {
+        entradas.remove(new Entrada(Titular.normalizar(titular), id));
+    }
+
+    int tamanho() {
+        return entradas.size();
+    }
+
+    /**
+     * Entrega ao {@code visitante}, em ordem, os ids com chave igual a
+     * {@code chave} e maiores que {@code depoisDoId}, enquanto ele devolver
+     * {@code true}.
+     */
+    void percorrerIguais(String chave, long depoisDoId, LongPredicate visitante) {
+        for (Entrada entrada : entradas.tailSet(new Entrada(chave, depoisDoId), false)) {
+            if (!entrada.chave().equals(chave) || !visitante.test(entrada.id())) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Entrega ao {@code visitante}, em ordem, os ids com chave começando por
+     * {@code prefixoNormalizado} e posteriores a ({@code depoisDaChave},
+     * {@code depoisDoId}), enquanto ele devolver {@code true}.
+     */
+    void percorrer(String prefixoNormalizado, String depoisDaChave, long depoisDoId, LongPredicate visitante) {
+        Entrada inicio = depoisDaChave.compareTo(prefixoNormalizado) < 0
+                ? new Entrada(prefixoNormalizado, Long.MIN_VALUE)
+                : new Entrada(depoisDaChave, depoisDoId);
+        for (Entrada entrada : entradas.tailSet(inicio, false)) {
+            if (!entrada.chave().startsWith(prefixoNormalizado) || !visitante.test(entrada.id())) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package br.com.infnet.banco.metricas;
+
+import br.com.infnet.banco.exception.ContaNaoEncontradaException;
+import br.com.infnet.banco.exception.OperacaoInvalidaException;
+import br.com.infnet.banco.exception.SaldoInsuficienteException;
+import br.com.infnet.banco.service.ContaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cronometra os métodos públicos do {@link ContaService}: um {@link Timer}
+ * {@value #OPERACOES} por método e resultado ({@code sucesso} ou
+ * {@code erro}), com histograma de percentis (no Prometheus,
+ * {@code histogram_quantile} sobre os {@code _bucket}), e um contador
+ * {@value #ERROS} por método e tipo de erro. Fica por fora da transação,
+ * então o tempo inclui o commit.
+ *
+ * <p>Os timers de cada método são criados na primeira chamada e guardados;
+ * no caminho comum o custo é uma consulta ao mapa, duas leituras do relógio
+ * e o registro no timer. Falhas de movimentos dentro de
+ * {@link ContaService#aplicarMovimentos} são entregues ao próprio movimento,
+ * não lançadas, e não entram no contador.
+ */
+final class CronometroDeContas implements MethodInterceptor {
+
+    static final String OPERACOES = "banco.conta.operacoes";
+    static final String ERROS = "banco.conta.erros";
+
+    private final Supplier<MeterRegistry> registro;
+    private final Map<Method, Cronometros> porMetodo = new ConcurrentHashMap<>();
+
+    private record Cronometros(Timer sucesso, Timer erro) {
+    }
+
+    // o registro é resolvido na primeira chamada: o advisor nasce antes dos demais beans
+    CronometroDeContas(Supplier<MeterRegistry> registro) {
+        this.registro = registro;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocacao) throws Throwable {
+        Method metodo = invocacao.getMethod();
+        Cronometros cronometros = porMetodo.get(metodo);
+        if (cronometros == null) {
+            cronometros = porMetodo.computeIfAbsent(metodo, this::criar);
+        }
+        long inicio = System.nanoTime();
+        try {
+            Object resultado = invocacao.proceed();
+            cronometros.sucesso().record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return resultado;
+        } catch (Throwable e) {
+            cronometros.erro().record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            registro.get().counter(ERROS, "operacao", metodo.getName(), "tipo", tipo(e)).increment();
+            throw e;
+        }
+    }
+
+    private Cronometros criar(Method metodo) {
+        return new Cronometros(timer(metodo.getName(), "sucesso"), timer(metodo.getName(), "erro"));
+    }
+
+    private Timer timer(String operacao, String resultado) {
+        return Timer.builder(OPERACOES)
+                .description("Duração dos métodos do ContaService")
+                .tag("operacao", operacao)
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                // faixa das operações com banco; menos buckets por timer na coleta
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registro.get());
+    }
+
+    static String tipo(Throwable erro) {
+        if (erro instanceof ContaNaoEncontradaException) {
+            return "conta_nao_encontrada";
+        }
+        if (erro instanceof SaldoInsuficienteException) {
+            return "saldo_insuficiente";
+        }
+        if (erro instanceof IllegalArgumentException || erro instanceof OperacaoInvalidaException) {
+            return "validacao";
+        }
+        return "outro";
+    }
+}
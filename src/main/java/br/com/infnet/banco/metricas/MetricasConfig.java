@@ -0,0 +1,101 @@
+package br.com.infnet.banco.metricas;
+
+import br.com.infnet.banco.service.ContaService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Liga o {@link CronometroDeContas} nos métodos públicos do
+ * {@link ContaService} com {@code banco.metricas.habilitadas=true} (padrão).
+ * Pool do Hikari, estatísticas do Hibernate ({@code hibernate.generate_statistics},
+ * que segue a mesma propriedade nos arquivos de perfil) e JVM vêm da
+ * autoconfiguração do Actuator, mais a taxa de acertos do cache de segundo
+ * nível; tudo sai em formato Prometheus na rota
+ * {@code /metricas} do servidor HTTP local.
+ */
+@Configuration
+public class MetricasConfig {
+
+    private static final String TAXA_DE_ACERTOS = "banco.cache.segundo.nivel.taxa.acertos";
+
+    // mesma região de @Cache em Conta e do ehcache.xml
+    private static final String REGIAO_CONTA = "conta";
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(name = "banco.metricas.habilitadas", havingValue = "true", matchIfMissing = true)
+    public static Advisor cronometroDeContas(ObjectProvider<MeterRegistry> registro) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new MetodosDoContaService(),
+                new CronometroDeContas(SingletonSupplier.of(registro::getObject)));
+        // por fora do @Transactional: o tempo e os erros incluem o commit
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    /**
+     * Acertos / (acertos + falhas) da região {@code conta} e do cache de
+     * consultas, desde a subida (ou o último {@code Statistics.clear()}); NaN
+     * antes da primeira consulta ao cache. Os contadores brutos já saem por
+     * região em {@code hibernate_second_level_cache_requests}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "banco.metricas.habilitadas", havingValue = "true", matchIfMissing = true)
+    public MeterBinder taxaDeAcertosDoSegundoNivel(EntityManagerFactory entityManagerFactory) {
+        return registro -> {
+            SessionFactoryImplementor fabrica = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+            Statistics estatisticas = fabrica.getStatistics();
+            if (fabrica.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+                Gauge.builder(TAXA_DE_ACERTOS, estatisticas, s -> {
+                            CacheRegionStatistics regiao = s.getDomainDataRegionStatistics(REGIAO_CONTA);
+                            return taxa(regiao.getHitCount(), regiao.getMissCount());
+                        })
+                        .tag("regiao", REGIAO_CONTA)
+                        .description("Acertos do cache de segundo nível sobre o total de buscas")
+                        .register(registro);
+            }
+            if (fabrica.getSessionFactoryOptions().isQueryCacheEnabled()) {
+                Gauge.builder(TAXA_DE_ACERTOS, estatisticas,
+                                s -> taxa(s.getQueryCacheHitCount(), s.getQueryCacheMissCount()))
+                        .tag("regiao", "consultas")
+                        .description("Acertos do cache de segundo nível sobre o total de buscas")
+                        .register(registro);
+            }
+        };
+    }
+
+    private static double taxa(long acertos, long falhas) {
+        long total = acertos + falhas;
+        return total == 0 ? Double.NaN : (double) acertos / total;
+    }
+
+    private static final class MetodosDoContaService extends StaticMethodMatcherPointcut {
+
+        MetodosDoContaService() {
+            setClassFilter(ContaService.class::isAssignableFrom);
+        }
+
+        @Override
+        public boolean matches(Method metodo, Class<?> classe) {
+            return Modifier.isPublic(metodo.getModifiers()) && metodo.getDeclaringClass() != Object.class;
+        }
+    }
+}
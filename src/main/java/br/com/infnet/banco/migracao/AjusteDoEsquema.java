@@ -0,0 +1,46 @@
+package br.com.infnet.banco.migracao;
+
+import br.com.infnet.banco.repository.ContaRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Na subida (com {@code banco.esquema.ajustar-na-subida=true}), completa o
+ * que o {@code ddl-auto=update} não faz numa tabela {@code conta} que já
+ * existia antes da mudança do mapeamento. Roda no {@code @PostConstruct},
+ * depois de o Hibernate atualizar o esquema e antes de qualquer outro
+ * componente gravar contas. Pode rodar a cada subida: só mexe no que ainda
+ * não está ajustado.
+ *
+ * <p>A sequence {@code conta_seq} nasce em 1 ao lado de linhas que vieram
+ * do IDENTITY; ela passa a continuar depois do maior id. A coluna
+ * {@code versao} é criada nula nas linhas antigas, o que o Hibernate não
+ * trata como versão válida (e {@code versao + 1} dos UPDATEs em massa
+ * continua nulo); essas linhas recebem versão 0.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.esquema.ajustar-na-subida", havingValue = "true")
+public class AjusteDoEsquema {
+
+    private static final Logger log = LoggerFactory.getLogger(AjusteDoEsquema.class);
+
+    private final ContaRepository contaRepository;
+
+    public AjusteDoEsquema(ContaRepository contaRepository) {
+        this.contaRepository = contaRepository;
+    }
+
+    @PostConstruct
+    public void ajustar() {
+        if (contaRepository.avancarSequenciaAlemDoMaiorId()) {
+            log.info("Sequence conta_seq avançada para depois do maior id da tabela conta");
+        }
+        int semVersao = contaRepository.preencherVersoesNulas();
+        if (semVersao > 0) {
+            log.info("Versão 0 gravada em {} contas sem versão", semVersao);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package br.com.infnet.banco.migracao;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formato do arquivo colunar de contas, usado por {@link GravadorColunar} e
+ * {@link LeitorColunar}:
+ *
+ * <pre>
+ * int mágico, int versão
+ * blocos de até N linhas:
+ *   int tamanho do corpo, int CRC32C do corpo
+ *   corpo:
+ *     varint linhas, varint entradas do dicionário
+ *     dicionário: por entrada, varint tamanho + titular em UTF-8
+ *     ids: zigzag da diferença para o id anterior do bloco (o primeiro, para 0)
+ *     titulares: varint da posição no dicionário do bloco
+ *     saldos: zigzag dos centavos
+ * int 0 (fim), long total de linhas
+ * </pre>
+ *
+ * Cada coluna fica contígua no bloco e o dicionário é por bloco: titulares
+ * repetidos ocupam um varint por linha e a memória de quem lê ou grava não
+ * cresce com o tamanho do arquivo. Inteiros em ordem big-endian.
+ */
+final class FormatoColunar {
+
+    static final int MAGICO = 0x434F4C55; // "COLU"
+    static final int VERSAO = 1;
+    static final int TAMANHO_CABECALHO = 2 * Integer.BYTES;
+
+    // pior caso por linha: id e saldo com 10 bytes, posição no dicionário com 5
+    static final int MAXIMO_POR_LINHA = 10 + 5 + 10;
+
+    private FormatoColunar() {
+    }
+
+    // pior caso do titular no dicionário: varint + 3 bytes UTF-8 por char
+    static int maximoDoTexto(String texto) {
+        return 5 + 3 * texto.length();
+    }
+
+    static void escreverVarint(ByteBuffer buffer, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            buffer.put((byte) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        buffer.put((byte) valor);
+    }
+
+    static long lerVarint(ByteBuffer buffer) {
+        long valor = 0;
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            byte b = buffer.get();
+            valor |= (long) (b & 0x7F) << deslocamento;
+            if (b >= 0) {
+                return valor;
+            }
+        }
+        throw new IllegalStateException("Varint maior que 64 bits");
+    }
+
+    static long zigzag(long valor) {
+        return (valor << 1) ^ (valor >> 63);
+    }
+
+    static long deZigzag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+
+    // ASCII vai byte a byte, sem criar o byte[] do getBytes
+    static void escreverTexto(ByteBuffer buffer, String texto) {
+        int tamanho = texto.length();
+        for (int i = 0; i < tamanho; i++) {
+            if (texto.charAt(i) >= 0x80) {
+                byte[] utf8 = texto.getBytes(StandardCharsets.UTF_8);
+                escreverVarint(buffer, utf8.length);
+                buffer.put(utf8);
+                return;
+            }
+        }
+        escreverVarint(buffer, tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            buffer.put((byte) texto.charAt(i));
+        }
+    }
+
+    // devolve um buffer direto com pelo menos a capacidade pedida (o atual, se couber)
+    static ByteBuffer garantir(ByteBuffer buffer, int capacidade) {
+        if (buffer.capacity() >= capacidade) {
+            return buffer;
+        }
+        return ByteBuffer.allocateDirect(Math.max(capacidade, buffer.capacity() * 2));
+    }
+}
@@ -0,0 +1,141 @@
+package br.com.infnet.banco.migracao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Grava contas no {@link FormatoColunar formato colunar}: as linhas são
+ * acumuladas em arrays até completar um bloco, que é codificado coluna a
+ * coluna num buffer direto e escrito no {@link FileChannel} de uma vez.
+ * Não é thread-safe.
+ */
+public final class GravadorColunar implements Closeable {
+
+    private final FileChannel canal;
+    private final int linhasPorBloco;
+    private final long[] ids;
+    private final String[] titulares;
+    private final long[] saldos;
+    private final int[] posicoes;
+    private final Map<String, Integer> dicionario = new HashMap<>();
+    private final List<String> entradas = new ArrayList<>();
+    private final CRC32C crc = new CRC32C();
+    private final ByteBuffer cabecalho = ByteBuffer.allocateDirect(FormatoColunar.TAMANHO_CABECALHO);
+    private ByteBuffer corpo = ByteBuffer.allocateDirect(1 << 20);
+    private int quantidade;
+    private long linhas;
+    private long bytes;
+    private boolean fechado;
+
+    public GravadorColunar(Path arquivo, int linhasPorBloco) throws IOException {
+        if (linhasPorBloco <= 0) {
+            throw new IllegalArgumentException("Linhas por bloco deve ser positivo: " + linhasPorBloco);
+        }
+        this.linhasPorBloco = linhasPorBloco;
+        this.ids = new long[linhasPorBloco];
+        this.titulares = new String[linhasPorBloco];
+        this.saldos = new long[linhasPorBloco];
+        this.posicoes = new int[linhasPorBloco];
+        this.canal = FileChannel.open(arquivo,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        escrever(cabecalho.clear().putInt(FormatoColunar.MAGICO).putInt(FormatoColunar.VERSAO).flip());
+    }
+
+    public void adicionar(long id, String titular, long saldoEmCentavos) throws IOException {
+        ids[quantidade] = id;
+        titulares[quantidade] = titular;
+        saldos[quantidade++] = saldoEmCentavos;
+        if (quantidade == linhasPorBloco) {
+            gravarBloco();
+        }
+    }
+
+    // linhas recebidas até agora
+    public long linhas() {
+        return linhas + quantidade;
+    }
+
+    // bytes escritos no arquivo até agora (sem o bloco em andamento)
+    public long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Grava o último bloco e o rodapé e fecha o arquivo. Chamadas seguintes
+     * não fazem nada.
+     */
+    @Override
+    public void close() throws IOException {
+        if (fechado) {
+            return;
+        }
+        fechado = true;
+        try (canal) {
+            if (quantidade > 0) {
+                gravarBloco();
+            }
+            ByteBuffer rodape = ByteBuffer.allocate(Integer.BYTES + Long.BYTES).putInt(0).putLong(linhas).flip();
+            escrever(rodape);
+        }
+    }
+
+    private void gravarBloco() throws IOException {
+        int maximo = 10 + quantidade * FormatoColunar.MAXIMO_POR_LINHA;
+        for (int i = 0; i < quantidade; i++) {
+            Integer posicao = dicionario.get(titulares[i]);
+            if (posicao == null) {
+                posicao = entradas.size();
+                dicionario.put(titulares[i], posicao);
+                entradas.add(titulares[i]);
+                maximo += FormatoColunar.maximoDoTexto(titulares[i]);
+            }
+            posicoes[i] = posicao;
+        }
+
+        corpo = FormatoColunar.garantir(corpo, maximo);
+        corpo.clear();
+        FormatoColunar.escreverVarint(corpo, quantidade);
+        FormatoColunar.escreverVarint(corpo, entradas.size());
+        for (String entrada : entradas) {
+            FormatoColunar.escreverTexto(corpo, entrada);
+        }
+        long anterior = 0;
+        for (int i = 0; i < quantidade; i++) {
+            FormatoColunar.escreverVarint(corpo, FormatoColunar.zigzag(ids[i] - anterior));
+            anterior = ids[i];
+        }
+        for (int i = 0; i < quantidade; i++) {
+            FormatoColunar.escreverVarint(corpo, posicoes[i]);
+        }
+        for (int i = 0; i < quantidade; i++) {
+            FormatoColunar.escreverVarint(corpo, FormatoColunar.zigzag(saldos[i]));
+        }
+        corpo.flip();
+
+        crc.reset();
+        crc.update(corpo.duplicate());
+        cabecalho.clear().putInt(corpo.remaining()).putInt((int) crc.getValue()).flip();
+        escrever(cabecalho, corpo);
+
+        linhas += quantidade;
+        quantidade = 0;
+        dicionario.clear();
+        entradas.clear();
+    }
+
+    private void escrever(ByteBuffer... buffers) throws IOException {
+        ByteBuffer ultimo = buffers[buffers.length - 1];
+        while (ultimo.hasRemaining()) {
+            bytes += canal.write(buffers);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package br.com.infnet.banco.migracao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Lê um arquivo no {@link FormatoColunar formato colunar} bloco a bloco:
+ * cada {@link #proximoBloco()} confere o CRC do bloco e decodifica as
+ * colunas nos arrays de {@link #ids()}, {@link #titulares()} e
+ * {@link #saldos()}, reaproveitados entre blocos. Não é thread-safe.
+ */
+public final class LeitorColunar implements Closeable {
+
+    private final Path arquivo;
+    private final FileChannel canal;
+    private final CRC32C crc = new CRC32C();
+    private final ByteBuffer cabecalho = ByteBuffer.allocateDirect(FormatoColunar.TAMANHO_CABECALHO);
+    private ByteBuffer corpo = ByteBuffer.allocateDirect(1 << 20);
+    private long[] ids = new long[0];
+    private String[] titulares = new String[0];
+    private long[] saldos = new long[0];
+    private String[] dicionario = new String[0];
+    private byte[] texto = new byte[256];
+    private int quantidade;
+    private long linhas;
+    private boolean terminado;
+
+    public LeitorColunar(Path arquivo) throws IOException {
+        this.arquivo = arquivo;
+        this.canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        try {
+            ler(cabecalho.clear());
+            if (cabecalho.getInt(0) != FormatoColunar.MAGICO || cabecalho.getInt(4) != FormatoColunar.VERSAO) {
+                throw new IOException("Arquivo colunar inválido: " + arquivo);
+            }
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Decodifica o próximo bloco. Devolve {@code false} no fim do arquivo,
+     * depois de conferir o total de linhas do rodapé.
+     *
+     * @throws IOException se o arquivo estiver truncado ou corrompido
+     */
+    public boolean proximoBloco() throws IOException {
+        if (terminado) {
+            return false;
+        }
+        ler(cabecalho.clear().limit(Integer.BYTES));
+        int tamanho = cabecalho.getInt(0);
+        if (tamanho == 0) {
+            ByteBuffer total = ByteBuffer.allocate(Long.BYTES);
+            ler(total);
+            if (total.getLong(0) != linhas) {
+                throw new IOException("Total de linhas não confere no arquivo " + arquivo);
+            }
+            terminado = true;
+            quantidade = 0;
+            return false;
+        }
+        if (tamanho < 0) {
+            throw new IOException("Bloco com tamanho inválido no arquivo " + arquivo);
+        }
+        ler(cabecalho.limit(FormatoColunar.TAMANHO_CABECALHO));
+        int esperado = cabecalho.getInt(Integer.BYTES);
+
+        corpo = FormatoColunar.garantir(corpo, tamanho);
+        ler(corpo.clear().limit(tamanho));
+        crc.reset();
+        crc.update(corpo.flip().duplicate());
+        if ((int) crc.getValue() != esperado) {
+            throw new IOException("CRC não confere no bloco depois da linha " + linhas + " do arquivo " + arquivo);
+        }
+        try {
+            decodificar();
+        } catch (RuntimeException e) {
+            throw new IOException("Bloco malformado depois da linha " + linhas + " do arquivo " + arquivo, e);
+        }
+        linhas += quantidade;
+        return true;
+    }
+
+    public int quantidade() {
+        return quantidade;
+    }
+
+    public long[] ids() {
+        return ids;
+    }
+
+    public String[] titulares() {
+        return titulares;
+    }
+
+    public long[] saldos() {
+        return saldos;
+    }
+
+    // linhas lidas até agora, incluindo o bloco atual
+    public long linhas() {
+        return linhas;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private void decodificar() {
+        quantidade = (int) FormatoColunar.lerVarint(corpo);
+        int entradas = (int) FormatoColunar.lerVarint(corpo);
+        if (ids.length < quantidade) {
+            ids = new long[quantidade];
+            titulares = new String[quantidade];
+            saldos = new long[quantidade];
+        }
+        if (dicionario.length < entradas) {
+            dicionario = new String[entradas];
+        }
+        for (int i = 0; i < entradas; i++) {
+            int bytes = (int) FormatoColunar.lerVarint(corpo);
+            if (texto.length < bytes) {
+                texto = new byte[Math.max(bytes, texto.length * 2)];
+            }
+            corpo.get(texto, 0, bytes);
+            dicionario[i] = new String(texto, 0, bytes, StandardCharsets.UTF_8);
+        }
+        long anterior = 0;
+        for (int i = 0; i < quantidade; i++) {
+            anterior += FormatoColunar.deZigzag(FormatoColunar.lerVarint(corpo));
+            ids[i] = anterior;
+        }
+        for (int i = 0; i < quantidade; i++) {
+            int posicao = (int) FormatoColunar.lerVarint(corpo);
+            if (posicao >= entradas) {
+                throw new IllegalStateException("Posição fora do dicionário: " + posicao);
+            }
+            titulares[i] = dicionario[posicao];
+        }
+        for (int i = 0; i < quantidade; i++) {
+            saldos[i] = FormatoColunar.deZigzag(FormatoColunar.lerVarint(corpo));
+        }
+        if (corpo.hasRemaining()) {
+            throw new IllegalStateException("Sobraram " + corpo.remaining() + " bytes no bloco");
+        }
+    }
+
+    private void ler(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer) < 0) {
+                throw new IOException("Arquivo colunar truncado: " + arquivo);
+            }
+        }
+    }
+}
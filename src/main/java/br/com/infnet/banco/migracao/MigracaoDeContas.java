@@ -0,0 +1,124 @@
+package br.com.infnet.banco.migracao;
+
+import br.com.infnet.banco.cache.IndiceDeSaldos;
+import br.com.infnet.banco.repository.ContaRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+
+/**
+ * Exportação e importação da tabela {@code conta} em arquivo colunar
+ * (argumentos {@code exportar} e {@code importar} do CLI), para migrar
+ * contas entre os perfis h2 e mysql sem passar pelo ORM.
+ *
+ * <p>A exportação lê com o cursor JDBC de
+ * {@link ContaRepository#percorrerLinhas} e grava blocos de
+ * {@code banco.migracao.linhas-por-bloco} linhas. A importação insere cada
+ * bloco com {@link ContaRepository#inserirEmLote} (batch JDBC, ids
+ * preservados), uma transação por bloco, e no fim faz a sequence continuar
+ * depois do maior id. Ela só aceita uma tabela vazia: se falhar no meio,
+ * apague as contas importadas e repita.
+ *
+ * <p>As duas falam direto com o banco. No perfil {@code memoria}, o que
+ * ainda não foi gravado pelo motor em memória não entra na exportação, e a
+ * importação é recusada: o motor não veria as contas importadas.
+ */
+@Component
+public class MigracaoDeContas {
+
+    private final ContaRepository contaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final IndiceDeSaldos indiceDeSaldos;
+    private final Environment ambiente;
+    private final int linhasPorBloco;
+
+    public MigracaoDeContas(ContaRepository contaRepository,
+                            TransactionTemplate transactionTemplate,
+                            IndiceDeSaldos indiceDeSaldos,
+                            Environment ambiente,
+                            @Value("${banco.migracao.linhas-por-bloco:65536}") int linhasPorBloco) {
+        if (linhasPorBloco <= 0) {
+            throw new IllegalArgumentException("Linhas por bloco deve ser positivo: " + linhasPorBloco);
+        }
+        this.contaRepository = contaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.indiceDeSaldos = indiceDeSaldos;
+        this.ambiente = ambiente;
+        this.linhasPorBloco = linhasPorBloco;
+    }
+
+    public record Resumo(long contas, long bytes, Duration duracao) {
+
+        public double contasPorSegundo() {
+            long nanos = Math.max(1, duracao.toNanos());
+            return contas * 1e9 / nanos;
+        }
+    }
+
+    /**
+     * Grava num {@code .tmp} ao lado do destino e só renomeia no fim: uma
+     * exportação interrompida não deixa um arquivo com rodapé válido.
+     */
+    public Resumo exportar(Path arquivo) throws IOException {
+        long inicio = System.nanoTime();
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try {
+            GravadorColunar gravador = new GravadorColunar(temporario, linhasPorBloco);
+            try (gravador) {
+                contaRepository.percorrerLinhas((id, titular, saldo) -> {
+                    try {
+                        gravador.adicionar(id, titular, saldo);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING);
+            return new Resumo(gravador.linhas(), gravador.bytes(), Duration.ofNanos(System.nanoTime() - inicio));
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException se a tabela {@code conta} não estiver vazia
+     *                               ou com o perfil {@code memoria}
+     * @throws IOException           se o arquivo estiver truncado ou corrompido
+     */
+    public Resumo importar(Path arquivo) throws IOException {
+        long inicio = System.nanoTime();
+        if (ambiente.matchesProfiles("memoria")) {
+            throw new IllegalStateException("A importação não roda com o perfil memoria");
+        }
+        if (contaRepository.count() > 0) {
+            throw new IllegalStateException("A importação exige a tabela conta vazia");
+        }
+        long bytes = Files.size(arquivo);
+        long maiorId = 0;
+        try (LeitorColunar leitor = new LeitorColunar(arquivo)) {
+            while (leitor.proximoBloco()) {
+                transactionTemplate.executeWithoutResult(status -> contaRepository.inserirEmLote(
+                        leitor.ids(), leitor.titulares(), leitor.saldos(), leitor.quantidade()));
+                for (int i = 0; i < leitor.quantidade(); i++) {
+                    maiorId = Math.max(maiorId, leitor.ids()[i]);
+                }
+            }
+            if (maiorId > 0) {
+                long proximoId = maiorId + 1;
+                transactionTemplate.executeWithoutResult(status -> contaRepository.reiniciarSequencia(proximoId));
+            }
+            indiceDeSaldos.invalidar();
+            return new Resumo(leitor.linhas(), bytes, Duration.ofNanos(System.nanoTime() - inicio));
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package br.com.infnet.banco.recuperacao;
+
+import br.com.infnet.banco.entity.Conta;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Instantâneo binário de todas as contas, gravado no diretório do diário
+ * como {@code instantaneo-<sequência>.snap}. A sequência do nome é a primeira
+ * do diário que ainda precisa ser reaplicada por cima do instantâneo.
+ *
+ * <pre>
+ * int mágico, int versão, long sequência inicial
+ * por conta: long id, long saldo em centavos, UTF titular
+ * long 0 (fim), long quantidade de contas, int CRC32C de tudo o que vem antes
+ * </pre>
+ *
+ * A gravação vai para um arquivo {@code .tmp}, recebe fsync e só depois é
+ * renomeada: um arquivo com o nome final está sempre completo.
+ */
+public final class ArquivoDeInstantaneo {
+
+    static final int MAGICO = 0x494E5354; // "INST"
+    static final int VERSAO = 1;
+
+    private static final String PREFIXO = "instantaneo-";
+    private static final String EXTENSAO = ".snap";
+    private static final String TEMPORARIO = ".tmp";
+    private static final int TAMANHO_BUFFER = 1 << 16;
+    // cabeçalho (16) + fim, quantidade e CRC (20)
+    private static final int TAMANHO_MINIMO = 36;
+
+    private ArquivoDeInstantaneo() {
+    }
+
+    @FunctionalInterface
+    public interface ConsumidorDeConta {
+        void aceitar(long id, long saldoEmCentavos, String titular);
+    }
+
+    public static Path arquivo(Path diretorio, long sequenciaInicial) {
+        return diretorio.resolve(String.format("%s%020d%s", PREFIXO, sequenciaInicial, EXTENSAO));
+    }
+
+    public static long sequenciaInicial(Path instantaneo) {
+        String nome = instantaneo.getFileName().toString();
+        return Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - EXTENSAO.length()));
+    }
+
+    // instantâneos publicados, do mais antigo para o mais novo
+    public static List<Path> listar(Path diretorio) {
+        return listar(diretorio, EXTENSAO);
+    }
+
+    // sobras de gravações interrompidas
+    public static void apagarTemporarios(Path diretorio) {
+        try {
+            for (Path temporario : listar(diretorio, EXTENSAO + TEMPORARIO)) {
+                Files.deleteIfExists(temporario);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Grava as contas entregues por {@code fonte} em um arquivo temporário,
+     * já com fsync, e devolve o caminho dele (ver {@link #publicar}).
+     */
+    public static Path gravarTemporario(Path diretorio, long sequenciaInicial, Consumer<Consumer<Conta>> fonte) {
+        Path temporario = diretorio.resolve(arquivo(diretorio, sequenciaInicial).getFileName() + TEMPORARIO);
+        CRC32C crc = new CRC32C();
+        try (FileOutputStream arquivo = new FileOutputStream(temporario.toFile());
+             DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(
+                     new CheckedOutputStream(arquivo, crc), TAMANHO_BUFFER))) {
+            saida.writeInt(MAGICO);
+            saida.writeInt(VERSAO);
+            saida.writeLong(sequenciaInicial);
+            long[] quantidade = {0};
+            fonte.accept(conta -> {
+                try {
+                    saida.writeLong(conta.getId());
+                    saida.writeLong(conta.getSaldoEmCentavos());
+                    saida.writeUTF(conta.getTitular());
+                    quantidade[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            saida.writeLong(0);
+            saida.writeLong(quantidade[0]);
+            saida.flush();
+            saida.writeInt((int) crc.getValue());
+            saida.flush();
+            arquivo.getChannel().force(true);
+            return temporario;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // renomeia o temporário para o nome final e faz fsync do diretório
+    public static Path publicar(Path temporario) {
+        String nome = temporario.getFileName().toString();
+        Path destino = temporario.resolveSibling(nome.substring(0, nome.length() - TEMPORARIO.length()));
+        try {
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel diretorio = FileChannel.open(destino.getParent(), StandardOpenOption.READ)) {
+                diretorio.force(true);
+            }
+            return destino;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Confere o CRC do arquivo inteiro e só então entrega as contas ao
+     * consumidor. Devolve a quantidade lida.
+     *
+     * @throws UncheckedIOException se o arquivo estiver incompleto ou corrompido
+     */
+    public static long ler(Path instantaneo, ConsumidorDeConta consumidor) {
+        try {
+            verificarCrc(instantaneo);
+            try (DataInputStream entrada = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(instantaneo), TAMANHO_BUFFER))) {
+                if (entrada.readInt() != MAGICO || entrada.readInt() != VERSAO
+                        || entrada.readLong() != sequenciaInicial(instantaneo)) {
+                    throw new IOException("Cabeçalho inválido no instantâneo " + instantaneo);
+                }
+                long quantidade = 0;
+                for (long id = entrada.readLong(); id != 0; id = entrada.readLong()) {
+                    consumidor.aceitar(id, entrada.readLong(), entrada.readUTF());
+                    quantidade++;
+                }
+                if (entrada.readLong() != quantidade) {
+                    throw new IOException("Quantidade de contas não confere no instantâneo " + instantaneo);
+                }
+                return quantidade;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void verificarCrc(Path instantaneo) throws IOException {
+        try (FileChannel canal = FileChannel.open(instantaneo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho < TAMANHO_MINIMO) {
+                throw new IOException("Instantâneo incompleto: " + instantaneo);
+            }
+            CRC32C crc = new CRC32C();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+            long restante = tamanho - Integer.BYTES;
+            while (restante > 0) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), restante));
+                int lidos = canal.read(buffer);
+                if (lidos < 0) {
+                    throw new IOException("Instantâneo incompleto: " + instantaneo);
+                }
+                restante -= lidos;
+                crc.update(buffer.flip());
+            }
+            ByteBuffer esperado = ByteBuffer.allocate(Integer.BYTES);
+            canal.read(esperado, tamanho - Integer.BYTES);
+            if (esperado.getInt(0) != (int) crc.getValue()) {
+                throw new IOException("CRC não confere no instantâneo " + instantaneo);
+            }
+        }
+    }
+
+    private static List<Path> listar(Path diretorio, String sufixo) {
+        if (!Files.isDirectory(diretorio)) {
+            return List.of();
+        }
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos
+                    .filter(p -> {
+                        String nome = p.getFileName().toString();
+                        return nome.startsWith(PREFIXO) && nome.endsWith(sufixo);
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
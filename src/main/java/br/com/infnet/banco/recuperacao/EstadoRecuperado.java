@@ -0,0 +1,137 @@
+package br.com.infnet.banco.recuperacao;
+
+import br.com.infnet.banco.colecao.MapaLongLong;
+import br.com.infnet.banco.colecao.MapaLongObjeto;
+import br.com.infnet.banco.diario.EventoDiario;
+import br.com.infnet.banco.diario.LeitorDeDiario;
+import br.com.infnet.banco.diario.TipoEvento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Contas reconstruídas a partir do diretório do diário: o instantâneo mais
+ * novo que estiver íntegro e, por cima dele, os eventos do diário a partir da
+ * sequência inicial do instantâneo.
+ *
+ * <p>Os eventos trazem o saldo resultante, então reaplicar um evento que o
+ * instantâneo já refletia não muda nada: vale o último evento de cada conta.
+ * Eventos anulados (transação que não confirmou) são ignorados.
+ */
+public final class EstadoRecuperado {
+
+    private static final Logger log = LoggerFactory.getLogger(EstadoRecuperado.class);
+
+    private final MapaLongLong saldos = new MapaLongLong();
+    private final MapaLongObjeto<String> titulares = new MapaLongObjeto<>();
+    private long maiorId;
+    private Path instantaneo;
+    private long sequenciaInicial = 1;
+    private long eventosAplicados;
+    private long ultimaSequencia;
+
+    private EstadoRecuperado() {
+    }
+
+    public static EstadoRecuperado reconstruir(Path diretorio) {
+        List<Path> instantaneos = ArquivoDeInstantaneo.listar(diretorio);
+        for (int i = instantaneos.size() - 1; i >= 0; i--) {
+            Path instantaneo = instantaneos.get(i);
+            EstadoRecuperado estado = new EstadoRecuperado();
+            try {
+                ArquivoDeInstantaneo.ler(instantaneo, estado::colocar);
+            } catch (UncheckedIOException e) {
+                log.warn("Instantâneo ignorado: {}", instantaneo, e);
+                continue;
+            }
+            estado.instantaneo = instantaneo;
+            estado.sequenciaInicial = ArquivoDeInstantaneo.sequenciaInicial(instantaneo);
+            return estado.reaplicarDiario(diretorio);
+        }
+        return new EstadoRecuperado().reaplicarDiario(diretorio);
+    }
+
+    public int quantidade() {
+        return saldos.tamanho();
+    }
+
+    public long maiorId() {
+        return maiorId;
+    }
+
+    // instantâneo usado (null se a reconstrução partiu só do diário)
+    public Path instantaneo() {
+        return instantaneo;
+    }
+
+    public long eventosAplicados() {
+        return eventosAplicados;
+    }
+
+    // último evento do diário refletido no estado (0 se nenhum)
+    public long ultimaSequencia() {
+        return ultimaSequencia;
+    }
+
+    public long saldoEmCentavos(long id, long padrao) {
+        return saldos.obter(id, padrao);
+    }
+
+    public String titular(long id) {
+        return titulares.obter(id);
+    }
+
+    public void paraCada(ArquivoDeInstantaneo.ConsumidorDeConta consumidor) {
+        saldos.paraCada((id, saldo) -> consumidor.aceitar(id, saldo, titulares.obter(id)));
+    }
+
+    private void colocar(long id, long saldoEmCentavos, String titular) {
+        saldos.colocar(id, saldoEmCentavos);
+        titulares.colocar(id, titular);
+        maiorId = Math.max(maiorId, id);
+    }
+
+    private EstadoRecuperado reaplicarDiario(Path diretorio) {
+        long primeiraDisponivel = LeitorDeDiario.primeiraSequenciaDisponivel(diretorio);
+        if (primeiraDisponivel > sequenciaInicial) {
+            throw new IllegalStateException("O diário começa na sequência " + primeiraDisponivel
+                    + ", mas a recuperação precisa dos eventos a partir de " + sequenciaInicial);
+        }
+        // anulações vêm depois do evento anulado: primeiro junta todas
+        MapaLongLong anuladas = new MapaLongLong();
+        LeitorDeDiario.percorrer(diretorio, sequenciaInicial, evento -> {
+            if (evento.tipo() == TipoEvento.ANULACAO) {
+                anuladas.colocar(evento.referencia(), evento.sequencia());
+            }
+        });
+        long ultima = LeitorDeDiario.percorrer(diretorio, sequenciaInicial, evento -> {
+            if (evento.tipo() != TipoEvento.ANULACAO && !anuladas.contem(evento.sequencia())) {
+                aplicar(evento);
+            }
+        });
+        ultimaSequencia = Math.max(ultima, sequenciaInicial - 1);
+        return this;
+    }
+
+    private void aplicar(EventoDiario evento) {
+        long id = evento.contaId();
+        switch (evento.tipo()) {
+            case CRIACAO -> colocar(id, evento.saldoCentavos(), evento.titular());
+            case ALTERACAO_SALDO, CREDITO, DEBITO -> {
+                if (saldos.contem(id)) {
+                    saldos.colocar(id, evento.saldoCentavos());
+                }
+            }
+            case EXCLUSAO -> {
+                saldos.remover(id);
+                titulares.remover(id);
+            }
+            case ANULACAO -> {
+            }
+        }
+        eventosAplicados++;
+    }
+}
@@ -0,0 +1,74 @@
+package br.com.infnet.banco.recuperacao;
+
+import br.com.infnet.banco.diario.DiarioDeContas;
+import br.com.infnet.banco.diario.DiarioEmArquivo;
+import br.com.infnet.banco.entity.Conta;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Grava instantâneos que, junto com o diário, reconstroem as contas.
+ *
+ * <p>A sequência inicial do instantâneo é lida antes de percorrer as contas
+ * ({@link DiarioDeContas#inicioDoTrechoEmAberto}): tudo o que veio antes
+ * dela já está no retrato, e o que veio depois é reaplicado na recuperação.
+ * O retrato pode refletir eventos posteriores a ela, por isso o diário é
+ * forçado até a última sequência antes de o instantâneo ser publicado.
+ * Depois da publicação, instantâneos além de {@code mantidos} e os segmentos
+ * do diário que nenhum deles usa são apagados.
+ */
+public class GravadorDeInstantaneos {
+
+    private final DiarioEmArquivo diario;
+    private final DiarioDeContas diarioDeContas;
+    private final Consumer<Consumer<Conta>> fonte;
+    private final int mantidos;
+
+    // um instantâneo por vez
+    private final ReentrantLock trava = new ReentrantLock();
+
+    public GravadorDeInstantaneos(DiarioEmArquivo diario, DiarioDeContas diarioDeContas,
+                                  Consumer<Consumer<Conta>> fonte, int mantidos) {
+        if (mantidos < 1) {
+            throw new IllegalArgumentException("É preciso manter ao menos um instantâneo: " + mantidos);
+        }
+        this.diario = diario;
+        this.diarioDeContas = diarioDeContas;
+        this.fonte = fonte;
+        this.mantidos = mantidos;
+    }
+
+    public Path gravar() {
+        trava.lock();
+        try {
+            long sequenciaInicial = diarioDeContas.inicioDoTrechoEmAberto();
+            Path temporario = ArquivoDeInstantaneo.gravarTemporario(diario.diretorio(), sequenciaInicial, fonte);
+            diario.aguardarDurabilidade(diario.ultimaSequencia());
+            Path publicado = ArquivoDeInstantaneo.publicar(temporario);
+            descartarAntigos();
+            return publicado;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private void descartarAntigos() {
+        List<Path> instantaneos = ArquivoDeInstantaneo.listar(diario.diretorio());
+        int excedentes = Math.max(0, instantaneos.size() - mantidos);
+        try {
+            for (int i = 0; i < excedentes; i++) {
+                Files.deleteIfExists(instantaneos.get(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        // o instantâneo mais antigo que sobrou ainda precisa do diário a partir da sua sequência
+        diario.descartarSegmentosAnteriores(ArquivoDeInstantaneo.sequenciaInicial(instantaneos.get(excedentes)));
+    }
+}
@@ -0,0 +1,81 @@
+package br.com.infnet.banco.recuperacao;
+
+import br.com.infnet.banco.diario.DiarioDeContas;
+import br.com.infnet.banco.diario.DiarioEmArquivo;
+import br.com.infnet.banco.service.OperacoesConta;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grava um instantâneo das contas a cada
+ * {@code banco.recuperacao.intervalo-instantaneo-ms} (0 desliga) e outro no
+ * encerramento. As contas vêm de {@link OperacoesConta#percorrerTodas}: do
+ * banco no {@code ContaService}, da memória no motor em memória.
+ */
+@Component
+@Profile("recuperacao")
+public class InstantaneosPeriodicos implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(InstantaneosPeriodicos.class);
+
+    private final GravadorDeInstantaneos gravador;
+    private final long intervaloMs;
+    private ScheduledExecutorService agendador;
+
+    public InstantaneosPeriodicos(DiarioEmArquivo diario,
+                                  DiarioDeContas diarioDeContas,
+                                  OperacoesConta operacoes,
+                                  // garante que a restauração rode antes do primeiro instantâneo
+                                  RestauracaoDeContas restauracao,
+                                  @Value("${banco.recuperacao.intervalo-instantaneo-ms:60000}") long intervaloMs,
+                                  @Value("${banco.recuperacao.instantaneos-mantidos:2}") int mantidos) {
+        this.gravador = new GravadorDeInstantaneos(diario, diarioDeContas, operacoes::percorrerTodas, mantidos);
+        this.intervaloMs = intervaloMs;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (intervaloMs > 0) {
+            agendador = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                    .name("instantaneo-contas")
+                    .daemon(true)
+                    .factory());
+            agendador.scheduleWithFixedDelay(this::gravarComLog, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        if (agendador != null) {
+            agendador.shutdown();
+            try {
+                agendador.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        gravarComLog();
+    }
+
+    public Path gravar() {
+        return gravador.gravar();
+    }
+
+    private void gravarComLog() {
+        try {
+            gravar();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar instantâneo das contas; nova tentativa no próximo ciclo", e);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package br.com.infnet.banco.recuperacao;
+
+import br.com.infnet.banco.diario.DiarioEmArquivo;
+import br.com.infnet.banco.repository.ContaRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Na subida (perfil {@code recuperacao}), monta a tabela {@code conta} a
+ * partir do último instantâneo e do diário. Roda no {@code @PostConstruct},
+ * antes de qualquer outro componente ler o banco.
+ *
+ * <p>Se não houver instantâneo nem diário, o banco fica como está. Caso
+ * contrário, o conteúdo da tabela é substituído pelo estado recuperado: a
+ * exclusão das linhas e a carga vão numa transação, e a sequence de ids
+ * continua depois do maior id. O índice de titular sai antes da carga e
+ * volta depois dela. Remover e criar índice e reiniciar a sequence são DDL,
+ * que confirma a transação aberta; por isso ficam fora da transação da
+ * carga, cada um com a sua. Se a carga falhar, o índice é recriado sobre as
+ * linhas antigas antes de a falha seguir adiante. Uma queda entre a carga e
+ * a recriação deixa a tabela sem o índice, e a próxima subida refaz a
+ * restauração inteira.
+ *
+ * <p>Apagar a tabela inteira só faz sentido num banco em memória do próprio
+ * processo, que se perdeu junto com ele; com qualquer outro banco a subida
+ * falha antes de tocar na tabela.
+ */
+@Component
+@Profile("recuperacao")
+public class RestauracaoDeContas {
+
+    private static final Logger log = LoggerFactory.getLogger(RestauracaoDeContas.class);
+
+    // contas por chamada ao repositório
+    private static final int TAMANHO_LOTE = 10_000;
+
+    private final DiarioEmArquivo diario;
+    private final ContaRepository contaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DataSource dataSource;
+    private Resultado ultimoResultado;
+
+    public RestauracaoDeContas(DiarioEmArquivo diario,
+                               ContaRepository contaRepository,
+                               TransactionTemplate transactionTemplate,
+                               DataSource dataSource) {
+        this.diario = diario;
+        this.contaRepository = contaRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.dataSource = dataSource;
+    }
+
+    @PostConstruct
+    public void restaurar() {
+        if (!EmbeddedDatabaseConnection.isEmbedded(dataSource)) {
+            throw new IllegalStateException("O perfil recuperacao só roda com banco em memória (h2)");
+        }
+        long inicio = System.nanoTime();
+        ArquivoDeInstantaneo.apagarTemporarios(diario.diretorio());
+        EstadoRecuperado estado = EstadoRecuperado.reconstruir(diario.diretorio());
+        long lido = System.nanoTime();
+
+        if (estado.instantaneo() != null || estado.ultimaSequencia() > 0) {
+            gravar(estado);
+        }
+        long fim = System.nanoTime();
+
+        ultimoResultado = new Resultado(estado.quantidade(), estado.eventosAplicados(), estado.instantaneo(),
+                Duration.ofNanos(lido - inicio), Duration.ofNanos(fim - lido));
+        log.info("Contas restauradas: {}", ultimoResultado);
+    }
+
+    public Resultado ultimoResultado() {
+        return ultimoResultado;
+    }
+
+    private void gravar(EstadoRecuperado estado) {
+        // o índice de titular é montado de uma vez depois da carga (ver ContaRepositoryCustom)
+        contaRepository.removerIndiceDeTitular();
+        try {
+            transactionTemplate.executeWithoutResult(status -> carregar(estado));
+        } catch (RuntimeException e) {
+            try {
+                contaRepository.criarIndiceDeTitular();
+            } catch (RuntimeException naRecriacao) {
+                e.addSuppressed(naRecriacao);
+            }
+            throw e;
+        }
+        contaRepository.criarIndiceDeTitular();
+        contaRepository.reiniciarSequencia(estado.maiorId() + 1);
+    }
+
+    private void carregar(EstadoRecuperado estado) {
+        contaRepository.deleteAllInBatch();
+        long[] ids = new long[TAMANHO_LOTE];
+        String[] titulares = new String[TAMANHO_LOTE];
+        long[] saldos = new long[TAMANHO_LOTE];
+        int[] quantidade = {0};
+        estado.paraCada((id, saldo, titular) -> {
+            ids[quantidade[0]] = id;
+            titulares[quantidade[0]] = titular;
+            saldos[quantidade[0]++] = saldo;
+            if (quantidade[0] == TAMANHO_LOTE) {
+                contaRepository.inserirEmLote(ids, titulares, saldos, TAMANHO_LOTE);
+                quantidade[0] = 0;
+            }
+        });
+        if (quantidade[0] > 0) {
+            contaRepository.inserirEmLote(ids, titulares, saldos, quantidade[0]);
+        }
+    }
+
+    /**
+     * @param instantaneo instantâneo usado (null se só o diário foi lido)
+     * @param leitura     tempo para ler instantâneo e diário
+     * @param gravacao    tempo para gravar as contas no banco
+     */
+    public record Resultado(int contas, long eventosReaplicados, Path instantaneo,
+                            Duration leitura, Duration gravacao) {
+
+        public Duration total() {
+            return leitura.plus(gravacao);
+        }
+    }
+}
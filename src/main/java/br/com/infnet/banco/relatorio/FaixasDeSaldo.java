@@ -0,0 +1,93 @@
+package br.com.infnet.banco.relatorio;
+
+import java.util.Arrays;
+
+/**
+ * Quantidade de contas por faixa de saldo. Com os limites
+ * {@code l0 < l1 < ... < lk} (em centavos) há {@code k + 2} faixas:
+ * {@code [0, l0)}, {@code [l0, l1)}, ..., {@code [lk, ∞)}; a conta cai na
+ * faixa {@code i} quando {@code i} limites são menores ou iguais ao saldo.
+ * Os percentis são lidos das faixas: {@link #faixaDoPercentil} diz em qual
+ * faixa está a conta daquela posição, sem ordenar os saldos.
+ */
+public record FaixasDeSaldo(long[] limitesEmCentavos, long[] contagens) {
+
+    // 1, 10, 100, ... 1.000.000 reais
+    public static final long[] LIMITES_PADRAO = {
+            1_00L, 10_00L, 100_00L, 1_000_00L, 10_000_00L, 100_000_00L, 1_000_000_00L
+    };
+
+    public FaixasDeSaldo {
+        validarLimites(limitesEmCentavos);
+        if (contagens.length != limitesEmCentavos.length + 1) {
+            throw new IllegalArgumentException("Esperadas " + (limitesEmCentavos.length + 1)
+                    + " contagens para " + limitesEmCentavos.length + " limites: " + contagens.length);
+        }
+    }
+
+    // limites positivos e estritamente crescentes
+    public static void validarLimites(long[] limitesEmCentavos) {
+        for (int i = 0; i < limitesEmCentavos.length; i++) {
+            if (limitesEmCentavos[i] <= 0 || (i > 0 && limitesEmCentavos[i] <= limitesEmCentavos[i - 1])) {
+                throw new IllegalArgumentException(
+                        "Limites das faixas devem ser positivos e crescentes: " + Arrays.toString(limitesEmCentavos));
+            }
+        }
+    }
+
+    // faixa do saldo: quantos limites são menores ou iguais a ele
+    public static int faixaDe(long[] limitesEmCentavos, long saldoEmCentavos) {
+        int posicao = Arrays.binarySearch(limitesEmCentavos, saldoEmCentavos);
+        return posicao >= 0 ? posicao + 1 : -posicao - 1;
+    }
+
+    public long quantidade() {
+        long total = 0;
+        for (long contagem : contagens) {
+            total += contagem;
+        }
+        return total;
+    }
+
+    /**
+     * Faixa da conta na posição {@code ceil(percentil/100 * quantidade)} em
+     * ordem crescente de saldo (percentil entre 0 e 100), ou -1 sem contas.
+     */
+    public int faixaDoPercentil(double percentil) {
+        if (!(percentil >= 0 && percentil <= 100)) {
+            throw new IllegalArgumentException("Percentil deve estar entre 0 e 100: " + percentil);
+        }
+        long quantidade = quantidade();
+        if (quantidade == 0) {
+            return -1;
+        }
+        long posicao = Math.max(1, (long) Math.ceil(percentil / 100 * quantidade));
+        long acumulado = 0;
+        for (int i = 0; i < contagens.length; i++) {
+            acumulado += contagens[i];
+            if (acumulado >= posicao) {
+                return i;
+            }
+        }
+        return contagens.length - 1;
+    }
+
+    // records comparam arrays por referência
+    @Override
+    public boolean equals(Object outro) {
+        return outro instanceof FaixasDeSaldo faixas
+                && Arrays.equals(limitesEmCentavos, faixas.limitesEmCentavos)
+                && Arrays.equals(contagens, faixas.contagens);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(limitesEmCentavos) + Arrays.hashCode(contagens);
+    }
+
+    @Override
+    public String toString() {
+        return "FaixasDeSaldo[limitesEmCentavos=" + Arrays.toString(limitesEmCentavos)
+                + ", contagens=" + Arrays.toString(contagens) + "]";
+    }
+}
@@ -0,0 +1,234 @@
+package br.com.infnet.banco.relatorio;
+
+import br.com.infnet.banco.dto.ResumoDeSaldos;
+import br.com.infnet.banco.dto.SaldoDeConta;
+import br.com.infnet.banco.entity.Dinheiro;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Cópia dos saldos em arrays primitivos (id, titular, centavos), para montar o
+ * {@link RelatorioDeSaldos} fora das travas de quem a tirou. É preenchida com
+ * {@link #adicionar} e depois só lida; o preenchimento não é thread-safe.
+ *
+ * <p>O relatório sai de uma única passada pelos arrays: cada trecho acumula
+ * quantidade, total, menor, maior, contagem por faixa e as maiores contas do
+ * trecho, e os parciais são juntados. Em paralelo, os trechos de até
+ * {@value #LIMIAR_PARALELO} contas viram tarefas do {@link ForkJoinPool}
+ * comum; em 1 CPU o pool comum não tem com quem dividir e o ganho some.
+ */
+public final class InstantaneoDeSaldos {
+
+    // abaixo disso, dividir custa mais que varrer
+    static final int LIMIAR_PARALELO = 1 << 16;
+
+    private long[] ids;
+    private String[] titulares;
+    private long[] saldos;
+    private int tamanho;
+
+    public InstantaneoDeSaldos(int capacidadeInicial) {
+        int capacidade = Math.max(16, capacidadeInicial);
+        ids = new long[capacidade];
+        titulares = new String[capacidade];
+        saldos = new long[capacidade];
+    }
+
+    public void adicionar(long id, String titular, long saldoEmCentavos) {
+        if (tamanho == ids.length) {
+            int capacidade = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacidade);
+            titulares = Arrays.copyOf(titulares, capacidade);
+            saldos = Arrays.copyOf(saldos, capacidade);
+        }
+        ids[tamanho] = id;
+        titulares[tamanho] = titular;
+        saldos[tamanho++] = saldoEmCentavos;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Relatório com as {@code maiores} contas de maior saldo e as faixas dadas
+     * por {@code limitesEmCentavos} (ver {@link FaixasDeSaldo}). Com
+     * {@code paralelo}, divide a passada entre as threads do pool comum.
+     */
+    public RelatorioDeSaldos relatorio(int maiores, long[] limitesEmCentavos, boolean paralelo) {
+        if (maiores < 0) {
+            throw new IllegalArgumentException("Quantidade de maiores saldos não pode ser negativa: " + maiores);
+        }
+        FaixasDeSaldo.validarLimites(limitesEmCentavos);
+        long[] limites = limitesEmCentavos.clone();
+        Parcial total = paralelo && tamanho > LIMIAR_PARALELO
+                ? ForkJoinPool.commonPool().invoke(new Tarefa(0, tamanho, maiores, limites))
+                : varrer(0, tamanho, maiores, limites);
+
+        ResumoDeSaldos resumo = total.quantidade == 0
+                ? new ResumoDeSaldos(0, 0, 0, 0)
+                : new ResumoDeSaldos(total.quantidade, total.soma, total.menor, total.maior);
+        int[] ordem = total.maiores.ordenados();
+        List<SaldoDeConta> contas = new ArrayList<>(ordem.length);
+        for (int i : ordem) {
+            contas.add(new SaldoDeConta(ids[i], titulares[i], saldos[i]));
+        }
+        return new RelatorioDeSaldos(resumo, new FaixasDeSaldo(limites, total.porFaixa), contas);
+    }
+
+    private Parcial varrer(int inicio, int fim, int maiores, long[] limites) {
+        Parcial parcial = new Parcial(maiores, limites.length + 1);
+        long soma = 0;
+        long menor = Long.MAX_VALUE;
+        long maior = Long.MIN_VALUE;
+        for (int i = inicio; i < fim; i++) {
+            long saldo = saldos[i];
+            soma = Dinheiro.somar(soma, saldo);
+            menor = Math.min(menor, saldo);
+            maior = Math.max(maior, saldo);
+            parcial.porFaixa[FaixasDeSaldo.faixaDe(limites, saldo)]++;
+            parcial.maiores.oferecer(i);
+        }
+        parcial.quantidade = fim - inicio;
+        parcial.soma = soma;
+        parcial.menor = menor;
+        parcial.maior = maior;
+        return parcial;
+    }
+
+    // a vem antes de b no ranking: saldo maior ou, no empate, id menor
+    private boolean antes(int a, int b) {
+        return saldos[a] != saldos[b] ? saldos[a] > saldos[b] : ids[a] < ids[b];
+    }
+
+    private final class Tarefa extends RecursiveTask<Parcial> {
+
+        private final int inicio;
+        private final int fim;
+        private final int maiores;
+        private final long[] limites;
+
+        Tarefa(int inicio, int fim, int maiores, long[] limites) {
+            this.inicio = inicio;
+            this.fim = fim;
+            this.maiores = maiores;
+            this.limites = limites;
+        }
+
+        @Override
+        protected Parcial compute() {
+            if (fim - inicio <= LIMIAR_PARALELO) {
+                return varrer(inicio, fim, maiores, limites);
+            }
+            int meio = (inicio + fim) >>> 1;
+            Tarefa esquerda = new Tarefa(inicio, meio, maiores, limites);
+            esquerda.fork();
+            Parcial direita = new Tarefa(meio, fim, maiores, limites).compute();
+            return esquerda.join().juntar(direita);
+        }
+    }
+
+    private final class Parcial {
+
+        private int quantidade;
+        private long soma;
+        private long menor = Long.MAX_VALUE;
+        private long maior = Long.MIN_VALUE;
+        private final long[] porFaixa;
+        private final Maiores maiores;
+
+        Parcial(int maiores, int faixas) {
+            this.porFaixa = new long[faixas];
+            this.maiores = new Maiores(maiores);
+        }
+
+        Parcial juntar(Parcial outro) {
+            quantidade += outro.quantidade;
+            soma = Dinheiro.somar(soma, outro.soma);
+            menor = Math.min(menor, outro.menor);
+            maior = Math.max(maior, outro.maior);
+            for (int i = 0; i < porFaixa.length; i++) {
+                porFaixa[i] += outro.porFaixa[i];
+            }
+            for (int i = 0; i < outro.maiores.tamanho; i++) {
+                maiores.oferecer(outro.maiores.heap[i]);
+            }
+            return this;
+        }
+    }
+
+    /**
+     * As {@code capacidade} maiores posições vistas, num heap de mínimo de
+     * {@code int} (a raiz é a pior delas): sem boxing nem ordenar o trecho.
+     */
+    private final class Maiores {
+
+        private final int[] heap;
+        private int tamanho;
+
+        Maiores(int capacidade) {
+            heap = new int[capacidade];
+        }
+
+        void oferecer(int posicao) {
+            if (tamanho < heap.length) {
+                heap[tamanho] = posicao;
+                subir(tamanho++);
+            } else if (tamanho > 0 && antes(posicao, heap[0])) {
+                heap[0] = posicao;
+                descer(0);
+            }
+        }
+
+        // melhor primeiro; esvazia o heap
+        int[] ordenados() {
+            int[] ordem = new int[tamanho];
+            while (tamanho > 0) {
+                ordem[tamanho - 1] = heap[0];
+                heap[0] = heap[--tamanho];
+                descer(0);
+            }
+            return ordem;
+        }
+
+        private void subir(int i) {
+            while (i > 0) {
+                int pai = (i - 1) >>> 1;
+                if (!antes(heap[pai], heap[i])) {
+                    return;
+                }
+                trocar(i, pai);
+                i = pai;
+            }
+        }
+
+        private void descer(int i) {
+            while (true) {
+                int pior = i;
+                int esquerdo = 2 * i + 1;
+                int direito = esquerdo + 1;
+                if (esquerdo < tamanho && antes(heap[pior], heap[esquerdo])) {
+                    pior = esquerdo;
+                }
+                if (direito < tamanho && antes(heap[pior], heap[direito])) {
+                    pior = direito;
+                }
+                if (pior == i) {
+                    return;
+                }
+                trocar(i, pior);
+                i = pior;
+            }
+        }
+
+        private void trocar(int a, int b) {
+            int temporario = heap[a];
+            heap[a] = heap[b];
+            heap[b] = temporario;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.infnet.banco.relatorio;
+
+import br.com.infnet.banco.dto.ResumoDeSaldos;
+import br.com.infnet.banco.dto.SaldoDeConta;
+
+import java.util.List;
+
+/**
+ * Relatório dos saldos: quantidade, total, menor e maior ({@code resumo}),
+ * contas por faixa de saldo e as contas de maior saldo (maior primeiro;
+ * empate pelo menor id).
+ */
+public record RelatorioDeSaldos(ResumoDeSaldos resumo, FaixasDeSaldo faixas, List<SaldoDeConta> maiores) {
+}
@@ -1,9 +1,80 @@
 package br.com.infnet.banco.repository;
 
+import br.com.infnet.banco.dto.SaldoDeConta;
 import br.com.infnet.banco.entity.Conta;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface ContaRepository extends JpaRepository<Conta, Long> {
+public interface ContaRepository extends JpaRepository<Conta, Long>, ContaRepositoryCustom {
+
+    // a tabela inteira não passa pelo cache de segundo nível: não expulsa as contas usadas de verdade
+    @Override
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_CACHE_STORE_MODE, value = "BYPASS"))
+    List<Conta> findAll();
+
+    // paginação por keyset: usa o índice da PK em vez de OFFSET; cada página fica no cache de consultas
+    // até a próxima escrita na tabela (a lista inteira, findAll, não: seria a tabela toda no heap)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true")
+    })
+    @Query("select c from Conta c where c.id > :ultimoId order by c.id")
+    List<Conta> buscarPagina(@Param("ultimoId") long ultimoId, Limit limite);
+
+    // projeções só de leitura: sem entidade gerenciada, sem snapshot para dirty checking e sem
+    // flush automático antes da consulta, mesmo dentro de uma transação de escrita
+    // (a de uma conta só, buscarSaldoDeConta, fica em ContaRepositoryCustom)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query("select new br.com.infnet.banco.dto.SaldoDeConta(c.id, c.titular, c.saldo) from Conta c"
+            + " where c.id > :ultimoId order by c.id")
+    List<SaldoDeConta> buscarPaginaDeSaldos(@Param("ultimoId") long ultimoId, Limit limite);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query("select new br.com.infnet.banco.dto.SaldoDeConta(c.id, c.titular, c.saldo) from Conta c order by c.id")
+    List<SaldoDeConta> buscarTodosOsSaldos();
+
+    // titular exatamente igual, pelo índice de titularMinusculo (já ordenado por id dentro da chave), em páginas por id
+    @Query("select new br.com.infnet.banco.dto.SaldoDeConta(c.id, c.titular, c.saldo) from Conta c"
+            + " where c.titularMinusculo = :minusculo and c.titular = :titular and c.id > :ultimoId order by c.id")
+    List<SaldoDeConta> buscarPorTitular(@Param("minusculo") String titularMinusculo, @Param("titular") String titular,
+                                        @Param("ultimoId") long ultimoId, Limit limite);
+
+    // padrão "prefixo%" já em minúsculas e com '!' escapando % e _; keyset por (titularMinusculo, id)
+    @Query("select new br.com.infnet.banco.dto.SaldoDeConta(c.id, c.titular, c.saldo) from Conta c"
+            + " where c.titularMinusculo like :padrao escape '!'"
+            + " and (c.titularMinusculo > :ultimoTitular or (c.titularMinusculo = :ultimoTitular and c.id > :ultimoId))"
+            + " order by c.titularMinusculo, c.id")
+    List<SaldoDeConta> buscarPorPrefixoDoTitular(@Param("padrao") String padrao,
+                                                 @Param("ultimoTitular") String ultimoTitularMinusculo,
+                                                 @Param("ultimoId") long ultimoId,
+                                                 Limit limite);
+
+    // maiores saldos (empate pelo menor id), montados pela consulta, sem entidades
+    @Query("select new br.com.infnet.banco.dto.SaldoDeConta(c.id, c.titular, c.saldo) from Conta c"
+            + " order by c.saldo desc, c.id")
+    List<SaldoDeConta> buscarMaioresSaldos(Limit limite);
+
+    // SELECT ... FOR UPDATE: trava a linha até o fim da transação corrente
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Conta c where c.id = :id")
+    Optional<Conta> buscarParaAtualizacao(@Param("id") long id);
+
+    // várias linhas de uma vez, travadas em ordem crescente de id
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Conta c where c.id in :ids order by c.id")
+    List<Conta> buscarTodasParaAtualizacao(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,115 @@
+package br.com.infnet.banco.repository;
+
+import br.com.infnet.banco.dto.ResumoDeSaldos;
+import br.com.infnet.banco.dto.SaldoDeConta;
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.relatorio.FaixasDeSaldo;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Operações do repositório que precisam do EntityManager diretamente.
+ */
+public interface ContaRepositoryCustom {
+
+    /**
+     * Persiste um lote de contas com batch JDBC e faz flush e clear do contexto
+     * de persistência ao final, para que o uso de memória não cresça entre lotes.
+     */
+    void salvarEmLote(List<Conta> contas);
+
+    /**
+     * Percorre todas as contas em ordem de id com um cursor somente leitura.
+     * Cada conta é desanexada depois de entregue ao consumidor, então o heap
+     * não cresce com o tamanho da tabela.
+     */
+    void percorrerTodas(Consumer<Conta> consumidor);
+
+    /**
+     * Percorre as colunas de todas as contas em ordem de id com um cursor JDBC
+     * somente leitura, sem montar entidades nem passar pelo contexto de
+     * persistência (exportação).
+     */
+    void percorrerLinhas(ConsumidorDeLinha consumidor);
+
+    @FunctionalInterface
+    interface ConsumidorDeLinha {
+        void aceitar(long id, String titular, long saldoEmCentavos);
+    }
+
+    /**
+     * Id, titular e saldo de uma conta, lidos por SQL direto: para uma linha
+     * o custo fixo de montar a consulta JPQL pesa mais que a entidade que se
+     * deixa de criar. Não dispara flush do contexto de persistência.
+     */
+    Optional<SaldoDeConta> buscarSaldoDeConta(long id);
+
+    /**
+     * Quantidade, total, menor e maior saldo, calculados pelo banco em uma
+     * única consulta agregada (sem carregar linhas na aplicação).
+     */
+    ResumoDeSaldos resumirSaldos();
+
+    /**
+     * Contas por faixa de saldo (ver {@link FaixasDeSaldo}), contadas pelo
+     * banco em uma única passada pela tabela.
+     */
+    FaixasDeSaldo contarPorFaixa(long[] limitesEmCentavos);
+
+    /**
+     * Exclui a conta em um único statement (DELETE em massa do JPQL, sem
+     * carregar a entidade). Devolve a quantidade de linhas excluídas.
+     */
+    int excluirPorId(long id);
+
+    /**
+     * Grava o saldo em um único statement (UPDATE em massa do JPQL),
+     * incrementando a versão. Devolve a quantidade de linhas atualizadas.
+     */
+    int atualizarSaldo(long id, long saldoEmCentavos);
+
+    /**
+     * Grava os saldos informados ({@code ids[i]} recebe {@code saldosEmCentavos[i]})
+     * em um único batch JDBC, incrementando a versão de cada linha.
+     * Devolve quantas linhas foram de fato atualizadas.
+     */
+    int atualizarSaldosEmLote(long[] ids, long[] saldosEmCentavos, int quantidade);
+
+    /**
+     * Insere contas com ids já definidos (restauração), com versão 0, em
+     * batch JDBC. Não passa pelo contexto de persistência.
+     */
+    void inserirEmLote(long[] ids, String[] titulares, long[] saldosEmCentavos, int quantidade);
+
+    /**
+     * Faz a sequence de ids continuar em {@code proximoId}. Em bancos sem
+     * sequence (MySQL), atualiza a tabela que o Hibernate usa no lugar dela.
+     */
+    void reiniciarSequencia(long proximoId);
+
+    /**
+     * Faz a sequence continuar depois do maior id da tabela, se ela estiver
+     * atrás dele (tabela que já existia quando a sequence foi criada); nunca
+     * a faz recuar. Devolve se foi preciso avançar.
+     */
+    boolean avancarSequenciaAlemDoMaiorId();
+
+    /**
+     * Grava versão 0 nas contas sem versão (linhas de antes da coluna
+     * {@code versao}, que o {@code ddl-auto=update} cria nula). Devolve
+     * quantas foram preenchidas.
+     */
+    int preencherVersoesNulas();
+
+    /**
+     * Remove e recria o índice de {@code titular_minusculo} em volta de uma
+     * carga em lote: montar o índice uma vez no fim sai bem mais barato que
+     * mantê-lo linha a linha. São DDL, que encerram a transação corrente em
+     * H2 e MySQL.
+     */
+    void removerIndiceDeTitular();
+
+    void criarIndiceDeTitular();
+}
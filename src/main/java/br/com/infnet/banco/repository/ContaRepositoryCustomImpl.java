@@ -0,0 +1,331 @@
+package br.com.infnet.banco.repository;
+
+import br.com.infnet.banco.dto.ResumoDeSaldos;
+import br.com.infnet.banco.dto.SaldoDeConta;
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.entity.Dinheiro;
+import br.com.infnet.banco.relatorio.FaixasDeSaldo;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.action.internal.BulkOperationCleanupAction;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+
+class ContaRepositoryCustomImpl implements ContaRepositoryCustom {
+
+    // linhas buscadas por ida ao banco no cursor de leitura
+    static final int TAMANHO_FETCH = 1_000;
+
+    // linhas por executeBatch na gravação de saldos
+    static final int TAMANHO_BATCH = 50;
+
+    // mesmo nome do @Index de Conta
+    private static final String INDICE_TITULAR = "idx_conta_titular_minusculo";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void salvarEmLote(List<Conta> contas) {
+        contas.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void percorrerTodas(Consumer<Conta> consumidor) {
+        try (Stream<Conta> contas = entityManager
+                .createQuery("select c from Conta c order by c.id", Conta.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, TAMANHO_FETCH)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                // como em findAll, o cursor não enche o cache de segundo nível
+                .setHint(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS)
+                .getResultStream()) {
+            contas.forEach(conta -> {
+                consumidor.accept(conta);
+                entityManager.detach(conta);
+            });
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void percorrerLinhas(ConsumidorDeLinha consumidor) {
+        entityManager.unwrap(Session.class).doWork(conexao -> {
+            try (PreparedStatement select = conexao.prepareStatement(
+                    "select id, titular, saldo from conta order by id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                select.setFetchSize(TAMANHO_FETCH);
+                try (ResultSet linhas = select.executeQuery()) {
+                    while (linhas.next()) {
+                        consumidor.aceitar(linhas.getLong(1), linhas.getString(2),
+                                Dinheiro.deBigDecimal(linhas.getBigDecimal(3)));
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<SaldoDeConta> buscarSaldoDeConta(long id) {
+        return entityManager.unwrap(Session.class).doReturningWork(conexao -> {
+            try (PreparedStatement select = conexao.prepareStatement(
+                    "select titular, saldo from conta where id = ?")) {
+                select.setLong(1, id);
+                try (ResultSet linha = select.executeQuery()) {
+                    return linha.next()
+                            ? Optional.of(new SaldoDeConta(id, linha.getString(1),
+                                    Dinheiro.deBigDecimal(linha.getBigDecimal(2))))
+                            : Optional.empty();
+                }
+            }
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ResumoDeSaldos resumirSaldos() {
+        // SQL direto: a soma sai exata do DECIMAL da coluna e vira centavos só aqui
+        return entityManager.unwrap(Session.class).doReturningWork(conexao -> {
+            try (PreparedStatement select = conexao.prepareStatement(
+                    "select count(*), sum(saldo), min(saldo), max(saldo) from conta");
+                 ResultSet linha = select.executeQuery()) {
+                linha.next();
+                int quantidade = linha.getInt(1);
+                if (quantidade == 0) {
+                    return new ResumoDeSaldos(0, 0, 0, 0);
+                }
+                return new ResumoDeSaldos(quantidade, Dinheiro.deBigDecimal(linha.getBigDecimal(2)),
+                        Dinheiro.deBigDecimal(linha.getBigDecimal(3)), Dinheiro.deBigDecimal(linha.getBigDecimal(4)));
+            }
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FaixasDeSaldo contarPorFaixa(long[] limitesEmCentavos) {
+        FaixasDeSaldo.validarLimites(limitesEmCentavos);
+        long[] limites = limitesEmCentavos.clone();
+        // uma coluna por limite com as contas abaixo dele; as faixas saem das diferenças
+        StringBuilder sql = new StringBuilder("select count(*)");
+        for (int i = 0; i < limites.length; i++) {
+            sql.append(", sum(case when saldo < ? then 1 else 0 end)");
+        }
+        sql.append(" from conta");
+        return entityManager.unwrap(Session.class).doReturningWork(conexao -> {
+            try (PreparedStatement select = conexao.prepareStatement(sql.toString())) {
+                for (int i = 0; i < limites.length; i++) {
+                    select.setBigDecimal(i + 1, Dinheiro.paraBigDecimal(limites[i]));
+                }
+                try (ResultSet linha = select.executeQuery()) {
+                    linha.next();
+                    long[] contagens = new long[limites.length + 1];
+                    long anteriores = 0;
+                    for (int i = 0; i < limites.length; i++) {
+                        // sum de nenhuma linha é null; getLong devolve 0
+                        long abaixo = linha.getLong(i + 2);
+                        contagens[i] = abaixo - anteriores;
+                        anteriores = abaixo;
+                    }
+                    contagens[limites.length] = linha.getLong(1) - anteriores;
+                    return new FaixasDeSaldo(limites, contagens);
+                }
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public int excluirPorId(long id) {
+        return comContasTravadasNoCache(new long[]{id}, 1, () -> entityManager
+                .createQuery("delete from Conta c where c.id = :id")
+                .setParameter("id", id)
+                .executeUpdate());
+    }
+
+    @Override
+    @Transactional
+    public int atualizarSaldo(long id, long saldoEmCentavos) {
+        return comContasTravadasNoCache(new long[]{id}, 1, () -> entityManager
+                .createQuery("update Conta c set c.saldo = :saldo, c.versao = c.versao + 1 where c.id = :id")
+                .setParameter("saldo", saldoEmCentavos)
+                .setParameter("id", id)
+                .executeUpdate());
+    }
+
+    /**
+     * Com a estratégia READ_WRITE, o Hibernate só limpa a região da entidade
+     * depois do commit de um UPDATE/DELETE em massa. Uma leitura que pegou a
+     * linha antiga antes do commit ainda poderia guardá-la no cache depois
+     * dessa limpeza. Por isso as entradas das contas ficam travadas desde
+     * antes do comando até depois da limpeza, como numa escrita pela
+     * entidade: quem leu o banco antes de destravar não grava no cache.
+     */
+    private int comContasTravadasNoCache(long[] ids, int quantidade, IntSupplier comando) {
+        SessionImplementor sessao = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = sessao.getFactory().getMappingMetamodel().getEntityDescriptor(Conta.class);
+        EntityDataAccess cache = persister.getCacheAccessStrategy();
+        if (cache == null) {
+            return comando.getAsInt();
+        }
+        Object[] chaves = new Object[quantidade];
+        SoftLock[] travas = new SoftLock[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            chaves[i] = cache.generateCacheKey(ids[i], persister, sessao.getFactory(), sessao.getTenantIdentifier());
+            travas[i] = cache.lockItem(sessao, chaves[i], null);
+        }
+        try {
+            return comando.getAsInt();
+        } finally {
+            // registrado depois do comando, roda depois da limpeza da região que ele agendou
+            sessao.getActionQueue().registerProcess((sucesso, s) -> {
+                for (int i = 0; i < chaves.length; i++) {
+                    cache.unlockItem(s, chaves[i], travas[i]);
+                }
+            });
+        }
+    }
+
+    @Override
+    @Transactional
+    public int atualizarSaldosEmLote(long[] ids, long[] saldosEmCentavos, int quantidade) {
+        // SQL direto: o UPDATE em massa do JPQL não entra no batch JDBC do Hibernate
+        invalidarCacheDeSegundoNivel();
+        return comContasTravadasNoCache(ids, quantidade, () -> entityManager.unwrap(Session.class).doReturningWork(conexao -> {
+            int atualizadas = 0;
+            try (PreparedStatement update = conexao.prepareStatement(
+                    "update conta set saldo = ?, versao = versao + 1 where id = ?")) {
+                for (int i = 0; i < quantidade; i++) {
+                    update.setBigDecimal(1, Dinheiro.paraBigDecimal(saldosEmCentavos[i]));
+                    update.setLong(2, ids[i]);
+                    update.addBatch();
+                    if ((i + 1) % TAMANHO_BATCH == 0 || i == quantidade - 1) {
+                        for (int linhas : update.executeBatch()) {
+                            // alguns drivers devolvem SUCCESS_NO_INFO (-2) no batch
+                            atualizadas += linhas == PreparedStatement.SUCCESS_NO_INFO ? 1 : linhas;
+                        }
+                    }
+                }
+            }
+            return atualizadas;
+        }));
+    }
+
+    @Override
+    @Transactional
+    public void inserirEmLote(long[] ids, String[] titulares, long[] saldosEmCentavos, int quantidade) {
+        invalidarCacheDeSegundoNivel();
+        entityManager.unwrap(Session.class).doWork(conexao -> {
+            try (PreparedStatement insert = conexao.prepareStatement(
+                    "insert into conta (id, titular, saldo, versao) values (?, ?, ?, 0)")) {
+                for (int i = 0; i < quantidade; i++) {
+                    insert.setLong(1, ids[i]);
+                    insert.setString(2, titulares[i]);
+                    insert.setBigDecimal(3, Dinheiro.paraBigDecimal(saldosEmCentavos[i]));
+                    insert.addBatch();
+                    if ((i + 1) % TAMANHO_BATCH == 0 || i == quantidade - 1) {
+                        insert.executeBatch();
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public void reiniciarSequencia(long proximoId) {
+        if (dialeto().getSequenceSupport().supportsSequences()) {
+            // DDL não aceita parâmetro; proximoId é numérico
+            entityManager.createNativeQuery("alter sequence conta_seq restart with " + proximoId).executeUpdate();
+        } else {
+            entityManager.createNativeQuery("update conta_seq set next_val = ?1")
+                    .setParameter(1, proximoId)
+                    .executeUpdate();
+        }
+    }
+
+    @Override
+    @Transactional
+    public boolean avancarSequenciaAlemDoMaiorId() {
+        long proximoId = (Long) entityManager.createQuery("select coalesce(max(c.id), 0) from Conta c")
+                .getSingleResult() + 1;
+        SequenceSupport sequencias = dialeto().getSequenceSupport();
+        if (!sequencias.supportsSequences()) {
+            return entityManager.createNativeQuery("update conta_seq set next_val = ?1 where next_val < ?1")
+                    .setParameter(1, proximoId)
+                    .executeUpdate() > 0;
+        }
+        // uma sequence não se lê sem consumir um valor: no máximo um bloco de ids fica sem uso
+        long proximoDaSequencia = ((Number) entityManager
+                .createNativeQuery(sequencias.getSequenceNextValString("conta_seq"))
+                .getSingleResult()).longValue();
+        if (proximoDaSequencia >= proximoId) {
+            return false;
+        }
+        reiniciarSequencia(proximoId);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public int preencherVersoesNulas() {
+        return entityManager.createQuery("update Conta c set c.versao = 0 where c.versao is null").executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void removerIndiceDeTitular() {
+        // o MySQL não tem DROP INDEX IF EXISTS
+        String ddl = dialeto() instanceof MySQLDialect
+                ? "alter table conta drop index " + INDICE_TITULAR
+                : "drop index if exists " + INDICE_TITULAR;
+        entityManager.createNativeQuery(ddl).executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void criarIndiceDeTitular() {
+        entityManager.createNativeQuery("create index " + INDICE_TITULAR + " on conta (titular_minusculo)")
+                .executeUpdate();
+    }
+
+    /**
+     * O SQL direto não passa pelo Hibernate, que não saberia descartar o que
+     * guardou de {@code conta}. Agenda o mesmo que um UPDATE em massa do JPQL:
+     * a tabela marcada como alterada para o cache de consultas e a região da
+     * entidade limpa no fim da transação.
+     */
+    private void invalidarCacheDeSegundoNivel() {
+        SharedSessionContractImplementor sessao = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BulkOperationCleanupAction.schedule(sessao,
+                sessao.getFactory().getMappingMetamodel().getEntityDescriptor(Conta.class));
+    }
+
+    private Dialect dialeto() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+    }
+}
@@ -0,0 +1,226 @@
+package br.com.infnet.banco.saida;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.entity.Dinheiro;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Escreve a listagem de contas, linha a linha, num {@link Writer} com buffer:
+ * cada linha é montada num {@link StringBuilder} reaproveitado, com o
+ * alinhamento das colunas feito à mão, e só vai para o destino quando o
+ * buffer enche ou em {@link #terminar()}. Nada de {@code String.format} por
+ * campo nem de flush por linha, como no antigo {@code printf}.
+ *
+ * <p>É um {@link Consumer}, para ser passado direto a
+ * {@code percorrerTodas}. Não é thread-safe.
+ */
+public final class RenderizadorDeContas implements Consumer<Conta> {
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private static final String TOPO = "╭──────┬──────────────────────┬─────────────────╮\n"
+            + "│ ID   │ Titular              │ Saldo           │\n"
+            + "├──────┼──────────────────────┼─────────────────┤\n";
+    private static final String BASE = "╰──────┴──────────────────────┴─────────────────╯\n";
+    private static final String NENHUMA_CONTA = "Nenhuma conta cadastrada.\n";
+    private static final String CABECALHO_CSV = "id,titular,saldo\n";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public enum Formato {
+        // caixa do CLI (a mesma do antigo imprimirContasFormatadas)
+        TABELA,
+        // RFC 4180, com fim de linha \n e saldo com ponto
+        CSV,
+        // um objeto JSON por linha: {"id":1,"titular":"Ana","saldo":10.00}
+        JSONL;
+
+        public static Formato de(String nome) {
+            for (Formato formato : values()) {
+                if (formato.name().equalsIgnoreCase(nome)) {
+                    return formato;
+                }
+            }
+            throw new IllegalArgumentException("Formato de listagem desconhecido: " + nome
+                    + " (use tabela, csv ou jsonl)");
+        }
+    }
+
+    private final Formato formato;
+    private final Writer destino;
+    // separador do %.2f na tabela; CSV e JSON usam sempre ponto
+    private final char separadorDecimal;
+    private final StringBuilder linha = new StringBuilder(128);
+    private char[] caracteres = new char[128];
+    private long total;
+
+    public RenderizadorDeContas(Formato formato, Writer destino) {
+        this.formato = formato;
+        this.destino = destino;
+        this.separadorDecimal = formato == Formato.TABELA
+                ? DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT)).getDecimalSeparator()
+                : '.';
+    }
+
+    /**
+     * Renderizador sobre um fluxo de bytes, com buffer próprio. Numa
+     * {@link PrintStream} (como {@code System.out}) usa o charset dela; nos
+     * demais, UTF-8. O fluxo não é fechado por {@link #terminar()}.
+     */
+    public static RenderizadorDeContas para(Formato formato, OutputStream saida) {
+        Charset charset = saida instanceof PrintStream impressora ? impressora.charset() : StandardCharsets.UTF_8;
+        return new RenderizadorDeContas(formato,
+                new BufferedWriter(new OutputStreamWriter(saida, charset), TAMANHO_BUFFER));
+    }
+
+    @Override
+    public void accept(Conta conta) {
+        if (total++ == 0) {
+            escreverCabecalho();
+        }
+        linha.setLength(0);
+        switch (formato) {
+            case TABELA -> linhaDaTabela(conta);
+            case CSV -> linhaCsv(conta);
+            case JSONL -> linhaJson(conta);
+        }
+        escrever(linha);
+    }
+
+    /**
+     * Fecha a listagem (rodapé da tabela, ou o aviso de nenhuma conta) e
+     * esvazia o buffer. Devolve a quantidade de contas escritas.
+     */
+    public long terminar() {
+        try {
+            if (formato == Formato.TABELA) {
+                destino.write(total == 0 ? NENHUMA_CONTA : BASE);
+            } else if (total == 0) {
+                escreverCabecalho();
+            }
+            destino.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return total;
+    }
+
+    private void escreverCabecalho() {
+        try {
+            switch (formato) {
+                case TABELA -> destino.write(TOPO);
+                case CSV -> destino.write(CABECALHO_CSV);
+                case JSONL -> {
+                    // sem cabeçalho
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // "│ %-4d │ %-20s │ R$ %-12s │"
+    private void linhaDaTabela(Conta conta) {
+        linha.append("│ ");
+        completar(linha.append(conta.getId()), 2, 4).append(" │ ");
+        int inicio = linha.length();
+        completar(linha.append(conta.getTitular()), inicio, 20).append(" │ R$ ");
+        inicio = linha.length();
+        completar(Dinheiro.escrever(linha, conta.getSaldoEmCentavos(), separadorDecimal), inicio, 12)
+                .append(" │\n");
+    }
+
+    private void linhaCsv(Conta conta) {
+        linha.append(conta.getId()).append(',');
+        String titular = conta.getTitular();
+        if (titular != null && precisaDeAspas(titular)) {
+            linha.append('"');
+            for (int i = 0; i < titular.length(); i++) {
+                char c = titular.charAt(i);
+                if (c == '"') {
+                    linha.append('"');
+                }
+                linha.append(c);
+            }
+            linha.append('"');
+        } else if (titular != null) {
+            linha.append(titular);
+        }
+        Dinheiro.escrever(linha.append(','), conta.getSaldoEmCentavos(), '.').append('\n');
+    }
+
+    private void linhaJson(Conta conta) {
+        linha.append("{\"id\":").append(conta.getId()).append(",\"titular\":");
+        textoJson(conta.getTitular());
+        Dinheiro.escrever(linha.append(",\"saldo\":"), conta.getSaldoEmCentavos(), '.').append("}\n");
+    }
+
+    private void textoJson(String valor) {
+        if (valor == null) {
+            linha.append("null");
+            return;
+        }
+        linha.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> linha.append("\\\"");
+                case '\\' -> linha.append("\\\\");
+                case '\n' -> linha.append("\\n");
+                case '\r' -> linha.append("\\r");
+                case '\t' -> linha.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        linha.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        linha.append(c);
+                    }
+                }
+            }
+        }
+        linha.append('"');
+    }
+
+    private static boolean precisaDeAspas(String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // alinha à esquerda (como %-Ns): completa com espaços o campo iniciado em inicio
+    private static StringBuilder completar(StringBuilder texto, int inicio, int largura) {
+        for (int i = texto.length() - inicio; i < largura; i++) {
+            texto.append(' ');
+        }
+        return texto;
+    }
+
+    // copia para um char[] reaproveitado: Writer.append(CharSequence) criaria uma String por linha
+    private void escrever(StringBuilder texto) {
+        int tamanho = texto.length();
+        if (caracteres.length < tamanho) {
+            caracteres = new char[Math.max(tamanho, caracteres.length * 2)];
+        }
+        texto.getChars(0, tamanho, caracteres, 0);
+        try {
+            destino.write(caracteres, 0, tamanho);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,74 +1,455 @@
 package br.com.infnet.banco.service;
 
+import br.com.infnet.banco.cache.ContaCache;
+import br.com.infnet.banco.cache.IndiceDeSaldos;
+import br.com.infnet.banco.colecao.MapaLongObjeto;
+import br.com.infnet.banco.diario.DiarioDeContas;
+import br.com.infnet.banco.dto.NovaConta;
+import br.com.infnet.banco.dto.ResumoDeSaldos;
+import br.com.infnet.banco.dto.SaldoDeConta;
 import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.entity.Dinheiro;
+import br.com.infnet.banco.entity.Titular;
 import br.com.infnet.banco.exception.ContaNaoEncontradaException;
+import br.com.infnet.banco.exception.OperacaoInvalidaException;
+import br.com.infnet.banco.relatorio.FaixasDeSaldo;
+import br.com.infnet.banco.relatorio.RelatorioDeSaldos;
 import br.com.infnet.banco.repository.ContaRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 
 @Service
-public class ContaService {
+public class ContaService implements OperacoesConta {
+
+    // múltiplo do hibernate.jdbc.batch_size; a cada lote o contexto de persistência é limpo
+    private static final int TAMANHO_LOTE_CRIACAO = 500;
 
     private final ContaRepository contaRepository;
+    private final ContaCache contaCache;
+    private final IndiceDeSaldos indiceDeSaldos;
+    private final DiarioDeContas diarioDeContas;
+    private final TransactionTemplate transactionTemplate;
+    private final PoliticaDeRetentativa politicaDeRetentativa;
 
-    public ContaService(ContaRepository contaRepository) {
+    public ContaService(ContaRepository contaRepository,
+                        ContaCache contaCache,
+                        IndiceDeSaldos indiceDeSaldos,
+                        DiarioDeContas diarioDeContas,
+                        TransactionTemplate transactionTemplate,
+                        PoliticaDeRetentativa politicaDeRetentativa) {
         this.contaRepository = contaRepository;
+        this.contaCache = contaCache;
+        this.indiceDeSaldos = indiceDeSaldos;
+        this.diarioDeContas = diarioDeContas;
+        this.transactionTemplate = transactionTemplate;
+        this.politicaDeRetentativa = politicaDeRetentativa;
     }
 
     // comandos (C de CQS)
+    @Override
     public Conta criar(String titular, BigDecimal saldoInicial) {
         Conta conta = new Conta(titular, saldoInicial);
-        return contaRepository.save(conta);
+        Conta salva = contaRepository.save(conta);
+        contaCache.guardar(salva);
+        indiceDeSaldos.atualizar(salva.getId(), salva.getSaldoEmCentavos());
+        diarioDeContas.confirmar(diarioDeContas.criacao(salva));
+        return salva;
+    }
+
+    // tudo ou nada: uma conta inválida desfaz o lote inteiro
+    @Transactional
+    public int criarEmLote(List<NovaConta> novasContas) {
+        validarIndiceAoFinalDaTransacao();
+        List<Conta> lote = new ArrayList<>(TAMANHO_LOTE_CRIACAO);
+        for (NovaConta nova : novasContas) {
+            lote.add(new Conta(nova.titular(), nova.saldoInicial()));
+            if (lote.size() == TAMANHO_LOTE_CRIACAO) {
+                salvarLote(lote);
+                lote = new ArrayList<>(TAMANHO_LOTE_CRIACAO);
+            }
+        }
+        if (!lote.isEmpty()) {
+            salvarLote(lote);
+        }
+        return novasContas.size();
+    }
+
+    private void salvarLote(List<Conta> lote) {
+        contaRepository.salvarEmLote(lote);
+        if (indiceDeSaldos.carregado()) {
+            for (Conta conta : lote) {
+                indiceDeSaldos.atualizar(conta.getId(), conta.getSaldoEmCentavos());
+            }
+        }
+        if (diarioDeContas.habilitado()) {
+            lote.forEach(diarioDeContas::criacao);
+        }
     }
 
+    @Override
     public void excluir(Long id) {
-        if (!contaRepository.existsById(id)) {
+        int excluidas = contaRepository.excluirPorId(id);
+        contaCache.remover(id);
+        indiceDeSaldos.remover(id);
+        if (excluidas == 0) {
             throw new ContaNaoEncontradaException("Conta não encontrada para exclusão: " + id);
         }
-        contaRepository.deleteById(id);
+        diarioDeContas.confirmar(diarioDeContas.exclusao(id));
     }
 
+    /**
+     * Grava o novo saldo com um único UPDATE, sem ler a conta antes, e relê a
+     * linha na mesma transação para devolvê-la com a versão gerada por esse
+     * UPDATE: são sempre dois statements, com ou sem a conta em cache. A
+     * entrada do cache só é removida depois do commit.
+     */
+    @Override
     public Conta alterarSaldo(Long id, BigDecimal novoSaldo) {
         if (novoSaldo == null || novoSaldo.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Saldo deve ser maior que zero");
         }
-        Conta conta = buscarPorId(id);
-        conta.setSaldo(novoSaldo.setScale(2, java.math.RoundingMode.HALF_UP));
-        return contaRepository.save(conta);
+        long centavos = Dinheiro.deBigDecimalArredondado(novoSaldo);
+        // o índice é atualizado enquanto o UPDATE ainda mantém a linha travada
+        Conta conta = transactionTemplate.execute(status -> {
+            removerDoCacheAoFinalDaTransacao(id);
+            if (contaRepository.atualizarSaldo(id, centavos) == 0) {
+                return null;
+            }
+            validarIndiceAoFinalDaTransacao();
+            indiceDeSaldos.atualizar(id, centavos);
+            diarioDeContas.alteracaoDeSaldo(id, centavos);
+            return contaRepository.findById(id).orElseThrow();
+        });
+        if (conta == null) {
+            throw new ContaNaoEncontradaException("Conta não encontrada: " + id);
+        }
+        return conta;
+    }
+
+    @Override
+    public Conta creditar(Long id, BigDecimal valor) {
+        long centavos = paraCentavosPositivos(valor);
+        return movimentar(id, conta -> conta.creditarCentavos(centavos),
+                conta -> diarioDeContas.credito(id, centavos, conta.getSaldoEmCentavos()));
+    }
+
+    @Override
+    public Conta debitar(Long id, BigDecimal valor) {
+        long centavos = paraCentavosPositivos(valor);
+        return movimentar(id, conta -> conta.debitarCentavos(centavos),
+                conta -> diarioDeContas.debito(id, centavos, conta.getSaldoEmCentavos()));
+    }
+
+    /**
+     * Move {@code valor} da origem para o destino em uma única transação.
+     * As duas linhas são travadas (SELECT ... FOR UPDATE) sempre em ordem
+     * crescente de id, então transferências simultâneas em sentidos opostos
+     * não entram em deadlock.
+     */
+    @Override
+    @Transactional
+    public void transferir(Long origemId, Long destinoId, BigDecimal valor) {
+        long centavos = paraCentavosPositivos(valor);
+        if (origemId.equals(destinoId)) {
+            throw new OperacaoInvalidaException("Origem e destino da transferência devem ser contas diferentes.");
+        }
+
+        Conta primeira = bloquear(Math.min(origemId, destinoId));
+        Conta segunda = bloquear(Math.max(origemId, destinoId));
+        Conta origem = primeira.getId().equals(origemId) ? primeira : segunda;
+        Conta destino = origem == primeira ? segunda : primeira;
+
+        origem.debitarCentavos(centavos);
+        destino.creditarCentavos(centavos);
+        validarIndiceAoFinalDaTransacao();
+        indiceDeSaldos.atualizar(origemId, origem.getSaldoEmCentavos());
+        indiceDeSaldos.atualizar(destinoId, destino.getSaldoEmCentavos());
+        diarioDeContas.transferencia(origemId, origem.getSaldoEmCentavos(),
+                destinoId, destino.getSaldoEmCentavos(), centavos);
+        removerDoCacheAoFinalDaTransacao(origemId, destinoId);
+    }
+
+    /**
+     * Aplica os movimentos, na ordem dada, em uma única transação: as contas
+     * envolvidas são travadas de uma vez (em ordem crescente de id) e gravadas
+     * em um só flush. Um movimento inválido (conta inexistente, saldo
+     * insuficiente) recebe a exceção e não altera nada; os demais seguem.
+     * Cada movimento concluído recebe uma cópia da conta como ficou depois
+     * dele. Se a transação falhar, os resultados já entregues não valem.
+     */
+    @Transactional
+    public void aplicarMovimentos(List<? extends MovimentoDeSaldo> movimentos) {
+        List<Long> ids = movimentos.stream().map(MovimentoDeSaldo::contaId).distinct().toList();
+        MapaLongObjeto<Conta> contas = new MapaLongObjeto<>(ids.size());
+        for (Conta conta : contaRepository.buscarTodasParaAtualizacao(ids)) {
+            contas.colocar(conta.getId(), conta);
+        }
+        validarIndiceAoFinalDaTransacao();
+
+        Conta[] resultados = new Conta[movimentos.size()];
+        for (int i = 0; i < resultados.length; i++) {
+            MovimentoDeSaldo movimento = movimentos.get(i);
+            long id = movimento.contaId();
+            Conta conta = contas.obter(id);
+            try {
+                if (conta == null) {
+                    throw new ContaNaoEncontradaException("Conta não encontrada: " + id);
+                }
+                aplicar(movimento, conta);
+            } catch (RuntimeException e) {
+                movimento.falhou(e);
+                continue;
+            }
+            indiceDeSaldos.atualizar(id, conta.getSaldoEmCentavos());
+            resultados[i] = conta.copiar();
+        }
+        contaRepository.flush();
+
+        // a versão sobe uma vez por conta no flush, não uma vez por movimento
+        for (int i = 0; i < resultados.length; i++) {
+            if (resultados[i] != null) {
+                resultados[i].setVersao(contas.obter(resultados[i].getId()).getVersao());
+                movimentos.get(i).concluido(resultados[i]);
+            }
+        }
+        removerDoCacheAoFinalDaTransacao(ids.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    private void aplicar(MovimentoDeSaldo movimento, Conta conta) {
+        long id = conta.getId();
+        long centavos = movimento.centavos();
+        switch (movimento.tipo()) {
+            case ALTERACAO -> {
+                conta.setSaldoEmCentavos(centavos);
+                diarioDeContas.alteracaoDeSaldo(id, centavos);
+            }
+            case CREDITO -> {
+                conta.creditarCentavos(centavos);
+                diarioDeContas.credito(id, centavos, conta.getSaldoEmCentavos());
+            }
+            case DEBITO -> {
+                conta.debitarCentavos(centavos);
+                diarioDeContas.debito(id, centavos, conta.getSaldoEmCentavos());
+            }
+        }
+    }
+
+    private Conta bloquear(long id) {
+        return contaRepository.buscarParaAtualizacao(id)
+                .orElseThrow(() -> new ContaNaoEncontradaException("Conta não encontrada: " + id));
+    }
+
+    // só remove do cache depois do commit/rollback, para não recarregar o valor antigo
+    private void removerDoCacheAoFinalDaTransacao(long... ids) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            for (long id : ids) {
+                contaCache.remover(id);
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (long id : ids) {
+                    contaCache.remover(id);
+                }
+            }
+        });
+    }
+
+    /**
+     * O índice recebe os saldos antes do commit. Chamado antes de atualizá-lo:
+     * se a transação não confirmar, ou se o índice foi carregado/descartado
+     * no meio dela, descarta o índice ao final.
+     */
+    private void validarIndiceAoFinalDaTransacao() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        long geracao = indiceDeSaldos.geracao();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED || indiceDeSaldos.geracao() != geracao) {
+                    indiceDeSaldos.invalidar();
+                }
+            }
+        });
+    }
+
+    /**
+     * Lê a conta, aplica o movimento e grava com verificação de versão, cada
+     * tentativa em sua própria transação. Se outra transação gravou antes,
+     * repete com backoff até o limite da política de retentativa. A conta
+     * sai do cache ao final da transação em vez de ser guardada: dois
+     * movimentos confirmados em sequência podem chegar aqui na ordem inversa.
+     */
+    private Conta movimentar(Long id, Consumer<Conta> movimento, ToLongFunction<Conta> registroNoDiario) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    removerDoCacheAoFinalDaTransacao(id);
+                    Conta atual = contaRepository.findById(id)
+                            .orElseThrow(() -> new ContaNaoEncontradaException("Conta não encontrada: " + id));
+                    movimento.accept(atual);
+                    Conta gravada = contaRepository.saveAndFlush(atual);
+                    // depois do flush a linha está travada até o commit
+                    validarIndiceAoFinalDaTransacao();
+                    indiceDeSaldos.atualizar(id, gravada.getSaldoEmCentavos());
+                    registroNoDiario.applyAsLong(gravada);
+                    return gravada;
+                });
+            } catch (OptimisticLockingFailureException e) {
+                if (tentativa >= politicaDeRetentativa.maximoTentativas()) {
+                    throw new OperacaoInvalidaException(
+                            "Conta " + id + " alterada concorrentemente; operação não concluída após "
+                                    + tentativa + " tentativas.");
+                }
+                politicaDeRetentativa.aguardar(tentativa);
+            }
+        }
+    }
+
+    private long paraCentavosPositivos(BigDecimal valor) {
+        if (valor == null || valor.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Valor deve ser positivo");
+        }
+        return Dinheiro.deBigDecimal(valor);
     }
 
     // queries (Q de CQS)
+    // a marca vem antes da leitura: uma escrita ou exclusão confirmada no meio dela não volta ao cache
+    @Override
     public Conta buscarPorId(Long id) {
-        return contaRepository.findById(id)
-                .orElseThrow(() -> new ContaNaoEncontradaException("Conta não encontrada: " + id));
+        return contaCache.buscar(id).orElseGet(() -> {
+            long marca = contaCache.marca();
+            Conta conta = contaRepository.findById(id)
+                    .orElseThrow(() -> new ContaNaoEncontradaException("Conta não encontrada: " + id));
+            contaCache.guardarLida(conta, marca);
+            return conta;
+        });
+    }
+
+    /**
+     * Saldo da conta pelo índice id -> centavos, sem carregar a entidade.
+     * Na primeira consulta o índice é montado percorrendo a tabela.
+     */
+    public BigDecimal consultarSaldo(Long id) {
+        indiceDeSaldos.carregarSeNecessario(contaRepository::percorrerTodas);
+        OptionalLong saldo = indiceDeSaldos.saldoEmCentavos(id);
+        if (saldo.isEmpty()) {
+            throw new ContaNaoEncontradaException("Conta não encontrada: " + id);
+        }
+        return Dinheiro.paraBigDecimal(saldo.getAsLong());
+    }
+
+    // quantidade, total, menor, maior e média dos saldos, calculados sobre o índice
+    public ResumoDeSaldos resumirSaldos() {
+        indiceDeSaldos.carregarSeNecessario(contaRepository::percorrerTodas);
+        return indiceDeSaldos.resumo();
+    }
+
+    /**
+     * Relatório calculado pelo banco: uma consulta agregada para o resumo,
+     * uma para as faixas e uma ordenada com limite para os maiores saldos.
+     * Nenhuma entidade é carregada. Com escritas concorrentes as três
+     * consultas podem enxergar momentos diferentes da tabela.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public RelatorioDeSaldos relatorioDeSaldos(int maiores, long[] limitesEmCentavos) {
+        if (maiores < 0) {
+            throw new IllegalArgumentException("Quantidade de maiores saldos não pode ser negativa: " + maiores);
+        }
+        // antes do repositório, que traduziria a exceção
+        FaixasDeSaldo.validarLimites(limitesEmCentavos);
+        return new RelatorioDeSaldos(contaRepository.resumirSaldos(),
+                contaRepository.contarPorFaixa(limitesEmCentavos),
+                maiores == 0 ? List.of() : contaRepository.buscarMaioresSaldos(Limit.of(maiores)));
     }
 
     public List<Conta> buscarTodas() {
         return contaRepository.findAll();
     }
 
-    // saída formatada para o CLI
-    public void imprimirContasFormatadas() {
-        List<Conta> contas = buscarTodas();
+    // próxima página de contas com id maior que ultimoId (use 0 para a primeira)
+    public List<Conta> buscarPagina(long ultimoId, int tamanho) {
+        if (tamanho <= 0) {
+            throw new IllegalArgumentException("Tamanho da página deve ser maior que zero");
+        }
+        return contaRepository.buscarPagina(ultimoId, Limit.of(tamanho));
+    }
 
-        if (contas.isEmpty()) {
-            System.out.println("Nenhuma conta cadastrada.");
-            return;
+    /**
+     * Id, titular e saldo montados pela própria consulta, sem {@link Conta}
+     * gerenciada nem snapshot para dirty checking (vale também para
+     * {@link #buscarTodosOsSaldos} e {@link #buscarPaginaDeSaldos}). O
+     * {@code readOnly} deixa a sessão em {@code FlushMode.MANUAL}, e as
+     * consultas levam o mesmo hint para não disparar flush quando chamadas
+     * dentro de uma transação de escrita. Não passa pelo {@link ContaCache},
+     * que guarda entidades.
+     */
+    @Transactional(readOnly = true)
+    public SaldoDeConta buscarSaldoDeConta(Long id) {
+        return contaRepository.buscarSaldoDeConta(id)
+                .orElseThrow(() -> new ContaNaoEncontradaException("Conta não encontrada: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public List<SaldoDeConta> buscarTodosOsSaldos() {
+        return contaRepository.buscarTodosOsSaldos();
+    }
+
+    // mesma paginação por keyset de buscarPagina
+    @Transactional(readOnly = true)
+    public List<SaldoDeConta> buscarPaginaDeSaldos(long ultimoId, int tamanho) {
+        if (tamanho <= 0) {
+            throw new IllegalArgumentException("Tamanho da página deve ser maior que zero");
         }
+        return contaRepository.buscarPaginaDeSaldos(ultimoId, Limit.of(tamanho));
+    }
+
+    // pelo índice de titular_minusculo, conferindo as maiúsculas na linha; sem entidades
+    @Override
+    public List<SaldoDeConta> buscarPorTitular(String titular, long ultimoId, int tamanho) {
+        validarBusca(titular, tamanho);
+        return contaRepository.buscarPorTitular(Titular.normalizar(titular), titular, ultimoId, Limit.of(tamanho));
+    }
+
+    // pelo índice de titular_minusculo (LIKE 'prefixo%' vira faixa do índice); sem entidades
+    @Override
+    public List<SaldoDeConta> buscarPorPrefixoDoTitular(String prefixo, SaldoDeConta anterior, int tamanho) {
+        validarBusca(prefixo, tamanho);
+        return contaRepository.buscarPorPrefixoDoTitular(Titular.padraoDePrefixo(prefixo),
+                anterior == null ? "" : Titular.normalizar(anterior.titular()),
+                anterior == null ? 0 : anterior.id(),
+                Limit.of(tamanho));
+    }
+
+    private static void validarBusca(String titular, int tamanho) {
+        if (titular == null) {
+            throw new IllegalArgumentException("Titular da busca não informado");
+        }
+        if (tamanho <= 0) {
+            throw new IllegalArgumentException("Tamanho da página deve ser maior que zero");
+        }
+    }
 
-        System.out.println("╭──────┬──────────────────────┬─────────────────╮");
-        System.out.println("│ ID   │ Titular              │ Saldo           │");
-        System.out.println("├──────┼──────────────────────┼─────────────────┤");
-        contas.forEach(conta ->
-                System.out.printf(
-                        "│ %-4d │ %-20s │ R$ %-12s │%n",
-                        conta.getId(),
-                        conta.getTitular(),
-                        String.format("%.2f", conta.getSaldo())
-                )
-        );
-        System.out.println("╰──────┴──────────────────────┴─────────────────╯");
+    // percorre todas as contas sem materializar a lista inteira
+    @Override
+    public void percorrerTodas(Consumer<Conta> consumidor) {
+        contaRepository.percorrerTodas(consumidor);
     }
 }
@@ -0,0 +1,23 @@
+package br.com.infnet.banco.service;
+
+import br.com.infnet.banco.entity.Conta;
+
+/**
+ * Movimento de saldo aplicado em lote por {@link ContaService#aplicarMovimentos}.
+ * O resultado de cada movimento é devolvido pelo próprio objeto.
+ */
+public interface MovimentoDeSaldo {
+
+    enum Tipo { ALTERACAO, CREDITO, DEBITO }
+
+    Tipo tipo();
+
+    long contaId();
+
+    // novo saldo (ALTERACAO) ou valor movimentado, em centavos
+    long centavos();
+
+    void concluido(Conta conta);
+
+    void falhou(RuntimeException erro);
+}
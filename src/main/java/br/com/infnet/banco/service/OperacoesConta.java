@@ -0,0 +1,77 @@
+package br.com.infnet.banco.service;
+
+import br.com.infnet.banco.dto.SaldoDeConta;
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.relatorio.FaixasDeSaldo;
+import br.com.infnet.banco.relatorio.RelatorioDeSaldos;
+import br.com.infnet.banco.saida.RenderizadorDeContas;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Operações de conta usadas pelo CLI. Implementadas pelo {@link ContaService}
+ * (JPA) e, no perfil {@code memoria}, pelo motor em memória.
+ */
+public interface OperacoesConta {
+
+    // comandos (C de CQS)
+    Conta criar(String titular, BigDecimal saldoInicial);
+
+    void excluir(Long id);
+
+    Conta alterarSaldo(Long id, BigDecimal novoSaldo);
+
+    Conta creditar(Long id, BigDecimal valor);
+
+    Conta debitar(Long id, BigDecimal valor);
+
+    void transferir(Long origemId, Long destinoId, BigDecimal valor);
+
+    // queries (Q de CQS)
+    Conta buscarPorId(Long id);
+
+    void percorrerTodas(Consumer<Conta> consumidor);
+
+    /**
+     * Contas com o titular exatamente igual a {@code titular}, em ordem de id,
+     * com id maior que {@code ultimoId} (0 na primeira página).
+     */
+    List<SaldoDeConta> buscarPorTitular(String titular, long ultimoId, int tamanho);
+
+    /**
+     * Contas cujo titular começa com {@code prefixo}, sem diferenciar
+     * maiúsculas, em ordem de titular (em minúsculas) e id. A página seguinte
+     * começa depois de {@code anterior}, o último item da página anterior
+     * ({@code null} na primeira).
+     */
+    List<SaldoDeConta> buscarPorPrefixoDoTitular(String prefixo, SaldoDeConta anterior, int tamanho);
+
+    /**
+     * Quantidade, total, menor e maior saldo, contas por faixa de saldo
+     * ({@link FaixasDeSaldo}) e as {@code maiores} contas de maior saldo,
+     * sem montar uma {@link Conta} por linha.
+     */
+    RelatorioDeSaldos relatorioDeSaldos(int maiores, long[] limitesEmCentavos);
+
+    default RelatorioDeSaldos relatorioDeSaldos(int maiores) {
+        return relatorioDeSaldos(maiores, FaixasDeSaldo.LIMITES_PADRAO);
+    }
+
+    // saída formatada para o CLI
+    default void imprimirContasFormatadas() {
+        listar(RenderizadorDeContas.Formato.TABELA, System.out);
+    }
+
+    /**
+     * Escreve todas as contas no formato pedido, com buffer e um único flush
+     * no fim. O fluxo não é fechado. Devolve a quantidade de contas.
+     */
+    default long listar(RenderizadorDeContas.Formato formato, OutputStream saida) {
+        RenderizadorDeContas renderizador = RenderizadorDeContas.para(formato, saida);
+        percorrerTodas(renderizador);
+        return renderizador.terminar();
+    }
+}
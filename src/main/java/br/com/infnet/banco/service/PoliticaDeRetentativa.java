@@ -0,0 +1,48 @@
+package br.com.infnet.banco.service;
+
+import br.com.infnet.banco.exception.OperacaoInvalidaException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Quantas vezes repetir uma operação que perdeu a corrida no lock otimista
+ * e quanto esperar entre as tentativas (backoff exponencial com jitter).
+ */
+@Component
+public class PoliticaDeRetentativa {
+
+    private final int maximoTentativas;
+    private final long esperaInicialMillis;
+    private final long esperaMaximaMillis;
+
+    public PoliticaDeRetentativa(@Value("${banco.retentativa.maximo-tentativas:5}") int maximoTentativas,
+                                 @Value("${banco.retentativa.espera-inicial-ms:2}") long esperaInicialMillis,
+                                 @Value("${banco.retentativa.espera-maxima-ms:50}") long esperaMaximaMillis) {
+        if (maximoTentativas < 1) {
+            throw new IllegalArgumentException("Deve haver ao menos uma tentativa");
+        }
+        this.maximoTentativas = maximoTentativas;
+        this.esperaInicialMillis = esperaInicialMillis;
+        this.esperaMaximaMillis = esperaMaximaMillis;
+    }
+
+    public int maximoTentativas() {
+        return maximoTentativas;
+    }
+
+    // espera antes da próxima tentativa; dobra a cada falha até o teto
+    public void aguardar(int tentativasFeitas) {
+        long teto = Math.min(esperaMaximaMillis, esperaInicialMillis << Math.min(tentativasFeitas - 1, 20));
+        if (teto <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(teto / 2, teto + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperacaoInvalidaException("Operação interrompida durante nova tentativa.");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package br.com.infnet.banco.servidor;
+
+import br.com.infnet.banco.service.OperacoesConta;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Servidor HTTP local (só {@code 127.0.0.1}) com as operações de
+ * {@link OperacoesConta}, ligado pelo argumento {@code servidor}.
+ *
+ * <p>Cada requisição roda em uma thread virtual própria. O acesso ao banco é
+ * limitado por um semáforo justo de {@code banco.servidor.requisicoes-simultaneas}
+ * permissões (por padrão o tamanho do pool do Hikari): com milhares de
+ * clientes, as requisições excedentes esperam em fila, sem ocupar conexão
+ * nem estourar o {@code connection-timeout} do pool.
+ *
+ * <p>{@code GET /metricas} devolve as métricas no formato do Prometheus
+ * ({@link TratadorDeMetricas}).
+ */
+@Component
+public class ServidorDeContas {
+
+    // conexões aceitas pelo sistema operacional antes do accept
+    private static final int FILA_DE_CONEXOES = 4096;
+    // segundos para as requisições em andamento terminarem no encerramento
+    private static final int ESPERA_ENCERRAMENTO = 2;
+
+    private final OperacoesConta operacoes;
+    private final ObjectProvider<PrometheusMeterRegistry> metricas;
+    private final int portaConfigurada;
+    private final int requisicoesSimultaneas;
+
+    private final CountDownLatch encerrado = new CountDownLatch(1);
+    private HttpServer servidor;
+    private ExecutorService executor;
+
+    public ServidorDeContas(OperacoesConta operacoes,
+                            ObjectProvider<PrometheusMeterRegistry> metricas,
+                            @Value("${banco.servidor.porta:8080}") int porta,
+                            @Value("${banco.servidor.requisicoes-simultaneas:${spring.datasource.hikari.maximum-pool-size:10}}")
+                            int requisicoesSimultaneas) {
+        if (requisicoesSimultaneas <= 0) {
+            throw new IllegalArgumentException("Requisições simultâneas devem ser positivas: " + requisicoesSimultaneas);
+        }
+        this.operacoes = operacoes;
+        this.metricas = metricas;
+        this.portaConfigurada = porta;
+        this.requisicoesSimultaneas = requisicoesSimultaneas;
+    }
+
+    /** Abre a porta (0 escolhe uma livre) e devolve a porta em uso. */
+    public synchronized int iniciar() {
+        if (servidor != null) {
+            return porta();
+        }
+        // lidas uma vez, na primeira criação de servidor; -D na linha de comando prevalece.
+        // Cabeçalho e corpo saem em escritas separadas: com Nagle + ACK atrasado cada
+        // resposta esperaria ~40 ms. E o padrão de 200 conexões ociosas fecharia as
+        // conexões persistentes de quem tem muitos clientes.
+        definirSeAusente("sun.net.httpserver.nodelay", "true");
+        definirSeAusente("sun.net.httpserver.maxIdleConnections", String.valueOf(FILA_DE_CONEXOES));
+        try {
+            servidor = HttpServer.create(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), portaConfigurada), FILA_DE_CONEXOES);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir a porta " + portaConfigurada, e);
+        }
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-", 0).factory());
+        servidor.setExecutor(executor);
+        servidor.createContext("/", new TratadorDeContas(operacoes, new Semaphore(requisicoesSimultaneas, true)));
+        servidor.createContext("/metricas", new TratadorDeMetricas(metricas.getIfAvailable()));
+        servidor.start();
+        return porta();
+    }
+
+    private static void definirSeAusente(String propriedade, String valor) {
+        if (System.getProperty(propriedade) == null) {
+            System.setProperty(propriedade, valor);
+        }
+    }
+
+    public synchronized int porta() {
+        if (servidor == null) {
+            throw new IllegalStateException("Servidor não iniciado");
+        }
+        return servidor.getAddress().getPort();
+    }
+
+    /** Bloqueia até o servidor ser parado (pelo encerramento do contexto). */
+    public void aguardarEncerramento() throws InterruptedException {
+        encerrado.await();
+    }
+
+    @PreDestroy
+    public synchronized void parar() {
+        if (servidor != null) {
+            servidor.stop(ESPERA_ENCERRAMENTO);
+            executor.close();
+            servidor = null;
+        }
+        encerrado.countDown();
+    }
+}
@@ -0,0 +1,274 @@
+package br.com.infnet.banco.servidor;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.exception.ContaNaoEncontradaException;
+import br.com.infnet.banco.exception.OperacaoInvalidaException;
+import br.com.infnet.banco.exception.SaldoInsuficienteException;
+import br.com.infnet.banco.service.OperacoesConta;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Rotas do {@link ServidorDeContas}. Parâmetros vêm na query string ou no
+ * corpo ({@code application/x-www-form-urlencoded}); respostas em JSON.
+ *
+ * <pre>
+ * POST   /contas                  titular, saldo   → 201 conta
+ * GET    /contas/{id}                              → 200 conta
+ * DELETE /contas/{id}                              → 204
+ * PUT    /contas/{id}/saldo       valor            → 200 conta
+ * POST   /contas/{id}/credito     valor            → 200 conta
+ * POST   /contas/{id}/debito      valor            → 200 conta
+ * POST   /transferencias          origem, destino, valor → 204
+ * </pre>
+ *
+ * Erros: 400 (parâmetro inválido), 404 (conta ou rota inexistente),
+ * 405 (método), 409 (saldo insuficiente, operação inválida), 500.
+ */
+final class TratadorDeContas implements HttpHandler {
+
+    private final OperacoesConta operacoes;
+    private final Semaphore vagas;
+
+    TratadorDeContas(OperacoesConta operacoes, Semaphore vagas) {
+        this.operacoes = operacoes;
+        this.vagas = vagas;
+    }
+
+    @Override
+    public void handle(HttpExchange troca) throws IOException {
+        try (troca) {
+            Resposta resposta;
+            try {
+                resposta = rotear(troca);
+            } catch (ContaNaoEncontradaException e) {
+                resposta = Resposta.erro(404, e.getMessage());
+            } catch (SaldoInsuficienteException | OperacaoInvalidaException e) {
+                resposta = Resposta.erro(409, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                resposta = Resposta.erro(400, e.getMessage());
+            } catch (MetodoNaoPermitido e) {
+                resposta = Resposta.erro(405, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                resposta = Resposta.erro(503, "Servidor encerrando");
+            } catch (RuntimeException e) {
+                resposta = Resposta.erro(500, "Erro ao processar a operação: " + e.getMessage());
+            }
+            responder(troca, resposta);
+        }
+    }
+
+    private Resposta rotear(HttpExchange troca) throws IOException, InterruptedException {
+        String[] partes = troca.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/+");
+        String metodo = troca.getRequestMethod();
+
+        if (partes.length == 1 && partes[0].equals("transferencias")) {
+            exigirMetodo(metodo, "POST");
+            Map<String, String> parametros = parametros(troca);
+            executar(() -> {
+                operacoes.transferir(lerLong(parametros, "origem"), lerLong(parametros, "destino"),
+                        lerValor(parametros, "valor"));
+                return null;
+            });
+            return Resposta.vazia();
+        }
+        if (partes.length == 0 || !partes[0].equals("contas")) {
+            return Resposta.erro(404, "Rota inexistente: " + troca.getRequestURI().getPath());
+        }
+        if (partes.length == 1) {
+            exigirMetodo(metodo, "POST");
+            Map<String, String> parametros = parametros(troca);
+            String titular = parametros.get("titular");
+            BigDecimal saldo = lerValor(parametros, "saldo");
+            return new Resposta(201, json(executar(() -> operacoes.criar(titular, saldo))));
+        }
+
+        Long id = lerId(partes[1]);
+        if (partes.length == 2) {
+            if (metodo.equals("DELETE")) {
+                executar(() -> {
+                    operacoes.excluir(id);
+                    return null;
+                });
+                return Resposta.vazia();
+            }
+            exigirMetodo(metodo, "GET");
+            return Resposta.ok(json(executar(() -> operacoes.buscarPorId(id))));
+        }
+        if (partes.length == 3) {
+            switch (partes[2]) {
+                case "saldo" -> {
+                    exigirMetodo(metodo, "PUT");
+                    BigDecimal valor = lerValor(parametros(troca), "valor");
+                    return Resposta.ok(json(executar(() -> operacoes.alterarSaldo(id, valor))));
+                }
+                case "credito" -> {
+                    exigirMetodo(metodo, "POST");
+                    BigDecimal valor = lerValor(parametros(troca), "valor");
+                    return Resposta.ok(json(executar(() -> operacoes.creditar(id, valor))));
+                }
+                case "debito" -> {
+                    exigirMetodo(metodo, "POST");
+                    BigDecimal valor = lerValor(parametros(troca), "valor");
+                    return Resposta.ok(json(executar(() -> operacoes.debitar(id, valor))));
+                }
+                default -> {
+                    // cai no 404 abaixo
+                }
+            }
+        }
+        return Resposta.erro(404, "Rota inexistente: " + troca.getRequestURI().getPath());
+    }
+
+    // só a operação ocupa vaga; leitura e validação dos parâmetros ficam de fora
+    private <T> T executar(Supplier<T> operacao) throws InterruptedException {
+        vagas.acquire();
+        try {
+            return operacao.get();
+        } finally {
+            vagas.release();
+        }
+    }
+
+    private static void exigirMetodo(String metodo, String esperado) {
+        if (!metodo.equals(esperado)) {
+            throw new MetodoNaoPermitido(esperado);
+        }
+    }
+
+    private static Map<String, String> parametros(HttpExchange troca) throws IOException {
+        Map<String, String> parametros = new HashMap<>();
+        decodificar(troca.getRequestURI().getRawQuery(), parametros);
+        byte[] corpo = troca.getRequestBody().readAllBytes();
+        if (corpo.length > 0) {
+            decodificar(new String(corpo, StandardCharsets.UTF_8), parametros);
+        }
+        return parametros;
+    }
+
+    private static void decodificar(String texto, Map<String, String> parametros) {
+        if (texto == null || texto.isEmpty()) {
+            return;
+        }
+        for (String par : texto.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual > 0) {
+                parametros.put(URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                        URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static Long lerId(String texto) {
+        try {
+            return Long.valueOf(texto);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("ID inválido: " + texto);
+        }
+    }
+
+    private static Long lerLong(Map<String, String> parametros, String nome) {
+        return lerId(obrigatorio(parametros, nome));
+    }
+
+    private static BigDecimal lerValor(Map<String, String> parametros, String nome) {
+        String texto = obrigatorio(parametros, nome);
+        try {
+            return new BigDecimal(texto);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para " + nome + ": " + texto);
+        }
+    }
+
+    private static String obrigatorio(Map<String, String> parametros, String nome) {
+        String valor = parametros.get(nome);
+        if (valor == null || valor.isBlank()) {
+            throw new IllegalArgumentException("Parâmetro obrigatório: " + nome);
+        }
+        return valor;
+    }
+
+    private static void responder(HttpExchange troca, Resposta resposta) throws IOException {
+        if (resposta.corpo() == null) {
+            troca.sendResponseHeaders(resposta.status(), -1);
+            return;
+        }
+        byte[] bytes = resposta.corpo().getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        troca.sendResponseHeaders(resposta.status(), bytes.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(bytes);
+        }
+    }
+
+    static String json(Conta conta) {
+        StringBuilder json = new StringBuilder(96)
+                .append("{\"id\":").append(conta.getId())
+                .append(",\"titular\":");
+        texto(json, conta.getTitular());
+        return json.append(",\"saldo\":").append(conta.getSaldo().toPlainString())
+                .append(",\"versao\":").append(conta.getVersao())
+                .append('}')
+                .toString();
+    }
+
+    private static void texto(StringBuilder json, String valor) {
+        if (valor == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    private record Resposta(int status, String corpo) {
+
+        static Resposta ok(String corpo) {
+            return new Resposta(200, corpo);
+        }
+
+        static Resposta vazia() {
+            return new Resposta(204, null);
+        }
+
+        static Resposta erro(int status, String mensagem) {
+            StringBuilder json = new StringBuilder("{\"erro\":");
+            texto(json, mensagem);
+            return new Resposta(status, json.append('}').toString());
+        }
+    }
+
+    private static final class MetodoNaoPermitido extends RuntimeException {
+        MetodoNaoPermitido(String esperado) {
+            super("Método não permitido; use " + esperado);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package br.com.infnet.banco.servidor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Rota {@code GET /metricas} do {@link ServidorDeContas}: o registro do
+ * Micrometer no formato texto do Prometheus, para coleta local. Não usa o
+ * banco, então não ocupa vaga do semáforo. Sem o registro (exportação
+ * Prometheus desligada), responde 404.
+ */
+final class TratadorDeMetricas implements HttpHandler {
+
+    private static final String TIPO_PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final PrometheusMeterRegistry registro;
+
+    TratadorDeMetricas(PrometheusMeterRegistry registro) {
+        this.registro = registro;
+    }
+
+    @Override
+    public void handle(HttpExchange troca) throws IOException {
+        try (troca) {
+            if (!troca.getRequestURI().getPath().replaceAll("/+$", "").equals("/metricas")) {
+                responder(troca, 404, "Rota inexistente: " + troca.getRequestURI().getPath());
+            } else if (!troca.getRequestMethod().equals("GET")) {
+                responder(troca, 405, "Método não permitido; use GET");
+            } else if (registro == null) {
+                responder(troca, 404, "Métricas desligadas");
+            } else {
+                responder(troca, 200, registro.scrape());
+            }
+        }
+    }
+
+    private static void responder(HttpExchange troca, int status, String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", TIPO_PROMETHEUS);
+        troca.sendResponseHeaders(status, bytes.length);
+        try (OutputStream saida = troca.getResponseBody()) {
+            saida.write(bytes);
+        }
+    }
+}
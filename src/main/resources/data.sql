@@ -1,5 +1,8 @@
 -- Dados para inserir e testar no banco de dados:
 
-INSERT INTO conta (titular, saldo) VALUES ('LP', 100.00);
-INSERT INTO conta (titular, saldo) VALUES ('FM', 200.00);
-INSERT INTO conta (titular, saldo) VALUES ('ML', 300.00);
\ No newline at end of file
+INSERT INTO conta (id, titular, saldo, versao) VALUES (1, 'LP', 100.00, 0);
+INSERT INTO conta (id, titular, saldo, versao) VALUES (2, 'FM', 200.00, 0);
+INSERT INTO conta (id, titular, saldo, versao) VALUES (3, 'ML', 300.00, 0);
+
+-- ids gerados pela aplicação continuam a partir do 4
+ALTER SEQUENCE conta_seq RESTART WITH 4;
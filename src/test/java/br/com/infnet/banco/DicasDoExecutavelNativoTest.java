@@ -0,0 +1,41 @@
+package br.com.infnet.banco;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.entity.DinheiroConverter;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DicasDoExecutavelNativoTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    DicasDoExecutavelNativoTest() {
+        new DicasDoExecutavelNativo().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void contaGeradaPeloLombokFicaAlcancavel() throws Exception {
+        assertTrue(RuntimeHintsPredicates.reflection().onField(Conta.class.getDeclaredField("saldo")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onField(Conta.class.getDeclaredField("versao")).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onConstructor(Conta.class.getDeclaredConstructor()).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Conta.class, "setTitular").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Conta.class, "hashCode").test(hints));
+    }
+
+    @Test
+    void conversorDeSaldoFicaAlcancavel() throws Exception {
+        assertTrue(RuntimeHintsPredicates.reflection().onConstructor(DinheiroConverter.class.getConstructor()).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onMethod(DinheiroConverter.class.getMethod("convertToEntityAttribute", BigDecimal.class)).test(hints));
+    }
+
+    @Test
+    void configuracaoDoCacheDeSegundoNivelVaiNoExecutavel() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("ehcache.xml").test(hints));
+    }
+}
@@ -0,0 +1,213 @@
+package br.com.infnet.banco;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Executável nativo contra o jar na JVM, em processos novos: tempo até o
+ * primeiro comando ({@code listar csv}), pico de RSS e comandos/s em regime
+ * de um mesmo script de lote. Roda com {@code mvn -Pnativo verify}
+ * (failsafe), que monta o jar e o executável; sem o executável (build com
+ * {@code -DskipNativeBuild=true}) só a JVM é medida e o teste é ignorado.
+ *
+ * <p>O regime vem de dois lotes que só diferem no número de movimentos
+ * (N e 2N comandos, com as mesmas contas criadas no início): N / (t2N - tN)
+ * tira da conta a subida e o aquecimento do JIT. Tamanho: {@code
+ * -Dbanco.nativo.comandos} (padrão 100.000); rodadas de subida:
+ * {@code -Dbanco.nativo.rodadas} (padrão 3; vale a mediana). O pico de RSS
+ * é o VmHWM de {@code /proc}, lido enquanto o lote maior roda (só Linux).
+ */
+class ExecutavelNativoIT {
+
+    private static final int COMANDOS = Integer.getInteger("banco.nativo.comandos", 100_000);
+    private static final int RODADAS = Integer.getInteger("banco.nativo.rodadas", 3);
+    private static final int CONTAS = 1_000;
+    private static final String CABECALHO = "id,titular,saldo";
+    private static final Pattern RESUMO_DO_LOTE = Pattern.compile("Lote: (\\S+) comandos \\((\\S+) com erro\\) em (\\S+) ms");
+    // sem o SQL do perfil h2 na saída, que entraria nas consultas e no tempo
+    private static final List<String> OPCOES = List.of("--spring.jpa.show-sql=false", "--spring.main.banner-mode=off");
+
+    @TempDir
+    Path diretorio;
+
+    private record Variante(String nome, List<String> comando) {
+    }
+
+    private record Lote(long comandos, long falhas, long milissegundos, long picoRssKb, String consultas) {
+    }
+
+    private record Medicao(long inicioMs, Lote menor, Lote maior) {
+
+        double comandosPorSegundoEmRegime() {
+            return (maior.comandos() - menor.comandos()) * 1000.0 / Math.max(1, maior.milissegundos() - menor.milissegundos());
+        }
+    }
+
+    @Test
+    void executavelNativoIniciaMaisRapidoQueAJvm() throws Exception {
+        assumeTrue(Files.isReadable(Path.of("/proc/self/status")), "o pico de RSS vem de /proc");
+        Path jar = Path.of(System.getProperty("banco.nativo.jar"));
+        Path executavel = Path.of(System.getProperty("banco.nativo.executavel"));
+        Path menor = script("menor.txt", COMANDOS);
+        Path maior = script("maior.txt", 2 * COMANDOS);
+
+        Variante jvm = new Variante("JVM (jar)",
+                List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-jar", jar.toString()));
+        Medicao naJvm = medir(jvm, menor, maior);
+        imprimir(jvm, naJvm);
+
+        assumeTrue(Files.isExecutable(executavel), "executável nativo ausente: " + executavel);
+        Variante nativo = new Variante("nativo", List.of(executavel.toString()));
+        Medicao noNativo = medir(nativo, menor, maior);
+        imprimir(nativo, noNativo);
+
+        // o mesmo script tem de dar as mesmas consultas nos dois
+        assertEquals(naJvm.maior().consultas(), noNativo.maior().consultas());
+        assertTrue(noNativo.inicioMs() < naJvm.inicioMs(),
+                "nativo (" + noNativo.inicioMs() + " ms) não iniciou antes da JVM (" + naJvm.inicioMs() + " ms)");
+    }
+
+    // cria as contas (ids 4 em diante, depois das do data.sql) e movimenta/consulta ao acaso
+    private Path script(String nome, int comandos) throws IOException {
+        Path arquivo = diretorio.resolve(nome);
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        try (BufferedWriter saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < CONTAS; i++) {
+                saida.write("c 1000.00 Titular " + i + "\n");
+            }
+            for (int i = CONTAS; i < comandos; i++) {
+                long id = 4 + aleatorio.nextInt(CONTAS);
+                int sorteio = aleatorio.nextInt(10);
+                saida.write(sorteio < 4 ? "+ " + id + " 1.00\n" : sorteio < 7 ? "- " + id + " 0.50\n" : "g " + id + "\n");
+            }
+        }
+        return arquivo;
+    }
+
+    private static Medicao medir(Variante variante, Path menor, Path maior) throws Exception {
+        long[] inicios = new long[RODADAS];
+        for (int i = 0; i < RODADAS; i++) {
+            inicios[i] = ateOPrimeiroComando(variante);
+        }
+        Arrays.sort(inicios);
+        Medicao medicao = new Medicao(inicios[RODADAS / 2], lote(variante, menor), lote(variante, maior));
+        assertEquals(0, medicao.maior().falhas(), variante.nome() + ": comandos com erro");
+        return medicao;
+    }
+
+    private static void imprimir(Variante variante, Medicao medicao) {
+        System.out.printf("%n%s:%n"
+                        + "  início até o primeiro comando (mediana de %d): %,d ms%n"
+                        + "  pico de RSS no lote de %,d comandos: %,d KB%n"
+                        + "  lote de %,d comandos: %,d ms; de %,d: %,d ms; regime = %,.0f comandos/s%n%n",
+                variante.nome(), RODADAS, medicao.inicioMs(),
+                medicao.maior().comandos(), medicao.maior().picoRssKb(),
+                medicao.menor().comandos(), medicao.menor().milissegundos(),
+                medicao.maior().comandos(), medicao.maior().milissegundos(),
+                medicao.comandosPorSegundoEmRegime());
+    }
+
+    // do início do processo até a primeira linha da listagem chegar
+    private static long ateOPrimeiroComando(Variante variante) throws Exception {
+        List<String> comando = new ArrayList<>(variante.comando());
+        comando.addAll(List.of("listar", "csv"));
+        comando.addAll(OPCOES);
+        long inicio = System.nanoTime();
+        Process processo = new ProcessBuilder(comando).redirectErrorStream(true).start();
+        long primeiroComando = -1;
+        StringBuilder saida = new StringBuilder();
+        try (BufferedReader linhas = processo.inputReader(StandardCharsets.UTF_8)) {
+            for (String linha = linhas.readLine(); linha != null; linha = linhas.readLine()) {
+                if (primeiroComando < 0 && linha.equals(CABECALHO)) {
+                    primeiroComando = System.nanoTime() - inicio;
+                }
+                saida.append(linha).append('\n');
+            }
+        }
+        terminou(variante, processo, saida);
+        assertTrue(primeiroComando > 0, variante.nome() + ": listagem não saiu\n" + saida);
+        return TimeUnit.NANOSECONDS.toMillis(primeiroComando);
+    }
+
+    private static Lote lote(Variante variante, Path script) throws Exception {
+        List<String> comando = new ArrayList<>(variante.comando());
+        comando.addAll(List.of("lote", script.toString()));
+        comando.addAll(OPCOES);
+        Process processo = new ProcessBuilder(comando).start();
+        long[] picoRssKb = {0};
+        Thread medidor = Thread.ofVirtual().start(() -> {
+            Path status = Path.of("/proc", Long.toString(processo.pid()), "status");
+            while (processo.isAlive()) {
+                picoRssKb[0] = Math.max(picoRssKb[0], vmHwmKb(status));
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        StringBuilder erros = new StringBuilder();
+        Thread leitorDeErros = Thread.ofVirtual().start(() -> erros.append(ler(processo.errorReader(StandardCharsets.UTF_8))));
+        String consultas = ler(processo.inputReader(StandardCharsets.UTF_8));
+        leitorDeErros.join();
+        terminou(variante, processo, erros);
+        medidor.join();
+
+        Matcher resumo = RESUMO_DO_LOTE.matcher(erros);
+        assertTrue(resumo.find(), variante.nome() + ": resumo do lote não saiu\n" + erros);
+        return new Lote(numero(resumo.group(1)), numero(resumo.group(2)), numero(resumo.group(3)), picoRssKb[0], consultas);
+    }
+
+    private static void terminou(Variante variante, Process processo, CharSequence saida) throws InterruptedException {
+        assertTrue(processo.waitFor(5, TimeUnit.MINUTES), variante.nome() + ": processo não terminou");
+        assertEquals(0, processo.exitValue(), variante.nome() + ":\n" + saida);
+    }
+
+    // o processo pode terminar entre a checagem e a leitura: vale o último valor lido
+    private static long vmHwmKb(Path status) {
+        try {
+            for (String linha : Files.readAllLines(status)) {
+                if (linha.startsWith("VmHWM:")) {
+                    return numero(linha);
+                }
+            }
+        } catch (IOException e) {
+            // processo já saiu
+        }
+        return 0;
+    }
+
+    private static String ler(BufferedReader leitor) {
+        try (leitor) {
+            StringBuilder texto = new StringBuilder();
+            for (String linha = leitor.readLine(); linha != null; linha = leitor.readLine()) {
+                texto.append(linha).append('\n');
+            }
+            return texto.toString();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // resumos saem com o agrupamento de milhar do locale do processo
+    private static long numero(String texto) {
+        return Long.parseLong(texto.replaceAll("\\D", ""));
+    }
+}
@@ -0,0 +1,113 @@
+package br.com.infnet.banco;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tempo até o primeiro comando do CLI ({@code listar csv}, que sobe o
+ * contexto, lê o banco e escreve a listagem), em processos novos, com e sem
+ * as otimizações do perfil {@code inicio-rapido}: jar extraído, Spring AOT
+ * e arquivo AppCDS. Roda com {@code mvn -Pinicio-rapido verify} (failsafe),
+ * que monta o que é medido aqui.
+ *
+ * <p>Rodadas por variante: {@code -Dbanco.inicio.rodadas} (padrão 3; vale a
+ * mediana). Com {@code -Dbanco.inicio.limite-ms=N}, a variante otimizada
+ * também precisa ficar abaixo de N ms.
+ */
+class InicioRapidoIT {
+
+    private static final int RODADAS = Integer.getInteger("banco.inicio.rodadas", 3);
+    private static final long LIMITE_MS = Long.getLong("banco.inicio.limite-ms", 0);
+    private static final String CABECALHO = "id,titular,saldo";
+
+    private record Variante(String nome, Path jar, String... argumentosJvm) {
+    }
+
+    @Test
+    void aotComCdsIniciaMaisRapidoQueOJar() throws Exception {
+        Path jar = Path.of(System.getProperty("banco.inicio.jar"));
+        Path diretorio = Path.of(System.getProperty("banco.inicio.diretorio"));
+        Path arquivoCds = Path.of(System.getProperty("banco.inicio.arquivo-cds"));
+        Path extraido = diretorio.resolve(jar.getFileName());
+        assertTrue(Files.exists(extraido) && Files.exists(arquivoCds),
+                "rode pelo perfil inicio-rapido, que extrai o jar e grava o arquivo CDS");
+
+        List<Variante> variantes = List.of(
+                new Variante("jar", jar),
+                new Variante("extraído", extraido),
+                new Variante("extraído + AOT", extraido, "-Dspring.aot.enabled=true"),
+                new Variante("extraído + AOT + AppCDS", extraido,
+                        "-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + arquivoCds, "-Xlog:cds=off"));
+
+        long[] medianas = new long[variantes.size()];
+        for (int i = 0; i < variantes.size(); i++) {
+            medianas[i] = mediana(variantes.get(i));
+        }
+
+        System.out.printf("%nTempo até o primeiro comando (mediana de %d):%n", RODADAS);
+        for (int i = 0; i < variantes.size(); i++) {
+            System.out.printf("  %-24s %,7d ms%n", variantes.get(i).nome(), medianas[i]);
+        }
+        System.out.println();
+
+        long otimizado = medianas[medianas.length - 1];
+        assertTrue(otimizado < medianas[0],
+                "AOT + AppCDS (" + otimizado + " ms) não ficou abaixo do jar (" + medianas[0] + " ms)");
+        if (LIMITE_MS > 0) {
+            assertTrue(otimizado <= LIMITE_MS, "AOT + AppCDS levou " + otimizado + " ms (limite " + LIMITE_MS + " ms)");
+        }
+    }
+
+    private static long mediana(Variante variante) throws Exception {
+        long[] tempos = new long[RODADAS];
+        for (int i = 0; i < RODADAS; i++) {
+            tempos[i] = medir(variante);
+        }
+        Arrays.sort(tempos);
+        return tempos[RODADAS / 2];
+    }
+
+    // do início do processo até a primeira linha da listagem chegar
+    private static long medir(Variante variante) throws Exception {
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        comando.addAll(List.of(variante.argumentosJvm()));
+        comando.addAll(List.of("-jar", variante.jar().toString(), "listar", "csv"));
+
+        long inicio = System.nanoTime();
+        Process processo = new ProcessBuilder(comando).redirectErrorStream(true).start();
+        long primeiroComando = -1;
+        boolean listou = false;
+        Deque<String> ultimas = new ArrayDeque<>();
+        try (BufferedReader saida = new BufferedReader(
+                new InputStreamReader(processo.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String linha = saida.readLine(); linha != null; linha = saida.readLine()) {
+                if (primeiroComando < 0 && linha.equals(CABECALHO)) {
+                    primeiroComando = System.nanoTime() - inicio;
+                }
+                listou |= linha.equals("1,LP,100.00");
+                ultimas.addLast(linha);
+                if (ultimas.size() > 20) {
+                    ultimas.removeFirst();
+                }
+            }
+        }
+        assertTrue(processo.waitFor(2, TimeUnit.MINUTES), variante.nome() + ": processo não terminou");
+        assertEquals(0, processo.exitValue(), variante.nome() + ": " + String.join("\n", ultimas));
+        assertTrue(listou, variante.nome() + ": listagem não saiu\n" + String.join("\n", ultimas));
+        return TimeUnit.NANOSECONDS.toMillis(primeiroComando);
+    }
+}
@@ -0,0 +1,204 @@
+package br.com.infnet.banco.cache;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.exception.ContaNaoEncontradaException;
+import br.com.infnet.banco.repository.ContaRepository;
+import br.com.infnet.banco.service.ContaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache de segundo nível do Hibernate (região {@code conta} e cache de
+ * consultas) contra o H2, com o {@link ContaCache} desligado para que
+ * {@code buscarPorId} chegue ao Hibernate: nenhuma leitura depois de uma
+ * escrita confirmada pode devolver o valor antigo.
+ */
+@SpringBootTest(args = "skip-cli", properties = {
+        "spring.datasource.url=jdbc:h2:mem:segundo-nivel;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "banco.cache.tamanho-maximo=0",
+        "banco.retentativa.maximo-tentativas=50"
+})
+@ActiveProfiles("h2")
+class CacheDeSegundoNivelIntegracaoTest {
+
+    @Autowired
+    private ContaService contaService;
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics estatisticas;
+
+    @BeforeEach
+    void limparCache() {
+        SessionFactory fabrica = entityManagerFactory.unwrap(SessionFactory.class);
+        fabrica.getCache().evictAllRegions();
+        estatisticas = fabrica.getStatistics();
+        estatisticas.clear();
+    }
+
+    @Test
+    void buscarPorIdRepetidoNaoVaiAoBanco() {
+        Conta conta = contaService.criar("Repetida", new BigDecimal("10.00"));
+        contaService.buscarPorId(conta.getId());
+        estatisticas.clear();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(new BigDecimal("10.00"), contaService.buscarPorId(conta.getId()).getSaldo());
+        }
+
+        assertEquals(0, estatisticas.getPrepareStatementCount());
+        assertEquals(5, estatisticas.getDomainDataRegionStatistics("conta").getHitCount());
+        assertEquals(1.0, taxaDeAcertos("conta"));
+    }
+
+    @Test
+    void cadaEscritaApareceNaLeituraSeguinte() {
+        Conta origem = contaService.criar("Origem", new BigDecimal("100.00"));
+        Conta destino = contaService.criar("Destino", new BigDecimal("50.00"));
+        long origemId = origem.getId();
+        long destinoId = destino.getId();
+        contaService.buscarPorId(origemId);
+        contaService.buscarPorId(destinoId);
+
+        // UPDATE em massa do JPQL
+        contaService.alterarSaldo(origemId, new BigDecimal("80.00"));
+        assertEquals(new BigDecimal("80.00"), contaService.buscarPorId(origemId).getSaldo());
+        assertEquals(new BigDecimal("50.00"), contaService.buscarPorId(destinoId).getSaldo());
+
+        // entidade com versão (READ_WRITE grava o valor novo no commit)
+        contaService.creditar(origemId, new BigDecimal("5.00"));
+        assertEquals(new BigDecimal("85.00"), contaService.buscarPorId(origemId).getSaldo());
+        contaService.debitar(origemId, new BigDecimal("15.00"));
+        assertEquals(new BigDecimal("70.00"), contaService.buscarPorId(origemId).getSaldo());
+
+        // linhas travadas com SELECT ... FOR UPDATE
+        contaService.transferir(origemId, destinoId, new BigDecimal("20.00"));
+        assertEquals(new BigDecimal("50.00"), contaService.buscarPorId(origemId).getSaldo());
+        assertEquals(new BigDecimal("70.00"), contaService.buscarPorId(destinoId).getSaldo());
+
+        // SQL direto em lote, fora do Hibernate
+        transactionTemplate.executeWithoutResult(status ->
+                contaRepository.atualizarSaldosEmLote(new long[]{destinoId}, new long[]{12_34}, 1));
+        assertEquals(new BigDecimal("12.34"), contaService.buscarPorId(destinoId).getSaldo());
+
+        // DELETE em massa do JPQL
+        contaService.excluir(origemId);
+        assertThrows(ContaNaoEncontradaException.class, () -> contaService.buscarPorId(origemId));
+        assertEquals(new BigDecimal("12.34"), contaService.buscarPorId(destinoId).getSaldo());
+        assertTrue(estatisticas.getDomainDataRegionStatistics("conta").getHitCount() > 0);
+    }
+
+    @Test
+    void transacaoDesfeitaNaoChegaAoCache() {
+        Conta conta = contaService.criar("Desfeita", new BigDecimal("30.00"));
+        contaService.buscarPorId(conta.getId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Conta gerenciada = contaRepository.findById(conta.getId()).orElseThrow();
+            gerenciada.setSaldo(new BigDecimal("999.00"));
+            contaRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertEquals(new BigDecimal("30.00"), contaService.buscarPorId(conta.getId()).getSaldo());
+    }
+
+    @Test
+    void paginaEmCacheEDescartadaNaEscrita() {
+        Conta conta = contaService.criar("Pagina", new BigDecimal("1.00"));
+        long ultimoId = conta.getId() - 1;
+
+        contaService.buscarPagina(ultimoId, 10);
+        List<Conta> repetida = contaService.buscarPagina(ultimoId, 10);
+        assertEquals(1, estatisticas.getQueryCacheHitCount());
+        assertEquals(new BigDecimal("1.00"), repetida.get(0).getSaldo());
+
+        contaService.creditar(conta.getId(), new BigDecimal("2.00"));
+        assertEquals(new BigDecimal("3.00"), contaService.buscarPagina(ultimoId, 10).get(0).getSaldo());
+        contaService.alterarSaldo(conta.getId(), new BigDecimal("4.00"));
+        assertEquals(new BigDecimal("4.00"), contaService.buscarPagina(ultimoId, 10).get(0).getSaldo());
+
+        assertEquals(1, estatisticas.getQueryCacheHitCount());
+        double taxa = taxaDeAcertos("consultas");
+        assertTrue(taxa > 0 && taxa < 1, "taxa de acertos das consultas: " + taxa);
+    }
+
+    @Test
+    void leitoresConcorrentesNuncaVeemSaldoAnteriorAoConfirmado() throws Exception {
+        Conta conta = contaService.criar("Concorrente", new BigDecimal("1.00"));
+        long id = conta.getId();
+        // saldo confirmado mais recente; só cresce, alternando crédito e UPDATE em massa
+        AtomicLong confirmado = new AtomicLong(conta.getSaldoEmCentavos());
+        AtomicBoolean escrevendo = new AtomicBoolean(true);
+
+        List<Future<Long>> leitores = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int i = 0; i < 3; i++) {
+                leitores.add(executor.submit(() -> {
+                    long leituras = 0;
+                    while (escrevendo.get()) {
+                        long minimo = confirmado.get();
+                        long lido = contaService.buscarPorId(id).getSaldoEmCentavos();
+                        assertTrue(lido >= minimo, "leu " + lido + " depois de confirmado " + minimo);
+                        leituras++;
+                    }
+                    return leituras;
+                }));
+            }
+            Future<?> escritor = executor.submit(() -> {
+                try {
+                    for (int i = 0; i < 200; i++) {
+                        Conta gravada = i % 2 == 0
+                                ? contaService.creditar(id, new BigDecimal("0.01"))
+                                : contaService.alterarSaldo(id, contaService.buscarPorId(id).getSaldo()
+                                        .add(new BigDecimal("0.01")));
+                        confirmado.set(gravada.getSaldoEmCentavos());
+                    }
+                } finally {
+                    escrevendo.set(false);
+                }
+            });
+            escritor.get();
+            for (Future<Long> leitor : leitores) {
+                assertTrue(leitor.get() > 0);
+            }
+        }
+
+        assertEquals(1_00 + 200, contaService.buscarPorId(id).getSaldoEmCentavos());
+        assertEquals(1_00 + 200, contaRepository.findById(id).orElseThrow().getSaldoEmCentavos());
+    }
+
+    private double taxaDeAcertos(String regiao) {
+        return meterRegistry.get("banco.cache.segundo.nivel.taxa.acertos").tag("regiao", regiao).gauge().value();
+    }
+}
@@ -0,0 +1,116 @@
+package br.com.infnet.banco.cache;
+
+import br.com.infnet.banco.entity.Conta;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContaCacheTest {
+
+    private final AtomicLong relogio = new AtomicLong();
+
+    @Test
+    void deveContarAcertosEFalhas() {
+        ContaCache cache = new ContaCache(10, Duration.ofMinutes(1), relogio::get);
+        cache.guardar(new Conta(1L, "A", BigDecimal.TEN));
+
+        assertTrue(cache.buscar(1L).isPresent());
+        assertTrue(cache.buscar(2L).isEmpty());
+
+        ContaCache.Estatisticas estatisticas = cache.estatisticas();
+        assertEquals(1, estatisticas.acertos());
+        assertEquals(1, estatisticas.falhas());
+        assertEquals(0.5, estatisticas.taxaDeAcerto());
+    }
+
+    @Test
+    void deveRemoverAMenosUsadaQuandoPassaDoLimite() {
+        ContaCache cache = new ContaCache(2, Duration.ofMinutes(1), relogio::get);
+        cache.guardar(new Conta(1L, "A", BigDecimal.ONE));
+        cache.guardar(new Conta(2L, "B", BigDecimal.ONE));
+        cache.buscar(1L);
+        cache.guardar(new Conta(3L, "C", BigDecimal.ONE));
+
+        assertTrue(cache.buscar(1L).isPresent());
+        assertTrue(cache.buscar(2L).isEmpty());
+        assertTrue(cache.buscar(3L).isPresent());
+        assertEquals(1, cache.estatisticas().remocoes());
+    }
+
+    @Test
+    void deveExpirarEntradaAposTtl() {
+        ContaCache cache = new ContaCache(10, Duration.ofSeconds(30), relogio::get);
+        cache.guardar(new Conta(1L, "A", BigDecimal.ONE));
+
+        relogio.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertTrue(cache.buscar(1L).isEmpty());
+        assertEquals(1, cache.estatisticas().remocoes());
+        assertEquals(0, cache.estatisticas().tamanho());
+    }
+
+    @Test
+    void alteracaoNaContaDevolvidaNaoAfetaOCache() {
+        ContaCache cache = new ContaCache(10, Duration.ofMinutes(1), relogio::get);
+        Conta original = new Conta(1L, "A", new BigDecimal("10.00"));
+        cache.guardar(original);
+
+        original.creditar(BigDecimal.ONE);
+        cache.buscar(1L).orElseThrow().creditar(BigDecimal.ONE);
+
+        assertEquals(new BigDecimal("10.00"), cache.buscar(1L).orElseThrow().getSaldo());
+    }
+
+    @Test
+    void leituraAnteriorARemocaoNaoEntraNoCache() {
+        ContaCache cache = new ContaCache(10, Duration.ofMinutes(1), relogio::get);
+        long marca = cache.marca();
+
+        // a conta foi lida do banco e, antes de guardar, alterada ou excluída
+        cache.remover(1L);
+
+        assertFalse(cache.guardarLida(new Conta(1L, "A", BigDecimal.ONE), marca));
+        assertTrue(cache.buscar(1L).isEmpty());
+        assertEquals(0, cache.estatisticas().tamanho());
+        assertTrue(cache.guardarLida(new Conta(1L, "A", BigDecimal.TEN), cache.marca()));
+        assertEquals(new BigDecimal("10.00"), cache.buscar(1L).orElseThrow().getSaldo());
+    }
+
+    @Test
+    void remocaoDeOutraContaNaoRecusaALeitura() {
+        ContaCache cache = new ContaCache(10, Duration.ofMinutes(1), relogio::get);
+        long marca = cache.marca();
+
+        cache.remover(2L);
+
+        assertTrue(cache.guardarLida(new Conta(1L, "A", BigDecimal.ONE), marca));
+    }
+
+    @Test
+    void lapideDescartadaContinuaRecusandoLeituraAnterior() {
+        ContaCache cache = new ContaCache(2, Duration.ofMinutes(1), relogio::get);
+        long marca = cache.marca();
+        cache.remover(1L);
+        cache.guardar(new Conta(2L, "B", BigDecimal.ONE));
+        cache.guardar(new Conta(3L, "C", BigDecimal.ONE));
+
+        assertFalse(cache.guardarLida(new Conta(1L, "A", BigDecimal.ONE), marca));
+
+        long depoisDoLimpar = cache.marca();
+        cache.limpar();
+        assertFalse(cache.guardarLida(new Conta(2L, "B", BigDecimal.ONE), depoisDoLimpar));
+    }
+
+    @Test
+    void tamanhoZeroDesligaOCache() {
+        ContaCache cache = new ContaCache(0, Duration.ofMinutes(1), relogio::get);
+        cache.guardar(new Conta(1L, "A", BigDecimal.ONE));
+
+        assertTrue(cache.buscar(1L).isEmpty());
+        assertEquals(0, cache.estatisticas().tamanho());
+    }
+}
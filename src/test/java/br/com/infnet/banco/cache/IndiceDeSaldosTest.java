@@ -0,0 +1,77 @@
+package br.com.infnet.banco.cache;
+
+import br.com.infnet.banco.dto.ResumoDeSaldos;
+import br.com.infnet.banco.entity.Conta;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceDeSaldosTest {
+
+    private final IndiceDeSaldos indice = new IndiceDeSaldos();
+
+    private void carregar(Conta... contas) {
+        indice.carregarSeNecessario(consumidor -> {
+            for (Conta conta : contas) {
+                consumidor.accept(conta);
+            }
+        });
+    }
+
+    @Test
+    void ignoraAtualizacoesAntesDaCarga() {
+        indice.atualizar(1L, 500);
+
+        assertFalse(indice.carregado());
+        assertEquals(0, indice.tamanho());
+    }
+
+    @Test
+    void carregaUmaUnicaVez() {
+        AtomicInteger cargas = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            indice.carregarSeNecessario(consumidor -> cargas.incrementAndGet());
+        }
+
+        assertEquals(1, cargas.get());
+    }
+
+    @Test
+    void invalidarDescartaEPermiteNovaCarga() {
+        carregar(new Conta(1L, "A", new BigDecimal("1.00")));
+        indice.atualizar(1L, 999);
+
+        indice.invalidar();
+        carregar(new Conta(1L, "A", new BigDecimal("1.00")));
+
+        assertEquals(OptionalLong.of(100), indice.saldoEmCentavos(1L));
+    }
+
+    @Test
+    void resumoCalculaTotalMenorMaiorEMedia() {
+        carregar(new Conta(1L, "A", new BigDecimal("1.00")),
+                new Conta(2L, "B", new BigDecimal("2.00")),
+                new Conta(3L, "C", new BigDecimal("6.00")));
+        indice.remover(2L);
+        indice.atualizar(4L, 200);
+
+        ResumoDeSaldos resumo = indice.resumo();
+
+        assertEquals(3, resumo.quantidade());
+        assertEquals(new BigDecimal("9.00"), resumo.total());
+        assertEquals(new BigDecimal("1.00"), resumo.menor());
+        assertEquals(new BigDecimal("6.00"), resumo.maior());
+        assertEquals(new BigDecimal("3.00"), resumo.media());
+    }
+
+    @Test
+    void resumoVazio() {
+        carregar();
+
+        assertEquals(new ResumoDeSaldos(0, 0, 0, 0), indice.resumo());
+    }
+}
@@ -0,0 +1,84 @@
+package br.com.infnet.banco.carga;
+
+import br.com.infnet.banco.service.ContaService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Varredura curta do {@link GeradorDeCarga} no H2: um ponto por tamanho, sem
+ * falhas, e o banco e o pool de volta ao estado anterior no fim.
+ */
+@SpringBootTest(args = "skip-cli", properties = {
+        "spring.datasource.url=jdbc:h2:mem:gerador-carga;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "banco.gerador-carga.tamanhos-pool=1,3",
+        "banco.gerador-carga.clientes=4",
+        "banco.gerador-carga.contas=20",
+        "banco.gerador-carga.aquecimento=PT0.1S",
+        "banco.gerador-carga.duracao=PT0.3S"
+})
+@ActiveProfiles("h2")
+class GeradorDeCargaIntegracaoTest {
+
+    @Autowired
+    private GeradorDeCarga geradorDeCarga;
+
+    @Autowired
+    private ContaService contaService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void medeCadaTamanhoERestauraPoolEContas() throws Exception {
+        contaService.criar("Fora da carga", new BigDecimal("123.45"));
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        int maximo = hikari.getHikariConfigMXBean().getMaximumPoolSize();
+        int minimo = hikari.getHikariConfigMXBean().getMinimumIdle();
+        long contasAntes = contarContas();
+        BigDecimal somaAntes = somarSaldos();
+
+        List<GeradorDeCarga.Ponto> pontos = geradorDeCarga.executar(null);
+
+        assertEquals(List.of(1, 3), pontos.stream().map(GeradorDeCarga.Ponto::tamanhoPool).toList());
+        for (GeradorDeCarga.Ponto ponto : pontos) {
+            assertTrue(ponto.operacoes() > 0, "operações em " + ponto);
+            assertEquals(0, ponto.falhas(), "falhas em " + ponto);
+            assertTrue(ponto.operacoesPorSegundo() > 0);
+            assertTrue(ponto.p50Ms() <= ponto.p99Ms() && ponto.p99Ms() <= ponto.maximoMs(), ponto.toString());
+        }
+        assertEquals(maximo, hikari.getHikariConfigMXBean().getMaximumPoolSize());
+        assertEquals(minimo, hikari.getHikariConfigMXBean().getMinimumIdle());
+        assertEquals(contasAntes, contarContas(), "contas da carga excluídas");
+        assertEquals(0, somaAntes.compareTo(somarSaldos()), "saldos de fora da carga intocados");
+    }
+
+    @Test
+    void tamanhosInformadosSubstituemAConfiguracao() throws Exception {
+        List<GeradorDeCarga.Ponto> pontos = geradorDeCarga.executar(new int[]{2});
+
+        assertEquals(1, pontos.size());
+        assertEquals(2, pontos.get(0).tamanhoPool());
+    }
+
+    private long contarContas() {
+        return jdbcTemplate.queryForObject("select count(*) from conta", Long.class);
+    }
+
+    private BigDecimal somarSaldos() {
+        return jdbcTemplate.queryForObject("select coalesce(sum(saldo), 0) from conta", BigDecimal.class);
+    }
+}
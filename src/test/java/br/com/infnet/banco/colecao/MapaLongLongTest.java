@@ -0,0 +1,63 @@
+package br.com.infnet.banco.colecao;
+
+import net.jqwik.api.*;
+import org.junit.jupiter.api.Assertions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * O mapa primitivo deve se comportar como um {@link HashMap} de mesma sequência de operações.
+ */
+class MapaLongLongTest {
+
+    /***********************************************************************************************
+     * Sequências aleatórias de colocar/remover produzem o mesmo conteúdo que um HashMap.
+     */
+    @Property(tries = 300)
+    @Label("Equivale a um HashMap em qualquer sequência de operações")
+    void equivaleAHashMap(@ForAll("operacoes") List<long[]> operacoes) {
+        MapaLongLong mapa = new MapaLongLong(2);
+        Map<Long, Long> esperado = new HashMap<>();
+
+        for (long[] operacao : operacoes) {
+            long chave = operacao[1];
+            if (operacao[0] == 0) {
+                esperado.put(chave, operacao[2]);
+                mapa.colocar(chave, operacao[2]);
+            } else {
+                Assertions.assertEquals(esperado.remove(chave) != null, mapa.remover(chave));
+            }
+        }
+
+        Assertions.assertEquals(esperado.size(), mapa.tamanho());
+        esperado.forEach((chave, valor) -> Assertions.assertEquals(valor, mapa.obter(chave, -1)));
+        Map<Long, Long> percorrido = new HashMap<>();
+        mapa.paraCada(percorrido::put);
+        Assertions.assertEquals(esperado, percorrido);
+    }
+
+    /***********************************************************************************************
+     * Chave ausente devolve o valor padrão informado.
+     */
+    @Example
+    void chaveAusenteDevolvePadrao() {
+        MapaLongLong mapa = new MapaLongLong();
+        mapa.colocar(10, 0);
+
+        Assertions.assertEquals(0, mapa.obter(10, -1));
+        Assertions.assertEquals(-1, mapa.obter(11, -1));
+        Assertions.assertFalse(mapa.contem(0));
+    }
+
+    @Provide
+    Arbitrary<List<long[]>> operacoes() {
+        Arbitrary<long[]> operacao = Combinators.combine(
+                Arbitraries.longs().between(0, 1),
+                Arbitraries.longs().between(-5, 40),
+                Arbitraries.longs()
+        ).as((tipo, chave, valor) -> new long[]{tipo, chave, valor});
+        return operacao.list().ofMaxSize(200);
+    }
+}
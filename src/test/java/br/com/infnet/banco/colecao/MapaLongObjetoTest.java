@@ -0,0 +1,70 @@
+package br.com.infnet.banco.colecao;
+
+import net.jqwik.api.*;
+import org.junit.jupiter.api.Assertions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * O mapa primitivo deve se comportar como um {@link HashMap} de mesma sequência de operações.
+ */
+class MapaLongObjetoTest {
+
+    /***********************************************************************************************
+     * Sequências aleatórias de colocar/remover produzem o mesmo conteúdo que um HashMap.
+     * Chaves em faixa pequena forçam colisões, remoções no meio de cadeias e a chave 0.
+     */
+    @Property(tries = 300)
+    @Label("Equivale a um HashMap em qualquer sequência de operações")
+    void equivaleAHashMap(@ForAll("operacoes") List<long[]> operacoes) {
+        MapaLongObjeto<Long> mapa = new MapaLongObjeto<>(2);
+        Map<Long, Long> esperado = new HashMap<>();
+
+        for (long[] operacao : operacoes) {
+            long chave = operacao[1];
+            if (operacao[0] == 0) {
+                Assertions.assertEquals(esperado.put(chave, operacao[2]), mapa.colocar(chave, operacao[2]));
+            } else {
+                Assertions.assertEquals(esperado.remove(chave), mapa.remover(chave));
+            }
+        }
+
+        Assertions.assertEquals(esperado.size(), mapa.tamanho());
+        esperado.forEach((chave, valor) -> Assertions.assertEquals(valor, mapa.obter(chave)));
+        Map<Long, Long> percorrido = new HashMap<>();
+        mapa.paraCada(percorrido::put);
+        Assertions.assertEquals(esperado, percorrido);
+    }
+
+    /***********************************************************************************************
+     * Cresce sem perder entradas.
+     */
+    @Example
+    void cresceSemPerderEntradas() {
+        MapaLongObjeto<String> mapa = new MapaLongObjeto<>();
+        for (long id = 1; id <= 100_000; id++) {
+            mapa.colocar(id, "c" + id);
+        }
+        Assertions.assertEquals(100_000, mapa.tamanho());
+        Assertions.assertEquals("c1", mapa.obter(1));
+        Assertions.assertEquals("c100000", mapa.obter(100_000));
+        Assertions.assertNull(mapa.obter(100_001));
+    }
+
+    @Example
+    void naoAceitaValorNulo() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MapaLongObjeto<>().colocar(1, null));
+    }
+
+    @Provide
+    Arbitrary<List<long[]>> operacoes() {
+        Arbitrary<long[]> operacao = Combinators.combine(
+                Arbitraries.longs().between(0, 1),
+                Arbitraries.longs().between(-5, 40),
+                Arbitraries.longs()
+        ).as((tipo, chave, valor) -> new long[]{tipo, chave, valor});
+        return operacao.list().ofMaxSize(200);
+    }
+}
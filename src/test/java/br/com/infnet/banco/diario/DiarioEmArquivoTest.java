@@ -0,0 +1,208 @@
+package br.com.infnet.banco.diario;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiarioEmArquivoTest {
+
+    // menor segmento aceito: cabe exatamente um registro de tamanho máximo
+    private static final int SEGMENTO_PEQUENO = 64 * 127;
+
+    @TempDir
+    Path diretorio;
+
+    private List<EventoDiario> lerTudo() {
+        List<EventoDiario> eventos = new ArrayList<>();
+        LeitorDeDiario.percorrer(diretorio, 1, eventos::add);
+        return eventos;
+    }
+
+    @Test
+    void registraELeEventosEmOrdem() {
+        try (DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, 1 << 20, false, 10)) {
+            assertEquals(1, diario.registrar(TipoEvento.CRIACAO, 10, 0, 500, 500, "Ana Müller"));
+            assertEquals(2, diario.registrar(TipoEvento.CREDITO, 10, 11, 100, 600, null));
+            assertEquals(3, diario.registrar(TipoEvento.EXCLUSAO, 10, 0, 0, 0, null));
+        }
+
+        List<EventoDiario> eventos = lerTudo();
+
+        assertEquals(3, eventos.size());
+        assertEquals(new EventoDiario(1, eventos.get(0).instante(), TipoEvento.CRIACAO, 10, 0, 500, 500, "Ana Müller"),
+                eventos.get(0));
+        assertEquals(TipoEvento.CREDITO, eventos.get(1).tipo());
+        assertEquals(11, eventos.get(1).referencia());
+        assertEquals(600, eventos.get(1).saldoCentavos());
+        assertEquals(TipoEvento.EXCLUSAO, eventos.get(2).tipo());
+    }
+
+    @Test
+    void titularLongoOcupaVariosBlocos() {
+        String titular = "x".repeat(300);
+        try (DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, 1 << 20, false, 10)) {
+            diario.registrar(TipoEvento.CRIACAO, 1, 0, 1, 1, titular);
+            diario.registrar(TipoEvento.DEBITO, 1, 0, 1, 0, null);
+        }
+
+        List<EventoDiario> eventos = lerTudo();
+
+        assertEquals(titular, eventos.get(0).titular());
+        assertEquals(2, eventos.get(1).sequencia());
+    }
+
+    @Test
+    void trocaDeSegmentoQuandoNaoHaEspaco() {
+        try (DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, SEGMENTO_PEQUENO, false, 10)) {
+            for (int i = 1; i <= 1_000; i++) {
+                diario.registrar(TipoEvento.CREDITO, i, 0, i, i, null);
+            }
+        }
+
+        List<EventoDiario> eventos = lerTudo();
+
+        assertTrue(Segmentos.listar(diretorio).size() > 1);
+        assertEquals(1_000, eventos.size());
+        for (int i = 0; i < eventos.size(); i++) {
+            assertEquals(i + 1, eventos.get(i).sequencia());
+        }
+    }
+
+    @Test
+    void leituraAPartirDeUmaSequencia() {
+        try (DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, SEGMENTO_PEQUENO, false, 10)) {
+            for (int i = 1; i <= 500; i++) {
+                diario.registrar(TipoEvento.CREDITO, i, 0, i, i, null);
+            }
+        }
+        List<EventoDiario> cauda = new ArrayList<>();
+
+        long ultima = LeitorDeDiario.percorrer(diretorio, 450, cauda::add);
+
+        assertEquals(500, ultima);
+        assertEquals(51, cauda.size());
+        assertEquals(450, cauda.get(0).sequencia());
+    }
+
+    @Test
+    void reaberturaContinuaASequencia() {
+        try (DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, 1 << 20, false, 10)) {
+            diario.registrar(TipoEvento.CREDITO, 1, 0, 1, 1, null);
+        }
+        try (DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, 1 << 20, false, 10)) {
+            assertEquals(1, diario.ultimaSequencia());
+            assertEquals(2, diario.registrar(TipoEvento.CREDITO, 1, 0, 1, 2, null));
+        }
+
+        assertEquals(2, lerTudo().size());
+    }
+
+    @Test
+    void registroCorrompidoEncerraALeituraEESobrescritoNaReabertura() throws Exception {
+        try (DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, 1 << 20, false, 10)) {
+            for (int i = 1; i <= 3; i++) {
+                diario.registrar(TipoEvento.CREDITO, i, 0, i, i, null);
+            }
+        }
+        // simula uma escrita interrompida no terceiro registro
+        try (RandomAccessFile arquivo = new RandomAccessFile(Segmentos.arquivo(diretorio, 1).toFile(), "rw")) {
+            arquivo.seek(2 * 64 + 40);
+            arquivo.writeLong(123_456);
+        }
+
+        assertEquals(2, lerTudo().size());
+        try (DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, 1 << 20, false, 10)) {
+            assertEquals(3, diario.registrar(TipoEvento.DEBITO, 9, 0, 1, 0, null));
+        }
+
+        List<EventoDiario> eventos = lerTudo();
+        assertEquals(3, eventos.size());
+        assertEquals(TipoEvento.DEBITO, eventos.get(2).tipo());
+    }
+
+    @Test
+    void grupoInterrompidoNaoEEntregue() throws Exception {
+        try (DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, 1 << 20, false, 10)) {
+            diario.registrar(TipoEvento.CREDITO, 1, 0, 1, 1, null);
+            assertEquals(4, diario.registrarGrupo(List.of(
+                    new NovoEvento(TipoEvento.DEBITO, 1, 2, 1, 0, null),
+                    new NovoEvento(TipoEvento.CREDITO, 2, 1, 1, 1, null),
+                    new NovoEvento(TipoEvento.CREDITO, 3, 0, 5, 5, null))));
+        }
+        assertEquals(4, lerTudo().size());
+        // queda antes do último registro do grupo chegar ao disco
+        try (RandomAccessFile arquivo = new RandomAccessFile(Segmentos.arquivo(diretorio, 1).toFile(), "rw")) {
+            arquivo.seek(3 * 64);
+            arquivo.writeInt(0);
+        }
+
+        assertEquals(List.of(1L), lerTudo().stream().map(EventoDiario::sequencia).toList());
+        try (DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, 1 << 20, false, 10)) {
+            assertEquals(4, diario.registrar(TipoEvento.EXCLUSAO, 3, 0, 0, 0, null));
+        }
+        // as duas metades do grupo continuam no arquivo, mas não são entregues
+        assertEquals(List.of(1L, 4L), lerTudo().stream().map(EventoDiario::sequencia).toList());
+    }
+
+    @Test
+    void grupoAtravessaSegmentosEDescarteMantemOsNecessarios() {
+        List<NovoEvento> grupo = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            grupo.add(new NovoEvento(TipoEvento.CREDITO, i, 0, 1, i, null));
+        }
+        try (DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, SEGMENTO_PEQUENO, false, 10)) {
+            for (int i = 1; i <= 100; i++) {
+                diario.registrar(TipoEvento.CREDITO, i, 0, i, i, null);
+            }
+            assertEquals(150, diario.registrarGrupo(grupo));
+            for (int i = 1; i <= 200; i++) {
+                diario.registrar(TipoEvento.DEBITO, i, 0, i, i, null);
+            }
+
+            assertEquals(350, lerTudo().size());
+            assertEquals(2, diario.descartarSegmentosAnteriores(300));
+        }
+
+        List<EventoDiario> cauda = new ArrayList<>();
+        LeitorDeDiario.percorrer(diretorio, 300, cauda::add);
+        assertEquals(51, cauda.size());
+        assertEquals(300, cauda.get(0).sequencia());
+        assertEquals(255, LeitorDeDiario.primeiraSequenciaDisponivel(diretorio));
+    }
+
+    @Test
+    void esperasConcorrentesCompartilhamOFsync() throws Exception {
+        int threads = 8;
+        int porThread = 200;
+        try (DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, 1 << 20, true, 1_000)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < porThread; i++) {
+                        long sequencia = diario.registrar(TipoEvento.CREDITO, 1, 0, 1, i, null);
+                        diario.aguardarDurabilidade(sequencia);
+                    }
+                }));
+            }
+            // com intervalo de 1s, só termina rápido se quem espera acordar a thread de fsync
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+            assertEquals((long) threads * porThread, diario.ultimaSequencia());
+        }
+
+        assertEquals(threads * porThread, lerTudo().size());
+    }
+}
@@ -0,0 +1,126 @@
+package br.com.infnet.banco.diario;
+
+import br.com.infnet.banco.dto.NovaConta;
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.repository.ContaRepository;
+import br.com.infnet.banco.service.ContaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ContaService com o diário ligado (modo síncrono) contra o H2.
+ */
+@SpringBootTest(args = "skip-cli", properties = {
+        "spring.datasource.url=jdbc:h2:mem:diario;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "banco.diario.habilitado=true",
+        "banco.diario.sincrono=true"
+})
+@ActiveProfiles("h2")
+class DiarioIntegracaoTest {
+
+    private static final Path DIRETORIO;
+
+    static {
+        try {
+            DIRETORIO = Files.createTempDirectory("diario-integracao");
+        } catch (IOException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void diretorio(DynamicPropertyRegistry registro) {
+        registro.add("banco.diario.diretorio", DIRETORIO::toString);
+    }
+
+    @Autowired
+    private ContaService contaService;
+
+    @Autowired
+    private DiarioEmArquivo diario;
+
+    @Autowired
+    private DiarioDeContas diarioDeContas;
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private List<EventoDiario> eventosDesde(long sequencia) {
+        List<EventoDiario> eventos = new ArrayList<>();
+        LeitorDeDiario.percorrer(DIRETORIO, sequencia, eventos::add);
+        return eventos;
+    }
+
+    @Test
+    void operacoesGeramEventosComSaldoResultante() {
+        long inicio = diario.ultimaSequencia() + 1;
+
+        Conta origem = contaService.criar("Origem", new BigDecimal("100.00"));
+        Conta destino = contaService.criar("Destino", new BigDecimal("10.00"));
+        contaService.creditar(origem.getId(), new BigDecimal("5.00"));
+        contaService.debitar(origem.getId(), new BigDecimal("2.50"));
+        contaService.alterarSaldo(destino.getId(), new BigDecimal("20.00"));
+        contaService.transferir(origem.getId(), destino.getId(), new BigDecimal("2.50"));
+        contaService.excluir(destino.getId());
+
+        List<EventoDiario> eventos = eventosDesde(inicio);
+
+        assertEquals(List.of(TipoEvento.CRIACAO, TipoEvento.CRIACAO, TipoEvento.CREDITO, TipoEvento.DEBITO,
+                        TipoEvento.ALTERACAO_SALDO, TipoEvento.DEBITO, TipoEvento.CREDITO, TipoEvento.EXCLUSAO),
+                eventos.stream().map(EventoDiario::tipo).toList());
+        assertEquals("Origem", eventos.get(0).titular());
+        assertEquals(10_250, eventos.get(3).saldoCentavos());
+        assertEquals(destino.getId(), eventos.get(5).referencia());
+        assertEquals(2_250, eventos.get(6).saldoCentavos());
+        assertEquals(destino.getId(), eventos.get(7).contaId());
+    }
+
+    @Test
+    void transacaoDesfeitaNaoChegaAoDiario() {
+        long inicio = diario.ultimaSequencia() + 1;
+        List<NovaConta> novas = new ArrayList<>();
+        // o primeiro lote de 500 é gravado no banco antes da conta inválida
+        for (int i = 0; i < 600; i++) {
+            novas.add(new NovaConta("Lote " + i, i == 550 ? BigDecimal.ZERO : BigDecimal.ONE));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> contaService.criarEmLote(novas));
+
+        assertEquals(List.of(), eventosDesde(inicio));
+    }
+
+    @Test
+    void commitQueFalhaAnulaOsEventosJaGravados() {
+        Conta conta = contaService.criar("Falha no commit", BigDecimal.TEN);
+        long inicio = diario.ultimaSequencia() + 1;
+
+        assertThrows(RuntimeException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            diarioDeContas.alteracaoDeSaldo(conta.getId(), 500);
+            // só falha no flush do commit, depois de o grupo ir para o diário
+            contaRepository.findById(conta.getId()).orElseThrow().setTitular(null);
+        }));
+
+        List<EventoDiario> eventos = eventosDesde(inicio);
+        assertEquals(List.of(TipoEvento.ALTERACAO_SALDO, TipoEvento.ANULACAO),
+                eventos.stream().map(EventoDiario::tipo).toList());
+        assertEquals(eventos.get(0).sequencia(), eventos.get(1).referencia());
+    }
+}
@@ -0,0 +1,75 @@
+package br.com.infnet.banco.esteira;
+
+import br.com.infnet.banco.service.MovimentoDeSaldo;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnelDeComandosTest {
+
+    @Test
+    void capacidadePrecisaSerPotenciaDeDois() {
+        assertThrows(IllegalArgumentException.class, () -> new AnelDeComandos(6));
+        assertThrows(IllegalArgumentException.class, () -> new AnelDeComandos(0));
+        assertEquals(8, new AnelDeComandos(8).capacidade());
+    }
+
+    @Test
+    void variosProdutoresDandoMuitasVoltasNaoPerdemNemRepetemComandos() throws Exception {
+        int produtores = 4;
+        int porProdutor = 20_000;
+        AnelDeComandos anel = new AnelDeComandos(8);
+        // contaId = produtor, centavos = ordem dentro do produtor
+        long[] ultimoDe = new long[produtores];
+        long[] recebidos = {0};
+        Thread consumidor = Thread.ofPlatform().unstarted(() -> {
+            long proximo = 0;
+            while (recebidos[0] < (long) produtores * porProdutor) {
+                int quantidade = anel.publicados(proximo, 5);
+                if (quantidade == 0) {
+                    anel.aguardar(proximo, TimeUnit.MILLISECONDS.toNanos(10));
+                    continue;
+                }
+                for (int i = 0; i < quantidade; i++) {
+                    Comando comando = anel.posicao(proximo + i);
+                    int produtor = (int) comando.contaId();
+                    // cada produtor publica em ordem: a esteira também entrega em ordem
+                    assertEquals(ultimoDe[produtor] + 1, comando.centavos());
+                    ultimoDe[produtor] = comando.centavos();
+                }
+                recebidos[0] += quantidade;
+                proximo += quantidade;
+                anel.liberar(proximo - 1);
+            }
+        });
+        anel.registrarConsumidor(consumidor);
+        consumidor.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < produtores; p++) {
+            long produtor = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (long i = 1; i <= porProdutor; i++) {
+                    long sequencia = anel.reservar();
+                    anel.posicao(sequencia).preparar(MovimentoDeSaldo.Tipo.CREDITO, produtor, i, null);
+                    anel.publicar(sequencia);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        consumidor.join(30_000);
+
+        assertFalse(consumidor.isAlive());
+        assertEquals((long) produtores * porProdutor, recebidos[0]);
+        for (long ultimo : ultimoDe) {
+            assertEquals(porProdutor, ultimo);
+        }
+        assertTrue(anel.vazio());
+    }
+}
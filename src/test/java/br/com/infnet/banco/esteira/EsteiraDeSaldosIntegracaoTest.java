@@ -0,0 +1,141 @@
+package br.com.infnet.banco.esteira;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.exception.ContaNaoEncontradaException;
+import br.com.infnet.banco.exception.SaldoInsuficienteException;
+import br.com.infnet.banco.repository.ContaRepository;
+import br.com.infnet.banco.service.ContaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Esteira de saldos contra o H2. O intervalo de lote é longo o bastante
+ * para que comandos enviados em sequência caiam no mesmo lote.
+ */
+@SpringBootTest(args = "skip-cli", properties = {
+        "spring.datasource.url=jdbc:h2:mem:esteira;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "banco.esteira.habilitada=true",
+        "banco.esteira.capacidade=64",
+        "banco.esteira.tamanho-lote=32",
+        "banco.esteira.intervalo-lote-ms=20"
+})
+@ActiveProfiles("h2")
+class EsteiraDeSaldosIntegracaoTest {
+
+    @Autowired
+    private EsteiraDeSaldos esteira;
+
+    @Autowired
+    private ContaService contaService;
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    private static <T> T obter(CompletableFuture<T> futuro) throws Exception {
+        return futuro.get(10, TimeUnit.SECONDS);
+    }
+
+    private static Throwable causa(CompletableFuture<?> futuro) {
+        ExecutionException erro = assertThrows(ExecutionException.class, () -> futuro.get(10, TimeUnit.SECONDS));
+        return erro.getCause();
+    }
+
+    @Test
+    void comandosDaMesmaContaSaoAplicadosNaOrdemDeEnvio() throws Exception {
+        Long id = contaService.criar("Ordem", new BigDecimal("1.00")).getId();
+
+        CompletableFuture<Conta> alteracao = esteira.alterarSaldo(id, new BigDecimal("10.00"));
+        CompletableFuture<Conta> credito = esteira.creditar(id, new BigDecimal("1.50"));
+        CompletableFuture<Conta> debito = esteira.debitar(id, new BigDecimal("0.50"));
+
+        assertEquals(new BigDecimal("10.00"), obter(alteracao).getSaldo());
+        assertEquals(new BigDecimal("11.50"), obter(credito).getSaldo());
+        Conta depois = obter(debito);
+        assertEquals(new BigDecimal("11.00"), depois.getSaldo());
+
+        Conta noBanco = contaRepository.findById(id).orElseThrow();
+        assertEquals(new BigDecimal("11.00"), noBanco.getSaldo());
+        assertEquals(noBanco.getVersao(), depois.getVersao());
+        // o cache não ficou com o saldo de antes da esteira
+        assertEquals(new BigDecimal("11.00"), contaService.buscarPorId(id).getSaldo());
+    }
+
+    @Test
+    void comandoInvalidoFalhaSozinhoSemDesfazerOLote() throws Exception {
+        Long id = contaService.criar("Lote", new BigDecimal("5.00")).getId();
+        long lotesAntes = esteira.lotesProcessados();
+
+        CompletableFuture<Conta> credito = esteira.creditar(id, new BigDecimal("1.00"));
+        CompletableFuture<Conta> semSaldo = esteira.debitar(id, new BigDecimal("100.00"));
+        CompletableFuture<Conta> inexistente = esteira.creditar(Long.MAX_VALUE, new BigDecimal("1.00"));
+        CompletableFuture<Conta> debito = esteira.debitar(id, new BigDecimal("2.00"));
+
+        assertEquals(new BigDecimal("6.00"), obter(credito).getSaldo());
+        assertInstanceOf(SaldoInsuficienteException.class, causa(semSaldo));
+        assertInstanceOf(ContaNaoEncontradaException.class, causa(inexistente));
+        assertEquals(new BigDecimal("4.00"), obter(debito).getSaldo());
+        assertEquals(new BigDecimal("4.00"), contaRepository.findById(id).orElseThrow().getSaldo());
+        // os quatro couberam em um lote só (uma transação)
+        assertEquals(lotesAntes + 1, esteira.lotesProcessados());
+    }
+
+    @Test
+    void argumentoInvalidoFalhaNaHoraSemEntrarNaEsteira() {
+        assertThrows(IllegalArgumentException.class, () -> esteira.creditar(1L, BigDecimal.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> esteira.debitar(1L, null));
+        assertThrows(IllegalArgumentException.class, () -> esteira.alterarSaldo(1L, new BigDecimal("-1")));
+    }
+
+    @Test
+    void produtoresConcorrentesSaoAgrupadosEmPoucasTransacoes() throws Exception {
+        Long id = contaService.criar("Concorrente", new BigDecimal("1.00")).getId();
+        int threads = 8;
+        int porThread = 100;
+        long lotesAntes = esteira.lotesProcessados();
+        long comandosAntes = esteira.comandosProcessados();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<List<CompletableFuture<Conta>>>> envios = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            envios.add(executor.submit(() -> {
+                List<CompletableFuture<Conta>> futuros = new ArrayList<>();
+                for (int i = 0; i < porThread; i++) {
+                    futuros.add(esteira.creditar(id, new BigDecimal("0.01")));
+                }
+                return futuros;
+            }));
+        }
+        Set<BigDecimal> saldosVistos = new TreeSet<>();
+        for (Future<List<CompletableFuture<Conta>>> envio : envios) {
+            for (CompletableFuture<Conta> futuro : envio.get(30, TimeUnit.SECONDS)) {
+                saldosVistos.add(obter(futuro).getSaldo());
+            }
+        }
+        executor.shutdown();
+
+        int total = threads * porThread;
+        // cada crédito viu um saldo diferente: nenhum foi aplicado sobre o mesmo saldo de outro
+        assertEquals(total, saldosVistos.size());
+        assertEquals(new BigDecimal("9.00"), contaRepository.findById(id).orElseThrow().getSaldo());
+        assertEquals(comandosAntes + total, esteira.comandosProcessados());
+        assertTrue(esteira.lotesProcessados() - lotesAntes < total,
+                "esperava lotes com vários comandos: " + (esteira.lotesProcessados() - lotesAntes) + " lotes");
+    }
+}
@@ -0,0 +1,141 @@
+package br.com.infnet.banco.lote;
+
+import br.com.infnet.banco.dto.NovaConta;
+import br.com.infnet.banco.exception.ContaNaoEncontradaException;
+import br.com.infnet.banco.service.ContaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Modo lote contra o H2, com blocos pequenos para que os trechos agrupados
+ * atravessem vários blocos. Quantidade de comandos na medição:
+ * {@code -Dbanco.lote.comandos} (padrão 100.000).
+ */
+@SpringBootTest(args = "skip-cli", properties = {
+        "spring.datasource.url=jdbc:h2:mem:lote;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "banco.lote.tamanho-bloco=4"
+})
+@ActiveProfiles("h2")
+class ExecutorDeLoteIntegracaoTest {
+
+    private static final int COMANDOS = Integer.getInteger("banco.lote.comandos", 100_000);
+
+    @Autowired
+    private ExecutorDeLote executor;
+
+    @Autowired
+    private ContaService contaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String saida;
+    private String erros;
+
+    private ExecutorDeLote.Resumo executar(String comandos) throws IOException {
+        ByteArrayOutputStream resultados = new ByteArrayOutputStream();
+        ByteArrayOutputStream problemas = new ByteArrayOutputStream();
+        ExecutorDeLote.Resumo resumo = executor.executar(
+                new ByteArrayInputStream(comandos.getBytes(StandardCharsets.UTF_8)), resultados, problemas);
+        saida = resultados.toString(StandardCharsets.UTF_8);
+        erros = problemas.toString(StandardCharsets.UTF_8);
+        return resumo;
+    }
+
+    @Test
+    void executaNaOrdemEIsolaOsErros() throws IOException {
+        long ana = contaService.criar("Ana", new BigDecimal("10.00")).getId();
+        long bia = contaService.criar("Bia", new BigDecimal("20.00")).getId();
+        long totalAntes = jdbcTemplate.queryForObject("select count(*) from conta", Long.class);
+
+        ExecutorDeLote.Resumo resumo = executar("""
+                + %1$d 5.00
+                - %1$d 100.00
+                g %1$d
+                s %2$d 1.50
+                + %2$d 0.25
+                + 999999 1
+                c 7.00 Caio Lote
+                c 8.00 Duda Lote
+                + %1$d 1.000
+                d %2$d
+                g %2$d
+                - %1$d 2
+                g %1$d
+                """.formatted(ana, bia));
+
+        assertEquals(13, resumo.comandos());
+        assertEquals(4, resumo.falhas());
+        assertEquals("""
+                %1$d 15.00 Ana
+                %1$d 13.00 Ana
+                """.formatted(ana), saida);
+        String[] linhasDeErro = erros.split("\n");
+        assertEquals(4, linhasDeErro.length, erros);
+        assertTrue(linhasDeErro[0].startsWith("linha 2: Saldo insuficiente"), erros);
+        assertTrue(linhasDeErro[1].startsWith("linha 6: "), erros);
+        assertTrue(linhasDeErro[2].startsWith("linha 9: Valor deve ter no máximo 2 casas"), erros);
+        assertTrue(linhasDeErro[3].startsWith("linha 11: "), erros);
+
+        assertEquals(new BigDecimal("13.00"), contaService.buscarPorId(ana).getSaldo());
+        assertThrows(ContaNaoEncontradaException.class, () -> contaService.buscarPorId(bia));
+        assertEquals(totalAntes + 1, jdbcTemplate.queryForObject("select count(*) from conta", Long.class));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "select count(*) from conta where titular like '% Lote'", Integer.class));
+    }
+
+    @Test
+    void criacaoInvalidaNoTrechoNaoImpedeAsOutras() throws IOException {
+        // titular com mais caracteres que a coluna: o criarEmLote falha e o trecho é refeito um a um
+        ExecutorDeLote.Resumo resumo = executar("""
+                c 1.00 Primeira Refeita
+                c 1.00 %s
+                c 1.00 Terceira Refeita
+                """.formatted("X".repeat(300)));
+
+        assertEquals(1, resumo.falhas(), erros);
+        assertTrue(erros.startsWith("linha 2: "), erros);
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "select count(*) from conta where titular like '% Refeita'", Integer.class));
+    }
+
+    @Test
+    void muitosMovimentosEmBlocos() throws IOException {
+        List<NovaConta> novas = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            novas.add(new NovaConta("Volume " + i, new BigDecimal("1000.00")));
+        }
+        contaService.criarEmLote(novas);
+        long menorId = jdbcTemplate.queryForObject("select min(id) from conta where titular like 'Volume %'", Long.class);
+        StringBuilder comandos = new StringBuilder(COMANDOS * 16);
+        for (int i = 0; i < COMANDOS; i++) {
+            comandos.append(i % 2 == 0 ? "+ " : "- ").append(menorId + i % 1_000).append(" 0.01\n");
+        }
+        ExecutorDeLote executorGrande = new ExecutorDeLote(contaService, contaService, 1_000);
+        ByteArrayOutputStream descarte = new ByteArrayOutputStream();
+
+        ExecutorDeLote.Resumo resumo = executorGrande.executar(
+                new ByteArrayInputStream(comandos.toString().getBytes(StandardCharsets.US_ASCII)), descarte, descarte);
+
+        System.out.printf("%nLote: %,d comandos em %,d ms = %,.0f comandos/s%n%n",
+                resumo.comandos(), resumo.duracao().toMillis(), resumo.comandosPorSegundo());
+        assertEquals(COMANDOS, resumo.comandos());
+        assertEquals(0, resumo.falhas(), descarte.toString(StandardCharsets.UTF_8));
+        assertEquals(new BigDecimal("1000000.00"), jdbcTemplate.queryForObject(
+                "select sum(saldo) from conta where titular like 'Volume %'", BigDecimal.class));
+    }
+}
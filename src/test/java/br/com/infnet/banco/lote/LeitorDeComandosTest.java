@@ -0,0 +1,113 @@
+package br.com.infnet.banco.lote;
+
+import br.com.infnet.banco.lote.ComandoDeLote.Operacao;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeitorDeComandosTest {
+
+    private static List<ComandoDeLote> ler(InputStream entrada) throws IOException {
+        LeitorDeComandos leitor = new LeitorDeComandos(entrada);
+        List<ComandoDeLote> comandos = new ArrayList<>();
+        ComandoDeLote comando = new ComandoDeLote();
+        while (leitor.proximo(comando)) {
+            comandos.add(comando);
+            comando = new ComandoDeLote();
+        }
+        return comandos;
+    }
+
+    private static List<ComandoDeLote> ler(String texto) throws IOException {
+        return ler(new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void interpretaTodosOsComandos() throws IOException {
+        List<ComandoDeLote> comandos = ler("""
+                # carga do dia
+                c 100.00 Ana Maria Souza
+
+                g 42
+                s 42 250.5
+                + 42 10.50\r
+                -\t42\t3
+                d 42""");
+
+        assertEquals(6, comandos.size());
+        ComandoDeLote criar = comandos.get(0);
+        assertEquals(Operacao.CRIAR, criar.operacao);
+        assertEquals(10_000, criar.centavos);
+        assertEquals("Ana Maria Souza", criar.titular);
+        assertEquals(2, criar.linha);
+
+        assertEquals(Operacao.CONSULTAR, comandos.get(1).operacao);
+        assertEquals(42, comandos.get(1).contaId);
+        assertEquals(4, comandos.get(1).linha);
+        assertEquals(Operacao.ALTERAR, comandos.get(2).operacao);
+        assertEquals(25_050, comandos.get(2).centavos);
+        assertEquals(Operacao.CREDITAR, comandos.get(3).operacao);
+        assertEquals(1_050, comandos.get(3).centavos);
+        assertEquals(Operacao.DEBITAR, comandos.get(4).operacao);
+        assertEquals(300, comandos.get(4).centavos);
+        assertEquals(Operacao.EXCLUIR, comandos.get(5).operacao);
+        assertEquals(8, comandos.get(5).linha);
+        comandos.forEach(comando -> assertNull(comando.erro));
+    }
+
+    @Test
+    void linhaMalformadaViraComandoInvalidoEALeituraContinua() throws IOException {
+        List<ComandoDeLote> comandos = ler("""
+                + 42 1.234
+                + 42 0
+                + x 1
+                - 42
+                g 42 extra
+                c 10.00
+                x 1
+                gg 1
+                + 42 -1
+                + 99999999999999999999 1
+                + 42 1
+                """);
+
+        assertEquals(11, comandos.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Operacao.INVALIDO, comandos.get(i).operacao, "linha " + (i + 1));
+            assertNotNull(comandos.get(i).erro, "linha " + (i + 1));
+            assertEquals(i + 1, comandos.get(i).linha);
+        }
+        assertTrue(comandos.get(0).erro.contains("2 casas"));
+        assertTrue(comandos.get(1).erro.contains("positivo"));
+        assertTrue(comandos.get(5).erro.contains("Titular"));
+        assertEquals(Operacao.CREDITAR, comandos.get(10).operacao);
+        assertEquals(100, comandos.get(10).centavos);
+    }
+
+    @Test
+    void linhasMaioresQueOBufferEEntradaAosPedacos() throws IOException {
+        String titular = "T".repeat(200_000);
+        byte[] bytes = ("+ 1 1\nc 1.00 " + titular + "\n+ 2 2").getBytes(StandardCharsets.UTF_8);
+        // devolve poucos bytes por leitura, como um pipe lento
+        InputStream aosPedacos = new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] destino, int deslocamento, int tamanho) {
+                return super.read(destino, deslocamento, Math.min(tamanho, 7));
+            }
+        };
+
+        List<ComandoDeLote> comandos = ler(aosPedacos);
+
+        assertEquals(3, comandos.size());
+        assertEquals(titular, comandos.get(1).titular);
+        assertEquals(2, comandos.get(2).contaId);
+        assertEquals(200, comandos.get(2).centavos);
+    }
+}
@@ -0,0 +1,235 @@
+package br.com.infnet.banco.memoria;
+
+import br.com.infnet.banco.carga.GeradorDeCarga;
+import br.com.infnet.banco.dto.SaldoDeConta;
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.exception.ContaNaoEncontradaException;
+import br.com.infnet.banco.exception.SaldoInsuficienteException;
+import br.com.infnet.banco.migracao.MigracaoDeContas;
+import br.com.infnet.banco.relatorio.RelatorioDeSaldos;
+import br.com.infnet.banco.repository.ContaRepository;
+import br.com.infnet.banco.service.ContaService;
+import br.com.infnet.banco.service.OperacoesConta;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Motor em memória (perfis h2 + memoria) com o flush periódico desligado:
+ * os testes chamam {@link ContaServiceEmMemoria#descarregar()} quando querem
+ * conferir o banco.
+ */
+@SpringBootTest(args = "skip-cli", properties = {
+        "spring.datasource.url=jdbc:h2:mem:memoria;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "banco.memoria.segmentos=8",
+        "banco.memoria.intervalo-flush-ms=0"
+})
+@ActiveProfiles({"h2", "memoria"})
+class ContaServiceEmMemoriaIntegracaoTest {
+
+    @Autowired
+    private OperacoesConta operacoes;
+
+    @Autowired
+    private ContaServiceEmMemoria motor;
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Test
+    void perfilMemoriaSubstituiOServicoJpa() {
+        assertSame(motor, operacoes);
+    }
+
+    @Test
+    void carregaAsContasIniciaisDoBanco() {
+        assertEquals("LP", operacoes.buscarPorId(1L).getTitular());
+        assertEquals(new BigDecimal("100.00"), operacoes.buscarPorId(1L).getSaldo());
+    }
+
+    @Test
+    void alteracoesSoChegamAoBancoNoFlush() {
+        Conta conta = operacoes.criar("Memória", new BigDecimal("100.00"));
+        assertTrue(contaRepository.findById(conta.getId()).isPresent());
+
+        operacoes.creditar(conta.getId(), new BigDecimal("50.00"));
+        operacoes.debitar(conta.getId(), new BigDecimal("30.00"));
+        assertEquals(new BigDecimal("120.00"), operacoes.buscarPorId(conta.getId()).getSaldo());
+        assertEquals(new BigDecimal("100.00"), contaRepository.findById(conta.getId()).orElseThrow().getSaldo());
+
+        motor.descarregar();
+
+        assertEquals(new BigDecimal("120.00"), contaRepository.findById(conta.getId()).orElseThrow().getSaldo());
+    }
+
+    @Test
+    void flushGravaTodosOsSegmentosNaMesmaTransacao(@Autowired JdbcTemplate jdbcTemplate) {
+        Conta origem = operacoes.criar("Origem", new BigDecimal("100.00"));
+        Conta destino = operacoes.criar("Destino", new BigDecimal("100.00"));
+        // conta num segmento depois dos da transferência: antes era gravada numa transação à parte
+        Conta recusada;
+        do {
+            recusada = operacoes.criar("Recusada", new BigDecimal("1.00"));
+        } while ((recusada.getId() & 7) <= Math.max(origem.getId() & 7, destino.getId() & 7));
+        operacoes.transferir(origem.getId(), destino.getId(), new BigDecimal("40.00"));
+        operacoes.alterarSaldo(recusada.getId(), new BigDecimal("5000.00"));
+
+        jdbcTemplate.execute("alter table conta add constraint saldo_de_teste check (id <> "
+                + recusada.getId() + " or saldo < 1000)");
+        try {
+            assertThrows(RuntimeException.class, motor::descarregar);
+            assertEquals(new BigDecimal("100.00"), contaRepository.findById(origem.getId()).orElseThrow().getSaldo());
+            assertEquals(new BigDecimal("100.00"), contaRepository.findById(destino.getId()).orElseThrow().getSaldo());
+        } finally {
+            jdbcTemplate.execute("alter table conta drop constraint saldo_de_teste");
+        }
+
+        // as pendências voltaram a ser marcadas
+        motor.descarregar();
+        assertEquals(new BigDecimal("60.00"), contaRepository.findById(origem.getId()).orElseThrow().getSaldo());
+        assertEquals(new BigDecimal("140.00"), contaRepository.findById(destino.getId()).orElseThrow().getSaldo());
+        assertEquals(new BigDecimal("5000.00"), contaRepository.findById(recusada.getId()).orElseThrow().getSaldo());
+    }
+
+    @Test
+    void cargaEImportacaoNaoPassamPorTrasDoMotor(@Autowired GeradorDeCarga geradorDeCarga,
+                                                 @Autowired MigracaoDeContas migracao,
+                                                 @TempDir Path diretorio) {
+        assertThrows(IllegalStateException.class, () -> geradorDeCarga.executar(new int[]{1}));
+        assertThrows(IllegalStateException.class, () -> migracao.importar(diretorio.resolve("contas.col")));
+    }
+
+    @Test
+    void exclusaoChegaAoBancoNoFlush() {
+        Conta conta = operacoes.criar("Excluir", new BigDecimal("10.00"));
+        operacoes.alterarSaldo(conta.getId(), new BigDecimal("20.00"));
+
+        operacoes.excluir(conta.getId());
+
+        assertThrows(ContaNaoEncontradaException.class, () -> operacoes.buscarPorId(conta.getId()));
+        assertThrows(ContaNaoEncontradaException.class, () -> operacoes.excluir(conta.getId()));
+        motor.descarregar();
+        assertFalse(contaRepository.existsById(conta.getId()));
+    }
+
+    @Test
+    void debitoAcimaDoSaldoNaoAlteraConta() {
+        Conta conta = operacoes.criar("Saldo", new BigDecimal("10.00"));
+
+        assertThrows(SaldoInsuficienteException.class,
+                () -> operacoes.debitar(conta.getId(), new BigDecimal("10.01")));
+        assertEquals(new BigDecimal("10.00"), operacoes.buscarPorId(conta.getId()).getSaldo());
+    }
+
+    @Test
+    void buscarPorIdDevolveCopia() {
+        Conta conta = operacoes.criar("Cópia", new BigDecimal("10.00"));
+
+        operacoes.buscarPorId(conta.getId()).setSaldoEmCentavos(1);
+
+        assertEquals(new BigDecimal("10.00"), operacoes.buscarPorId(conta.getId()).getSaldo());
+    }
+
+    @Test
+    void relatorioDoInstantaneoBateComODoBancoDepoisDoFlush(@Autowired ContaService contaService) {
+        Conta conta = operacoes.criar("Relatório", new BigDecimal("50.00"));
+        operacoes.alterarSaldo(conta.getId(), new BigDecimal("987654.32"));
+
+        RelatorioDeSaldos emMemoria = operacoes.relatorioDeSaldos(3);
+        motor.descarregar();
+
+        assertEquals(conta.getId(), emMemoria.maiores().get(0).id());
+        assertEquals(motor.quantidade(), emMemoria.resumo().quantidade());
+        assertEquals(contaService.relatorioDeSaldos(3), emMemoria);
+    }
+
+    @Test
+    void buscaPorTitularPeloIndiceBateComADoBanco(@Autowired ContaService contaService) {
+        Conta primeira = operacoes.criar("Memória Busca", new BigDecimal("1.00"));
+        operacoes.criar("memória busca", new BigDecimal("2.00"));
+        Conta excluida = operacoes.criar("MEMÓRIA BUSCA 2", new BigDecimal("3.00"));
+        operacoes.criar("Memória Busca", new BigDecimal("4.00"));
+        operacoes.excluir(excluida.getId());
+        operacoes.creditar(primeira.getId(), new BigDecimal("10.00"));
+        motor.descarregar();
+
+        List<SaldoDeConta> porPrefixo = operacoes.buscarPorPrefixoDoTitular("MEMÓRIA b", null, 10);
+        assertEquals(3, porPrefixo.size());
+        assertEquals(new BigDecimal("11.00"), porPrefixo.get(0).saldo());
+        assertEquals(contaService.buscarPorPrefixoDoTitular("MEMÓRIA b", null, 10), porPrefixo);
+        assertEquals(porPrefixo.subList(2, 3), operacoes.buscarPorPrefixoDoTitular("memória b", porPrefixo.get(1), 10));
+        assertEquals(contaService.buscarPorTitular("Memória Busca", 0, 10), operacoes.buscarPorTitular("Memória Busca", 0, 10));
+        assertEquals(2, operacoes.buscarPorTitular("Memória Busca", 0, 10).size());
+    }
+
+    @Test
+    void operacoesConcorrentesConservamOSaldoTotal() throws Exception {
+        int contas = 16;
+        int threads = 8;
+        int operacoesPorThread = 2_000;
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < contas; i++) {
+            ids.add(operacoes.criar("Concorrente " + i, new BigDecimal("1000.00")).getId());
+        }
+        Conta creditada = operacoes.criar("Créditos", new BigDecimal("1.00"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                for (int i = 0; i < operacoesPorThread; i++) {
+                    long origem = ids.get(aleatorio.nextInt(contas));
+                    long destino = ids.get(aleatorio.nextInt(contas));
+                    if (origem != destino) {
+                        try {
+                            operacoes.transferir(origem, destino, new BigDecimal("1.00"));
+                        } catch (SaldoInsuficienteException ignorada) {
+                            // esperado quando uma conta zera
+                        }
+                    }
+                    operacoes.creditar(creditada.getId(), new BigDecimal("0.01"));
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (long id : ids) {
+            total = total.add(operacoes.buscarPorId(id).getSaldo());
+        }
+        assertEquals(new BigDecimal("16000.00"), total);
+        assertEquals(new BigDecimal("161.00"), operacoes.buscarPorId(creditada.getId()).getSaldo());
+
+        motor.descarregar();
+        BigDecimal totalNoBanco = BigDecimal.ZERO;
+        for (long id : ids) {
+            totalNoBanco = totalNoBanco.add(contaRepository.findById(id).orElseThrow().getSaldo());
+        }
+        assertEquals(new BigDecimal("16000.00"), totalNoBanco);
+    }
+}
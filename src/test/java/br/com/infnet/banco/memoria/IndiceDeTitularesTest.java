@@ -0,0 +1,58 @@
+package br.com.infnet.banco.memoria;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceDeTitularesTest {
+
+    private static List<Long> prefixo(IndiceDeTitulares indice, String prefixo, String depoisDaChave,
+                                      long depoisDoId, int limite) {
+        List<Long> ids = new ArrayList<>();
+        indice.percorrer(prefixo, depoisDaChave, depoisDoId, id -> {
+            ids.add(id);
+            return ids.size() < limite;
+        });
+        return ids;
+    }
+
+    @Test
+    void prefixoEmOrdemDeTitularEIdComCursor() {
+        IndiceDeTitulares indice = new IndiceDeTitulares();
+        indice.adicionar(5, "Ana");
+        indice.adicionar(2, "ana");
+        indice.adicionar(9, "Anabela");
+        indice.adicionar(1, "Bruno");
+        indice.adicionar(7, "Alice");
+        indice.adicionar(3, "ANA Maria");
+
+        assertEquals(List.of(2L, 5L, 3L, 9L), prefixo(indice, "ana", "", 0, 10));
+        assertEquals(List.of(2L, 5L), prefixo(indice, "ana", "", 0, 2));
+        assertEquals(List.of(3L, 9L), prefixo(indice, "ana", "ana", 5, 10));
+        assertEquals(List.of(7L, 2L, 5L, 3L, 9L, 1L), prefixo(indice, "", "", 0, 10));
+        assertEquals(List.of(), prefixo(indice, "ana", "anabela", 9, 10));
+
+        indice.remover(5, "Ana");
+        assertEquals(List.of(2L, 3L, 9L), prefixo(indice, "ana", "", 0, 10));
+        assertEquals(5, indice.tamanho());
+    }
+
+    @Test
+    void iguaisParamNaPrimeiraChaveDiferente() {
+        IndiceDeTitulares indice = new IndiceDeTitulares();
+        indice.adicionar(4, "Ana");
+        indice.adicionar(1, "ana");
+        indice.adicionar(2, "Ana B");
+
+        List<Long> ids = new ArrayList<>();
+        indice.percorrerIguais("ana", 0, id -> ids.add(id));
+        assertEquals(List.of(1L, 4L), ids);
+
+        ids.clear();
+        indice.percorrerIguais("ana", 1, id -> ids.add(id));
+        assertEquals(List.of(4L), ids);
+    }
+}
@@ -0,0 +1,134 @@
+package br.com.infnet.banco.metricas;
+
+import br.com.infnet.banco.CrudTp1Application;
+import br.com.infnet.banco.exception.ContaNaoEncontradaException;
+import br.com.infnet.banco.exception.OperacaoInvalidaException;
+import br.com.infnet.banco.exception.SaldoInsuficienteException;
+import br.com.infnet.banco.service.ContaService;
+import br.com.infnet.banco.servidor.ServidorDeContas;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cronômetro do {@link ContaService}, contadores de erro e a rota
+ * {@code /metricas} do servidor, contra o H2. Sem o
+ * {@code @AutoConfigureObservability} o teste usaria só um registro em
+ * memória, sem o do Prometheus.
+ */
+@SpringBootTest(args = "skip-cli", properties = {
+        "spring.datasource.url=jdbc:h2:mem:metricas;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "banco.servidor.porta=0"
+})
+@ActiveProfiles("h2")
+@AutoConfigureObservability(tracing = false)
+class MetricasIntegracaoTest {
+
+    @Autowired
+    private ContaService contaService;
+
+    @Autowired
+    private MeterRegistry registro;
+
+    @Autowired
+    private ServidorDeContas servidor;
+
+    private long operacoes(String operacao, String resultado) {
+        Timer timer = registro.find(CronometroDeContas.OPERACOES)
+                .tags("operacao", operacao, "resultado", resultado).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double erros(String operacao, String tipo) {
+        Counter contador = registro.find(CronometroDeContas.ERROS).tags("operacao", operacao, "tipo", tipo).counter();
+        return contador == null ? 0 : contador.count();
+    }
+
+    @Test
+    void cronometraCadaMetodoEContaErrosPorTipo() {
+        long criacoes = operacoes("criar", "sucesso");
+        long creditosComErro = operacoes("creditar", "erro");
+        double naoEncontradas = erros("buscarPorId", "conta_nao_encontrada");
+        double semSaldo = erros("debitar", "saldo_insuficiente");
+        double invalidos = erros("creditar", "validacao");
+        double mesmaConta = erros("transferir", "validacao");
+
+        long id = contaService.criar("Metricas", new BigDecimal("10.00")).getId();
+        contaService.creditar(id, BigDecimal.ONE);
+        assertThrows(ContaNaoEncontradaException.class, () -> contaService.buscarPorId(Long.MAX_VALUE));
+        assertThrows(SaldoInsuficienteException.class, () -> contaService.debitar(id, new BigDecimal("100.00")));
+        assertThrows(IllegalArgumentException.class, () -> contaService.creditar(id, BigDecimal.ZERO));
+        assertThrows(OperacaoInvalidaException.class, () -> contaService.transferir(id, id, BigDecimal.ONE));
+
+        assertEquals(criacoes + 1, operacoes("criar", "sucesso"));
+        assertEquals(creditosComErro + 1, operacoes("creditar", "erro"));
+        assertEquals(naoEncontradas + 1, erros("buscarPorId", "conta_nao_encontrada"));
+        assertEquals(semSaldo + 1, erros("debitar", "saldo_insuficiente"));
+        assertEquals(invalidos + 1, erros("creditar", "validacao"));
+        assertEquals(mesmaConta + 1, erros("transferir", "validacao"));
+
+        Timer creditos = registro.find(CronometroDeContas.OPERACOES)
+                .tags("operacao", "creditar", "resultado", "sucesso").timer();
+        assertNotNull(creditos);
+        assertTrue(creditos.totalTime(TimeUnit.NANOSECONDS) > 0);
+        assertTrue(creditos.takeSnapshot().histogramCounts().length > 0, "histograma para os percentis");
+    }
+
+    @Test
+    void rotaDeMetricasExpoeServicoPoolEHibernate() throws Exception {
+        contaService.buscarPorId(1L);
+        int porta = servidor.iniciar();
+        HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        HttpResponse<String> resposta = cliente.send(
+                HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + porta + "/metricas")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, resposta.statusCode());
+        assertTrue(resposta.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+        String corpo = resposta.body();
+        assertTrue(corpo.contains("banco_conta_operacoes_seconds_bucket{"), "histograma do ContaService");
+        assertTrue(corpo.contains("hikaricp_connections_max"), "pool do Hikari");
+        assertTrue(corpo.contains("hibernate_sessions_open"), "estatísticas do Hibernate");
+
+        HttpResponse<String> outraRota = cliente.send(
+                HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + porta + "/metricasx")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(404, outraRota.statusCode());
+    }
+
+    @Test
+    void desligadasNaoCronometramNemLigamEstatisticasDoHibernate() {
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(CrudTp1Application.class)
+                .profiles("h2")
+                .run("skip-cli",
+                        "--spring.datasource.url=jdbc:h2:mem:metricas-desligadas;LOCK_TIMEOUT=10000",
+                        "--spring.jpa.show-sql=false",
+                        "--banco.metricas.habilitadas=false")) {
+            contexto.getBean(ContaService.class).buscarPorId(1L);
+
+            assertNull(contexto.getBean(MeterRegistry.class).find(CronometroDeContas.OPERACOES).timer());
+            assertFalse(contexto.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class)
+                    .getStatistics().isStatisticsEnabled());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.infnet.banco.migracao;
+
+import br.com.infnet.banco.CrudTp1Application;
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.repository.ContaRepository;
+import br.com.infnet.banco.service.ContaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Subida com {@code ddl-auto=update} sobre uma tabela {@code conta} no
+ * formato antigo (id IDENTITY, sem sequence nem versão), já com contas, como
+ * um MySQL de antes da mudança do mapeamento.
+ */
+class AjusteDoEsquemaIntegracaoTest {
+
+    private static final String URL = "jdbc:h2:mem:esquema-antigo;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+
+    private static ConfigurableApplicationContext subir() {
+        return new SpringApplicationBuilder(CrudTp1Application.class)
+                .profiles("h2")
+                .run("skip-cli",
+                        "--spring.datasource.url=" + URL,
+                        "--spring.sql.init.mode=never",
+                        "--spring.jpa.show-sql=false",
+                        "--banco.esquema.ajustar-na-subida=true");
+    }
+
+    @Test
+    void contasAntigasGanhamVersaoENovasNaoColidemComElas() throws Exception {
+        try (Connection conexao = DriverManager.getConnection(URL, "sa", "");
+             Statement sql = conexao.createStatement()) {
+            sql.execute("create table conta (id bigint generated by default as identity primary key,"
+                    + " titular varchar(255) not null, saldo decimal(38, 2) not null)");
+            sql.execute("insert into conta (id, titular, saldo) values (1, 'A', 10.00), (2, 'B', 20.00), (75, 'C', 30.00)");
+        }
+
+        try (ConfigurableApplicationContext contexto = subir()) {
+            ContaService contaService = contexto.getBean(ContaService.class);
+            Conta nova = contaService.criar("Nova", new BigDecimal("1.00"));
+
+            assertTrue(nova.getId() > 75, "id gerado " + nova.getId());
+            assertEquals(0, contexto.getBean(JdbcTemplate.class)
+                    .queryForObject("select count(*) from conta where versao is null", Integer.class));
+            // lock otimista e UPDATE em massa funcionam nas linhas antigas
+            assertEquals(1L, contaService.creditar(75L, new BigDecimal("5.00")).getVersao());
+            assertEquals(2L, contaService.alterarSaldo(75L, new BigDecimal("1.00")).getVersao());
+            assertEquals(4, contexto.getBean(ContaRepository.class).count());
+            assertFalse(contexto.getBean(ContaRepository.class).avancarSequenciaAlemDoMaiorId());
+        }
+
+        // a segunda subida não faz a sequence recuar
+        try (ConfigurableApplicationContext contexto = subir()) {
+            long id = contexto.getBean(ContaService.class).criar("Outra", new BigDecimal("1.00")).getId();
+            assertTrue(id > 75, "id gerado " + id);
+            assertEquals(5, contexto.getBean(ContaRepository.class).count());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package br.com.infnet.banco.migracao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArquivoColunarTest {
+
+    @TempDir
+    Path diretorio;
+
+    private record Linha(long id, String titular, long saldo) {
+    }
+
+    private static void gravar(Path arquivo, int linhasPorBloco, List<Linha> linhas) throws IOException {
+        try (GravadorColunar gravador = new GravadorColunar(arquivo, linhasPorBloco)) {
+            for (Linha linha : linhas) {
+                gravador.adicionar(linha.id(), linha.titular(), linha.saldo());
+            }
+        }
+    }
+
+    private static List<Linha> ler(Path arquivo) throws IOException {
+        List<Linha> linhas = new ArrayList<>();
+        try (LeitorColunar leitor = new LeitorColunar(arquivo)) {
+            while (leitor.proximoBloco()) {
+                for (int i = 0; i < leitor.quantidade(); i++) {
+                    linhas.add(new Linha(leitor.ids()[i], leitor.titulares()[i], leitor.saldos()[i]));
+                }
+            }
+            assertFalse(leitor.proximoBloco());
+            assertEquals(linhas.size(), leitor.linhas());
+        }
+        return linhas;
+    }
+
+    @Test
+    void idaEVoltaEmVariosBlocos() throws IOException {
+        List<Linha> linhas = new ArrayList<>();
+        for (long id = 1; id <= 2_500; id++) {
+            linhas.add(new Linha(id * 3, "Titular " + (id % 7), id * 1_001 - 50_000));
+        }
+        // ids fora de ordem, texto fora do ASCII e extremos de saldo
+        linhas.add(new Linha(5, "José Ção 💰", Long.MIN_VALUE));
+        linhas.add(new Linha(Long.MAX_VALUE, "", Long.MAX_VALUE));
+        linhas.add(new Linha(1, "Ana", 0));
+        Path arquivo = diretorio.resolve("contas.col");
+
+        gravar(arquivo, 1_000, linhas);
+
+        assertEquals(linhas, ler(arquivo));
+    }
+
+    @Test
+    void arquivoSemContas() throws IOException {
+        Path arquivo = diretorio.resolve("vazio.col");
+        gravar(arquivo, 10, List.of());
+
+        assertEquals(List.of(), ler(arquivo));
+    }
+
+    @Test
+    void titularesRepetidosOcupamUmaEntradaPorBloco() throws IOException {
+        List<Linha> repetidos = new ArrayList<>();
+        List<Linha> distintos = new ArrayList<>();
+        for (long id = 1; id <= 10_000; id++) {
+            repetidos.add(new Linha(id, "Titular com nome comprido " + (id % 10), 10_000));
+            distintos.add(new Linha(id, "Titular com nome comprido " + id, 10_000));
+        }
+        Path comRepeticao = diretorio.resolve("repetidos.col");
+        Path semRepeticao = diretorio.resolve("distintos.col");
+
+        gravar(comRepeticao, 4_096, repetidos);
+        gravar(semRepeticao, 4_096, distintos);
+
+        // id (1 byte de diferença) + posição (1) + saldo (3), mais o dicionário de cada bloco
+        assertTrue(Files.size(comRepeticao) < 10_000 * 6, "tamanho " + Files.size(comRepeticao));
+        assertTrue(Files.size(semRepeticao) > 10_000 * 30, "tamanho " + Files.size(semRepeticao));
+    }
+
+    @Test
+    void arquivoCorrompidoOuTruncadoEErro() throws IOException {
+        List<Linha> linhas = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            linhas.add(new Linha(id, "Titular " + id, id));
+        }
+        Path arquivo = diretorio.resolve("contas.col");
+        gravar(arquivo, 50, linhas);
+        byte[] original = Files.readAllBytes(arquivo);
+
+        try (RandomAccessFile bytes = new RandomAccessFile(arquivo.toFile(), "rw")) {
+            bytes.seek(40);
+            int byteOriginal = bytes.read();
+            bytes.seek(40);
+            bytes.write(byteOriginal ^ 0x01);
+        }
+        IOException corrompido = assertThrows(IOException.class, () -> ler(arquivo));
+        assertTrue(corrompido.getMessage().contains("CRC"), corrompido.getMessage());
+
+        Files.write(arquivo, Arrays.copyOf(original, original.length - 4));
+        assertThrows(IOException.class, () -> ler(arquivo));
+
+        Files.write(arquivo, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> new LeitorColunar(arquivo).close());
+    }
+}
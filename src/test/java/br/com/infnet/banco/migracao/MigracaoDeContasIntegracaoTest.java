@@ -0,0 +1,132 @@
+package br.com.infnet.banco.migracao;
+
+import br.com.infnet.banco.CrudTp1Application;
+import br.com.infnet.banco.repository.ContaRepository;
+import br.com.infnet.banco.service.ContaService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exportação de um H2 e importação em outro, novo, como numa migração entre
+ * perfis. Quantidade de contas na medição: {@code -Dbanco.migracao.contas}
+ * (padrão 200.000).
+ */
+class MigracaoDeContasIntegracaoTest {
+
+    private static final int CONTAS = Integer.getInteger("banco.migracao.contas", 200_000);
+    private static final int TAMANHO_LOTE = 10_000;
+
+    @TempDir
+    Path diretorio;
+
+    private int subidas;
+
+    private ConfigurableApplicationContext subir() {
+        return new SpringApplicationBuilder(CrudTp1Application.class)
+                .profiles("h2")
+                .run("skip-cli",
+                        "--spring.datasource.url=jdbc:h2:mem:migracao" + (++subidas) + ";LOCK_TIMEOUT=10000",
+                        "--spring.jpa.show-sql=false",
+                        "--banco.migracao.linhas-por-bloco=4096");
+    }
+
+    private static List<Map<String, Object>> contas(ConfigurableApplicationContext contexto) {
+        return contexto.getBean(JdbcTemplate.class).queryForList("select id, titular, saldo from conta order by id");
+    }
+
+    @Test
+    void migraEntreBancosPreservandoIdsESequencia() throws Exception {
+        Path arquivo = diretorio.resolve("contas.col");
+        List<Map<String, Object>> exportadas;
+        try (ConfigurableApplicationContext origem = subir()) {
+            ContaService contaService = origem.getBean(ContaService.class);
+            long id = contaService.criar("José da Silva", new BigDecimal("12.34")).getId();
+            contaService.creditar(id, new BigDecimal("0.66"));
+            contaService.criar("LP", new BigDecimal("0.01"));
+
+            MigracaoDeContas.Resumo resumo = origem.getBean(MigracaoDeContas.class).exportar(arquivo);
+
+            exportadas = contas(origem);
+            assertEquals(exportadas.size(), resumo.contas());
+            assertEquals(Files.size(arquivo), resumo.bytes());
+            assertFalse(Files.exists(diretorio.resolve("contas.col.tmp")));
+        }
+
+        try (ConfigurableApplicationContext destino = subir()) {
+            MigracaoDeContas migracao = destino.getBean(MigracaoDeContas.class);
+            // o data.sql já inseriu contas no banco novo
+            assertThrows(IllegalStateException.class, () -> migracao.importar(arquivo));
+            destino.getBean(JdbcTemplate.class).update("delete from conta");
+
+            MigracaoDeContas.Resumo resumo = migracao.importar(arquivo);
+
+            assertEquals(exportadas.size(), resumo.contas());
+            assertEquals(exportadas, contas(destino));
+            long maiorId = exportadas.stream().mapToLong(conta -> ((Number) conta.get("ID")).longValue()).max().orElseThrow();
+            assertTrue(destino.getBean(ContaService.class).criar("Nova", BigDecimal.ONE).getId() > maiorId);
+        }
+    }
+
+    @Test
+    void migraMuitasContas() throws Exception {
+        Path arquivo = diretorio.resolve("contas.col");
+        MigracaoDeContas.Resumo exportacao;
+        long leituraJpaMs;
+        Map<String, Object> totalOrigem;
+        try (ConfigurableApplicationContext origem = subir()) {
+            ContaRepository contaRepository = origem.getBean(ContaRepository.class);
+            origem.getBean(JdbcTemplate.class).update("delete from conta");
+            long[] ids = new long[TAMANHO_LOTE];
+            String[] titulares = new String[TAMANHO_LOTE];
+            long[] saldos = new long[TAMANHO_LOTE];
+            for (int inicio = 1; inicio <= CONTAS; inicio += TAMANHO_LOTE) {
+                int quantidade = Math.min(TAMANHO_LOTE, CONTAS - inicio + 1);
+                for (int i = 0; i < quantidade; i++) {
+                    ids[i] = inicio + i;
+                    titulares[i] = "Titular " + ((inicio + i) % 1_000);
+                    saldos[i] = 10_000L + inicio + i;
+                }
+                contaRepository.inserirEmLote(ids, titulares, saldos, quantidade);
+            }
+            totalOrigem = origem.getBean(JdbcTemplate.class)
+                    .queryForMap("select count(*) quantidade, sum(saldo) total, max(id) maior from conta");
+
+            // referência: o mesmo percurso montando entidades pelo cursor JPA
+            long inicio = System.nanoTime();
+            contaRepository.percorrerTodas(conta -> {
+            });
+            leituraJpaMs = (System.nanoTime() - inicio) / 1_000_000;
+
+            exportacao = origem.getBean(MigracaoDeContas.class).exportar(arquivo);
+        }
+
+        try (ConfigurableApplicationContext destino = subir()) {
+            destino.getBean(JdbcTemplate.class).update("delete from conta");
+
+            MigracaoDeContas.Resumo importacao = destino.getBean(MigracaoDeContas.class).importar(arquivo);
+
+            System.out.printf("%nMigração de %,d contas (%,d bytes, %.1f bytes/conta):%n"
+                            + "  exportação %,d ms = %,.0f contas/s (só ler pelo cursor JPA: %,d ms)%n"
+                            + "  importação %,d ms = %,.0f contas/s%n%n",
+                    exportacao.contas(), exportacao.bytes(), (double) exportacao.bytes() / exportacao.contas(),
+                    exportacao.duracao().toMillis(), exportacao.contasPorSegundo(), leituraJpaMs,
+                    importacao.duracao().toMillis(), importacao.contasPorSegundo());
+
+            assertEquals(CONTAS, exportacao.contas());
+            assertEquals(CONTAS, importacao.contas());
+            assertEquals(totalOrigem, destino.getBean(JdbcTemplate.class)
+                    .queryForMap("select count(*) quantidade, sum(saldo) total, max(id) maior from conta"));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package br.com.infnet.banco.property;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.entity.Dinheiro;
+import br.com.infnet.banco.exception.OperacaoInvalidaException;
+import net.jqwik.api.*;
+import org.junit.jupiter.api.Assertions;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+
+/**
+ * Propriedades da aritmética em centavos usada por {@link Conta}.
+ */
+class DinheiroPropertyTest {
+
+    /***********************************************************************************************
+     * Conversão BigDecimal -> centavos -> BigDecimal não perde valor.
+     */
+    @Property(tries = 1000)
+    @Label("Conversão ida e volta preserva o valor")
+    void conversaoIdaEVoltaPreservaValor(@ForAll("valoresMonetarios") BigDecimal valor) {
+        long centavos = Dinheiro.deBigDecimal(valor);
+        Assertions.assertEquals(valor, Dinheiro.paraBigDecimal(centavos));
+    }
+
+    /***********************************************************************************************
+     * Somar em centavos equivale a somar em BigDecimal.
+     */
+    @Property(tries = 1000)
+    @Label("Soma em centavos equivale à soma em BigDecimal")
+    void somaEmCentavosEquivaleABigDecimal(
+            @ForAll("valoresMonetarios") BigDecimal a,
+            @ForAll("valoresMonetarios") BigDecimal b) {
+
+        long soma = Dinheiro.somar(Dinheiro.deBigDecimal(a), Dinheiro.deBigDecimal(b));
+        Assertions.assertEquals(a.add(b), Dinheiro.paraBigDecimal(soma));
+    }
+
+    /***********************************************************************************************
+     * Overflow é detectado em vez de "dar a volta" para valores negativos.
+     */
+    @Property(tries = 200)
+    @Label("Overflow na soma e na subtração lança exceção")
+    void overflowLancaExcecao(@ForAll("centavosPositivos") long parcela) {
+        Assertions.assertThrows(OperacaoInvalidaException.class,
+                () -> Dinheiro.somar(Long.MAX_VALUE, parcela));
+        Assertions.assertThrows(OperacaoInvalidaException.class,
+                () -> Dinheiro.subtrair(Long.MIN_VALUE, parcela));
+    }
+
+    /***********************************************************************************************
+     * Crédito que estouraria o limite não altera o saldo da conta.
+     */
+    @Example
+    void creditoComOverflowNaoAlteraSaldo() {
+        Conta conta = new Conta("Teste", BigDecimal.ONE);
+        conta.setSaldoEmCentavos(Long.MAX_VALUE);
+
+        Assertions.assertThrows(OperacaoInvalidaException.class, () -> conta.creditarCentavos(1));
+        Assertions.assertEquals(Long.MAX_VALUE, conta.getSaldoEmCentavos());
+    }
+
+    /***********************************************************************************************
+     * Valores com mais de 2 casas decimais significativas são rejeitados.
+     */
+    @Example
+    void rejeitaMaisDeDuasCasasDecimais() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> Dinheiro.deBigDecimal(new BigDecimal("10.005")));
+        Assertions.assertEquals(1000, Dinheiro.deBigDecimal(new BigDecimal("10.000")));
+    }
+
+    /***********************************************************************************************
+     * A escrita em texto das listagens equivale ao %.2f de String.format.
+     */
+    @Property(tries = 1000)
+    @Label("Escrita de centavos equivale a %.2f")
+    void escritaEquivaleAFormat(@ForAll long centavos) {
+        String esperado = String.format(Locale.ROOT, "%.2f", Dinheiro.paraBigDecimal(centavos));
+        Assertions.assertEquals(esperado, Dinheiro.escrever(new StringBuilder(), centavos, '.').toString());
+    }
+
+    /***********************************************************************************************
+     * Geradores customizados
+     */
+    @Provide
+    Arbitrary<BigDecimal> valoresMonetarios() {
+        return Arbitraries.bigDecimals()
+                .between(new BigDecimal("-1000000000.00"), new BigDecimal("1000000000.00"))
+                .ofScale(2);
+    }
+
+    @Provide
+    Arbitrary<Long> centavosPositivos() {
+        return Arbitraries.longs().between(1, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,151 @@
+package br.com.infnet.banco.recuperacao;
+
+import br.com.infnet.banco.diario.DiarioDeContas;
+import br.com.infnet.banco.diario.DiarioEmArquivo;
+import br.com.infnet.banco.diario.NovoEvento;
+import br.com.infnet.banco.diario.TipoEvento;
+import br.com.infnet.banco.entity.Conta;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EstadoRecuperadoTest {
+
+    @TempDir
+    Path diretorio;
+
+    private final List<Conta> contas = new ArrayList<>();
+
+    private DiarioEmArquivo abrirDiario() {
+        return new DiarioEmArquivo(diretorio, 1 << 20, false, 10);
+    }
+
+    private GravadorDeInstantaneos gravador(DiarioEmArquivo diario) {
+        return new GravadorDeInstantaneos(diario, new DiarioDeContas(diario), consumidor -> contas.forEach(consumidor), 2);
+    }
+
+    private void criar(DiarioDeContas diarioDeContas, long id, String titular, String saldo) {
+        Conta conta = new Conta(id, titular, new BigDecimal(saldo));
+        contas.add(conta);
+        diarioDeContas.criacao(conta);
+    }
+
+    @Test
+    void semInstantaneoReconstroiSoPeloDiario() {
+        try (DiarioEmArquivo diario = abrirDiario()) {
+            DiarioDeContas diarioDeContas = new DiarioDeContas(diario);
+            criar(diarioDeContas, 1, "Ana", "10.00");
+            criar(diarioDeContas, 2, "Bia", "20.00");
+            diarioDeContas.transferencia(1, 500, 2, 2_500, 500);
+            diarioDeContas.exclusao(1);
+        }
+
+        EstadoRecuperado estado = EstadoRecuperado.reconstruir(diretorio);
+
+        assertNull(estado.instantaneo());
+        assertEquals(1, estado.quantidade());
+        assertEquals(2_500, estado.saldoEmCentavos(2, -1));
+        assertEquals("Bia", estado.titular(2));
+        assertEquals(-1, estado.saldoEmCentavos(1, -1));
+        assertEquals(2, estado.maiorId());
+        assertEquals(5, estado.ultimaSequencia());
+    }
+
+    @Test
+    void instantaneoMaisCaudaDoDiarioIgnorandoAnulados() {
+        try (DiarioEmArquivo diario = abrirDiario()) {
+            DiarioDeContas diarioDeContas = new DiarioDeContas(diario);
+            criar(diarioDeContas, 1, "Ana", "10.00");
+            criar(diarioDeContas, 2, "Bia", "20.00");
+            Path instantaneo = gravador(diario).gravar();
+            assertEquals(3, ArquivoDeInstantaneo.sequenciaInicial(instantaneo));
+
+            diarioDeContas.credito(1, 100, 1_100);
+            long anulada = diario.registrar(TipoEvento.DEBITO, 2, 0, 2_000, 0, null);
+            diario.registrar(TipoEvento.ANULACAO, 0, anulada, 0, 0, null);
+            criar(diarioDeContas, 7, "Caio", "1.00");
+        }
+
+        EstadoRecuperado estado = EstadoRecuperado.reconstruir(diretorio);
+
+        assertNotNull(estado.instantaneo());
+        assertEquals(3, estado.quantidade());
+        assertEquals(1_100, estado.saldoEmCentavos(1, -1));
+        assertEquals(2_000, estado.saldoEmCentavos(2, -1));
+        assertEquals("Caio", estado.titular(7));
+        assertEquals(7, estado.maiorId());
+        assertEquals(2, estado.eventosAplicados());
+    }
+
+    @Test
+    void instantaneoCorrompidoCaiParaOAnterior() throws Exception {
+        try (DiarioEmArquivo diario = abrirDiario()) {
+            DiarioDeContas diarioDeContas = new DiarioDeContas(diario);
+            criar(diarioDeContas, 1, "Ana", "10.00");
+            gravador(diario).gravar();
+            diarioDeContas.alteracaoDeSaldo(1, 4_200);
+            contas.get(0).setSaldoEmCentavos(4_200);
+            Path maisNovo = gravador(diario).gravar();
+            try (RandomAccessFile arquivo = new RandomAccessFile(maisNovo.toFile(), "rw")) {
+                arquivo.seek(24);
+                arquivo.writeLong(999_999);
+            }
+        }
+
+        EstadoRecuperado estado = EstadoRecuperado.reconstruir(diretorio);
+
+        assertEquals(2, ArquivoDeInstantaneo.sequenciaInicial(estado.instantaneo()));
+        assertEquals(4_200, estado.saldoEmCentavos(1, -1));
+    }
+
+    @Test
+    void gravadorMantemPoucosInstantaneosEApagaDiarioQueNaoServeMais() throws Exception {
+        try (DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, 64 * 127, false, 10)) {
+            DiarioDeContas diarioDeContas = new DiarioDeContas(diario);
+            criar(diarioDeContas, 1, "Ana", "10.00");
+            GravadorDeInstantaneos gravador = gravador(diario);
+            for (int rodada = 1; rodada <= 4; rodada++) {
+                for (int i = 0; i < 300; i++) {
+                    diarioDeContas.credito(1, 1, contas.get(0).getSaldoEmCentavos() + 1);
+                    contas.get(0).creditarCentavos(1);
+                }
+                gravador.gravar();
+            }
+            // sobra de uma gravação interrompida
+            Files.createFile(diretorio.resolve(ArquivoDeInstantaneo.arquivo(diretorio, 5).getFileName() + ".tmp"));
+        }
+
+        List<Path> instantaneos = ArquivoDeInstantaneo.listar(diretorio);
+        assertEquals(List.of(902L, 1202L), instantaneos.stream().map(ArquivoDeInstantaneo::sequenciaInicial).toList());
+        EstadoRecuperado estado = EstadoRecuperado.reconstruir(diretorio);
+        assertEquals(1_000 + 1_200, estado.saldoEmCentavos(1, -1));
+        ArquivoDeInstantaneo.apagarTemporarios(diretorio);
+        try (var arquivos = Files.list(diretorio)) {
+            assertTrue(arquivos.noneMatch(p -> p.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void faltaDeDiarioAntesDoInstantaneoEErro() {
+        try (DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, 64 * 127, false, 10)) {
+            List<NovoEvento> eventos = new ArrayList<>();
+            for (int i = 1; i <= 300; i++) {
+                eventos.add(new NovoEvento(TipoEvento.CREDITO, 1, 0, 1, i, null));
+            }
+            diario.registrarGrupo(eventos);
+            diario.descartarSegmentosAnteriores(300);
+        }
+
+        IllegalStateException erro = assertThrows(IllegalStateException.class,
+                () -> EstadoRecuperado.reconstruir(diretorio));
+        assertTrue(erro.getMessage().contains("a partir de 1"));
+    }
+}
@@ -0,0 +1,109 @@
+package br.com.infnet.banco.recuperacao;
+
+import br.com.infnet.banco.diario.DiarioDeContas;
+import br.com.infnet.banco.diario.DiarioEmArquivo;
+import br.com.infnet.banco.diario.NovoEvento;
+import br.com.infnet.banco.diario.TipoEvento;
+import br.com.infnet.banco.entity.Conta;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Processo filho do {@link QuedaDuranteEscritaTest}: recupera as contas do
+ * diretório, depois faz transferências em várias threads e grava
+ * instantâneos sem parar até ser morto. Cada transferência confirmada
+ * (fsync feito) é impressa como {@code ok <sequência>}.
+ *
+ * <p>Argumentos: diretório, quantidade de contas, saldo inicial em centavos.
+ */
+public final class ProcessoDeEscrita {
+
+    private static final int THREADS = 4;
+
+    private ProcessoDeEscrita() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path diretorio = Path.of(args[0]);
+        int contas = Integer.parseInt(args[1]);
+        long saldoInicial = Long.parseLong(args[2]);
+        PrintStream saida = System.out;
+
+        // segmentos pequenos: a troca de segmento e o descarte também são exercitados
+        DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, 64 * 1024, true, 2);
+        DiarioDeContas diarioDeContas = new DiarioDeContas(diario);
+        long[] saldos = new long[contas + 1];
+        Object[] travas = new Object[contas + 1];
+        for (int id = 1; id <= contas; id++) {
+            travas[id] = new Object();
+        }
+
+        EstadoRecuperado estado = EstadoRecuperado.reconstruir(diretorio);
+        if (estado.quantidade() == 0) {
+            List<NovoEvento> criacoes = new ArrayList<>();
+            for (int id = 1; id <= contas; id++) {
+                saldos[id] = saldoInicial;
+                criacoes.add(new NovoEvento(TipoEvento.CRIACAO, id, 0, saldoInicial, saldoInicial, "Conta " + id));
+            }
+            diario.aguardarDurabilidade(diario.registrarGrupo(criacoes));
+        } else {
+            for (int id = 1; id <= contas; id++) {
+                saldos[id] = estado.saldoEmCentavos(id, 0);
+            }
+        }
+
+        GravadorDeInstantaneos gravador = new GravadorDeInstantaneos(diario, diarioDeContas, consumidor -> {
+            Conta conta = new Conta();
+            for (int id = 1; id <= contas; id++) {
+                synchronized (travas[id]) {
+                    conta.setId((long) id);
+                    conta.setTitular("Conta " + id);
+                    conta.setSaldoEmCentavos(saldos[id]);
+                }
+                consumidor.accept(conta);
+            }
+        }, 2);
+
+        saida.println("pronto");
+        saida.flush();
+        for (int t = 0; t < THREADS; t++) {
+            Thread.ofPlatform().daemon(true).start(() -> {
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                while (true) {
+                    int origem = aleatorio.nextInt(1, contas + 1);
+                    int destino = aleatorio.nextInt(1, contas + 1);
+                    if (origem == destino) {
+                        continue;
+                    }
+                    long valor = aleatorio.nextLong(1, 100);
+                    long sequencia = 0;
+                    synchronized (travas[Math.min(origem, destino)]) {
+                        synchronized (travas[Math.max(origem, destino)]) {
+                            if (saldos[origem] >= valor) {
+                                saldos[origem] -= valor;
+                                saldos[destino] += valor;
+                                sequencia = diarioDeContas.transferencia(origem, saldos[origem],
+                                        destino, saldos[destino], valor);
+                            }
+                        }
+                    }
+                    if (sequencia > 0) {
+                        diarioDeContas.confirmar(sequencia);
+                        synchronized (saida) {
+                            saida.println("ok " + sequencia);
+                            saida.flush();
+                        }
+                    }
+                }
+            });
+        }
+        while (true) {
+            gravador.gravar();
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.infnet.banco.recuperacao;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mata (SIGKILL) um processo que está gravando diário e instantâneos, em
+ * momentos aleatórios, e confere a recuperação: nenhuma transferência pela
+ * metade (o total não muda) e nenhuma transferência confirmada perdida.
+ * Cada rodada recomeça do que a anterior deixou no disco.
+ */
+class QuedaDuranteEscritaTest {
+
+    private static final int RODADAS = 5;
+    private static final int CONTAS = 200;
+    private static final long SALDO_INICIAL = 10_000;
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void quedaNoMeioDaGravacaoPreservaTotalEOperacoesConfirmadas() throws Exception {
+        long transferencias = 0;
+        for (int rodada = 1; rodada <= RODADAS; rodada++) {
+            Process processo = new ProcessBuilder(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"),
+                    ProcessoDeEscrita.class.getName(),
+                    diretorio.toString(), String.valueOf(CONTAS), String.valueOf(SALDO_INICIAL))
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            CountDownLatch pronto = new CountDownLatch(1);
+            AtomicLong maiorConfirmada = new AtomicLong();
+            AtomicLong confirmadas = new AtomicLong();
+            Thread leitor = Thread.ofPlatform().daemon(true).start(() -> {
+                try (BufferedReader saida = new BufferedReader(
+                        new InputStreamReader(processo.getInputStream(), StandardCharsets.UTF_8))) {
+                    for (String linha = saida.readLine(); linha != null; linha = saida.readLine()) {
+                        if (linha.equals("pronto")) {
+                            pronto.countDown();
+                        } else if (linha.startsWith("ok ")) {
+                            maiorConfirmada.accumulateAndGet(Long.parseLong(linha.substring(3)), Math::max);
+                            confirmadas.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    // o processo morreu no meio de uma linha
+                }
+            });
+
+            assertTrue(pronto.await(60, TimeUnit.SECONDS), "processo filho não subiu");
+            Thread.sleep(ThreadLocalRandom.current().nextLong(200, 700));
+            processo.destroyForcibly();
+            assertTrue(processo.waitFor(30, TimeUnit.SECONDS));
+            leitor.join(10_000);
+
+            EstadoRecuperado estado = EstadoRecuperado.reconstruir(diretorio);
+            long[] total = {0};
+            estado.paraCada((id, saldo, titular) -> total[0] += saldo);
+
+            assertEquals(CONTAS, estado.quantidade(), "rodada " + rodada);
+            assertEquals(CONTAS * SALDO_INICIAL, total[0], "rodada " + rodada);
+            assertTrue(estado.ultimaSequencia() >= maiorConfirmada.get(),
+                    "rodada " + rodada + ": última recuperada " + estado.ultimaSequencia()
+                            + " < última confirmada " + maiorConfirmada.get());
+            transferencias += confirmadas.get();
+        }
+        assertTrue(transferencias > 0, "nenhuma transferência foi confirmada antes das quedas");
+        assertFalse(ArquivoDeInstantaneo.listar(diretorio).isEmpty());
+    }
+}
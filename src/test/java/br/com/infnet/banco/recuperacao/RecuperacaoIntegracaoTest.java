@@ -0,0 +1,235 @@
+package br.com.infnet.banco.recuperacao;
+
+import br.com.infnet.banco.CrudTp1Application;
+import br.com.infnet.banco.diario.DiarioEmArquivo;
+import br.com.infnet.banco.diario.NovoEvento;
+import br.com.infnet.banco.diario.TipoEvento;
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.exception.ContaNaoEncontradaException;
+import br.com.infnet.banco.service.ContaService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Perfil {@code recuperacao} de ponta a ponta: cada subida usa um H2 novo
+ * (o anterior "se perdeu") e o mesmo diretório de diário.
+ * Quantidade de contas na medição: {@code -Dbanco.recuperacao.contas}
+ * (padrão 1.000.000).
+ */
+class RecuperacaoIntegracaoTest {
+
+    private static final int CONTAS = Integer.getInteger("banco.recuperacao.contas", 1_000_000);
+    private static final int EVENTOS_NA_CAUDA = CONTAS / 10;
+    // alvo da restauração de 1M contas (instantâneo + 10% de eventos) no H2 em memória
+    private static final long ALVO_MS = 30_000;
+
+    @TempDir
+    Path diretorio;
+
+    private int subidas;
+
+    private ConfigurableApplicationContext subir() {
+        // sem DB_CLOSE_DELAY o banco some quando o contexto fecha
+        return subir("jdbc:h2:mem:recuperacao" + (++subidas) + ";LOCK_TIMEOUT=10000");
+    }
+
+    private ConfigurableApplicationContext subir(String url) {
+        // argumentos de linha de comando vencem os arquivos de perfil
+        return new SpringApplicationBuilder(CrudTp1Application.class)
+                .profiles("h2", "recuperacao")
+                .run("skip-cli",
+                        "--spring.datasource.url=" + url,
+                        "--spring.jpa.show-sql=false",
+                        "--banco.diario.diretorio=" + diretorio,
+                        "--banco.recuperacao.intervalo-instantaneo-ms=0");
+    }
+
+    @Test
+    void contasSobrevivemAoReinicio() throws Exception {
+        long origemId;
+        long destinoId;
+        long excluidaId;
+        try (ConfigurableApplicationContext contexto = subir()) {
+            ContaService contaService = contexto.getBean(ContaService.class);
+            // o data.sql não roda neste perfil
+            assertEquals(0, contaService.buscarTodas().size());
+
+            origemId = contaService.criar("Origem", new BigDecimal("100.00")).getId();
+            destinoId = contaService.criar("Destino", new BigDecimal("50.00")).getId();
+            excluidaId = contaService.criar("Excluída", new BigDecimal("1.00")).getId();
+            contexto.getBean(InstantaneosPeriodicos.class).gravar();
+
+            // depois do instantâneo: só no diário
+            contaService.transferir(origemId, destinoId, new BigDecimal("30.00"));
+            contaService.debitar(destinoId, new BigDecimal("5.00"));
+            contaService.excluir(excluidaId);
+        }
+        // o encerramento grava outro instantâneo; apagá-lo força a reaplicação da cauda do diário
+        List<Path> instantaneos = ArquivoDeInstantaneo.listar(diretorio);
+        Files.delete(instantaneos.get(instantaneos.size() - 1));
+
+        try (ConfigurableApplicationContext contexto = subir()) {
+            ContaService contaService = contexto.getBean(ContaService.class);
+            RestauracaoDeContas.Resultado resultado = contexto.getBean(RestauracaoDeContas.class).ultimoResultado();
+
+            assertEquals(2, resultado.contas());
+            assertEquals(4, resultado.eventosReaplicados());
+            assertEquals(new BigDecimal("70.00"), contaService.buscarPorId(origemId).getSaldo());
+            assertEquals(new BigDecimal("75.00"), contaService.buscarPorId(destinoId).getSaldo());
+            assertEquals("Destino", contaService.buscarPorId(destinoId).getTitular());
+            assertThrows(ContaNaoEncontradaException.class, () -> contaService.buscarPorId(excluidaId));
+            // a sequence continua depois do maior id já usado
+            assertTrue(contaService.criar("Nova", BigDecimal.ONE).getId() > excluidaId);
+        }
+    }
+
+    @Test
+    void restauraUmMilhaoDeContasDentroDoAlvo() throws Exception {
+        Conta conta = new Conta();
+        Path temporario = ArquivoDeInstantaneo.gravarTemporario(diretorio, 1, consumidor -> {
+            for (long id = 1; id <= CONTAS; id++) {
+                conta.setId(id);
+                conta.setTitular("Titular " + id);
+                conta.setSaldoEmCentavos(10_000 + id);
+                consumidor.accept(conta);
+            }
+        });
+        ArquivoDeInstantaneo.publicar(temporario);
+        try (DiarioEmArquivo diario = new DiarioEmArquivo(diretorio, 64 << 20, false, 10)) {
+            List<NovoEvento> grupo = new ArrayList<>(1_000);
+            for (int i = 1; i <= EVENTOS_NA_CAUDA; i++) {
+                grupo.add(new NovoEvento(TipoEvento.CREDITO, i, 0, 1, 10_000 + i + 1, null));
+                if (grupo.size() == 1_000 || i == EVENTOS_NA_CAUDA) {
+                    diario.registrarGrupo(grupo);
+                    grupo.clear();
+                }
+            }
+        }
+
+        aguardarCompilador();
+        try (ConfigurableApplicationContext contexto = subir()) {
+            RestauracaoDeContas.Resultado resultado = contexto.getBean(RestauracaoDeContas.class).ultimoResultado();
+            JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+
+            System.out.printf("%nRestauração de %,d contas + %,d eventos: %,d ms (leitura %,d ms, banco %,d ms)%n%n",
+                    resultado.contas(), resultado.eventosReaplicados(), resultado.total().toMillis(),
+                    resultado.leitura().toMillis(), resultado.gravacao().toMillis());
+
+            assertEquals(CONTAS, resultado.contas());
+            assertEquals(EVENTOS_NA_CAUDA, resultado.eventosReaplicados());
+            assertEquals(CONTAS, jdbcTemplate.queryForObject("select count(*) from conta", Integer.class));
+            assertEquals(new BigDecimal("100.02"),
+                    jdbcTemplate.queryForObject("select saldo from conta where id = 1", BigDecimal.class));
+            // índice de titular recriado depois da carga
+            assertEquals(1, jdbcTemplate.queryForObject("select count(*) from information_schema.indexes"
+                    + " where index_name = 'IDX_CONTA_TITULAR_MINUSCULO'", Integer.class));
+            assertTrue(resultado.total().toMillis() < ALVO_MS,
+                    "restauração levou " + resultado.total().toMillis() + " ms (alvo " + ALVO_MS + " ms)");
+        }
+    }
+
+    @Test
+    void cargaQueFalhaDeixaContasAntigasEIndiceDeTitular() throws Exception {
+        String url = "jdbc:h2:mem:recuperacao-falha;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+        // um banco com contas e tabela criada pelo Hibernate, em que a conta 999 não pode entrar
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(CrudTp1Application.class)
+                .profiles("h2")
+                .run("skip-cli", "--spring.datasource.url=" + url, "--spring.jpa.show-sql=false")) {
+            contexto.getBean(JdbcTemplate.class).execute("alter table conta add constraint sem_999 check (id <> 999)");
+        }
+        Path temporario = ArquivoDeInstantaneo.gravarTemporario(diretorio, 1, consumidor -> {
+            Conta conta = new Conta();
+            conta.setId(999L);
+            conta.setTitular("Recusada");
+            conta.setSaldoEmCentavos(100);
+            consumidor.accept(conta);
+        });
+        ArquivoDeInstantaneo.publicar(temporario);
+
+        try (Connection conexao = DriverManager.getConnection(url, "sa", "");
+             Statement sql = conexao.createStatement()) {
+            int antes = contar(sql, "select count(*) from conta");
+
+            assertThrows(Exception.class, () -> subir(url).close());
+
+            // a exclusão das linhas voltou junto com a carga, e o índice removido antes dela foi recriado
+            assertTrue(antes > 0);
+            assertEquals(antes, contar(sql, "select count(*) from conta"));
+            assertEquals(1, contar(sql, "select count(*) from information_schema.indexes"
+                    + " where index_name = 'IDX_CONTA_TITULAR_MINUSCULO'"));
+        }
+    }
+
+    @Test
+    void recusaBancoQueNaoEstaEmMemoria() throws Exception {
+        String url = "jdbc:h2:file:" + diretorio.resolve("banco") + ";LOCK_TIMEOUT=10000";
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(CrudTp1Application.class)
+                .profiles("h2")
+                .run("skip-cli", "--spring.datasource.url=" + url, "--spring.jpa.show-sql=false")) {
+            contexto.getBean(ContaService.class).criar("Guardada", BigDecimal.ONE);
+        }
+        int antes;
+        try (Connection conexao = DriverManager.getConnection(url, "sa", "");
+             Statement sql = conexao.createStatement()) {
+            antes = contar(sql, "select count(*) from conta");
+        }
+
+        Exception erro = assertThrows(Exception.class, () -> subir(url).close());
+
+        Throwable causa = erro;
+        while (causa.getCause() != null) {
+            causa = causa.getCause();
+        }
+        assertInstanceOf(IllegalStateException.class, causa);
+        try (Connection conexao = DriverManager.getConnection(url, "sa", "");
+             Statement sql = conexao.createStatement()) {
+            assertEquals(antes, contar(sql, "select count(*) from conta"));
+        }
+    }
+
+    /**
+     * Espera (até 60 s) o JIT desta JVM parar de compilar. Depois dos outros
+     * testes do {@code mvn test}, a fila do compilador ainda levava uns 15 s
+     * para esvaziar e, com 1 CPU, dividia o processador com a restauração
+     * medida.
+     */
+    private static void aguardarCompilador() throws InterruptedException {
+        CompilationMXBean compilador = ManagementFactory.getCompilationMXBean();
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        long anterior = compilador.getTotalCompilationTime();
+        while (System.nanoTime() < limite) {
+            Thread.sleep(1_000);
+            long atual = compilador.getTotalCompilationTime();
+            // menos de 50 ms de compilação no último segundo
+            if (atual - anterior < 50) {
+                return;
+            }
+            anterior = atual;
+        }
+    }
+
+    private static int contar(Statement sql, String consulta) throws Exception {
+        try (ResultSet linhas = sql.executeQuery(consulta)) {
+            linhas.next();
+            return linhas.getInt(1);
+        }
+    }
+}
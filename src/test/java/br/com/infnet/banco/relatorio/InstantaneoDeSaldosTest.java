@@ -0,0 +1,88 @@
+package br.com.infnet.banco.relatorio;
+
+import br.com.infnet.banco.dto.ResumoDeSaldos;
+import br.com.infnet.banco.dto.SaldoDeConta;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstantaneoDeSaldosTest {
+
+    @Test
+    void paraleloESequencialBatemComOCalculoDireto() {
+        Random aleatorio = new Random(21);
+        int quantidade = 3 * InstantaneoDeSaldos.LIMIAR_PARALELO + 17;
+        InstantaneoDeSaldos instantaneo = new InstantaneoDeSaldos(10);
+        List<SaldoDeConta> contas = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            // poucos valores distintos: muitos empates no ranking
+            long saldo = aleatorio.nextInt(5_000) * (long) aleatorio.nextInt(1, 40);
+            SaldoDeConta conta = new SaldoDeConta(quantidade - i, "T" + i, saldo);
+            contas.add(conta);
+            instantaneo.adicionar(conta.id(), conta.titular(), conta.saldoEmCentavos());
+        }
+
+        long[] limites = {1_00, 10_00, 100_00, 1_000_00};
+        long[] contagens = new long[limites.length + 1];
+        long total = 0;
+        for (SaldoDeConta conta : contas) {
+            total += conta.saldoEmCentavos();
+            contagens[FaixasDeSaldo.faixaDe(limites, conta.saldoEmCentavos())]++;
+        }
+        List<SaldoDeConta> ordenadas = contas.stream()
+                .sorted(Comparator.comparingLong(SaldoDeConta::saldoEmCentavos).reversed()
+                        .thenComparingLong(SaldoDeConta::id))
+                .toList();
+        RelatorioDeSaldos esperado = new RelatorioDeSaldos(
+                new ResumoDeSaldos(quantidade, total,
+                        ordenadas.get(quantidade - 1).saldoEmCentavos(), ordenadas.get(0).saldoEmCentavos()),
+                new FaixasDeSaldo(limites, contagens),
+                ordenadas.subList(0, 25));
+
+        assertEquals(esperado, instantaneo.relatorio(25, limites, false));
+        assertEquals(esperado, instantaneo.relatorio(25, limites, true));
+        assertEquals(quantidade, instantaneo.relatorio(0, limites, true).faixas().quantidade());
+    }
+
+    @Test
+    void faixasContamOLimiteNaFaixaDeCimaEDaoOsPercentis() {
+        InstantaneoDeSaldos instantaneo = new InstantaneoDeSaldos(4);
+        long[] saldos = {0, 50, 99, 100, 100, 500, 999, 1_000, 5_000, 20_000};
+        for (int i = 0; i < saldos.length; i++) {
+            instantaneo.adicionar(i + 1, "T" + i, saldos[i]);
+        }
+
+        RelatorioDeSaldos relatorio = instantaneo.relatorio(3, new long[]{100, 1_000, 10_000}, true);
+
+        FaixasDeSaldo faixas = relatorio.faixas();
+        assertArrayEquals(new long[]{3, 4, 2, 1}, faixas.contagens());
+        assertEquals(0, faixas.faixaDoPercentil(0));
+        assertEquals(0, faixas.faixaDoPercentil(30));
+        assertEquals(1, faixas.faixaDoPercentil(50));
+        assertEquals(2, faixas.faixaDoPercentil(90));
+        assertEquals(3, faixas.faixaDoPercentil(99));
+        assertEquals(List.of(10L, 9L, 8L), relatorio.maiores().stream().map(SaldoDeConta::id).toList());
+        assertEquals(new ResumoDeSaldos(10, 27_848, 0, 20_000), relatorio.resumo());
+    }
+
+    @Test
+    void vazioEParametrosInvalidos() {
+        InstantaneoDeSaldos vazio = new InstantaneoDeSaldos(0);
+
+        RelatorioDeSaldos relatorio = vazio.relatorio(5, FaixasDeSaldo.LIMITES_PADRAO, true);
+
+        assertEquals(new ResumoDeSaldos(0, 0, 0, 0), relatorio.resumo());
+        assertEquals(0, relatorio.faixas().quantidade());
+        assertEquals(-1, relatorio.faixas().faixaDoPercentil(50));
+        assertTrue(relatorio.maiores().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> vazio.relatorio(-1, FaixasDeSaldo.LIMITES_PADRAO, false));
+        assertThrows(IllegalArgumentException.class, () -> vazio.relatorio(1, new long[]{100, 100}, false));
+        assertThrows(IllegalArgumentException.class, () -> vazio.relatorio(1, new long[]{0}, false));
+        assertThrows(IllegalArgumentException.class, () -> relatorio.faixas().faixaDoPercentil(101));
+    }
+}
@@ -0,0 +1,70 @@
+package br.com.infnet.banco.relatorio;
+
+import br.com.infnet.banco.dto.NovaConta;
+import br.com.infnet.banco.dto.SaldoDeConta;
+import br.com.infnet.banco.service.ContaService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Relatório calculado pelo banco (H2) contra o mesmo relatório calculado sobre
+ * um {@link InstantaneoDeSaldos} das mesmas linhas.
+ */
+@SpringBootTest(args = "skip-cli", properties = {
+        "spring.datasource.url=jdbc:h2:mem:relatorio;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("h2")
+class RelatorioDeSaldosIntegracaoTest {
+
+    @Autowired
+    private ContaService contaService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void bancoCalculaOMesmoRelatorioQueOInstantaneoSemCarregarEntidades() {
+        List<NovaConta> novas = new ArrayList<>();
+        for (int i = 1; i <= 600; i++) {
+            // de centavos a centenas de milhares de reais, com saldos repetidos
+            novas.add(new NovaConta("Relatorio " + i, BigDecimal.valueOf((i % 150 + 1) * (long) Math.pow(3, i % 13), 2)));
+        }
+        contaService.criarEmLote(novas);
+        long[] limites = {50_00, 1_000_00, 25_000_00};
+        InstantaneoDeSaldos instantaneo = new InstantaneoDeSaldos(novas.size());
+        contaService.percorrerTodas(conta ->
+                instantaneo.adicionar(conta.getId(), conta.getTitular(), conta.getSaldoEmCentavos()));
+
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estatisticas.clear();
+        RelatorioDeSaldos doBanco = contaService.relatorioDeSaldos(20, limites);
+        RelatorioDeSaldos padrao = contaService.relatorioDeSaldos(0);
+
+        assertEquals(0, estatisticas.getEntityLoadCount(), "nenhuma Conta carregada");
+        assertEquals(instantaneo.relatorio(20, limites, false), doBanco);
+        assertEquals(instantaneo.relatorio(0, FaixasDeSaldo.LIMITES_PADRAO, true), padrao);
+        assertEquals(20, doBanco.maiores().size());
+        SaldoDeConta maior = doBanco.maiores().get(0);
+        assertEquals(doBanco.resumo().maiorEmCentavos(), maior.saldoEmCentavos());
+        assertEquals(maior.saldo(), contaService.buscarPorId(maior.id()).getSaldo());
+    }
+
+    @Test
+    void parametrosInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> contaService.relatorioDeSaldos(-1));
+        assertThrows(IllegalArgumentException.class, () -> contaService.relatorioDeSaldos(5, new long[]{10, 5}));
+    }
+}
@@ -0,0 +1,106 @@
+package br.com.infnet.banco.saida;
+
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.saida.RenderizadorDeContas.Formato;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RenderizadorDeContasTest {
+
+    private static String renderizar(Formato formato, List<Conta> contas) {
+        StringWriter destino = new StringWriter();
+        RenderizadorDeContas renderizador = new RenderizadorDeContas(formato, destino);
+        contas.forEach(renderizador);
+        assertEquals(contas.size(), renderizador.terminar());
+        return destino.toString();
+    }
+
+    private static Conta conta(long id, String titular, long centavos) {
+        Conta conta = new Conta();
+        conta.setId(id);
+        conta.setTitular(titular);
+        conta.setSaldoEmCentavos(centavos);
+        return conta;
+    }
+
+    @Test
+    void tabelaIgualAoPrintfAntigo() {
+        List<Conta> contas = List.of(
+                conta(1, "Ana", 1_000),
+                conta(12_345, "Titular com nome bem maior que a coluna", 5),
+                conta(7, "Bia", -150),
+                conta(8, null, 123_456_789_012L),
+                conta(9, "Ção", 0));
+
+        // o que imprimirContasFormatadas fazia com printf, linha a linha
+        StringBuilder esperado = new StringBuilder()
+                .append("╭──────┬──────────────────────┬─────────────────╮\n")
+                .append("│ ID   │ Titular              │ Saldo           │\n")
+                .append("├──────┼──────────────────────┼─────────────────┤\n");
+        for (Conta conta : contas) {
+            esperado.append(String.format("│ %-4d │ %-20s │ R$ %-12s │%n",
+                    conta.getId(), conta.getTitular(), String.format("%.2f", conta.getSaldo())));
+        }
+        esperado.append("╰──────┴──────────────────────┴─────────────────╯\n");
+
+        assertEquals(esperado.toString(), renderizar(Formato.TABELA, contas));
+        assertEquals("Nenhuma conta cadastrada.\n", renderizar(Formato.TABELA, List.of()));
+    }
+
+    @Test
+    void csvComAspasSoQuandoPreciso() {
+        String csv = renderizar(Formato.CSV, List.of(
+                conta(1, "Ana", 1_000),
+                conta(2, "Silva, Bia \"B\"", -5),
+                conta(3, "linha\nquebrada", 99)));
+
+        assertEquals("""
+                id,titular,saldo
+                1,Ana,10.00
+                2,"Silva, Bia ""B\"\"",-0.05
+                3,"linha
+                quebrada",0.99
+                """, csv);
+        assertEquals("id,titular,saldo\n", renderizar(Formato.CSV, List.of()));
+    }
+
+    @Test
+    void jsonlComTextoEscapado() {
+        String jsonl = renderizar(Formato.JSONL, List.of(
+                conta(1, "Ana", 1_000),
+                conta(2, "a\"b\\c\td\u0001", 1)));
+
+        assertEquals("""
+                {"id":1,"titular":"Ana","saldo":10.00}
+                {"id":2,"titular":"a\\"b\\\\c\\td\\u0001","saldo":0.01}
+                """, jsonl);
+        assertEquals("", renderizar(Formato.JSONL, List.of()));
+    }
+
+    @Test
+    void formatoPeloNome() {
+        assertEquals(Formato.CSV, Formato.de("csv"));
+        assertEquals(Formato.JSONL, Formato.de("JSONL"));
+        assertThrows(IllegalArgumentException.class, () -> Formato.de("xml"));
+    }
+
+    @Test
+    void toStringDaContaIgualAoFormatAntigo() {
+        Conta conta = new Conta(42L, "Ana", new BigDecimal("1234.5"));
+
+        String esperado = String.format("""
+                ╭─────┬──────────────────────┬───────────────╮
+                │ ID  │ Titular              │ Saldo         │
+                ├─────┼──────────────────────┼───────────────┤
+                │ %-3d │ %-20s │ R$ %-10s │
+                ╰─────┴──────────────────────┴───────────────╯
+                """, 42L, "Ana", String.format("%.2f", conta.getSaldo()));
+
+        assertEquals(esperado, conta.toString());
+    }
+}
@@ -0,0 +1,368 @@
+package br.com.infnet.banco.service;
+
+import br.com.infnet.banco.cache.ContaCache;
+import br.com.infnet.banco.dto.NovaConta;
+import br.com.infnet.banco.dto.SaldoDeConta;
+import br.com.infnet.banco.entity.Conta;
+import br.com.infnet.banco.exception.ContaNaoEncontradaException;
+import br.com.infnet.banco.exception.OperacaoInvalidaException;
+import br.com.infnet.banco.exception.SaldoInsuficienteException;
+import br.com.infnet.banco.repository.ContaRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do ContaService contra o H2 real (perfil h2), em um banco em memória
+ * próprio e com as estatísticas do Hibernate ligadas para contar statements.
+ */
+@SpringBootTest(args = "skip-cli", properties = {
+        "spring.datasource.url=jdbc:h2:mem:integracao;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "banco.retentativa.maximo-tentativas=50"
+})
+@ActiveProfiles("h2")
+class ContaServiceIntegracaoTest {
+
+    @Autowired
+    private ContaService contaService;
+
+    @Autowired
+    private ContaRepository contaRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estatisticas() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void deveCriarContasEmLoteComIdsDistintos() {
+        long antes = contaRepository.count();
+        List<NovaConta> novas = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            novas.add(new NovaConta("Lote " + i, new BigDecimal("10.00")));
+        }
+
+        int criadas = contaService.criarEmLote(novas);
+
+        assertEquals(120, criadas);
+        assertEquals(antes + 120, contaRepository.count());
+    }
+
+    @Test
+    void loteComContaInvalidaNaoPersisteNenhuma() {
+        long antes = contaRepository.count();
+        List<NovaConta> novas = List.of(
+                new NovaConta("Válida", new BigDecimal("10.00")),
+                new NovaConta("Inválida", BigDecimal.ZERO)
+        );
+
+        assertThrows(IllegalArgumentException.class, () -> contaService.criarEmLote(novas));
+        assertEquals(antes, contaRepository.count());
+    }
+
+    @Test
+    void paginacaoPorKeysetPercorreTodasAsContasSemRepetir() {
+        contaService.criarEmLote(List.of(
+                new NovaConta("P1", new BigDecimal("1.00")),
+                new NovaConta("P2", new BigDecimal("2.00")),
+                new NovaConta("P3", new BigDecimal("3.00"))
+        ));
+        List<Long> idsPaginados = new ArrayList<>();
+        long ultimoId = 0;
+        List<Conta> pagina;
+        while (!(pagina = contaService.buscarPagina(ultimoId, 2)).isEmpty()) {
+            pagina.forEach(conta -> idsPaginados.add(conta.getId()));
+            ultimoId = pagina.get(pagina.size() - 1).getId();
+        }
+
+        List<Long> idsStream = new ArrayList<>();
+        contaService.percorrerTodas(conta -> idsStream.add(conta.getId()));
+
+        assertEquals(contaRepository.count(), idsPaginados.size());
+        assertEquals(idsPaginados, idsStream);
+        assertEquals(idsStream.stream().sorted().toList(), idsStream);
+    }
+
+    @Test
+    void alterarSaldoExecutaUmUpdateEUmSelectComOuSemCache(@Autowired ContaCache contaCache) {
+        Conta conta = contaService.criar("Statement", new BigDecimal("10.00"));
+        estatisticas().clear();
+
+        Conta atualizada = contaService.alterarSaldo(conta.getId(), new BigDecimal("25.50"));
+
+        assertEquals(2, estatisticas().getPrepareStatementCount());
+        assertEquals(new BigDecimal("25.50"), atualizada.getSaldo());
+        assertEquals(1L, atualizada.getVersao());
+
+        // conta fora do cache de contas e do segundo nível: o custo é o mesmo
+        contaCache.limpar();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        estatisticas().clear();
+
+        atualizada = contaService.alterarSaldo(conta.getId(), new BigDecimal("30.00"));
+
+        assertEquals(2, estatisticas().getPrepareStatementCount());
+        assertEquals(2L, atualizada.getVersao());
+        Conta noBanco = contaRepository.findById(conta.getId()).orElseThrow();
+        assertEquals(new BigDecimal("30.00"), noBanco.getSaldo());
+        assertEquals(noBanco.getVersao(), contaService.buscarPorId(conta.getId()).getVersao());
+    }
+
+    @Test
+    void excluirExecutaUmUnicoStatement() {
+        Conta conta = contaService.criar("Statement", new BigDecimal("10.00"));
+        estatisticas().clear();
+
+        contaService.excluir(conta.getId());
+
+        assertEquals(1, estatisticas().getPrepareStatementCount());
+        assertFalse(contaRepository.existsById(conta.getId()));
+    }
+
+    @Test
+    void excluirContaInexistenteLancaExcecao() {
+        assertThrows(ContaNaoEncontradaException.class, () -> contaService.excluir(-1L));
+        assertThrows(ContaNaoEncontradaException.class,
+                () -> contaService.alterarSaldo(-1L, BigDecimal.TEN));
+    }
+
+    @Test
+    void creditosConcorrentesNaoPerdemAtualizacoes() throws Exception {
+        Conta conta = contaService.criar("Concorrente", new BigDecimal("100.00"));
+        int threads = 8;
+        int operacoesPorThread = 25;
+        AtomicInteger sucessos = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                for (int i = 0; i < operacoesPorThread; i++) {
+                    try {
+                        contaService.creditar(conta.getId(), BigDecimal.ONE);
+                        sucessos.incrementAndGet();
+                    } catch (OperacaoInvalidaException e) {
+                        // desistiu após esgotar as tentativas: não pode ter alterado o saldo
+                    }
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        Conta finalizada = contaRepository.findById(conta.getId()).orElseThrow();
+        assertTrue(sucessos.get() > 0);
+        assertEquals(new BigDecimal("100.00").add(BigDecimal.valueOf(sucessos.get())).setScale(2),
+                finalizada.getSaldo());
+        assertEquals(sucessos.get(), finalizada.getVersao());
+    }
+
+    @Test
+    void buscarPorIdDepoisDeCreditosConcorrentesIgualAoBanco() throws Exception {
+        Conta conta = contaService.criar("Cache concorrente", new BigDecimal("10.00"));
+        long id = conta.getId();
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 2);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger escritoresAtivos = new AtomicInteger(threads);
+
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                try {
+                    for (int i = 0; i < 10; i++) {
+                        contaService.creditar(id, new BigDecimal("0.01"));
+                    }
+                } finally {
+                    escritoresAtivos.decrementAndGet();
+                }
+                return null;
+            }));
+        }
+        // leitores enchem o cache no meio dos créditos
+        for (int t = 0; t < 2; t++) {
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                while (escritoresAtivos.get() > 0) {
+                    contaService.buscarPorId(id);
+                    Thread.sleep(1);
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        Conta noBanco = contaRepository.findById(id).orElseThrow();
+        Conta lida = contaService.buscarPorId(id);
+        assertEquals(new BigDecimal("10.40"), noBanco.getSaldo());
+        assertEquals(noBanco.getSaldo(), lida.getSaldo());
+        assertEquals(noBanco.getVersao(), lida.getVersao());
+    }
+
+    @Test
+    void transferenciasConcorrentesConservamOSaldoTotal() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(contaService.criar("Transferência " + i, new BigDecimal("500.00")).getId());
+        }
+        BigDecimal totalInicial = somarSaldos(ids);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch largada = new CountDownLatch(1);
+
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tarefas.add(executor.submit(() -> {
+                largada.await();
+                ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                for (int i = 0; i < 40; i++) {
+                    // sorteia pares nos dois sentidos para forçar travas cruzadas
+                    long origem = ids.get(aleatorio.nextInt(ids.size()));
+                    long destino = ids.get(aleatorio.nextInt(ids.size()));
+                    if (origem == destino) {
+                        continue;
+                    }
+                    try {
+                        contaService.transferir(origem, destino, BigDecimal.valueOf(aleatorio.nextInt(1, 5000), 2));
+                    } catch (SaldoInsuficienteException e) {
+                        // saldo insuficiente é resultado válido; nada muda
+                    }
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(totalInicial, somarSaldos(ids));
+        for (long id : ids) {
+            assertTrue(contaRepository.findById(id).orElseThrow().getSaldoEmCentavos() >= 0);
+        }
+    }
+
+    private BigDecimal somarSaldos(List<Long> ids) {
+        return contaRepository.findAllById(ids).stream()
+                .map(Conta::getSaldo)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Test
+    void idsGeradosNaoColidemComDadosIniciais() {
+        long id = contaService.criar("Nova", new BigDecimal("5.00")).getId();
+
+        assertTrue(id > 3, "id gerado deve vir depois dos registros do data.sql");
+    }
+
+    @Test
+    void buscaPorTitularExataEPorPrefixoSemDiferenciarMaiusculas() {
+        contaService.criarEmLote(List.of(
+                new NovaConta("Busca Ágata", new BigDecimal("1.00")),
+                new NovaConta("busca ágata", new BigDecimal("2.00")),
+                new NovaConta("Busca Ágata", new BigDecimal("3.00")),
+                new NovaConta("BUSCA BRUNO", new BigDecimal("4.00")),
+                new NovaConta("Busca_100%", new BigDecimal("5.00")),
+                new NovaConta("Busca X100", new BigDecimal("6.00"))));
+
+        List<SaldoDeConta> exatas = contaService.buscarPorTitular("Busca Ágata", 0, 10);
+        assertEquals(List.of(new BigDecimal("1.00"), new BigDecimal("3.00")),
+                exatas.stream().map(SaldoDeConta::saldo).toList());
+        assertEquals(1, contaService.buscarPorTitular("Busca Ágata", exatas.get(0).id(), 10).size());
+
+        assertEquals(List.of("Busca Ágata", "busca ágata", "Busca Ágata"),
+                contaService.buscarPorPrefixoDoTitular("BUSCA á", null, 10).stream().map(SaldoDeConta::titular).toList());
+        // % e _ do prefixo não são curingas
+        assertEquals(List.of("Busca_100%"),
+                contaService.buscarPorPrefixoDoTitular("busca_1", null, 10).stream().map(SaldoDeConta::titular).toList());
+        assertTrue(contaService.buscarPorPrefixoDoTitular("busca%", null, 10).isEmpty());
+
+        // páginas de 2 pelo cursor (titular, id) percorrem as 6 contas uma vez, na ordem da busca inteira
+        List<SaldoDeConta> todas = contaService.buscarPorPrefixoDoTitular("busca", null, 100);
+        List<SaldoDeConta> paginadas = new ArrayList<>();
+        SaldoDeConta anterior = null;
+        List<SaldoDeConta> pagina;
+        do {
+            pagina = contaService.buscarPorPrefixoDoTitular("busca", anterior, 2);
+            paginadas.addAll(pagina);
+            anterior = pagina.isEmpty() ? anterior : pagina.get(pagina.size() - 1);
+        } while (pagina.size() == 2);
+        assertEquals(6, todas.size());
+        assertEquals(todas, paginadas);
+        assertThrows(IllegalArgumentException.class, () -> contaService.buscarPorPrefixoDoTitular("b", null, 0));
+    }
+
+    @Test
+    void buscasPorTitularUsamOsIndices(@Autowired JdbcTemplate jdbc) {
+        String exata = String.join("\n", jdbc.queryForList(
+                "explain select id from conta where titular_minusculo = 'lp' and titular = 'LP' order by id", String.class));
+        String prefixo = String.join("\n", jdbc.queryForList(
+                "explain select id from conta where titular_minusculo like 'l%' order by titular_minusculo, id",
+                String.class));
+
+        assertTrue(exata.toUpperCase().contains("IDX_CONTA_TITULAR_MINUSCULO"), exata);
+        assertTrue(prefixo.toUpperCase().contains("IDX_CONTA_TITULAR_MINUSCULO"), prefixo);
+        assertEquals("lp", jdbc.queryForObject("select titular_minusculo from conta where id = 1", String.class));
+    }
+
+    @Test
+    void projecoesDeSaldoNaoCarregamEntidadesNemDisparamFlush(@Autowired TransactionTemplate transactionTemplate) {
+        Conta conta = contaService.criar("Projecao", new BigDecimal("12.34"));
+        Statistics estatisticas = estatisticas();
+        estatisticas.clear();
+
+        SaldoDeConta saldo = contaService.buscarSaldoDeConta(conta.getId());
+        List<SaldoDeConta> pagina = contaService.buscarPaginaDeSaldos(conta.getId() - 1, 1);
+        List<SaldoDeConta> todos = contaService.buscarTodosOsSaldos();
+
+        assertEquals(0, estatisticas.getEntityLoadCount(), "nenhuma Conta carregada");
+        assertEquals(0, estatisticas.getFlushCount(), "nenhum flush nas transações só de leitura");
+        assertEquals(new SaldoDeConta(conta.getId(), "Projecao", 12_34), saldo);
+        assertEquals(List.of(saldo), pagina);
+        assertEquals(contaRepository.count(), todos.size());
+        assertTrue(todos.contains(saldo));
+        assertThrows(ContaNaoEncontradaException.class, () -> contaService.buscarSaldoDeConta(-1L));
+
+        // alteração pendente no contexto de persistência: a projeção não força o flush antes da consulta
+        transactionTemplate.executeWithoutResult(status -> {
+            contaRepository.findById(conta.getId()).orElseThrow().setSaldoEmCentavos(99_99);
+            assertEquals(12_34, contaService.buscarSaldoDeConta(conta.getId()).saldoEmCentavos());
+            status.setRollbackOnly();
+        });
+    }
+}
@@ -1,13 +1,28 @@
 package br.com.infnet.banco.service;
 
+import br.com.infnet.banco.cache.ContaCache;
+import br.com.infnet.banco.cache.IndiceDeSaldos;
+import br.com.infnet.banco.diario.DiarioDeContas;
+import br.com.infnet.banco.diario.DiarioDesligado;
+import br.com.infnet.banco.dto.NovaConta;
+import br.com.infnet.banco.dto.ResumoDeSaldos;
 import br.com.infnet.banco.entity.Conta;
 import br.com.infnet.banco.exception.ContaNaoEncontradaException;
+import br.com.infnet.banco.exception.OperacaoInvalidaException;
+import br.com.infnet.banco.exception.SaldoInsuficienteException;
 import br.com.infnet.banco.repository.ContaRepository;
 import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -15,7 +30,16 @@ import static org.mockito.Mockito.*;
 class ContaServiceTest {
 
     private final ContaRepository contaRepository = mock(ContaRepository.class);
-    private final ContaService contaService = new ContaService(contaRepository);
+    private final ContaCache contaCache = new ContaCache(100, Duration.ofMinutes(5));
+    private final IndiceDeSaldos indiceDeSaldos = new IndiceDeSaldos();
+    private final ContaService contaService = new ContaService(
+            contaRepository,
+            contaCache,
+            indiceDeSaldos,
+            new DiarioDeContas(new DiarioDesligado()),
+            new TransactionTemplate(mock(PlatformTransactionManager.class)),
+            new PoliticaDeRetentativa(3, 0, 0)
+    );
 
     @Test
     void deveListarContas() {
@@ -29,6 +53,21 @@ class ContaServiceTest {
         assertEquals("A", contas.get(0).getTitular());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void deveImprimirContasSemCarregarListaCompleta() {
+        doAnswer(invocation -> {
+            Consumer<Conta> consumidor = invocation.getArgument(0);
+            consumidor.accept(new Conta(1L, "A", BigDecimal.TEN));
+            consumidor.accept(new Conta(2L, "B", BigDecimal.ONE));
+            return null;
+        }).when(contaRepository).percorrerTodas(any(Consumer.class));
+
+        contaService.imprimirContasFormatadas();
+
+        verify(contaRepository, never()).findAll();
+    }
+
     @Test
     void deveBuscarContaPorId() {
         when(contaRepository.findById(1L))
@@ -37,7 +76,50 @@ class ContaServiceTest {
         Conta conta = contaService.buscarPorId(1L);
 
         assertEquals("A", conta.getTitular());
-        assertEquals(BigDecimal.TEN, conta.getSaldo());
+        // saldo tem escala fixa de 2 casas
+        assertEquals(new BigDecimal("10.00"), conta.getSaldo());
+    }
+
+    @Test
+    void segundaBuscaPorIdVemDoCache() {
+        when(contaRepository.findById(1L))
+                .thenReturn(Optional.of(new Conta(1L, "A", BigDecimal.TEN)));
+
+        contaService.buscarPorId(1L);
+        Conta conta = contaService.buscarPorId(1L);
+
+        assertEquals("A", conta.getTitular());
+        verify(contaRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void excluirRemoveContaDoCache() {
+        when(contaRepository.findById(1L))
+                .thenReturn(Optional.of(new Conta(1L, "A", BigDecimal.TEN)));
+        when(contaRepository.excluirPorId(1L)).thenReturn(1);
+        contaService.buscarPorId(1L);
+
+        contaService.excluir(1L);
+
+        assertTrue(contaCache.buscar(1L).isEmpty());
+    }
+
+    @Test
+    void exclusaoDuranteLeituraNaoDeixaContaExcluidaNoCache() {
+        when(contaRepository.excluirPorId(1L)).thenReturn(1);
+        when(contaRepository.findById(1L))
+                .thenAnswer(invocation -> {
+                    // a linha já foi lida quando a exclusão confirma e remove do cache
+                    Conta lida = new Conta(1L, "A", BigDecimal.TEN);
+                    contaService.excluir(1L);
+                    return Optional.of(lida);
+                })
+                .thenReturn(Optional.empty());
+
+        contaService.buscarPorId(1L);
+
+        assertTrue(contaCache.buscar(1L).isEmpty());
+        assertThrows(ContaNaoEncontradaException.class, () -> contaService.buscarPorId(1L));
     }
 
     @Test
@@ -67,34 +149,214 @@ class ContaServiceTest {
         verify(contaRepository, times(1)).save(any(Conta.class));
     }
 
+    @Test
+    void deveCriarContasEmLote() {
+        int criadas = contaService.criarEmLote(List.of(
+                new NovaConta("A", new BigDecimal("10.00")),
+                new NovaConta("B", new BigDecimal("20.00"))
+        ));
+
+        assertEquals(2, criadas);
+        verify(contaRepository, times(1)).salvarEmLote(anyList());
+        verify(contaRepository, never()).save(any(Conta.class));
+    }
+
     @Test
     void deveAlterarSaldo() {
-        Conta contaExistente = new Conta(1L, "A", new BigDecimal("50.00"));
-        when(contaRepository.findById(1L)).thenReturn(Optional.of(contaExistente));
-        when(contaRepository.save(any(Conta.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(contaRepository.atualizarSaldo(1L, 200_00L)).thenReturn(1);
+        when(contaRepository.findById(1L)).thenReturn(Optional.of(new Conta(1L, "A", new BigDecimal("200.00"))));
 
         Conta contaAtualizada = contaService.alterarSaldo(1L, new BigDecimal("200.00"));
 
         assertEquals(new BigDecimal("200.00"), contaAtualizada.getSaldo());
-        verify(contaRepository, times(1)).save(any(Conta.class));
+        verify(contaRepository, never()).save(any(Conta.class));
+    }
+
+    @Test
+    void alterarSaldoReleAContaENaoRemendaOCache() {
+        contaCache.guardar(new Conta(1L, "A", new BigDecimal("50.00")));
+        Conta gravada = new Conta(1L, "A", new BigDecimal("200.00"));
+        gravada.setVersao(7L);
+        when(contaRepository.atualizarSaldo(1L, 200_00L)).thenReturn(1);
+        when(contaRepository.findById(1L)).thenReturn(Optional.of(gravada));
+
+        Conta contaAtualizada = contaService.alterarSaldo(1L, new BigDecimal("200.00"));
+
+        // a versão é a do banco, não a do cache mais um
+        assertEquals(new BigDecimal("200.00"), contaAtualizada.getSaldo());
+        assertEquals(7L, contaAtualizada.getVersao());
+        assertTrue(contaCache.buscar(1L).isEmpty());
+        verify(contaRepository, times(1)).atualizarSaldo(1L, 200_00L);
+        verify(contaRepository, times(1)).findById(1L);
+        verifyNoMoreInteractions(contaRepository);
+    }
+
+    @Test
+    void deveLancarExcecaoAoAlterarSaldoDeContaInexistente() {
+        when(contaRepository.atualizarSaldo(99L, 10_00L)).thenReturn(0);
+
+        assertThrows(
+                ContaNaoEncontradaException.class,
+                () -> contaService.alterarSaldo(99L, BigDecimal.TEN)
+        );
     }
 
     @Test
     void deveExcluirContaExistente() {
-        when(contaRepository.existsById(1L)).thenReturn(true);
+        when(contaRepository.excluirPorId(1L)).thenReturn(1);
 
         contaService.excluir(1L);
 
-        verify(contaRepository, times(1)).deleteById(1L);
+        // um único DELETE, sem existsById/findById antes
+        verify(contaRepository, times(1)).excluirPorId(1L);
+        verifyNoMoreInteractions(contaRepository);
     }
 
     @Test
     void deveLancarExcecaoAoExcluirContaInexistente() {
-        when(contaRepository.existsById(99L)).thenReturn(false);
+        when(contaRepository.excluirPorId(99L)).thenReturn(0);
 
         assertThrows(
                 ContaNaoEncontradaException.class,
                 () -> contaService.excluir(99L)
         );
     }
+
+    @Test
+    void deveCreditarEDebitar() {
+        when(contaRepository.findById(1L)).thenAnswer(invocation -> Optional.of(new Conta(1L, "A", new BigDecimal("50.00"))));
+        when(contaRepository.saveAndFlush(any(Conta.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(new BigDecimal("60.00"), contaService.creditar(1L, BigDecimal.TEN).getSaldo());
+        assertEquals(new BigDecimal("40.00"), contaService.debitar(1L, BigDecimal.TEN).getSaldo());
+    }
+
+    @Test
+    void creditosConfirmadosForaDeOrdemNaoDeixamSaldoAntigoNoCache() {
+        Conta[] banco = {new Conta(1L, "A", new BigDecimal("50.00"))};
+        banco[0].setVersao(0L);
+        AtomicBoolean primeiro = new AtomicBoolean(true);
+        when(contaRepository.findById(1L)).thenAnswer(invocation -> Optional.of(banco[0].copiar()));
+        when(contaRepository.saveAndFlush(any(Conta.class))).thenAnswer(invocation -> {
+            Conta gravada = invocation.getArgument(0);
+            gravada.setVersao(gravada.getVersao() + 1);
+            banco[0] = gravada.copiar();
+            if (primeiro.getAndSet(false)) {
+                // o segundo crédito confirma e termina antes de o primeiro terminar
+                contaService.creditar(1L, BigDecimal.TEN);
+            }
+            return gravada;
+        });
+
+        contaService.creditar(1L, BigDecimal.TEN);
+
+        Conta lida = contaService.buscarPorId(1L);
+        assertEquals(new BigDecimal("70.00"), lida.getSaldo());
+        assertEquals(2L, lida.getVersao());
+    }
+
+    @Test
+    void debitoMaiorQueSaldoNaoGrava() {
+        when(contaRepository.findById(1L)).thenReturn(Optional.of(new Conta(1L, "A", new BigDecimal("5.00"))));
+
+        assertThrows(SaldoInsuficienteException.class, () -> contaService.debitar(1L, BigDecimal.TEN));
+        verify(contaRepository, never()).saveAndFlush(any(Conta.class));
+    }
+
+    @Test
+    void deveRepetirDebitoAposConflitoDeVersao() {
+        when(contaRepository.findById(1L)).thenAnswer(invocation -> Optional.of(new Conta(1L, "A", new BigDecimal("50.00"))));
+        when(contaRepository.saveAndFlush(any(Conta.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Conta.class, 1L))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Conta conta = contaService.debitar(1L, BigDecimal.TEN);
+
+        assertEquals(new BigDecimal("40.00"), conta.getSaldo());
+        verify(contaRepository, times(2)).saveAndFlush(any(Conta.class));
+    }
+
+    @Test
+    void deveDesistirAposEsgotarTentativas() {
+        when(contaRepository.findById(1L)).thenAnswer(invocation -> Optional.of(new Conta(1L, "A", new BigDecimal("50.00"))));
+        when(contaRepository.saveAndFlush(any(Conta.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Conta.class, 1L));
+
+        assertThrows(OperacaoInvalidaException.class, () -> contaService.creditar(1L, BigDecimal.TEN));
+        verify(contaRepository, times(3)).saveAndFlush(any(Conta.class));
+    }
+
+    @Test
+    void transferenciaTravaContasEmOrdemCrescenteDeId() {
+        Conta origem = new Conta(7L, "Origem", new BigDecimal("100.00"));
+        Conta destino = new Conta(3L, "Destino", new BigDecimal("10.00"));
+        when(contaRepository.buscarParaAtualizacao(7L)).thenReturn(Optional.of(origem));
+        when(contaRepository.buscarParaAtualizacao(3L)).thenReturn(Optional.of(destino));
+
+        contaService.transferir(7L, 3L, new BigDecimal("30.00"));
+
+        var ordem = inOrder(contaRepository);
+        ordem.verify(contaRepository).buscarParaAtualizacao(3L);
+        ordem.verify(contaRepository).buscarParaAtualizacao(7L);
+        assertEquals(new BigDecimal("70.00"), origem.getSaldo());
+        assertEquals(new BigDecimal("40.00"), destino.getSaldo());
+    }
+
+    @Test
+    void transferenciaSemSaldoNaoAlteraDestino() {
+        Conta origem = new Conta(1L, "Origem", new BigDecimal("5.00"));
+        Conta destino = new Conta(2L, "Destino", new BigDecimal("10.00"));
+        when(contaRepository.buscarParaAtualizacao(1L)).thenReturn(Optional.of(origem));
+        when(contaRepository.buscarParaAtualizacao(2L)).thenReturn(Optional.of(destino));
+
+        assertThrows(SaldoInsuficienteException.class,
+                () -> contaService.transferir(1L, 2L, BigDecimal.TEN));
+        assertEquals(new BigDecimal("10.00"), destino.getSaldo());
+    }
+
+    @Test
+    void transferenciaParaAMesmaContaEhInvalida() {
+        assertThrows(OperacaoInvalidaException.class,
+                () -> contaService.transferir(1L, 1L, BigDecimal.TEN));
+    }
+
+    private void tabelaCom(Conta... contas) {
+        doAnswer(invocacao -> {
+            Consumer<Conta> consumidor = invocacao.getArgument(0);
+            for (Conta conta : contas) {
+                consumidor.accept(conta);
+            }
+            return null;
+        }).when(contaRepository).percorrerTodas(any());
+    }
+
+    @Test
+    void consultarSaldoUsaOIndiceSemCarregarEntidades() {
+        tabelaCom(new Conta(1L, "A", new BigDecimal("10.00")), new Conta(2L, "B", new BigDecimal("5.50")));
+
+        assertEquals(new BigDecimal("10.00"), contaService.consultarSaldo(1L));
+        assertEquals(new BigDecimal("5.50"), contaService.consultarSaldo(2L));
+        assertThrows(ContaNaoEncontradaException.class, () -> contaService.consultarSaldo(3L));
+
+        verify(contaRepository, times(1)).percorrerTodas(any());
+        verify(contaRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void resumoRefleteEscritasDepoisDaCarga() {
+        tabelaCom(new Conta(1L, "A", new BigDecimal("10.00")), new Conta(2L, "B", new BigDecimal("30.00")));
+        contaService.resumirSaldos();
+
+        Conta lida = new Conta(1L, "A", new BigDecimal("10.00"));
+        when(contaRepository.findById(1L)).thenReturn(Optional.of(lida));
+        when(contaRepository.saveAndFlush(lida)).thenReturn(lida);
+        contaService.creditar(1L, new BigDecimal("5.00"));
+        when(contaRepository.excluirPorId(2L)).thenReturn(1);
+        contaService.excluir(2L);
+
+        ResumoDeSaldos resumo = contaService.resumirSaldos();
+        assertEquals(1, resumo.quantidade());
+        assertEquals(new BigDecimal("15.00"), resumo.total());
+        assertEquals(new BigDecimal("15.00"), contaService.consultarSaldo(1L));
+    }
 }
@@ -0,0 +1,77 @@
+package br.com.infnet.banco.service;
+
+import br.com.infnet.banco.cache.IndiceDeSaldos;
+import br.com.infnet.banco.dto.ResumoDeSaldos;
+import br.com.infnet.banco.entity.Conta;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Relatório de memória (JOL): {@code List<Conta>} de {@code buscarTodas()}
+ * contra o {@link IndiceDeSaldos} com as mesmas contas. Roda com
+ * {@code mvn -Ppegada verify} (failsafe), fora do {@code mvn test}.
+ * Quantidade de contas: {@code -Dbanco.pegada.contas} (padrão 1.000.000).
+ */
+@SpringBootTest(args = "skip-cli", properties = {
+        // sem DB_CLOSE_DELAY: o milhão de linhas sai do heap quando o contexto fecha, antes dos testes seguintes
+        "spring.datasource.url=jdbc:h2:mem:pegada;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("h2")
+@DirtiesContext
+class PegadaDeMemoriaIT {
+
+    private static final int CONTAS = Integer.getInteger("banco.pegada.contas", 1_000_000);
+
+    // dois longs por posição, com a tabela entre 3/8 e 3/4 cheia: até ~43 bytes por conta
+    private static final double MAXIMO_BYTES_POR_CONTA_NO_INDICE = 44;
+
+    @Autowired
+    private ContaService contaService;
+
+    @Autowired
+    private IndiceDeSaldos indiceDeSaldos;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void indiceOcupaFracaoDaListaDeEntidades() {
+        // carga direto no H2 (o que se mede aqui é a leitura, não a criação)
+        jdbcTemplate.update("DELETE FROM conta");
+        jdbcTemplate.update("""
+                INSERT INTO conta (id, titular, saldo, versao)
+                SELECT X, 'Titular ' || X, (10000 + X) / 100.0, 0 FROM SYSTEM_RANGE(1, ?)
+                """, CONTAS);
+
+        List<Conta> contas = contaService.buscarTodas();
+        long bytesLista = GraphStats.parseInstance(contas).totalSize();
+        int quantidade = contas.size();
+        contas = null;
+
+        ResumoDeSaldos resumo = contaService.resumirSaldos();
+        long bytesIndice = GraphStats.parseInstance(indiceDeSaldos).totalSize();
+
+        double porContaNaLista = (double) bytesLista / quantidade;
+        double porContaNoIndice = (double) bytesIndice / resumo.quantidade();
+        System.out.printf("%nPegada de memória com %,d contas:%n", quantidade);
+        System.out.printf("  List<Conta> (buscarTodas) : %,14d bytes (%,6.1f bytes/conta)%n", bytesLista, porContaNaLista);
+        System.out.printf("  IndiceDeSaldos            : %,14d bytes (%,6.1f bytes/conta)%n%n", bytesIndice, porContaNoIndice);
+
+        assertEquals(CONTAS, quantidade);
+        assertEquals(quantidade, resumo.quantidade());
+        assertTrue(porContaNoIndice <= MAXIMO_BYTES_POR_CONTA_NO_INDICE,
+                "índice com " + porContaNoIndice + " bytes por conta");
+        assertTrue(bytesIndice * 3 < bytesLista,
+                "índice deveria ocupar menos de um terço da lista: " + bytesIndice + " vs " + bytesLista);
+    }
+}
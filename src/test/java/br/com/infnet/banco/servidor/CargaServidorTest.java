@@ -0,0 +1,222 @@
+package br.com.infnet.banco.servidor;
+
+import br.com.infnet.banco.dto.NovaConta;
+import br.com.infnet.banco.service.ContaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Carga no servidor HTTP: milhares de clientes simultâneos (uma thread
+ * virtual cada), todos liberados juntos, consultando e creditando contas
+ * no H2 (nove consultas para cada crédito). Imprime vazão e latência (p50/p99/p99,9, medida do lado do
+ * cliente, incluindo a fila).
+ *
+ * <p>Ajustes: {@code -Dbanco.carga.clientes} (padrão 10.000),
+ * {@code -Dbanco.carga.requisicoes} por cliente (padrão 1) e
+ * {@code -Dbanco.carga.conexoes}, o limite de conexões abertas ao mesmo
+ * tempo (padrão 2.000; cada conexão gasta um descritor de arquivo em cada
+ * ponta).
+ */
+@SpringBootTest(args = "skip-cli", properties = {
+        "spring.datasource.url=jdbc:h2:mem:carga;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "banco.servidor.porta=0"
+})
+@ActiveProfiles("h2")
+class CargaServidorTest {
+
+    private static final int CLIENTES = Integer.getInteger("banco.carga.clientes", 10_000);
+    private static final int REQUISICOES = Integer.getInteger("banco.carga.requisicoes", 1);
+    private static final int CONEXOES = Integer.getInteger("banco.carga.conexoes", 2_000);
+    private static final int CONTAS = 1_000;
+
+    @Autowired
+    private ServidorDeContas servidor;
+
+    @Autowired
+    private ContaService contaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void milharesDeClientesSimultaneos() throws Exception {
+        List<NovaConta> novas = new ArrayList<>(CONTAS);
+        for (int i = 0; i < CONTAS; i++) {
+            novas.add(new NovaConta("Carga " + i, new BigDecimal("100.00")));
+        }
+        contaService.criarEmLote(novas);
+        long menorId = jdbcTemplate.queryForObject("select min(id) from conta where titular like 'Carga %'", Long.class);
+        BigDecimal totalAntes = jdbcTemplate.queryForObject("select sum(saldo) from conta", BigDecimal.class);
+
+        int total = CLIENTES * REQUISICOES;
+        long[] latencias = new long[total];
+        AtomicInteger proxima = new AtomicInteger();
+        AtomicInteger falhas = new AtomicInteger();
+        AtomicLong creditos = new AtomicLong();
+        CountDownLatch largada = new CountDownLatch(1);
+
+        long inicio;
+        try (ConexoesHttp http = new ConexoesHttp(servidor.iniciar(), CONEXOES);
+             ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTES; c++) {
+                int cliente = c;
+                clientes.submit(() -> {
+                    largada.await();
+                    ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                    for (int r = 0; r < REQUISICOES; r++) {
+                        long id = menorId + aleatorio.nextInt(CONTAS);
+                        // uma em cada dez requisições credita; as outras consultam
+                        boolean credito = (cliente + r) % 10 == 9;
+                        long antes = System.nanoTime();
+                        int status = credito
+                                ? http.enviar("POST", "/contas/" + id + "/credito?valor=0.01")
+                                : http.enviar("GET", "/contas/" + id);
+                        latencias[proxima.getAndIncrement()] = System.nanoTime() - antes;
+                        if (status != 200) {
+                            falhas.incrementAndGet();
+                        } else if (credito) {
+                            creditos.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            inicio = System.nanoTime();
+            largada.countDown();
+        }
+        long duracao = System.nanoTime() - inicio;
+
+        Arrays.sort(latencias);
+        System.out.printf("%nCarga HTTP: %,d clientes x %d requisições em %,d ms = %,.0f req/s;"
+                        + " latência p50 %.1f ms, p99 %.1f ms, p99,9 %.1f ms, máx %.1f ms (%d falhas)%n%n",
+                CLIENTES, REQUISICOES, duracao / 1_000_000, total * 1e9 / duracao,
+                percentil(latencias, 0.50), percentil(latencias, 0.99), percentil(latencias, 0.999),
+                latencias[total - 1] / 1e6, falhas.get());
+
+        assertEquals(total, proxima.get());
+        assertEquals(0, falhas.get());
+        BigDecimal totalDepois = jdbcTemplate.queryForObject("select sum(saldo) from conta", BigDecimal.class);
+        assertEquals(totalAntes.add(new BigDecimal("0.01").multiply(BigDecimal.valueOf(creditos.get()))), totalDepois);
+    }
+
+    /**
+     * Cliente HTTP/1.1 mínimo sobre um conjunto fixo de conexões persistentes.
+     * O HttpClient do JDK gasta mais CPU por requisição que o próprio
+     * servidor; numa máquina com poucas CPUs ele é que limitaria a medição.
+     */
+    private static final class ConexoesHttp implements AutoCloseable {
+
+        private final int porta;
+        private final BlockingQueue<Conexao> livres;
+
+        ConexoesHttp(int porta, int quantidade) {
+            this.porta = porta;
+            this.livres = new ArrayBlockingQueue<>(quantidade);
+            for (int i = 0; i < quantidade; i++) {
+                livres.add(new Conexao());
+            }
+        }
+
+        // status da resposta, ou -1 se a conexão falhou
+        int enviar(String metodo, String caminho) throws InterruptedException {
+            Conexao conexao = livres.take();
+            try {
+                return conexao.enviar(porta, metodo, caminho);
+            } catch (IOException e) {
+                conexao.fechar();
+                return -1;
+            } finally {
+                livres.put(conexao);
+            }
+        }
+
+        @Override
+        public void close() {
+            livres.forEach(Conexao::fechar);
+        }
+    }
+
+    private static final class Conexao {
+
+        private Socket socket;
+        private BufferedInputStream entrada;
+        private OutputStream saida;
+
+        int enviar(int porta, String metodo, String caminho) throws IOException {
+            if (socket == null) {
+                socket = new Socket(InetAddress.getLoopbackAddress(), porta);
+                socket.setTcpNoDelay(true);
+                entrada = new BufferedInputStream(socket.getInputStream());
+                saida = socket.getOutputStream();
+            }
+            saida.write((metodo + " " + caminho + " HTTP/1.1\r\nHost: 127.0.0.1\r\nContent-Length: 0\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            saida.flush();
+            String statusLinha = linha();
+            int tamanho = 0;
+            for (String cabecalho = linha(); !cabecalho.isEmpty(); cabecalho = linha()) {
+                if (cabecalho.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    tamanho = Integer.parseInt(cabecalho.substring(15).trim());
+                }
+            }
+            if (entrada.readNBytes(tamanho).length != tamanho) {
+                throw new EOFException("resposta incompleta");
+            }
+            return Integer.parseInt(statusLinha.split(" ")[1]);
+        }
+
+        private String linha() throws IOException {
+            StringBuilder linha = new StringBuilder();
+            for (int b = entrada.read(); b != '\n'; b = entrada.read()) {
+                if (b < 0) {
+                    throw new EOFException("conexão fechada pelo servidor");
+                }
+                if (b != '\r') {
+                    linha.append((char) b);
+                }
+            }
+            return linha.toString();
+        }
+
+        void fechar() {
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // já estava fechada
+                }
+                socket = null;
+            }
+        }
+    }
+
+    private static double percentil(long[] ordenadas, double fracao) {
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(fracao * ordenadas.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,125 @@
+package br.com.infnet.banco.servidor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Rotas do servidor HTTP contra o H2, em uma porta livre.
+ */
+@SpringBootTest(args = "skip-cli", properties = {
+        "spring.datasource.url=jdbc:h2:mem:servidor;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "banco.servidor.porta=0"
+})
+@ActiveProfiles("h2")
+class ServidorDeContasIntegracaoTest {
+
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    @Autowired
+    private ServidorDeContas servidor;
+
+    private final HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private int porta;
+
+    @BeforeEach
+    void iniciar() {
+        porta = servidor.iniciar();
+    }
+
+    private HttpResponse<String> enviar(String metodo, String caminho) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + porta + caminho))
+                .method(metodo, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> enviarFormulario(String metodo, String caminho, String corpo) throws Exception {
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + porta + caminho))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .method(metodo, HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+        return cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private long criar(String titular, String saldo) throws Exception {
+        HttpResponse<String> resposta = enviarFormulario("POST", "/contas", "titular=" + titular + "&saldo=" + saldo);
+        assertEquals(201, resposta.statusCode(), resposta.body());
+        Matcher id = ID.matcher(resposta.body());
+        assertTrue(id.find(), resposta.body());
+        return Long.parseLong(id.group(1));
+    }
+
+    @Test
+    void atendeSoNoLoopback() throws Exception {
+        assertTrue(porta > 0);
+        assertEquals(porta, servidor.iniciar());
+        InetAddress externo = NetworkInterface.networkInterfaces()
+                .flatMap(NetworkInterface::inetAddresses)
+                .filter(endereco -> !endereco.isLoopbackAddress() && endereco instanceof Inet4Address)
+                .findFirst()
+                .orElse(null);
+        assumeTrue(externo != null, "sem interface de rede além do loopback");
+        try (Socket socket = new Socket()) {
+            assertThrows(IOException.class, () -> socket.connect(new InetSocketAddress(externo, porta), 1_000));
+        }
+    }
+
+    @Test
+    void operacoesDeContaPorHttp() throws Exception {
+        long origem = criar("Ana+Maria", "100.00");
+        long destino = criar("%22Bia%22", "10.00");
+
+        HttpResponse<String> consulta = enviar("GET", "/contas/" + destino);
+        assertEquals(200, consulta.statusCode());
+        assertTrue(consulta.body().contains("\"titular\":\"\\\"Bia\\\"\""), consulta.body());
+        assertTrue(consulta.body().startsWith("{\"id\":" + destino + ","), consulta.body());
+
+        assertTrue(enviar("POST", "/contas/" + origem + "/credito?valor=5.50").body().contains("\"saldo\":105.50"));
+        assertTrue(enviar("POST", "/contas/" + origem + "/debito?valor=0.50").body().contains("\"saldo\":105.00"));
+        assertTrue(enviar("PUT", "/contas/" + destino + "/saldo?valor=20").body().contains("\"saldo\":20.00"));
+        assertEquals(204, enviar("POST", "/transferencias?origem=" + origem + "&destino=" + destino + "&valor=5").statusCode());
+        assertTrue(enviar("GET", "/contas/" + destino).body().contains("\"saldo\":25.00"));
+        assertTrue(enviar("GET", "/contas/" + origem).body().contains("\"titular\":\"Ana Maria\""));
+
+        assertEquals(204, enviar("DELETE", "/contas/" + destino).statusCode());
+        assertEquals(404, enviar("GET", "/contas/" + destino).statusCode());
+    }
+
+    @Test
+    void errosViramCodigosHttp() throws Exception {
+        long id = criar("Erros", "1.00");
+
+        assertEquals(409, enviar("POST", "/contas/" + id + "/debito?valor=2.00").statusCode());
+        assertEquals(409, enviar("POST", "/transferencias?origem=" + id + "&destino=" + id + "&valor=1").statusCode());
+        assertEquals(404, enviar("POST", "/contas/999999/credito?valor=1").statusCode());
+        assertEquals(400, enviar("POST", "/contas/" + id + "/credito?valor=abc").statusCode());
+        assertEquals(400, enviar("POST", "/contas/" + id + "/credito").statusCode());
+        assertEquals(400, enviar("POST", "/contas/" + id + "/credito?valor=-1").statusCode());
+        assertEquals(400, enviar("GET", "/contas/xyz").statusCode());
+        assertEquals(405, enviar("GET", "/contas/" + id + "/credito?valor=1").statusCode());
+        assertEquals(404, enviar("GET", "/outra-coisa").statusCode());
+
+        HttpResponse<String> erro = enviar("POST", "/contas/" + id + "/debito?valor=2.00");
+        assertEquals("{\"erro\":\"Saldo insuficiente para realizar a operação.\"}", erro.body());
+    }
+}